@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.benchmarks.interop;
+
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Host code reading and writing the elements of large homogeneous Python sequences, element by
+ * element through the interop array messages and in bulk through {@code polyglot.storage_copy}.
+ */
+public class PyListAccess extends BenchRunner {
+
+    @Param({"10000000"}) public int arg1;
+
+    private Value floats;
+    private Value ints;
+    private Value storageCopy;
+
+    @Setup
+    public void setup() {
+        System.out.println("### setup ...");
+        Value create = this.context.eval("python", //
+                        "def create(n, factor):\n" + //
+                                        "    return [i * factor for i in range(n)]\n" + //
+                                        "create");
+        this.floats = create.execute(arg1, 0.5);
+        this.ints = create.execute(arg1, 1);
+        this.storageCopy = this.context.eval("python", //
+                        "import polyglot\n" + //
+                                        "polyglot.storage_copy");
+    }
+
+    @Benchmark
+    public void listAccess(Blackhole bh) {
+        long size = floats.getArraySize();
+        double sum = 0.0;
+        for (int i = 0; i < size; i++) {
+            double d = getd(floats, i);
+            setd(floats, i, d + 1.0);
+            sum += d;
+        }
+        long isum = 0;
+        for (int i = 0; i < size; i++) {
+            isum += geti(ints, i);
+        }
+        double[] copy = storageCopy.execute(floats).as(double[].class);
+        double bulkSum = 0.0;
+        for (int i = 0; i < copy.length; i++) {
+            bulkSum += copy[i];
+        }
+        bh.consume(sum);
+        bh.consume(isum);
+        bh.consume(bulkSum);
+        System.out.println(String.format("sum: %.1f, int sum: %d, bulk sum: %.1f", sum, isum, bulkSum));
+    }
+}
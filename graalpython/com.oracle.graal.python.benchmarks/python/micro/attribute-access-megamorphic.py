@@ -0,0 +1,93 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+# micro benchmark: attribute access at a megamorphic call site, i.e., with more
+# receiver classes than the inline caches can hold
+
+iteration = 2000
+
+
+class Task(object):
+    def __init__(self, foo):
+        self.foo = foo
+
+    def get_foo(self):
+        return self.foo
+
+
+class Task0(Task): pass
+class Task1(Task): pass
+class Task2(Task): pass
+class Task3(Task): pass
+class Task4(Task): pass
+class Task5(Task): pass
+class Task6(Task): pass
+class Task7(Task): pass
+class Task8(Task): pass
+class Task9(Task): pass
+class Task10(Task): pass
+class Task11(Task): pass
+class Task12(Task): pass
+class Task13(Task): pass
+class Task14(Task): pass
+class Task15(Task): pass
+
+
+TASK_LIST = [cls(i) for i, cls in enumerate([Task0, Task1, Task2, Task3, Task4, Task5, Task6, Task7,
+                                             Task8, Task9, Task10, Task11, Task12, Task13, Task14, Task15])]
+
+
+def do_stuff():
+    task_list = TASK_LIST
+    total = 0
+    for i in range(iteration):
+        for t in task_list:
+            total = (total + t.foo + t.get_foo()) % 7
+
+    return total
+
+
+def measure(num):
+    for i in range(num):
+        result = do_stuff()
+
+    print(result)
+
+
+def __benchmark__(num=1000):
+    measure(num)
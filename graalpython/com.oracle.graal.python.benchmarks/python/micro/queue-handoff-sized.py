@@ -0,0 +1,94 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+# cross-thread handoff through queue.SimpleQueue: a ping-pong round trip
+# measures the latency and a bulk transfer measures the throughput
+import queue
+import threading
+
+
+def ping_pong(num, requests, responses):
+    for i in range(num):
+        requests.put(i)
+        responses.get()
+
+
+def echo(requests, responses):
+    while True:
+        item = requests.get()
+        if item is None:
+            return
+        responses.put(item)
+
+
+def produce(num, items):
+    for i in range(num):
+        items.put(i)
+    items.put(None)
+
+
+def docompute(num):
+    requests = queue.SimpleQueue()
+    responses = queue.SimpleQueue()
+    echo_thread = threading.Thread(target=echo, args=(requests, responses))
+    echo_thread.start()
+    ping_pong(num, requests, responses)
+    requests.put(None)
+    echo_thread.join()
+
+    items = queue.SimpleQueue()
+    producer = threading.Thread(target=produce, args=(num * 10, items))
+    producer.start()
+    checksum = 0
+    item = items.get()
+    while item is not None:
+        checksum += item
+        item = items.get()
+    producer.join()
+    return checksum
+
+
+def measure(num):
+    for run in range(num):
+        result = docompute(10000)
+
+    print("checksum", result)
+
+
+def __benchmark__(num=20):
+    measure(num)
@@ -1,4 +1,4 @@
-# Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+# Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
 # DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
 #
 # The Universal Permissive License (UPL), Version 1.0
@@ -38,9 +38,30 @@
 # SOFTWARE.
 
 
-class Empty(Exception):
-    'Exception raised by Queue.get(block=0)/get_nowait().'
-    pass
+def lookup(d, i):
+    if i % 2:
+        raise KeyError(i)
+    return d
 
 
-SimpleQueue = None
+def count(num):
+    cnt = 0
+    d = {}
+    for i in range(num):
+        try:
+            lookup(d, i)
+        except KeyError:
+            pass
+        else:
+            cnt += 1
+
+    return cnt
+
+
+def measure(num):
+    result = count(num)
+    print("last value: %s " % result)
+
+
+def __benchmark__(num=1000000):
+    measure(num)
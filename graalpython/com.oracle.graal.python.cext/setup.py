@@ -237,57 +237,6 @@ class CAPIDependency:
         return self._include_install_dir
 
 
-class Bzip2Depedency(CAPIDependency):
-    makefile = "Makefile-libbz2_so"
-    header_name = "bzlib.h"
-    install_name = "libbz2.so.1.0"
-
-    def build(self, extracted_dir=None):
-        if not extracted_dir:
-            extracted_dir = self.download()
-        lib_src_folder = os.path.join(extracted_dir, self.package_name + "-" + self.version)
-        logger.info("Building dependency %s in %s using Makefile %s" % (self.package_name, lib_src_folder, self.makefile))
-
-        # On Darwin, we need to use -install_name for the native linker
-        if darwin_native:
-            makefile_path = os.path.join(lib_src_folder, self.makefile)
-            with open(makefile_path, "r") as f:
-                content = f.read()
-                content = content.replace("-Wl,-soname -Wl,%s" % self.install_name, "-Wl,-install_name -Wl,@rpath/%s" % self.install_name)
-            with open(makefile_path, "w") as f:
-                f.write(content)
-
-        parallel_arg =  "-j" + str(os.cpu_count()) if threaded else ""
-        system("make -C '%s' %s -f '%s' CC='%s'" % (lib_src_folder, parallel_arg, self.makefile, get_config_var("CC")), msg="Could not build libbz2")
-        return lib_src_folder
-
-    def install(self, build_dir=None):
-        if not build_dir:
-            build_dir = self.build()
-
-        # bzip2's Makefile will name the output file 'libb2.so.<version>'
-        lib_filename = "libbz2.so." + self.version
-        #lib_filename = "bzip2-shared"
-
-        # The destination file name will be 'libbz2.so'. The Makefile also creates a symbolic link called
-        # 'libbz2.so.1.0' which we could use but to be more platform-independent, we just rename the file.
-        dest_lib_filename = os.path.join(self.lib_install_dir, self.install_name)
-
-        logger.info("Installing dependency %s to %s" % (self.package_name, dest_lib_filename))
-        shutil.copy(os.path.join(build_dir, lib_filename), dest_lib_filename)
-
-        # also install the include file 'bzlib.h'
-        dest_include_filename = os.path.join(self.include_install_dir, self.header_name)
-
-        logger.info("Installing header file %s to %s" % (self.header_name, dest_include_filename))
-        shutil.copy(os.path.join(build_dir, self.header_name), dest_include_filename)
-
-        # create symlink 'libbz2.so' for linking
-        os.symlink(self.install_name, os.path.join(self.lib_install_dir, "lib%s.so" % self.lib_name))
-
-        return self.lib_install_dir
-
-
 class NativeBuiltinModule:
     def __init__(self, name, subdir="modules", files=None, deps=[], **kwargs):
         self.name = name
@@ -345,8 +294,6 @@ builtin_exts = (
     NativeBuiltinModule("_memoryview"),
     NativeBuiltinModule("_mmap"),
     NativeBuiltinModule("_cpython_struct"),
-    # the above modules are more core, we need them first to deal with later, more complex modules with dependencies
-    NativeBuiltinModule("_bz2", deps=[Bzip2Depedency("bz2", "bzip2==1.0.8", "BZIP2")], extra_link_args=["-Wl,-rpath,%s/../lib/%s/" % (relative_rpath, SOABI)]),
 )
 
 
@@ -495,6 +495,18 @@ PRIMITIVE_ARRAY_TO_NATIVE(Long, int64_t, i64, polyglot_as_i64);
 PRIMITIVE_ARRAY_TO_NATIVE(Double, double, double, polyglot_as_double);
 PRIMITIVE_ARRAY_TO_NATIVE(Object, PyObjectPtr, PyObjectPtr, (PyObjectPtr));
 
+/* To be used from Java code only.
+ * Grows the native element array of a list that went to native, like CPython's 'list_resize'.
+ * Returns NULL and leaves the array untouched if there is not enough memory. */
+void* PyTruffle_ObjectArrayRealloc(const void* array, int64_t capacity) {
+    PyObjectPtr* carr = (PyObjectPtr*) realloc((void*) array, (capacity + 1) * sizeof(PyObjectPtr));
+    if (carr == NULL) {
+        return NULL;
+    }
+    carr[capacity] = (PyObjectPtr)0;
+    return polyglot_from_PyObjectPtr_array(carr, capacity);
+}
+
 Py_ssize_t PyTruffle_Object_Size(PyObject *op) {
     return ((PyVarObject*)op)->ob_size;
 }
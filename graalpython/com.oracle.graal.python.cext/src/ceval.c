@@ -74,6 +74,94 @@ int PyEval_MergeCompilerFlags(PyCompilerFlags *cf) {
     return 0;
 }
 
+/* A C-level trace or profile function installed with 'PyEval_SetTrace' or 'PyEval_SetProfile'. */
+typedef struct {
+    Py_tracefunc func;
+    PyObject *obj;
+    /* the Python callable passed to 'sys.settrace' or 'sys.setprofile' (borrowed) */
+    PyObject *hook;
+} c_trace_hook;
+
+static const char* const trace_event_names[] = {"call", "exception", "line", "return", "c_call", "c_exception", "c_return", "opcode"};
+
+static void c_trace_hook_destructor(PyObject *capsule) {
+    c_trace_hook *data = (c_trace_hook *) PyCapsule_GetPointer(capsule, "c_trace_hook");
+    if (data != NULL) {
+        Py_XDECREF(data->obj);
+        PyMem_RawFree(data);
+    }
+}
+
+static PyObject* c_trace_hook_call(PyObject *capsule, PyObject *args) {
+    PyObject *frame, *event, *arg;
+    if (!PyArg_UnpackTuple(args, "c_trace_hook", 3, 3, &frame, &event, &arg)) {
+        return NULL;
+    }
+    c_trace_hook *data = (c_trace_hook *) PyCapsule_GetPointer(capsule, "c_trace_hook");
+    const char *event_name = PyUnicode_AsUTF8(event);
+    if (data == NULL || event_name == NULL) {
+        return NULL;
+    }
+    for (int what = 0; what < (int) (sizeof(trace_event_names) / sizeof(trace_event_names[0])); what++) {
+        if (strcmp(event_name, trace_event_names[what]) == 0) {
+            if (data->func(data->obj, (struct _frame *) frame, what, arg) < 0) {
+                return NULL;
+            }
+            break;
+        }
+    }
+    /* C-level trace functions receive the events of all frames, so we are also the local trace function */
+    Py_INCREF(data->hook);
+    return data->hook;
+}
+
+static PyMethodDef c_trace_hook_def = {"c_trace_hook", c_trace_hook_call, METH_VARARGS, NULL};
+
+/* Implements the C-level hooks by installing a Python callable that dispatches to the C function. */
+static void set_c_trace_hook(const char *setter, Py_tracefunc func, PyObject *obj) {
+    PyObject *sys = PyImport_ImportModule("sys");
+    if (sys == NULL) {
+        return;
+    }
+    PyObject *hook = Py_None;
+    Py_INCREF(hook);
+    if (func != NULL) {
+        c_trace_hook *data = (c_trace_hook *) PyMem_RawMalloc(sizeof(c_trace_hook));
+        if (data == NULL) {
+            PyErr_NoMemory();
+            Py_DECREF(hook);
+            return;
+        }
+        Py_XINCREF(obj);
+        data->func = func;
+        data->obj = obj;
+        PyObject *capsule = PyCapsule_New(data, "c_trace_hook", c_trace_hook_destructor);
+        if (capsule == NULL) {
+            Py_DECREF(hook);
+            return;
+        }
+        Py_DECREF(hook);
+        hook = PyCFunction_NewEx(&c_trace_hook_def, capsule, NULL);
+        Py_DECREF(capsule);
+        if (hook == NULL) {
+            return;
+        }
+        data->hook = hook;
+    }
+    PyObject *result = PyObject_CallMethod(sys, setter, "O", hook);
+    Py_XDECREF(result);
+    Py_DECREF(hook);
+    Py_DECREF(sys);
+}
+
+void PyEval_SetProfile(Py_tracefunc func, PyObject *obj) {
+    set_c_trace_hook("setprofile", func, obj);
+}
+
+void PyEval_SetTrace(Py_tracefunc func, PyObject *obj) {
+    set_c_trace_hook("settrace", func, obj);
+}
+
 UPCALL_ID(PyThread_allocate_lock);
 void* PyThread_allocate_lock() {
     return UPCALL_CEXT_O(_jls_PyThread_allocate_lock);
@@ -43,9 +43,11 @@ package com.oracle.graal.python.test.interop;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Context.Builder;
@@ -138,6 +140,58 @@ public class InteropLibraryTest extends PythonTests {
         assertPrints("True\n", source);
     }
 
+    @Test
+    public void testListArrayElements() {
+        Value list = v("[1, 2, 3]");
+        assertEquals(3, list.getArraySize());
+        assertEquals(2, list.getArrayElement(1).asInt());
+        list.setArrayElement(1, 2.5);
+        assertEquals(2.5, list.getArrayElement(1).asDouble(), 0);
+        list.setArrayElement(3, 4);
+        assertEquals(4, list.getArraySize());
+        assertEquals(4, list.getArrayElement(3).asInt());
+        try {
+            list.getArrayElement(4);
+            fail("expected out of bounds read to fail");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTypedSequenceArrayElements() {
+        Value array = v("import array; array.array('d', [1.0, 2.0])");
+        assertEquals(2.0, array.getArrayElement(1).asDouble(), 0);
+        array.setArrayElement(0, 3.0);
+        assertEquals(3.0, array.getArrayElement(0).asDouble(), 0);
+
+        Value byteArray = v("bytearray(b'ab')");
+        assertEquals('b', byteArray.getArrayElement(1).asInt());
+        byteArray.setArrayElement(1, 'c');
+        assertEquals('c', byteArray.getArrayElement(1).asInt());
+        try {
+            byteArray.setArrayElement(0, 1000);
+            fail("expected invalid byte value to be rejected");
+        } catch (ClassCastException e) {
+            // expected
+        }
+
+        Value bytes = v("b'xyz'");
+        assertEquals('z', bytes.getArrayElement(2).asInt());
+        Value tuple = v("(1.5, 'a')");
+        assertEquals(1.5, tuple.getArrayElement(0).asDouble(), 0);
+        assertEquals("a", tuple.getArrayElement(1).asString());
+    }
+
+    @Test
+    public void testStorageCopy() {
+        Value storageCopy = v("import polyglot; polyglot.storage_copy");
+        double[] doubles = storageCopy.execute(v("[i * 0.5 for i in range(5)]")).as(double[].class);
+        assertArrayEquals(new double[]{0.0, 0.5, 1.0, 1.5, 2.0}, doubles, 0);
+        int[] ints = storageCopy.execute(v("[1, 2, 3]")).as(int[].class);
+        assertArrayEquals(new int[]{1, 2, 3}, ints);
+    }
+
     @Test
     public void testIsNull() {
         assertTrue(v("None").isNull());
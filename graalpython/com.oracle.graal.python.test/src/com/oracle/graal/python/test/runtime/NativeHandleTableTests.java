@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.oracle.graal.python.builtins.objects.cext.PythonNativeWrapper;
+import com.oracle.graal.python.builtins.objects.cext.capi.NativeHandleTable;
+
+public class NativeHandleTableTests {
+
+    private static final class TestWrapper extends PythonNativeWrapper {
+        final long handle;
+
+        TestWrapper(long handle) {
+            this.handle = handle;
+        }
+    }
+
+    @Test
+    public void putGetRemove() {
+        NativeHandleTable table = new NativeHandleTable();
+        TestWrapper[] wrappers = new TestWrapper[1000];
+        for (int i = 1; i < wrappers.length; i++) {
+            wrappers[i] = new TestWrapper(i * 16L);
+            table.put(i * 16L, wrappers[i]);
+        }
+        assertEquals(wrappers.length - 1, table.size());
+        for (int i = 1; i < wrappers.length; i += 2) {
+            table.remove(i * 16L);
+        }
+        for (int i = 1; i < wrappers.length; i++) {
+            if (i % 2 == 0) {
+                assertSame(wrappers[i], table.get(i * 16L));
+            } else {
+                assertNull(table.get(i * 16L));
+            }
+        }
+        assertNull(table.get(0));
+    }
+
+    @Test
+    public void concurrentAccess() throws InterruptedException {
+        NativeHandleTable table = new NativeHandleTable();
+        int nThreads = 4;
+        int handlesPerThread = 2000;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < nThreads; t++) {
+            long base = (t + 1) * 1000000L;
+            threads.add(new Thread(() -> {
+                try {
+                    TestWrapper[] own = new TestWrapper[handlesPerThread];
+                    for (int round = 0; round < 20; round++) {
+                        for (int i = 0; i < handlesPerThread; i++) {
+                            own[i] = new TestWrapper(base + i * 8L);
+                            table.put(own[i].handle, own[i]);
+                        }
+                        for (int i = 0; i < handlesPerThread; i++) {
+                            // a lookup racing with a removal of another thread may miss, but it
+                            // must never return the wrapper of a different handle
+                            PythonNativeWrapper found = table.get(own[i].handle);
+                            if (found != null && found != own[i]) {
+                                throw new AssertionError("wrong wrapper for handle " + own[i].handle);
+                            }
+                        }
+                        for (int i = round % 2; i < handlesPerThread; i += 2) {
+                            table.remove(own[i].handle);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        // the last round removed the entries at odd indices of every thread
+        assertEquals(nThreads * handlesPerThread / 2, table.size());
+        for (int t = 0; t < nThreads; t++) {
+            long base = (t + 1) * 1000000L;
+            for (int i = 0; i < handlesPerThread; i++) {
+                PythonNativeWrapper found = table.get(base + i * 8L);
+                if (i % 2 == 0) {
+                    assertEquals(base + i * 8L, ((TestWrapper) found).handle);
+                } else {
+                    assertNull(found);
+                }
+            }
+        }
+    }
+}
@@ -37,6 +37,7 @@
 # OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 # SOFTWARE.
 
+import math
 import sys
 from . import CPyExtTestCase, CPyExtFunction, CPyExtFunctionOutVars, unhandled_error_compare, GRAALPYTHON
 __dir__ = __file__.rpartition("/")[0]
@@ -122,6 +123,27 @@ class TestPyFloat(CPyExtTestCase):
         callfunction="wrap_PyFloat_AsDouble",
     )
 
+    test_PyFloat_AsDouble_cached = CPyExtFunction(
+        lambda args: (args[0], math.copysign(1.0, args[0])),
+        lambda: (
+            (0.0,),
+            (-0.0,),
+            (1.0,),
+            (-5.0,),
+            (256.0,),
+            (256.5,),
+            (257.0,),
+        ),
+        code='''PyObject* wrap_PyFloat_AsDouble_cached(PyObject* obj) {
+            double res = PyFloat_AsDouble(obj);
+            return Py_BuildValue("(dd)", res, copysign(1.0, res));
+        }''',
+        resultspec="O",
+        argspec='O',
+        arguments=["PyObject* obj"],
+        callfunction="wrap_PyFloat_AsDouble_cached",
+    )
+
     test_PyFloat_FromDouble = CPyExtFunction(
         lambda args: float(args[0]),
         lambda: (
@@ -38,7 +38,7 @@
 # SOFTWARE.
 
 import sys
-from . import CPyExtTestCase, CPyExtFunction, CPyExtFunctionOutVars, unhandled_error_compare, GRAALPYTHON
+from . import CPyExtType, CPyExtTestCase, CPyExtFunction, CPyExtFunctionOutVars, unhandled_error_compare, GRAALPYTHON
 __dir__ = __file__.rpartition("/")[0]
 
 
@@ -323,3 +323,59 @@ class TestPyList(CPyExtTestCase):
         arguments=["PyObject* o"],
         cmpfunc=unhandled_error_compare
     )
+
+
+class TestNativeList(object):
+    def items_tuple_tester(self):
+        TestListItems = CPyExtType("TestListItems",
+                             """
+                             PyObject* items_tuple(PyObject* self, PyObject* list) {
+                                 PyObject** items = PySequence_Fast_ITEMS(list);
+                                 Py_ssize_t n = PyList_GET_SIZE(list);
+                                 PyObject* result = PyTuple_New(n);
+                                 Py_ssize_t i;
+                                 for (i = 0; i < n; i++) {
+                                     Py_INCREF(items[i]);
+                                     PyTuple_SET_ITEM(result, i, items[i]);
+                                 }
+                                 return result;
+                             }
+                             """,
+                             tp_methods='{"items_tuple", (PyCFunction)items_tuple, METH_O, ""}'
+        )
+        return TestListItems()
+
+    def test_append_after_native_access(self):
+        tester = self.items_tuple_tester()
+        lst = ["a", "b"]
+        assert tester.items_tuple(lst) == ("a", "b")
+        for i in range(40):
+            lst.append(i)
+        lst[0] = 1.5
+        assert tester.items_tuple(lst) == tuple([1.5, "b"] + list(range(40)))
+        assert len(lst) == 42 and lst[0] == 1.5 and lst[41] == 39
+
+    def test_mutate_after_native_access(self):
+        tester = self.items_tuple_tester()
+        lst = ["a", "b", "c"]
+        expected = list(lst)
+        assert tester.items_tuple(lst) == tuple(expected)
+
+        def check(op):
+            op(lst)
+            op(expected)
+            assert lst == expected, (lst, expected)
+            assert tester.items_tuple(lst) == tuple(expected)
+
+        check(lambda l: l.insert(0, "x"))
+        check(lambda l: l.insert(2, 42))
+        check(lambda l: l.insert(100, None))
+        check(lambda l: l.reverse())
+        check(lambda l: l.__setitem__(slice(1, 3), ["p", "q", "r", "s"]))
+        check(lambda l: l.__setitem__(slice(0, 4), ["t"]))
+        check(lambda l: l.__setitem__(slice(None, None, 2), l[::2][::-1]))
+        check(lambda l: l.__setitem__(slice(None), l))
+        check(lambda l: l.extend(range(20)))
+        check(lambda l: l.remove(42))
+        check(lambda l: l.pop(1))
+        check(lambda l: l.__delitem__(slice(2, 10)))
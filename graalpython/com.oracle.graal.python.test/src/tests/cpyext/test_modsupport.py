@@ -54,6 +54,12 @@ def _reference_typecheck(args, expected_type):
     return args[0][0]
 
 
+def _reference_long_format(args):
+    if not isinstance(args[0][10], str):
+        raise TypeError
+    return sum(args[0][:10]), args[0][10]
+
+
 class Indexable:
     def __int__(self):
         return 456
@@ -165,6 +171,30 @@ class TestModsupport(CPyExtTestCase):
         cmpfunc=unhandled_error_compare
     )
 
+    test_parseargs_long_format = CPyExtFunction(
+        _reference_long_format,
+        lambda: (
+            ((1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 'hello'),),
+            ((0, 0, 0, 0, 0, 0, 0, 0, 0, -1, ''),),
+            ((1, 2, 3, 4, 5, 6, 7, 8, 9, 10, [1]),),
+        ),
+        code='''
+        static PyObject* wrap_PyArg_ParseTuple(PyObject* argTuple) {
+            int i[10];
+            PyObject* out = NULL;
+            if (PyArg_ParseTuple(argTuple, "iiiiiiiii|iO!", &i[0], &i[1], &i[2], &i[3], &i[4], &i[5], &i[6], &i[7], &i[8], &i[9], &PyUnicode_Type, &out) == 0) {
+                return NULL;
+            }
+            return Py_BuildValue("(iO)", i[0] + i[1] + i[2] + i[3] + i[4] + i[5] + i[6] + i[7] + i[8] + i[9], out);
+        }
+        ''',
+        resultspec="O",
+        argspec="O",
+        arguments=["PyObject* argTuple"],
+        callfunction="wrap_PyArg_ParseTuple",
+        cmpfunc=unhandled_error_compare
+    )
+
     test_parseargs_H = CPyExtFunction(
         lambda args: args[1],
         lambda: (
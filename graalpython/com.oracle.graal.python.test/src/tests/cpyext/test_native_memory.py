@@ -0,0 +1,106 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import subprocess
+import sys
+
+from . import CPyExtType, GRAALPYTHON
+
+__dir__ = __file__.rpartition("/")[0]
+
+PAYLOAD_SIZE = 1 << 16
+
+
+def native_memory_probe_type():
+    return CPyExtType("NativeMemoryProbe",
+                      """
+                      static void* held = NULL;
+
+                      static PyObject* hold(PyObject* self, PyObject* size) {
+                          held = PyObject_Malloc((size_t) PyLong_AsSsize_t(size));
+                          Py_RETURN_NONE;
+                      }
+
+                      static PyObject* release(PyObject* self) {
+                          PyObject_Free(held);
+                          held = NULL;
+                          Py_RETURN_NONE;
+                      }
+                      """,
+                      cmembers="char payload[%d];" % PAYLOAD_SIZE,
+                      tp_methods='{"hold", (PyCFunction)hold, METH_O, ""}, {"release", (PyCFunction)release, METH_NOARGS, ""}')
+
+
+if GRAALPYTHON:
+    def test_native_memory_stats():
+        stats = __graalpython__.native_memory_stats()
+        for key in ("allocated", "total_allocated", "total_freed", "gc_reclaims", "stall_time_ns", "soft_watermark", "max"):
+            assert isinstance(stats[key], int), key
+            assert stats[key] >= 0, key
+        assert stats["allocated"] == stats["total_allocated"] - stats["total_freed"]
+        assert stats["allocated"] <= stats["max"]
+        assert 0 < stats["soft_watermark"] < stats["max"]
+
+    def test_native_memory_accounting():
+        probe = native_memory_probe_type()()
+        size = 1 << 20
+        before = __graalpython__.native_memory_stats()
+        probe.hold(size)
+        held = __graalpython__.native_memory_stats()
+        probe.release()
+        released = __graalpython__.native_memory_stats()
+        assert held["total_allocated"] - before["total_allocated"] >= size, (before, held)
+        assert released["total_freed"] - held["total_freed"] >= size, (held, released)
+
+    def test_native_memory_reclaim():
+        native_memory_probe_type()
+        max_native_memory = 256 * PAYLOAD_SIZE
+        # every object carries a native payload, so allocating many more than fit below the limit
+        # only succeeds if the payloads of unreachable objects are released on the way
+        code = ("import sys; sys.path.insert(0, %r); from NativeMemoryProbe import NativeMemoryProbe\n"
+                "for i in range(4096): NativeMemoryProbe()\n"
+                "stats = __graalpython__.native_memory_stats()\n"
+                "print(stats['total_freed'], stats['stall_time_ns'], stats['allocated'] <= stats['max'])") % __dir__
+        proc = subprocess.run([sys.executable, "--python.MaxNativeMemory=%d" % max_native_memory, "-c", code],
+                              stdout=subprocess.PIPE, stderr=subprocess.PIPE, universal_newlines=True)
+        assert proc.returncode == 0, proc.stderr
+        total_freed, stall_time_ns, below_max = proc.stdout.split()
+        assert int(total_freed) >= PAYLOAD_SIZE, proc.stdout
+        assert int(stall_time_ns) > 0, proc.stdout
+        assert below_max == "True", proc.stdout
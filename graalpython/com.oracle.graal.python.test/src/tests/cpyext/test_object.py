@@ -387,6 +387,26 @@ class TestObject(object):
         assert 1 >> tester == 123, "__rrshift__ failed"
         assert 1 @ tester == 123, "__rmatmul__ failed"
 
+    def test_handle_resolution(self):
+        TestHandles = CPyExtType("TestHandles",
+                             """
+                             PyObject* test_handles_add(PyObject* a, PyObject* b) {
+                                 return PyTuple_Pack(2, a, b);
+                             }
+                             """,
+                             nb_add="test_handles_add"
+        )
+        tester = TestHandles()
+        # resolving the same handle repeatedly must be stable
+        for i in range(100):
+            res = tester + tester
+            assert res[0] is tester and res[1] is tester
+        # handles of dead objects may be reused and must not resolve to stale objects
+        for i in range(1000):
+            obj = object()
+            res = tester + obj
+            assert res[1] is obj, "handle resolved to %r instead of %r" % (res[1], obj)
+
 
     def test_str_subclass(self):
         TestStrSubclass = CPyExtType("TestStrSubclass",
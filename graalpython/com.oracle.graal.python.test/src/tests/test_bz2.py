@@ -0,0 +1,108 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import bz2
+import unittest
+
+# produced by CPython's 'bz2.compress(b"hello world")'
+HELLO_BZ2 = (b'BZh91AY&SYD\xf7\x13x\x00\x00\x01\x91\x80@\x00\x06D\x90\x80 \x00"\x034\x840!\xb6\x81T\'\x8b\xb9"'
+             b'\x9c(H"{\x89\xbc\x00')
+
+DATA = b"".join(b"line %d: %s\n" % (i, b"x" * (i % 300)) for i in range(2000)) + bytes(range(256)) * 50
+
+
+class BZ2Tests(unittest.TestCase):
+
+    def test_compress_known_data(self):
+        self.assertEqual(bz2.compress(b"hello world"), HELLO_BZ2)
+        self.assertEqual(bz2.decompress(HELLO_BZ2), b"hello world")
+
+    def test_roundtrip(self):
+        for data in [b"", b"a", b"a" * 1000, bytes(range(256)), DATA]:
+            for level in [1, 9]:
+                self.assertEqual(bz2.decompress(bz2.compress(data, level)), data)
+
+    def test_incremental_compress(self):
+        comp = bz2.BZ2Compressor(1)
+        chunks = [comp.compress(memoryview(DATA)[i:i + 1000]) for i in range(0, len(DATA), 1000)]
+        chunks.append(comp.flush())
+        self.assertEqual(b"".join(chunks), bz2.compress(DATA, 1))
+
+    def test_incremental_decompress(self):
+        compressed = bz2.compress(DATA)
+        decomp = bz2.BZ2Decompressor()
+        self.assertTrue(decomp.needs_input)
+        out = []
+        for i in range(0, len(compressed), 10):
+            self.assertFalse(decomp.eof)
+            out.append(decomp.decompress(compressed[i:i + 10]))
+        self.assertTrue(decomp.eof)
+        self.assertFalse(decomp.needs_input)
+        self.assertEqual(b"".join(out), DATA)
+        self.assertRaises(EOFError, decomp.decompress, b"")
+
+    def test_decompress_max_length(self):
+        decomp = bz2.BZ2Decompressor()
+        out = decomp.decompress(bz2.compress(DATA), 100)
+        self.assertEqual(len(out), 100)
+        self.assertFalse(decomp.needs_input)
+        while not decomp.eof:
+            chunk = decomp.decompress(b"", 1000)
+            self.assertLessEqual(len(chunk), 1000)
+            out += chunk
+        self.assertEqual(out, DATA)
+
+    def test_unused_data(self):
+        decomp = bz2.BZ2Decompressor()
+        self.assertEqual(decomp.decompress(HELLO_BZ2 + b"trailing"), b"hello world")
+        self.assertEqual(decomp.unused_data, b"trailing")
+
+    def test_multi_stream(self):
+        self.assertEqual(bz2.decompress(HELLO_BZ2 + bz2.compress(DATA) + HELLO_BZ2), b"hello world" + DATA + b"hello world")
+
+    def test_errors(self):
+        self.assertRaises(ValueError, bz2.BZ2Compressor, 0)
+        self.assertRaises(ValueError, bz2.BZ2Compressor, 10)
+        comp = bz2.BZ2Compressor()
+        comp.flush()
+        self.assertRaises(ValueError, comp.compress, b"x")
+        self.assertRaises(ValueError, comp.flush)
+        self.assertRaises(TypeError, bz2.BZ2Compressor().compress, "str")
+        self.assertRaises(OSError, bz2.decompress, b"BZh9" + b"\x00" * 100)
+        self.assertRaises(ValueError, bz2.decompress, HELLO_BZ2[:-5])
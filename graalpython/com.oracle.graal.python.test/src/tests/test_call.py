@@ -324,3 +324,30 @@ def test_parse_args():
     assert_call_raises(TypeError, "f25(1,2,3,c=6)")  # TypeError: f25() missing 1 required keyword-only argument: 'a'
     assert_parses("f25(a=4,c=6)")
     assert_parses("f25(a=4)")
+
+
+def test_keyword_call_site_repeated():
+    def f(a, b=2, *, c, d=4):
+        return (a, b, c, d)
+
+    def g(a, **kw):
+        return (a, kw)
+
+    for i in range(5):
+        assert f(i, c=3) == (i, 2, 3, 4)
+        assert f(c=i, a=1, d=5) == (1, 2, i, 5)
+        assert f(i, d=i, b=0, c=1) == (i, 0, 1, i)
+        assert g(i, x=1, a2=2) == (i, {"x": 1, "a2": 2})
+        assert g(a=i) == (i, {})
+        assert g(**{"a": i, "y": 3}) == (i, {"y": 3})
+
+    for i in range(3):
+        for call, msg in [(lambda: f(1, a=2, c=3), "multiple values"),
+                          (lambda: f(1, c=3, e=5), "unexpected keyword"),
+                          (lambda: f(1, c=3, e=5, g=6), "unexpected keyword")]:
+            try:
+                call()
+            except TypeError as e:
+                assert msg in str(e), str(e)
+            else:
+                assert False
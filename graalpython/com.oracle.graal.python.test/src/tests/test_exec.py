@@ -336,3 +336,25 @@ class ExecTests:
         def fn():
             exec(b'\xef\xbb\xbf#encoding:latin-1\nx = "\xe9\xa7\x84\xe7\x9b\xae"')
         raises(SyntaxError, fn)
+
+    def test_exec_same_source_repeatedly(self):
+        src = "def f(a):\n    return a + n\nresult = f(1)\n"
+        namespaces = []
+        for n in range(3):
+            ns = {'n': n}
+            exec(src, ns)
+            namespaces.append(ns)
+        assert [ns['result'] for ns in namespaces] == [1, 2, 3]
+        assert namespaces[0]['f'] is not namespaces[1]['f']
+        assert namespaces[2]['f'](10) == 12
+
+    def test_compile_same_source_repeatedly(self):
+        c1 = compile("x + 1", "<generated>", "eval")
+        c2 = compile("x + 1", "<generated>", "eval")
+        c3 = compile("x + 1", "<other>", "eval")
+        assert c1 is not c2
+        assert c1.co_filename == c2.co_filename == "<generated>"
+        assert c3.co_filename == "<other>"
+        assert eval(c1, {'x': 1}) == 2
+        assert eval(c2, {'x': 2}) == 3
+        assert eval(compile("x + 1", "<generated>", "exec"), {'x': 1}) is None
@@ -37,6 +37,8 @@
 # OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
 # SOFTWARE.
 
+import sys
+
 
 def assert_raises(err, fn, *args, **kwargs):
     raised = False
@@ -249,3 +251,79 @@ def test_function_text_signature_writable():
     def foo(): pass
     foo.__text_signature__ = 'foo()'
     assert foo.__text_signature__ == 'foo()'
+
+
+def test_uncalled_function_introspection():
+    def outer(a, *args, **kwargs):
+        "outer doc"
+        x = "a constant"
+        def inner():
+            return x
+        return inner
+
+    # nothing below requires 'outer' to be called before
+    assert outer.__doc__ == "outer doc"
+    assert "a constant" in outer.__code__.co_consts
+    assert outer.__code__.co_flags & 0x04
+    assert outer.__code__.co_flags & 0x08
+    assert outer(1)() == "a constant"
+    assert outer.__doc__ == "outer doc"
+
+
+def test_concurrent_first_calls():
+    import threading
+
+    def target(n):
+        "doc"
+        total = 0
+        for i in range(n):
+            total += i
+        return total
+
+    results = []
+
+    def run():
+        results.append(target(10))
+
+    threads = [threading.Thread(target=run) for i in range(8)]
+    for t in threads:
+        t.start()
+    for t in threads:
+        t.join()
+    assert results == [45] * 8
+
+
+def test_syntax_error_in_function_body_on_import():
+    import os
+    import tempfile
+    with tempfile.TemporaryDirectory() as tmpdir:
+        with open(os.path.join(tmpdir, "body_syntax_error.py"), "w") as f:
+            f.write("x = 1\ndef f():\n    g() = x\n")
+        sys.path.insert(0, tmpdir)
+        try:
+            import body_syntax_error
+        except SyntaxError as e:
+            assert e.lineno == 3, e.lineno
+        else:
+            assert False, "SyntaxError in a function body was not reported on import"
+        finally:
+            sys.path.remove(tmpdir)
+            sys.modules.pop("body_syntax_error", None)
+
+
+if sys.implementation.name == "graalpython":
+    def test_lazy_function_bodies():
+        import os
+        import subprocess
+        import tempfile
+        with tempfile.TemporaryDirectory() as tmpdir:
+            with open(os.path.join(tmpdir, "lazybodies.py"), "w") as f:
+                f.write("def f(n):\n    'doc'\n    return [i * 2 for i in range(n)]\n"
+                        "def g():\n    h() = 1\n")
+            proc = subprocess.run([sys.executable, "--experimental-options", "--python.LazyFunctionBodies", "-c",
+                                   "import sys; sys.path.insert(0, %r); import lazybodies as m\n"
+                                   "print(m.f.__doc__, m.f(3))\n"
+                                   "try:\n    m.g()\nexcept SyntaxError as e:\n    print(e.lineno)" % tmpdir],
+                                  stdout=subprocess.PIPE, stderr=subprocess.PIPE, universal_newlines=True)
+            assert proc.returncode == 0, proc.stderr
+            assert proc.stdout.split() == ["doc", "[0,", "2,", "4]", "5"], proc.stdout
@@ -154,3 +154,55 @@ def test_import_package_all() :
         assert hasattr(package1, expected_sym), "'package1' does not have attribute '%s'" % expected_sym
         cnt += 1
     assert package1.exported.__testname__ == "package1.exported", "expected 'test_import_package_all' but was '%s'" % str(package1.exported.__testname__)
+
+
+if sys.implementation.name == "graalpython":
+    def test_import_prefetch():
+        import io
+        import os
+        import subprocess
+        import tempfile
+        with tempfile.TemporaryDirectory() as tmpdir:
+            pkg = os.path.join(tmpdir, "prefetchpkg")
+            os.mkdir(pkg)
+            files = {
+                os.path.join(tmpdir, "prefetchmain.py"): "import prefetchpkg.sub\nfrom prefetchpkg import other\ntry:\n    import prefetchbroken\nexcept SyntaxError as e:\n    broken = e.lineno\n",
+                os.path.join(tmpdir, "prefetchbroken.py"): "x = 1\ndef f(:\n",
+                os.path.join(pkg, "__init__.py"): "from . import helper\n",
+                os.path.join(pkg, "helper.py"): "value = 1\n",
+                os.path.join(pkg, "sub.py"): "from .helper import value\nresult = value + 1\n",
+                os.path.join(pkg, "other.py"): "name = __name__\n",
+            }
+            for path, code in files.items():
+                with io.open(path, "w") as f:
+                    f.write(code)
+            proc = subprocess.run([sys.executable, "--experimental-options", "--python.ImportPrefetch", "-c",
+                                   "import sys; sys.path.insert(0, %r); import prefetchmain as m; "
+                                   "print(m.prefetchpkg.sub.result, m.other.name, m.broken)" % tmpdir],
+                                  stdout=subprocess.PIPE, stderr=subprocess.PIPE, universal_newlines=True)
+            assert proc.returncode == 0, proc.stderr
+            assert proc.stdout.strip() == "2 prefetchpkg.other 2", proc.stdout
+
+    def test_import_prefetch_result_used():
+        import io
+        import os
+        import subprocess
+        import tempfile
+        with tempfile.TemporaryDirectory() as tmpdir:
+            used = os.path.join(tmpdir, "prefetchused.py")
+            files = {
+                # give the background parse plenty of time to finish before the import
+                os.path.join(tmpdir, "prefetchslow.py"): "import time\ntime.sleep(2)\nimport prefetchused\n",
+                used: "value = 42\n",
+            }
+            for path, code in files.items():
+                with io.open(path, "w") as f:
+                    f.write(code)
+            proc = subprocess.run([sys.executable, "--experimental-options", "--python.ImportPrefetch", "--python.ParserLogFiles", "-c",
+                                   "import sys; sys.path.insert(0, %r); import prefetchslow as m; "
+                                   "print(m.prefetchused.value)" % tmpdir],
+                                  stdout=subprocess.PIPE, stderr=subprocess.PIPE, universal_newlines=True)
+            assert proc.returncode == 0, proc.stderr
+            lines = proc.stdout.splitlines()
+            assert lines[-1] == "42", proc.stdout
+            assert "Using prefetched parse of: " + used in lines, proc.stdout
@@ -82,6 +82,49 @@ def test_bigint_mul():
     assert 99999937497465632974931 * (2**100) == 126764980791447734004805377032945185921379990352429056
 
 
+def test_int128_arith():
+    max64 = 9223372036854775807
+    min64 = -9223372036854775808
+    max128 = 170141183460469231731687303715884105727
+    min128 = -170141183460469231731687303715884105728
+    assert max64 + 1 == 9223372036854775808
+    assert min64 - 1 == -9223372036854775809
+    assert -min64 == 9223372036854775808
+    assert min64 * -1 == 9223372036854775808
+    assert max64 * max64 == 85070591730234615847396907784232501249
+    assert min64 * min64 == 85070591730234615865843651857942052864
+    assert max128 + 1 == 170141183460469231731687303715884105728
+    assert min128 - 1 == -170141183460469231731687303715884105729
+    assert max128 - max128 == 0
+    assert (max128 + 1) - 1 == max128
+    assert -min128 == 170141183460469231731687303715884105728
+    assert min128 * -1 == 170141183460469231731687303715884105728
+    assert (max64 + 1) * (max64 + 1) == 85070591730234615865843651857942052864
+    assert (max64 + 2) * (max64 + 2) == 85070591730234615884290395931651604481
+    assert 18446744073709551616 * 9223372036854775808 == max128 + 1
+    assert -18446744073709551616 * 9223372036854775808 == min128
+    assert (max128 + 1) - 9223372036854775808 == 170141183460469231722463931679029329920
+    assert 1 << 127 == max128 + 1
+    assert -1 << 127 == min128
+    assert 3 << 126 == 255211775190703847597530955573826158592
+    assert (max64 + 1) << 63 == 85070591730234615865843651857942052864
+    assert max128 >> 64 == max64
+    assert min128 >> 64 == min64
+    assert min128 >> 200 == -1
+    assert (max128 >> 1) << 1 == max128 - 1
+    assert (max128 & (max64 + 1)) == max64 + 1
+    assert (min128 | 1) == -170141183460469231731687303715884105727
+    assert (max128 ^ -1) == min128
+    assert ~max128 == min128
+    assert (max128 + 1) & max128 == 0
+    assert (-(max64 + 1) - 1) & 0xff == 0xff
+    assert (max64 + 1) < (max64 + 2)
+    assert -(max64 + 2) < -(max64 + 1)
+    assert min128 < max128
+    assert (max128 + 1) > max128
+    assert int(max64 + 1) - 1 == max64
+
+
 def test_int_from_custom():
     class CustomInt4():
         def __int__(self):
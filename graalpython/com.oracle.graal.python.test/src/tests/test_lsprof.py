@@ -0,0 +1,131 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import _lsprof
+
+
+def fib(n):
+    if n < 2:
+        return n
+    return fib(n - 1) + fib(n - 2)
+
+
+def caller():
+    return fib(5) + fib(3)
+
+
+def stats_for(prof, func):
+    for entry in prof.getstats():
+        code = entry.code
+        if not isinstance(code, str) and code.co_name == func.__name__:
+            return entry
+    return None
+
+
+def test_callcount():
+    prof = _lsprof.Profiler()
+    prof.enable()
+    caller()
+    prof.disable()
+    entry = stats_for(prof, fib)
+    assert entry is not None
+    # fib(5) takes 15 calls, fib(3) takes 5 calls
+    assert entry.callcount == 20, entry.callcount
+    assert entry.reccallcount == 18, entry.reccallcount
+    assert entry.totaltime >= 0
+    assert entry.inlinetime >= 0
+    entry = stats_for(prof, caller)
+    assert entry.callcount == 1
+    assert entry.reccallcount == 0
+    subentries = {c.code.co_name: c for c in entry.calls if not isinstance(c.code, str)}
+    assert subentries["fib"].callcount == 2, subentries["fib"].callcount
+
+
+def test_subcalls_disabled():
+    prof = _lsprof.Profiler(subcalls=False)
+    prof.enable()
+    caller()
+    prof.disable()
+    assert stats_for(prof, caller).calls is None
+    assert stats_for(prof, fib).callcount == 20
+
+
+def test_clear_and_disabled():
+    prof = _lsprof.Profiler()
+    prof.enable()
+    fib(2)
+    prof.disable()
+    fib(2)
+    assert stats_for(prof, fib).callcount == 3
+    prof.clear()
+    assert stats_for(prof, fib) is None
+
+
+def test_external_timer():
+    ticks = [0]
+
+    def timer():
+        ticks[0] += 1
+        return ticks[0]
+
+    prof = _lsprof.Profiler(timer, 0.5)
+    prof.enable()
+    fib(1)
+    prof.disable()
+    entry = stats_for(prof, fib)
+    assert entry.callcount == 1
+    # one tick between entering and leaving fib, scaled by the time unit
+    assert entry.totaltime == 0.5, entry.totaltime
+    assert entry.inlinetime == 0.5, entry.inlinetime
+
+
+def test_external_float_timer_with_timeunit():
+    ticks = [0.0]
+
+    def timer():
+        ticks[0] += 0.25
+        return ticks[0]
+
+    prof = _lsprof.Profiler(timer, 0.5)
+    prof.enable()
+    fib(1)
+    prof.disable()
+    entry = stats_for(prof, fib)
+    assert entry.callcount == 1
+    assert entry.totaltime == 0.125, entry.totaltime
@@ -0,0 +1,129 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import io
+import lzma
+import unittest
+
+DATA = b"".join(b"line %d: %s\n" % (i, b"x" * (i % 300)) for i in range(2000)) + bytes(range(256)) * 50
+
+
+class LZMADecompressorTests(unittest.TestCase):
+
+    def decompress_incrementally(self, compressed, chunk_size, max_length=-1, **kwargs):
+        decomp = lzma.LZMADecompressor(**kwargs)
+        out = []
+        pos = 0
+        while not decomp.eof:
+            if decomp.needs_input:
+                self.assertLess(pos, len(compressed))
+                chunk = compressed[pos:pos + chunk_size]
+                pos += chunk_size
+            else:
+                chunk = b""
+            data = decomp.decompress(chunk, max_length)
+            if max_length >= 0:
+                self.assertLessEqual(len(data), max_length)
+            out.append(data)
+        self.assertFalse(decomp.needs_input)
+        return b"".join(out), decomp
+
+    def test_roundtrip(self):
+        for data in [b"", b"a", b"a" * 1000, bytes(range(256)), DATA]:
+            for fmt in [lzma.FORMAT_XZ, lzma.FORMAT_ALONE]:
+                self.assertEqual(lzma.decompress(lzma.compress(data, format=fmt)), data)
+
+    def test_incremental_decompress(self):
+        for fmt in [lzma.FORMAT_XZ, lzma.FORMAT_ALONE]:
+            compressed = lzma.compress(DATA, format=fmt)
+            for chunk_size in [1, 7, 1000]:
+                data, decomp = self.decompress_incrementally(compressed, chunk_size)
+                self.assertEqual(data, DATA)
+                self.assertEqual(decomp.unused_data, b"")
+                self.assertRaises(EOFError, decomp.decompress, b"")
+
+    def test_decompress_max_length(self):
+        compressed = lzma.compress(DATA)
+        for max_length in [1, 100, 8192]:
+            data, _ = self.decompress_incrementally(compressed, 500, max_length)
+            self.assertEqual(data, DATA)
+
+    def test_needs_input(self):
+        compressed = lzma.compress(DATA)
+        decomp = lzma.LZMADecompressor()
+        self.assertTrue(decomp.needs_input)
+        self.assertEqual(len(decomp.decompress(compressed, 10)), 10)
+        self.assertFalse(decomp.needs_input)
+        decomp = lzma.LZMADecompressor()
+        decomp.decompress(compressed[:len(compressed) // 2])
+        self.assertTrue(decomp.needs_input)
+        self.assertFalse(decomp.eof)
+
+    def test_unused_data(self):
+        compressed = lzma.compress(b"first") + b"trailing garbage"
+        decomp = lzma.LZMADecompressor()
+        self.assertEqual(decomp.decompress(compressed), b"first")
+        self.assertTrue(decomp.eof)
+        self.assertEqual(decomp.unused_data, b"trailing garbage")
+
+    def test_check(self):
+        for check in [lzma.CHECK_NONE, lzma.CHECK_CRC32, lzma.CHECK_CRC64, lzma.CHECK_SHA256]:
+            decomp = lzma.LZMADecompressor()
+            self.assertEqual(decomp.check, lzma.CHECK_UNKNOWN)
+            self.assertEqual(decomp.decompress(lzma.compress(DATA, check=check)), DATA)
+            self.assertEqual(decomp.check, check)
+        decomp = lzma.LZMADecompressor()
+        decomp.decompress(lzma.compress(DATA, format=lzma.FORMAT_ALONE))
+        self.assertEqual(decomp.check, lzma.CHECK_NONE)
+
+    def test_filters(self):
+        filters = [{"id": lzma.FILTER_DELTA, "dist": 4}, {"id": lzma.FILTER_LZMA2}]
+        self.assertEqual(lzma.decompress(lzma.compress(DATA, filters=filters)), DATA)
+
+    def test_corrupt_data(self):
+        compressed = bytearray(lzma.compress(DATA))
+        compressed[len(compressed) // 2] ^= 0xFF
+        self.assertRaises(lzma.LZMAError, lzma.decompress, bytes(compressed))
+        self.assertRaises(lzma.LZMAError, lzma.LZMADecompressor(lzma.FORMAT_XZ).decompress, b"this is not xz data")
+
+    def test_open(self):
+        stream = io.BytesIO(lzma.compress(DATA))
+        with lzma.open(stream) as f:
+            self.assertEqual(f.readline(), DATA[:DATA.index(b"\n") + 1])
+            self.assertEqual(f.read(), DATA[DATA.index(b"\n") + 1:])
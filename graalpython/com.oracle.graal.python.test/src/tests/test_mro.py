@@ -206,3 +206,74 @@ def test_class_with_slots_assignment():
         assert True
     else:
         assert False
+
+
+def test_megamorphic_class_attr_change():
+    class Base():
+        def m(self):
+            return "base"
+
+    class Middle(Base):
+        pass
+
+    classes = [type("C%d" % i, (Middle if i % 2 else Base,), {}) for i in range(20)]
+    classes[3].m = lambda self: "own"
+
+    def call_all():
+        return [c().m() for c in classes]
+
+    def expected(base, middle):
+        return ["own" if i == 3 else (middle if i % 2 else base) for i in range(20)]
+
+    for i in range(3):
+        assert call_all() == expected("base", "base")
+
+    Base.m = lambda self: "new base"
+    assert call_all() == expected("new base", "new base")
+
+    Middle.m = lambda self: "middle"
+    assert call_all() == expected("new base", "middle")
+
+    del Middle.m
+    del Base.m
+    for c in classes:
+        assert not hasattr(c(), "m") or c is classes[3]
+
+
+def test_slots_unassigned_and_inherited():
+    class Point():
+        __slots__ = "x", "y"
+
+    class Point3D(Point):
+        __slots__ = "z",
+
+    class Named(Point3D):
+        pass
+
+    for cls in (Point, Point3D, Named):
+        p = cls()
+        try:
+            p.x
+        except AttributeError:
+            pass
+        else:
+            assert False, "unassigned slot must raise AttributeError"
+        assert not hasattr(p, "y")
+        p.x = 1
+        p.y = "two"
+        assert (p.x, p.y) == (1, "two")
+        del p.x
+        assert not hasattr(p, "x")
+        p.x = 3.0
+        assert p.x == 3.0
+
+    p = Point3D()
+    p.z = [1]
+    assert p.z == [1]
+    assert not hasattr(Point(), "z")
+
+    n = Named()
+    n.z = 5
+    n.other = 6
+    assert (n.z, n.other) == (5, 6)
+    assert "z" not in n.__dict__
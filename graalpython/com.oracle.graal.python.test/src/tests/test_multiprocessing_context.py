@@ -0,0 +1,118 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import sys
+
+
+def _square(x):
+    return x * x
+
+
+def _exit_with(code):
+    sys.exit(code)
+
+
+def _echo(conn):
+    conn.send(conn.recv())
+    conn.close()
+
+
+def _crash_holding(conn):
+    raise RuntimeError("child crashed without closing %r" % conn)
+
+
+if sys.implementation.name == "graalpython":
+    import multiprocessing
+
+    def test_channel_pipe():
+        ctx = multiprocessing.get_context('graalpy-context')
+        r, w = ctx.Pipe(duplex=False)
+        w.send_bytes(b"hello")
+        w.send([1, 2, 3])
+        assert r.poll(1)
+        assert r.recv_bytes() == b"hello"
+        assert r.recv() == [1, 2, 3]
+        w.close()
+        try:
+            r.recv()
+        except EOFError:
+            pass
+        else:
+            assert False, "expected EOFError"
+        r.close()
+
+    def test_process_exitcode():
+        ctx = multiprocessing.get_context('graalpy-context')
+        p = ctx.Process(target=_exit_with, args=(3,))
+        p.start()
+        p.join(60)
+        assert p.exitcode == 3, p.exitcode
+
+    def test_process_connection():
+        ctx = multiprocessing.get_context('graalpy-context')
+        parent, child = ctx.Pipe()
+        p = ctx.Process(target=_echo, args=(child,))
+        p.start()
+        parent.send({"a": 1})
+        assert parent.recv() == {"a": 1}
+        p.join(60)
+        assert p.exitcode == 0, p.exitcode
+
+    def test_pool_map():
+        ctx = multiprocessing.get_context('graalpy-context')
+        with ctx.Pool(2) as pool:
+            assert pool.map(_square, range(10)) == [x * x for x in range(10)]
+
+    def test_exited_child_closes_its_handles():
+        ctx = multiprocessing.get_context('graalpy-context')
+        r, w = ctx.Pipe(duplex=False)
+        p = ctx.Process(target=_crash_holding, args=(w,))
+        p.start()
+        # the child now holds the only write end
+        w.close()
+        p.join(60)
+        assert p.exitcode == 1, p.exitcode
+        assert r.poll(60), "write end of the exited child was not closed"
+        try:
+            r.recv()
+        except EOFError:
+            pass
+        else:
+            assert False, "expected EOFError"
+        r.close()
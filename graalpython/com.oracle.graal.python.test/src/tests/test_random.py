@@ -178,3 +178,36 @@ class TestBasicOps:
         randrange = self.gen.randrange
         k = sum(randrange(6755399441055744) % 3 == 2 for i in range(n))
         self.assertTrue(0.30 < k/n < .37, (k/n))
+
+    def test_cpython_compatible_sequence(self):
+        # values produced by CPython's Mersenne Twister for the same seeds
+        r = random.Random(42)
+        self.assertEqual(r.random(), 0.6394267984578837)
+        self.assertEqual(r.getrandbits(32), 107420369)
+        self.assertEqual(r.getrandbits(64), 5073395517033431291)
+        self.assertEqual(r.getrandbits(100), 882565121070403957190206503824)
+        self.assertEqual(random.Random(-5).random(), random.Random(5).random())
+        self.assertRaises(ValueError, r.getrandbits, 0)
+
+    def test_internal_state(self):
+        r = random.Random(1234)
+        version, internalstate, gauss_next = r.getstate()
+        self.assertEqual(len(internalstate), 625)
+        expected = [r.random() for i in range(1000)]
+        r.setstate((version, internalstate, gauss_next))
+        self.assertEqual(expected, [r.random() for i in range(1000)])
+        self.assertRaises(ValueError, r.setstate, (version, internalstate[:-1], None))
+        self.assertRaises(ValueError, r.setstate, (version, internalstate[:-1] + (700,), None))
+
+    def test_fill(self):
+        import array
+        r = random.Random(7)
+        buf = bytearray(7)
+        r.fill(buf)
+        self.assertEqual(bytes(buf), random.Random(7).getrandbits(56).to_bytes(7, 'little'))
+        doubles = array.array('d', [0.0] * 5)
+        r.seed(7)
+        r.fill(doubles)
+        r.seed(7)
+        self.assertEqual(list(doubles), [r.random() for i in range(5)])
+        self.assertRaises(TypeError, r.fill, [1, 2])
@@ -0,0 +1,236 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import sys
+import threading
+
+
+def traced_function(n):
+    total = 0
+    for i in range(n):
+        total += i
+    return total
+
+
+def single_line_loop(n):
+    total = 0
+    for i in range(n): total += i
+    return total
+
+
+def single_line_statements():
+    x = 1; y = 2
+    return x + y
+
+
+def raising_function():
+    raise ValueError("expected")
+
+
+def catching_function():
+    try:
+        raise ValueError("expected")
+    except ValueError:
+        pass
+    return 1
+
+
+def calling_raising_function():
+    try:
+        raising_function()
+    except ValueError:
+        return 2
+
+
+def record_trace(func, *args):
+    events = []
+
+    def tracer(frame, event, arg):
+        if frame.f_code is func.__code__:
+            events.append((event, frame.f_lineno - func.__code__.co_firstlineno, arg))
+            return tracer
+        return None
+
+    sys.settrace(tracer)
+    try:
+        func(*args)
+    except Exception:
+        pass
+    finally:
+        sys.settrace(None)
+    return events
+
+
+def test_gettrace():
+    def tracer(frame, event, arg):
+        return None
+
+    assert sys.gettrace() is None
+    sys.settrace(tracer)
+    try:
+        assert sys.gettrace() is tracer
+    finally:
+        sys.settrace(None)
+    assert sys.gettrace() is None
+
+
+def test_call_line_return():
+    events = record_trace(traced_function, 3)
+    assert events[0] == ("call", 0, None), events
+    assert events[-1] == ("return", 4, 3), events
+    lines = [line for event, line, arg in events if event == "line"]
+    assert lines[0] == 1, lines
+    assert 2 in lines and 3 in lines and 4 in lines, lines
+
+
+def test_line_events_of_loop_body():
+    # the first iteration is covered by the event of the loop header and each further iteration
+    # reports the line again; unlike CPython, the final check of the exhausted iterator is not
+    # reported, because it is not a statement
+    events = record_trace(single_line_loop, 3)
+    lines = [line for event, line, arg in events if event == "line"]
+    assert lines == [1, 2, 2, 2, 3], lines
+
+
+def test_line_events_of_single_line_statements():
+    events = record_trace(single_line_statements)
+    lines = [line for event, line, arg in events if event == "line"]
+    assert lines == [1, 2], lines
+
+
+def test_exception_event():
+    events = record_trace(raising_function)
+    kinds = [event for event, line, arg in events]
+    assert kinds[0] == "call", kinds
+    assert "exception" in kinds, kinds
+    assert kinds[-1] == "return", kinds
+    exc_type, exc_value, exc_tb = [arg for event, line, arg in events if event == "exception"][0]
+    assert exc_type is ValueError
+    assert isinstance(exc_value, ValueError)
+    assert events[-1][2] is None
+
+
+def test_exception_event_of_caught_exception():
+    events = record_trace(catching_function)
+    exceptions = [(line, arg) for event, line, arg in events if event == "exception"]
+    assert len(exceptions) == 1, events
+    assert exceptions[0][0] == 2, events
+    assert exceptions[0][1][0] is ValueError, events
+    assert events[-1] == ("return", 5, 1), events
+
+
+def test_exception_event_of_propagated_exception():
+    events = record_trace(calling_raising_function)
+    exceptions = [line for event, line, arg in events if event == "exception"]
+    assert exceptions == [2], events
+    assert events[-1] == ("return", 4, 2), events
+
+
+def test_local_trace_function():
+    lines = []
+
+    def local(frame, event, arg):
+        if event == "line":
+            lines.append(frame.f_lineno - traced_function.__code__.co_firstlineno)
+        return local
+
+    def tracer(frame, event, arg):
+        if frame.f_code is traced_function.__code__:
+            return local
+        return None
+
+    sys.settrace(tracer)
+    try:
+        traced_function(2)
+    finally:
+        sys.settrace(None)
+    assert lines and lines[0] == 1, lines
+
+
+def test_raising_trace_function_is_removed():
+    def tracer(frame, event, arg):
+        raise KeyError("from tracer")
+
+    sys.settrace(tracer)
+    try:
+        traced_function(1)
+    except KeyError:
+        pass
+    else:
+        assert False, "exception of trace function was not propagated"
+    finally:
+        removed = sys.gettrace() is None
+        sys.settrace(None)
+    assert removed
+
+
+def test_setprofile():
+    events = []
+
+    def profiler(frame, event, arg):
+        if frame.f_code is traced_function.__code__:
+            events.append((event, arg))
+
+    assert sys.getprofile() is None
+    sys.setprofile(profiler)
+    try:
+        assert sys.getprofile() is profiler
+        traced_function(4)
+    finally:
+        sys.setprofile(None)
+    assert sys.getprofile() is None
+    assert events == [("call", None), ("return", 6)], events
+
+
+def test_threading_setprofile():
+    events = []
+
+    def profiler(frame, event, arg):
+        if frame.f_code is traced_function.__code__:
+            events.append(event)
+
+    threading.setprofile(profiler)
+    try:
+        t = threading.Thread(target=traced_function, args=(2,))
+        t.start()
+        t.join()
+    finally:
+        threading.setprofile(None)
+    assert sys.getprofile() is None
+    assert events == ["call", "return"], events
@@ -0,0 +1,120 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+import queue
+import threading
+import time
+
+
+def test_fifo():
+    q = queue.SimpleQueue()
+    assert q.empty()
+    for i in range(5):
+        q.put(i)
+    q.put_nowait(5)
+    assert q.qsize() == 6
+    assert not q.empty()
+    assert [q.get() for i in range(3)] == [0, 1, 2]
+    assert q.get_nowait() == 3
+    assert q.get(False) == 4
+    assert q.get(block=True, timeout=1) == 5
+    assert q.empty()
+
+
+def test_empty():
+    q = queue.SimpleQueue()
+    for get in (q.get_nowait, lambda: q.get(False), lambda: q.get(timeout=0.01), lambda: q.get(block=False, timeout=-1)):
+        try:
+            get()
+        except queue.Empty:
+            pass
+        else:
+            assert False, "expected queue.Empty"
+
+
+def test_negative_timeout():
+    q = queue.SimpleQueue()
+    try:
+        q.get(timeout=-1)
+    except ValueError:
+        pass
+    else:
+        assert False, "expected ValueError"
+
+
+def test_timeout_waits():
+    q = queue.SimpleQueue()
+    start = time.monotonic()
+    try:
+        q.get(timeout=0.05)
+    except queue.Empty:
+        pass
+    assert time.monotonic() - start >= 0.04
+
+
+def test_handoff():
+    q = queue.SimpleQueue()
+    results = queue.SimpleQueue()
+    n = 1000
+
+    def consume():
+        total = 0
+        while True:
+            item = q.get()
+            if item is None:
+                break
+            total += item
+        results.put(total)
+
+    consumers = [threading.Thread(target=consume) for i in range(4)]
+    for t in consumers:
+        t.start()
+    for i in range(n):
+        q.put(i)
+    for t in consumers:
+        q.put(None)
+    for t in consumers:
+        t.join()
+    assert sum(results.get() for t in consumers) == n * (n - 1) // 2
+
+
+def test_put_none_and_block_args():
+    q = queue.SimpleQueue()
+    q.put(None, block=False, timeout=1)
+    assert q.get() is None
@@ -1155,3 +1155,63 @@ def test_replace_count():
     s = "1 2 3 1 2 3 1 2 3 1 2 3"
     s = s.replace("1", "1 _", s.count("1"))
     assert s == "1 _ 2 3 1 _ 2 3 1 _ 2 3 1 _ 2 3"
+
+
+def test_mod_format_repeated():
+    def fmt(*args):
+        return "%s=%5.2f [%-4d|%x] %%" % args
+
+    for i in range(3):
+        assert fmt("a", 1.5, i, 255) == "a= 1.50 [%-4d|ff] %%" % i
+
+    def fmt_star(w, p, v):
+        return "%*.*f|" % (w, p, v)
+
+    assert fmt_star(8, 3, 2.5) == "   2.500|"
+    assert fmt_star(-8, 1, 2.5) == "2.5     |"
+
+    def fmt_mapping(d):
+        return "%(a)s-%(b)03d" % d
+
+    for i in range(3):
+        assert fmt_mapping({"a": "x", "b": i}) == "x-00%d" % i
+
+
+def test_mod_format_errors():
+    def check(exc_type, fmt, args):
+        for i in range(2):
+            try:
+                fmt % args
+            except exc_type:
+                pass
+            else:
+                assert False, "expected %s for %r" % (exc_type, fmt)
+
+    check(ValueError, "%d %", (1,))
+    check(ValueError, "%d %z", (1, 2))
+    check(TypeError, "%d %z", ())
+    check(TypeError, "%*", ())
+    check(ValueError, "%*", (1,))
+    check(TypeError, "%(a)s", (1,))
+    check(ValueError, "%(a", {})
+    check(TypeError, "%s %s", (1,))
+    check(TypeError, "%s", (1, 2))
+
+
+def test_str_format_repeated():
+    class A:
+        x = 42
+
+    for i in range(3):
+        assert "{0}-{1:>3}|{0!r}".format("a", i) == "a-  %d|'a'" % i
+        assert "{{{a.x}}} {b[1]}".format(a=A, b=[0, i]) == "{42} %d" % i
+        assert "{:{}}|".format(i, 3) == "  %d|" % i
+
+    for fmt, exc_type in [("{", ValueError), ("{0}{}", ValueError), ("{!z}", ValueError), ("{a}", KeyError)]:
+        for i in range(2):
+            try:
+                fmt.format(1)
+            except exc_type:
+                pass
+            else:
+                assert False, "expected %s for %r" % (exc_type, fmt)
@@ -49,3 +49,34 @@ class B(A):
 
 def test_super():
     assert B().f() == "ab"
+
+
+def test_super_attribute_changes():
+    class Base:
+        def m(self):
+            return "base"
+
+    class Mixin(Base):
+        pass
+
+    class Sub(Mixin):
+        def m(self):
+            return "sub>" + super().m()
+
+    class SubSub(Sub):
+        def m(self):
+            return "subsub>" + super().m()
+
+    for i in range(3):
+        assert Sub().m() == "sub>base"
+        assert SubSub().m() == "subsub>sub>base"
+
+    Mixin.m = lambda self: "mixin"
+    for i in range(3):
+        assert Sub().m() == "sub>mixin"
+        assert SubSub().m() == "subsub>sub>mixin"
+
+    del Mixin.m
+    Base.m = lambda self: "newbase"
+    for i in range(3):
+        assert Sub().m() == "sub>newbase"
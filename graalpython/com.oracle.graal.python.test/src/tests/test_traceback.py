@@ -588,3 +588,85 @@ def test_top_level_exception_handler():
         """).strip()
     assert expected in err.strip(), f"Expected tracback in stderr:\n{expected}\nGot stderr:\n{err.strip()}"
 
+
+
+def test_traceback_free_handler_in_caller():
+    def foo(i):
+        if i % 2:
+            raise KeyError(i)
+        return i
+
+    def test():
+        cnt = 0
+        for i in range(1000):
+            try:
+                foo(i)
+            except KeyError:
+                pass
+            else:
+                cnt += 1
+        assert cnt == 500
+        foo(1)
+
+    assert_has_traceback(
+        test,
+        [
+            ('test', 'foo(1)'),
+            ('foo', 'raise KeyError(i)'),
+        ]
+    )
+
+
+EXPECTED_ERROR = KeyError
+
+
+def test_traceback_free_handler_not_matching():
+    global EXPECTED_ERROR
+
+    def foo():
+        raise KeyError(1)
+
+    def test():
+        for i in range(1000):
+            try:
+                foo()
+            except EXPECTED_ERROR:
+                pass
+
+    test()
+    # the handler no longer catches what its callee raises
+    EXPECTED_ERROR = IndexError
+    try:
+        assert_has_traceback(
+            test,
+            [
+                ('test', 'foo()'),
+                ('foo', 'raise KeyError(1)'),
+            ]
+        )
+    finally:
+        EXPECTED_ERROR = KeyError
+
+
+def test_traceback_free_handler_keeps_raising_frame():
+    errors = []
+
+    def foo():
+        error = KeyError(1)
+        errors.append(error)
+        raise error
+
+    def test():
+        for i in range(1000):
+            try:
+                foo()
+            except KeyError:
+                pass
+
+    test()
+    names = []
+    tb = errors[-1].__traceback__
+    while tb is not None:
+        names.append(tb.tb_frame.f_code.co_name)
+        tb = tb.tb_next
+    assert names == ['test', 'foo'], names
@@ -52,10 +52,12 @@ import com.oracle.graal.python.nodes.control.TopLevelExceptionHandler;
 import com.oracle.graal.python.nodes.expression.ExpressionNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.parser.PythonParserImpl;
+import com.oracle.graal.python.runtime.CompiledStringCache;
 import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.PythonParser.ParserMode;
+import com.oracle.graal.python.runtime.SharedMultiprocessingData;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.interop.InteropMap;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
@@ -143,6 +145,12 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
      */
     public final ConcurrentHashMap<String, Semaphore> namedSemaphores = new ConcurrentHashMap<>();
 
+    /**
+     * The in-memory channels between contexts that are used instead of pipes when
+     * {@code multiprocessing} runs child processes as contexts in the same engine.
+     */
+    public final SharedMultiprocessingData sharedMultiprocessingData = new SharedMultiprocessingData();
+
     /*
      * We need to store this here, because the check is on the language and can come from a thread
      * that has no context, but we enable or disable threads with a context option. So we store this
@@ -179,6 +187,9 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
     protected void finalizeContext(PythonContext context) {
         context.shutdownThreads();
         context.runShutdownHooks();
+        context.releaseTraceHooks();
+        // like the file descriptors of an exiting process
+        sharedMultiprocessingData.closeOwnedBy(context);
         super.finalizeContext(context);
     }
 
@@ -220,6 +231,9 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
         } else {
             assert options.equals(PythonOptions.createEngineOptions(env)) : "invalid engine options";
         }
+        if (compiledStringCache == null) {
+            compiledStringCache = new CompiledStringCache(options.get(PythonOptions.CompiledStringCacheSize));
+        }
         return context;
     }
 
@@ -574,6 +588,7 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
 
     private final ConcurrentHashMap<String, CallTarget> cachedCode = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, String[]> cachedCodeModulePath = new ConcurrentHashMap<>();
+    private volatile CompiledStringCache compiledStringCache;
 
     @TruffleBoundary
     public CallTarget cacheCode(String filename, Supplier<CallTarget> createCode) {
@@ -583,6 +598,14 @@ public final class PythonLanguage extends TruffleLanguage<PythonContext> {
         });
     }
 
+    /**
+     * Returns a call target for code that was compiled from a string at runtime, reusing an earlier
+     * one if the same code was compiled with the same filename and mode before.
+     */
+    public CallTarget cacheCompiledString(String code, String filename, ParserMode mode, Supplier<CallTarget> createCode) {
+        return compiledStringCache.getOrCreate(code, filename, mode, createCode);
+    }
+
     @TruffleBoundary
     public String[] cachedCodeModulePath(String name) {
         return cachedCodeModulePath.get(name);
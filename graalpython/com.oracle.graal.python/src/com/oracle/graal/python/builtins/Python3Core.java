@@ -43,6 +43,9 @@ import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.oracle.graal.python.builtins.modules.BZ2ModuleBuiltins;
+import com.oracle.graal.python.builtins.objects.bz2.BZ2CompressorBuiltins;
+import com.oracle.graal.python.builtins.objects.bz2.BZ2DecompressorBuiltins;
 import org.graalvm.nativeimage.ImageInfo;
 
 import com.oracle.graal.python.PythonLanguage;
@@ -153,6 +156,7 @@ import com.oracle.graal.python.builtins.objects.object.ObjectBuiltins;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.posix.DirEntryBuiltins;
 import com.oracle.graal.python.builtins.objects.posix.ScandirIteratorBuiltins;
+import com.oracle.graal.python.builtins.objects.queue.SimpleQueueBuiltins;
 import com.oracle.graal.python.builtins.objects.random.RandomBuiltins;
 import com.oracle.graal.python.builtins.objects.range.RangeBuiltins;
 import com.oracle.graal.python.builtins.objects.referencetype.ReferenceTypeBuiltins;
@@ -257,7 +261,6 @@ public final class Python3Core implements PythonCore {
                         "termios",
                         "zipimport",
                         "mmap",
-                        "_queue",
                         "_ast",
                         "java",
                         "pyio_patches",
@@ -288,7 +291,6 @@ public final class Python3Core implements PythonCore {
     private final PythonBuiltins[] builtins;
 
     private static final boolean hasCoverageTool;
-    private static final boolean hasProfilerTool;
     static {
         Class<?> c = null;
         try {
@@ -297,12 +299,6 @@ public final class Python3Core implements PythonCore {
         }
         hasCoverageTool = c != null;
         c = null;
-        try {
-            c = Class.forName("com.oracle.truffle.tools.profiler.CPUSampler");
-        } catch (LinkageError | ClassNotFoundException e) {
-        }
-        hasProfilerTool = c != null;
-        c = null;
     }
 
     private static final PythonBuiltins[] initializeBuiltins() {
@@ -408,6 +404,7 @@ public final class Python3Core implements PythonCore {
                         new FcntlModuleBuiltins(),
                         new MMapBuiltins(),
                         new QueueModuleBuiltins(),
+                        new SimpleQueueBuiltins(),
                         new ThreadModuleBuiltins(),
                         new ThreadBuiltins(),
                         new LockBuiltins(),
@@ -418,16 +415,17 @@ public final class Python3Core implements PythonCore {
                         new LZMAModuleBuiltins(),
                         new LZMACompressorBuiltins(),
                         new LZMADecompressorBuiltins(),
+                        new BZ2ModuleBuiltins(),
+                        new BZ2CompressorBuiltins(),
+                        new BZ2DecompressorBuiltins(),
                         new MultiprocessingModuleBuiltins(),
                         new SemLockBuiltins(),
+                        new LsprofModuleBuiltins(),
+                        LsprofModuleBuiltins.newProfilerBuiltins(),
                         new GraalPythonModuleBuiltins()));
         if (hasCoverageTool) {
             builtins.add(new TraceModuleBuiltins());
         }
-        if (hasProfilerTool) {
-            builtins.add(new LsprofModuleBuiltins());
-            builtins.add(LsprofModuleBuiltins.newProfilerBuiltins());
-        }
         if (!ImageInfo.inImageRuntimeCode()) {
             ServiceLoader<PythonBuiltins> providers = ServiceLoader.load(PythonBuiltins.class, Python3Core.class.getClassLoader());
             for (PythonBuiltins builtin : providers) {
@@ -125,8 +125,11 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
     PDirEntry("DirEntry", "posix"),
     PLZMACompressor("LZMACompressor", "_lzma"),
     PLZMADecompressor("LZMADecompressor", "_lzma"),
+    PBZ2Compressor("BZ2Compressor", "_bz2"),
+    PBZ2Decompressor("BZ2Decompressor", "_bz2"),
     LsprofProfiler("Profiler", "_lsprof"),
     PStruct("Struct", "_struct"),
+    PSimpleQueue("SimpleQueue", "_queue"),
 
     // Errors and exceptions:
 
@@ -173,6 +176,7 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
     ZipImportError("ZipImportError", "zipimport"),
     ZLibError("error", "zlib"),
     LZMAError("LZMAError", "_lzma"),
+    QueueEmpty("Empty", "_queue"),
     StructError("StructError", "_struct"),
     SocketGAIError("gaierror", "_socket"),
     SocketHError("herror", "_socket"),
@@ -343,6 +347,7 @@ public enum PythonBuiltinClassType implements LazyPythonClass {
         ZipImportError.base = ImportError;
         ZLibError.base = Exception;
         LZMAError.base = Exception;
+        QueueEmpty.base = Exception;
         SocketGAIError.base = OSError;
         SocketHError.base = OSError;
         SocketTimeout.base = OSError;
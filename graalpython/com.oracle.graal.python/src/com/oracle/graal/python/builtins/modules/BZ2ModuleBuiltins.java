@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.modules;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bz2.PBZ2Compressor;
+import com.oracle.graal.python.builtins.objects.bz2.PBZ2Decompressor;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(defineModule = "_bz2")
+public class BZ2ModuleBuiltins extends PythonBuiltins {
+
+    // as defined in '_bz2module.c'
+    private static final int DEFAULT_COMPRESSLEVEL = 9;
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BZ2ModuleBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "BZ2Compressor", minNumOfPositionalArgs = 1, parameterNames = {"cls", "compresslevel"}, constructsClass = PythonBuiltinClassType.PBZ2Compressor)
+    @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
+    abstract static class BZ2CompressorNode extends PythonBinaryBuiltinNode {
+
+        @Specialization(guards = "isNoValue(compresslevel)")
+        PBZ2Compressor doDefault(Object cls, @SuppressWarnings("unused") PNone compresslevel) {
+            return factory().createBZ2Compressor(cls, DEFAULT_COMPRESSLEVEL);
+        }
+
+        @Specialization
+        PBZ2Compressor doInt(Object cls, int compresslevel) {
+            if (compresslevel < 1 || compresslevel > 9) {
+                throw raise(ValueError, ErrorMessages.COMPRESSLEVEL_MUST_BE_BETWEEN_1_AND_9);
+            }
+            return factory().createBZ2Compressor(cls, compresslevel);
+        }
+
+        @Specialization(guards = "!isNoValue(compresslevel)", replaces = "doInt", limit = "getCallSiteInlineCacheMaxDepth()")
+        PBZ2Compressor doGeneric(VirtualFrame frame, Object cls, Object compresslevel,
+                        @CachedLibrary("compresslevel") PythonObjectLibrary lib) {
+            return doInt(cls, lib.asSizeWithState(compresslevel, PArguments.getThreadState(frame)));
+        }
+    }
+
+    @Builtin(name = "BZ2Decompressor", minNumOfPositionalArgs = 1, parameterNames = {"cls"}, constructsClass = PythonBuiltinClassType.PBZ2Decompressor)
+    @GenerateNodeFactory
+    abstract static class BZ2DecompressorNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PBZ2Decompressor doCreate(Object cls) {
+            return factory().createBZ2Decompressor(cls);
+        }
+    }
+}
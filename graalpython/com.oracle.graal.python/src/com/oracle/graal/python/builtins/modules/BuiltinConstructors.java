@@ -2354,6 +2354,8 @@ public final class BuiltinConstructors extends PythonBuiltins {
                 // TODO: tfel - check if slots are allowed. They are not if the base class is var
                 // sized
 
+                HiddenKey[] slotKeys = new HiddenKey[slotlen];
+                int slotKeysLen = 0;
                 for (int i = 0; i < slotlen; i++) {
                     String slotName;
                     Object element = getSlotItemNode().execute(frame, slotList, i);
@@ -2375,9 +2377,13 @@ public final class BuiltinConstructors extends PythonBuiltins {
                         HiddenKey hiddenSlotKey = new HiddenKey(slotName);
                         HiddenKeyDescriptor slotDesc = factory().createHiddenKeyDescriptor(hiddenSlotKey, pythonClass);
                         pythonClass.setAttribute(slotName, slotDesc);
+                        slotKeys[slotKeysLen++] = hiddenSlotKey;
                     }
                     // Make slots into a tuple
                 }
+                if (!pythonClass.needsNativeAllocation()) {
+                    pythonClass.addSlotsToInstanceShape(slotKeys, slotKeysLen);
+                }
                 PythonContext context = getContextRef().get();
                 Object state = ForeignCallContext.enter(frame, context, this);
                 try {
@@ -161,7 +161,6 @@ import com.oracle.graal.python.runtime.PythonParser.ParserMode;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.graal.python.runtime.sequence.PSequence;
-import com.oracle.graal.python.util.Supplier;
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -785,19 +784,25 @@ public final class BuiltinFunctions extends PythonBuiltins {
                 code = code.replaceFirst("^[ \t]", "");
             }
             final String codeToCompile = code;
-            Supplier<CallTarget> createCode = () -> {
-                Source source = PythonLanguage.newSource(context, codeToCompile, filename, mayBeFromFile);
-                return Truffle.getRuntime().createCallTarget((RootNode) getCore().getParser().parse(pm, getCore(), source, null, null));
-            };
             RootCallTarget ct;
             if (getCore().isInitialized()) {
-                ct = (RootCallTarget) createCode.get();
+                Source source = PythonLanguage.newSource(context, codeToCompile, filename, mayBeFromFile);
+                if (source.getPath() == null) {
+                    // generated code that is not backed by a file can be shared by equal strings
+                    ct = (RootCallTarget) getCore().getLanguage().cacheCompiledString(codeToCompile, filename, pm, () -> parse(pm, source));
+                } else {
+                    ct = (RootCallTarget) parse(pm, source);
+                }
             } else {
-                ct = (RootCallTarget) getCore().getLanguage().cacheCode(filename, createCode);
+                ct = (RootCallTarget) getCore().getLanguage().cacheCode(filename, () -> parse(pm, PythonLanguage.newSource(context, codeToCompile, filename, mayBeFromFile)));
             }
             return factory().createCode(ct);
         }
 
+        private CallTarget parse(ParserMode pm, Source source) {
+            return Truffle.getRuntime().createCallTarget((RootNode) getCore().getParser().parse(pm, getCore(), source, null, null));
+        }
+
         @SuppressWarnings("unused")
         @Specialization
         PCode compile(PCode code, String filename, String mode, Object flags, Object dontInherit, Object optimize) {
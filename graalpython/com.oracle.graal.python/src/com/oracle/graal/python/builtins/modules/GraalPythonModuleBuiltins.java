@@ -56,9 +56,12 @@ import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.cext.capi.NativeMemoryPressure;
 import com.oracle.graal.python.builtins.objects.code.PCode;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.dict.PDict;
 import com.oracle.graal.python.builtins.objects.function.PFunction;
+import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.function.Signature;
 import com.oracle.graal.python.builtins.objects.generator.PGenerator;
 import com.oracle.graal.python.builtins.objects.list.PList;
@@ -339,6 +342,42 @@ public class GraalPythonModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "native_memory_stats", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    public abstract static class NativeMemoryStatsNode extends PythonBuiltinNode {
+        @Specialization
+        @TruffleBoundary
+        PDict doIt() {
+            PythonContext context = getContext();
+            long allocated = 0;
+            long totalAllocated = 0;
+            long totalFreed = 0;
+            long gcReclaims = 0;
+            long stallNanos = 0;
+            long hardWatermark = context.getOption(PythonOptions.MaxNativeMemory);
+            long softWatermark = NativeMemoryPressure.getSoftWatermark(hardWatermark);
+            if (context.hasCApiContext()) {
+                NativeMemoryPressure pressure = context.getCApiContext().getNativeMemoryPressure();
+                allocated = pressure.getAllocated();
+                totalAllocated = pressure.getTotalAllocated();
+                totalFreed = pressure.getTotalFreed();
+                gcReclaims = pressure.getGcReclaims();
+                stallNanos = pressure.getStallNanos();
+                softWatermark = pressure.getSoftWatermark();
+                hardWatermark = pressure.getHardWatermark();
+            }
+            return factory().createDict(new PKeyword[]{
+                            new PKeyword("allocated", allocated),
+                            new PKeyword("total_allocated", totalAllocated),
+                            new PKeyword("total_freed", totalFreed),
+                            new PKeyword("gc_reclaims", gcReclaims),
+                            new PKeyword("stall_time_ns", stallNanos),
+                            new PKeyword("soft_watermark", softWatermark),
+                            new PKeyword("max", hardWatermark)
+            });
+        }
+    }
+
     @Builtin(name = "tdebug", takesVarArgs = true)
     @GenerateNodeFactory
     public abstract static class DebugNode extends PythonBuiltinNode {
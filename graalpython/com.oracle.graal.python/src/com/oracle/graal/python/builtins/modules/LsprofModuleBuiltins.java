@@ -41,7 +41,8 @@
 package com.oracle.graal.python.builtins.modules;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -50,25 +51,32 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PKeyword;
 import com.oracle.graal.python.builtins.objects.list.PList;
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.function.BuiltinFunctionRootNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.instrumentation.TraceHookInstrument;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
-import com.oracle.truffle.api.InstrumentInfo;
-import com.oracle.truffle.api.TruffleLanguage.Env;
+import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
-import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventListener;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.source.SourceSection;
-import com.oracle.truffle.tools.profiler.CPUSampler;
-import com.oracle.truffle.tools.profiler.CPUSampler.Payload;
-import com.oracle.truffle.tools.profiler.ProfilerNode;
-import com.oracle.truffle.tools.profiler.impl.CPUSamplerInstrument;
 
 @CoreFunctions(defineModule = "_lsprof")
 public class LsprofModuleBuiltins extends PythonBuiltins {
@@ -85,37 +93,206 @@ public class LsprofModuleBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class LsprofNew extends PythonBuiltinNode {
         @Specialization
-        @TruffleBoundary
         Profiler doit(Object cls, @SuppressWarnings("unused") Object[] args, @SuppressWarnings("unused") PKeyword[] kwargs) {
-            Env env = getContext().getEnv();
-            Map<String, InstrumentInfo> instruments = env.getInstruments();
-            InstrumentInfo instrumentInfo = instruments.get(CPUSamplerInstrument.ID);
-            if (instrumentInfo != null) {
-                CPUSampler sampler = env.lookup(instrumentInfo, CPUSampler.class);
-                if (sampler != null) {
-                    return factory().trace(new Profiler(cls, factory().makeStorage(cls), sampler));
-                }
-            }
-            throw raise(PythonBuiltinClassType.NotImplementedError, "coverage tracker not available");
+            return factory().trace(new Profiler(cls, factory().makeStorage(cls), getContext().getTraceHooks()));
         }
     }
 }
 
+/**
+ * A deterministic profiler that counts every call of every function and measures the time spent
+ * in it, following the bookkeeping of CPython's {@code _lsprof}. Like in CPython, only the thread
+ * that enabled the profiler is profiled. The instrumentation is only attached while the profiler
+ * is enabled.
+ */
 class Profiler extends PythonBuiltinObject {
-    boolean subcalls;
-    boolean builtins;
+    boolean subcalls = true;
+    boolean builtins = true;
     double timeunit;
     Object externalTimer;
-    double time;
-    final CPUSampler sampler;
 
-    public Profiler(Object cls, DynamicObject storage, CPUSampler sampler) {
+    private final TraceHookInstrument.Hooks hooks;
+    private EventBinding<?> binding;
+    private Thread thread;
+    private boolean inTimer;
+    private ProfilerContext currentContext;
+    final Map<Object, ProfilerEntry> entries = new LinkedHashMap<>();
+
+    static final class ProfilerEntry {
+        final RootNode root;
+        long callCount;
+        long recursiveCallCount;
+        long totalTime;
+        long inlineTime;
+        int recursionLevel;
+        /* the sub-entries of the callees of this entry */
+        Map<Object, ProfilerEntry> calls;
+
+        ProfilerEntry(RootNode root) {
+            this.root = root;
+        }
+
+        void account(long tt, long it) {
+            if (--recursionLevel == 0) {
+                totalTime += tt;
+            } else {
+                recursiveCallCount++;
+            }
+            inlineTime += it;
+            callCount++;
+        }
+    }
+
+    /* an active call, corresponds to 'ProfilerContext' in CPython */
+    static final class ProfilerContext {
+        final ProfilerEntry entry;
+        final ProfilerEntry subEntry;
+        final ProfilerContext previous;
+        long t0;
+        long subt;
+
+        ProfilerContext(ProfilerEntry entry, ProfilerEntry subEntry, ProfilerContext previous) {
+            this.entry = entry;
+            this.subEntry = subEntry;
+            this.previous = previous;
+        }
+    }
+
+    private final class CallListener implements ExecutionEventListener {
+        @Override
+        public void onEnter(EventContext context, VirtualFrame frame) {
+            enterCall(context.getInstrumentedNode().getRootNode());
+        }
+
+        @Override
+        public void onReturnValue(EventContext context, VirtualFrame frame, Object result) {
+            leaveCall();
+        }
+
+        @Override
+        public void onReturnExceptional(EventContext context, VirtualFrame frame, Throwable exception) {
+            leaveCall();
+        }
+    }
+
+    Profiler(Object cls, DynamicObject storage, TraceHookInstrument.Hooks hooks) {
         super(cls, storage);
-        this.sampler = sampler;
-        this.sampler.setFilter(SourceSectionFilter.newBuilder().includeInternal(true).build());
-        this.sampler.setMode(CPUSampler.Mode.ROOTS);
-        this.sampler.setPeriod(1);
+        this.hooks = hooks;
+    }
+
+    @TruffleBoundary
+    void enable() {
+        if (binding != null) {
+            binding.dispose();
+        }
+        thread = Thread.currentThread();
+        binding = hooks.attachCallListener(builtins, new CallListener());
+    }
+
+    @TruffleBoundary
+    void disable() {
+        if (binding != null) {
+            binding.dispose();
+            binding = null;
+        }
+        // account the calls that are still active as if they returned now
+        while (currentContext != null) {
+            stop(currentContext);
+        }
+        thread = null;
+    }
+
+    @TruffleBoundary
+    void clear() {
+        entries.clear();
+        currentContext = null;
+    }
+
+    @TruffleBoundary
+    private void enterCall(RootNode root) {
+        if (Thread.currentThread() != thread || inTimer) {
+            return;
+        }
+        Object key = getKey(root);
+        ProfilerEntry entry = entries.get(key);
+        if (entry == null) {
+            entry = new ProfilerEntry(root);
+            entries.put(key, entry);
+        }
+        entry.recursionLevel++;
+        ProfilerEntry subEntry = null;
+        if (subcalls && currentContext != null) {
+            ProfilerEntry caller = currentContext.entry;
+            if (caller.calls == null) {
+                caller.calls = new HashMap<>();
+            }
+            subEntry = caller.calls.get(key);
+            if (subEntry == null) {
+                subEntry = new ProfilerEntry(root);
+                caller.calls.put(key, subEntry);
+            }
+            subEntry.recursionLevel++;
+        }
+        ProfilerContext context = new ProfilerContext(entry, subEntry, currentContext);
+        currentContext = context;
+        context.t0 = getTime();
+    }
+
+    /**
+     * Returns what identifies the code of a root node. Splitting copies root nodes, so the copies
+     * of a function are mapped to its source section and those of a builtin to its node factory.
+     */
+    static Object getKey(RootNode root) {
+        if (root instanceof BuiltinFunctionRootNode) {
+            return ((BuiltinFunctionRootNode) root).getFactory();
+        }
+        SourceSection section = root.getSourceSection();
+        return section != null ? section : root.getName();
+    }
+
+    @TruffleBoundary
+    private void leaveCall() {
+        if (Thread.currentThread() != thread || inTimer || currentContext == null) {
+            return;
+        }
+        stop(currentContext);
     }
+
+    private void stop(ProfilerContext context) {
+        long tt = getTime() - context.t0;
+        long it = tt - context.subt;
+        if (context.previous != null) {
+            context.previous.subt += tt;
+        }
+        currentContext = context.previous;
+        context.entry.account(tt, it);
+        if (context.subEntry != null) {
+            context.subEntry.account(tt, it);
+        }
+    }
+
+    /**
+     * Returns the current time in nanoseconds. The result of an external timer is taken as seconds
+     * or, if there is a time unit, as a multiple of that unit. Like CPython, the result may be an
+     * int or a float in both cases.
+     */
+    private long getTime() {
+        if (externalTimer == null) {
+            return System.nanoTime();
+        }
+        inTimer = true;
+        try {
+            Object time = CallNode.getUncached().execute(externalTimer);
+            double seconds = PythonObjectLibrary.getUncached().asJavaDouble(time);
+            if (timeunit > 0) {
+                seconds *= timeunit;
+            }
+            return (long) (seconds * 1e9);
+        } finally {
+            inTimer = false;
+        }
+    }
+
 }
 
 @CoreFunctions(extendClasses = PythonBuiltinClassType.LsprofProfiler)
@@ -128,22 +305,14 @@ class ProfilerBuiltins extends PythonBuiltins {
     @Builtin(name = SpecialMethodNames.__INIT__, minNumOfPositionalArgs = 1, parameterNames = {"$self", "timer", "timeunit", "subcalls", "builtins"})
     @GenerateNodeFactory
     abstract static class Init extends PythonBuiltinNode {
-        @Specialization
-        PNone doit(Profiler self, Object timer, double timeunit, long subcalls, long builtins) {
-            self.subcalls = subcalls > 0;
-            self.builtins = builtins > 0;
-            self.timeunit = timeunit;
-            self.externalTimer = timer;
-            return PNone.NONE;
-        }
-
-        @Specialization
-        @SuppressWarnings("unused")
-        PNone doit(Profiler self, Object timer, PNone timeunit, PNone subcalls, PNone builtins) {
-            self.subcalls = true;
-            self.builtins = true;
-            self.timeunit = -1;
-            self.externalTimer = timer;
+        @Specialization(limit = "3")
+        static PNone doit(VirtualFrame frame, Profiler self, Object timer, Object timeunit, Object subcalls, Object builtins,
+                        @CachedLibrary("timeunit") PythonObjectLibrary timeunitLib,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib) {
+            self.externalTimer = PGuards.isPNone(timer) ? null : timer;
+            self.timeunit = PGuards.isPNone(timeunit) ? 0.0 : timeunitLib.asJavaDoubleWithState(timeunit, PArguments.getThreadState(frame));
+            self.subcalls = PGuards.isNoValue(subcalls) || lib.isTrueWithState(subcalls, PArguments.getThreadState(frame));
+            self.builtins = PGuards.isNoValue(builtins) || lib.isTrueWithState(builtins, PArguments.getThreadState(frame));
             return PNone.NONE;
         }
     }
@@ -152,40 +321,25 @@ class ProfilerBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class Enable extends PythonBuiltinNode {
         @Specialization
-        @TruffleBoundary
-        PNone doit(Profiler self, long subcalls, long builtins) {
-            self.subcalls = subcalls > 0;
-            self.builtins = builtins > 0;
-            // TODO: deal with any arguments
-            self.time = System.currentTimeMillis();
-            self.sampler.setCollecting(true);
+        static PNone doit(VirtualFrame frame, Profiler self, Object subcalls, Object builtins,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib) {
+            if (!PGuards.isNoValue(subcalls)) {
+                self.subcalls = lib.isTrueWithState(subcalls, PArguments.getThreadState(frame));
+            }
+            if (!PGuards.isNoValue(builtins)) {
+                self.builtins = lib.isTrueWithState(builtins, PArguments.getThreadState(frame));
+            }
+            self.enable();
             return PNone.NONE;
         }
-
-        @Specialization
-        PNone doit(Profiler self, long subcalls, @SuppressWarnings("unused") PNone builtins) {
-            return doit(self, subcalls, self.builtins ? 1 : 0);
-        }
-
-        @Specialization
-        PNone doit(Profiler self, @SuppressWarnings("unused") PNone subcalls, long builtins) {
-            return doit(self, self.subcalls ? 1 : 0, builtins);
-        }
-
-        @Specialization
-        PNone doit(Profiler self, @SuppressWarnings("unused") PNone subcalls, @SuppressWarnings("unused") PNone builtins) {
-            return doit(self, self.subcalls ? 1 : 0, self.builtins ? 1 : 0);
-        }
     }
 
     @Builtin(name = "disable", minNumOfPositionalArgs = 1)
     @GenerateNodeFactory
     abstract static class Disable extends PythonBuiltinNode {
         @Specialization
-        @TruffleBoundary
-        PNone doit(Profiler self) {
-            self.sampler.setCollecting(false);
-            self.time = (System.currentTimeMillis() - self.time) / 1000D;
+        static PNone doit(Profiler self) {
+            self.disable();
             return PNone.NONE;
         }
     }
@@ -194,9 +348,8 @@ class ProfilerBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class Clear extends PythonBuiltinNode {
         @Specialization
-        @TruffleBoundary
-        PNone doit(Profiler self) {
-            self.sampler.clearData();
+        static PNone doit(Profiler self) {
+            self.clear();
             return PNone.NONE;
         }
     }
@@ -228,52 +381,43 @@ class ProfilerBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         PList doit(Profiler self) {
-            double avgSampleSeconds = self.sampler.getPeriod() / 1000D;
-            List<PList> entries = new ArrayList<>();
-            for (ProfilerNode<Payload> node : self.sampler.getRootNodes()) {
-                countNode(entries, node, avgSampleSeconds);
-            }
-            self.sampler.close();
-            return factory().createList(entries.toArray());
-        }
-
-        private void countNode(List<PList> entries, ProfilerNode<Payload> node, double avgSampleTime) {
-            Collection<ProfilerNode<Payload>> children = node.getChildren();
-            Object[] profilerEntry = getProfilerEntry(node, avgSampleTime);
-            Object[] calls = new Object[children.size()];
-            int callIdx = 0;
-            for (ProfilerNode<Payload> childNode : children) {
-                countNode(entries, childNode, avgSampleTime);
-                calls[callIdx++] = factory().createList(getProfilerEntry(childNode, avgSampleTime));
+            double factor = 1e-9;
+            Map<Object, Object> codes = new HashMap<>();
+            List<PList> result = new ArrayList<>();
+            for (Profiler.ProfilerEntry entry : self.entries.values()) {
+                Object calls = PNone.NONE;
+                if (entry.calls != null && !entry.calls.isEmpty()) {
+                    Object[] subEntries = new Object[entry.calls.size()];
+                    int i = 0;
+                    for (Profiler.ProfilerEntry subEntry : entry.calls.values()) {
+                        subEntries[i++] = factory().createList(new Object[]{getCode(codes, subEntry.root, factory()), subEntry.callCount, subEntry.recursiveCallCount,
+                                        subEntry.totalTime * factor, subEntry.inlineTime * factor});
+                    }
+                    calls = factory().createList(subEntries);
+                }
+                result.add(factory().createList(new Object[]{getCode(codes, entry.root, factory()), entry.callCount, entry.recursiveCallCount,
+                                entry.totalTime * factor, entry.inlineTime * factor, calls}));
             }
-            assert callIdx == calls.length;
-            profilerEntry[profilerEntry.length - 1] = factory().createList(calls);
-            entries.add(factory().createList(profilerEntry));
+            return factory().createList(result.toArray());
         }
 
-        private static Object[] getProfilerEntry(ProfilerNode<Payload> node, double avgSampleTime) {
-            SourceSection sec = node.getSourceSection();
-            String rootName;
-            if (sec == null) {
-                rootName = node.getRootName();
-            } else {
-                rootName = sec.getSource().getName() + ":" + sec.getStartLine() + "(" + node.getRootName() + ")";
-            }
-            if (rootName == null) {
-                rootName = "<unknown root>";
+        /**
+         * Like in CPython, the entries of Python functions refer to their code objects and the
+         * entries of builtins are strings.
+         */
+        private static Object getCode(Map<Object, Object> codes, RootNode root, PythonObjectFactory factory) {
+            Object key = Profiler.getKey(root);
+            Object code = codes.get(key);
+            if (code == null) {
+                SourceSection section = root.getSourceSection();
+                if (section == null || section.getSource().isInternal()) {
+                    code = "<built-in method " + root.getName() + ">";
+                } else {
+                    code = factory.createCode((RootCallTarget) root.getCallTarget());
+                }
+                codes.put(key, code);
             }
-            int otherHitCount = node.getPayload().getHitCount();
-            int selfHitCount = node.getPayload().getSelfHitCount();
-            long hitCount = (long) otherHitCount + selfHitCount;
-            Object[] profilerEntry = new Object[]{
-                            rootName,
-                            hitCount,
-                            0,
-                            otherHitCount * avgSampleTime,
-                            selfHitCount * avgSampleTime,
-                            PNone.NONE
-            };
-            return profilerEntry;
+            return code;
         }
     }
 }
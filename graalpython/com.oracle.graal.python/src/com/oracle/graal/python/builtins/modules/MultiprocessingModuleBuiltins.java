@@ -49,21 +49,41 @@ import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes.ToBytesNode;
+import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetObjectArrayNode;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.thread.PSemLock;
+import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.util.CannotCastException;
 import com.oracle.graal.python.nodes.util.CastToJavaIntExactNode;
 import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
+import com.oracle.graal.python.runtime.SharedMultiprocessingData;
+import com.oracle.graal.python.runtime.exception.ExceptionUtils;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.exception.PythonExitException;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleContext;
+import com.oracle.truffle.api.TruffleLanguage.Env;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.CachedLanguage;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.source.Source;
 
 @CoreFunctions(defineModule = "_multiprocessing")
 public class MultiprocessingModuleBuiltins extends PythonBuiltins {
@@ -117,7 +137,8 @@ public class MultiprocessingModuleBuiltins extends PythonBuiltins {
                     semaphorePut(lang, semaphore, name);
                 }
             }
-            return factory().createSemLock(cls, name, kind, semaphore);
+            // like in CPython, only semaphores that are still linked have a name
+            return factory().createSemLock(cls, unlink == 0 ? name : null, kind, semaphore);
         }
 
         @TruffleBoundary
@@ -154,4 +175,322 @@ public class MultiprocessingModuleBuiltins extends PythonBuiltins {
             return lang.namedSemaphores.remove(name);
         }
     }
+
+    /*
+     * Blocking operations on channels wake up at least this often to run pending asynchronous
+     * actions, so that signal handlers can interrupt a process waiting for data.
+     */
+    private static final long WAIT_SLICE_NANOS = 15_000_000L;
+
+    @Builtin(name = "_pipe", minNumOfPositionalArgs = 0)
+    @GenerateNodeFactory
+    abstract static class PipeNode extends PythonBuiltinNode {
+        @Specialization
+        PTuple pipe(@CachedLanguage PythonLanguage lang) {
+            int[] pipe = lang.sharedMultiprocessingData.pipe(getContext());
+            return factory().createTuple(new Object[]{pipe[0], pipe[1]});
+        }
+    }
+
+    @Builtin(name = "_dup", minNumOfPositionalArgs = 1, parameterNames = {"handle"})
+    @GenerateNodeFactory
+    abstract static class DupNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        int dup(VirtualFrame frame, Object handleObj,
+                        @Cached CastToJavaIntExactNode castNode,
+                        @CachedLanguage PythonLanguage lang) {
+            try {
+                return lang.sharedMultiprocessingData.dup(castNode.execute(handleObj), getContext());
+            } catch (IndexOutOfBoundsException e) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+        }
+    }
+
+    @Builtin(name = "_adopt", minNumOfPositionalArgs = 1, parameterNames = {"handle"}, doc = "Makes this context the owner of a handle received from another context.")
+    @GenerateNodeFactory
+    abstract static class AdoptNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone adopt(VirtualFrame frame, Object handleObj,
+                        @Cached CastToJavaIntExactNode castNode,
+                        @CachedLanguage PythonLanguage lang) {
+            try {
+                lang.sharedMultiprocessingData.transfer(castNode.execute(handleObj), getContext());
+            } catch (IndexOutOfBoundsException e) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_close", minNumOfPositionalArgs = 1, parameterNames = {"handle"})
+    @GenerateNodeFactory
+    abstract static class CloseNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone close(VirtualFrame frame, Object handleObj,
+                        @Cached CastToJavaIntExactNode castNode,
+                        @CachedLanguage PythonLanguage lang) {
+            int handle = castNode.execute(handleObj);
+            // closing the sentinel of an exited child is the last chance to close its context
+            closeExitedContext(lang.sharedMultiprocessingData, handle);
+            try {
+                lang.sharedMultiprocessingData.close(handle);
+            } catch (IndexOutOfBoundsException e) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "_write", minNumOfPositionalArgs = 2, parameterNames = {"handle", "data"})
+    @GenerateNodeFactory
+    abstract static class WriteNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        int write(VirtualFrame frame, Object handleObj, Object data,
+                        @Cached CastToJavaIntExactNode castNode,
+                        @Cached("create()") ToBytesNode toBytesNode,
+                        @CachedLanguage PythonLanguage lang) {
+            int handle = castNode.execute(handleObj);
+            byte[] bytes = toBytesNode.execute(frame, data);
+            try {
+                lang.sharedMultiprocessingData.write(handle, bytes);
+            } catch (IndexOutOfBoundsException e) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            return bytes.length;
+        }
+    }
+
+    @Builtin(name = "_read", minNumOfPositionalArgs = 1, parameterNames = {"handle"}, doc = "Receives the next message from a channel. Returns None at EOF.")
+    @GenerateNodeFactory
+    abstract static class ReadNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object read(VirtualFrame frame, Object handleObj,
+                        @Cached CastToJavaIntExactNode castNode,
+                        @Cached BranchProfile asyncProfile,
+                        @CachedLanguage PythonLanguage lang) {
+            int handle = castNode.execute(handleObj);
+            while (true) {
+                byte[] message;
+                try {
+                    message = lang.sharedMultiprocessingData.read(handle, WAIT_SLICE_NANOS);
+                } catch (IndexOutOfBoundsException e) {
+                    throw raiseOSError(frame, OSErrorEnum.EBADF);
+                } catch (InterruptedException e) {
+                    throw raiseOSError(frame, OSErrorEnum.EINTR);
+                }
+                if (message == SharedMultiprocessingData.EOF) {
+                    return PNone.NONE;
+                } else if (message != null) {
+                    return factory().createBytes(message);
+                }
+                getContext().triggerAsyncActions(frame, asyncProfile);
+            }
+        }
+    }
+
+    @Builtin(name = "_select", minNumOfPositionalArgs = 1, parameterNames = {"handles", "timeout"}, doc = "Waits until any of the channels has a message or reached EOF. Returns the list of those channels.")
+    @GenerateNodeFactory
+    abstract static class SelectNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PList select(VirtualFrame frame, Object handlesObj, Object timeout,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @Cached CastToJavaIntExactNode castNode,
+                        @CachedLibrary(limit = "1") PythonObjectLibrary lib,
+                        @Cached BranchProfile asyncProfile,
+                        @CachedLanguage PythonLanguage lang) {
+            Object[] handleObjs = getObjectArrayNode.execute(handlesObj);
+            int[] handles = new int[handleObjs.length];
+            for (int i = 0; i < handles.length; i++) {
+                handles[i] = castNode.execute(handleObjs[i]);
+            }
+            long deadline = Long.MAX_VALUE;
+            boolean hasTimeout = !PGuards.isPNone(timeout);
+            if (hasTimeout) {
+                deadline = System.nanoTime() + (long) (lib.asJavaDoubleWithState(timeout, PArguments.getThreadState(frame)) * 1e9);
+            }
+            while (true) {
+                long remaining = hasTimeout ? Math.max(deadline - System.nanoTime(), 0) : WAIT_SLICE_NANOS;
+                int[] ready;
+                try {
+                    ready = lang.sharedMultiprocessingData.select(handles, Math.min(remaining, WAIT_SLICE_NANOS));
+                } catch (IndexOutOfBoundsException e) {
+                    throw raiseOSError(frame, OSErrorEnum.EBADF);
+                } catch (InterruptedException e) {
+                    throw raiseOSError(frame, OSErrorEnum.EINTR);
+                }
+                if (ready.length > 0 || (hasTimeout && remaining <= WAIT_SLICE_NANOS)) {
+                    Object[] result = new Object[ready.length];
+                    for (int i = 0; i < ready.length; i++) {
+                        result[i] = ready[i];
+                    }
+                    return factory().createList(result);
+                }
+                getContext().triggerAsyncActions(frame, asyncProfile);
+            }
+        }
+    }
+
+    @Builtin(name = "_spawn_context", minNumOfPositionalArgs = 1, parameterNames = {"handle", "handles"}, doc = "" +
+                    "Starts a child process as a new context of this engine, running on a thread of this\n" +
+                    "process. The child takes ownership of the read end 'handle' of a channel, from which\n" +
+                    "it receives its preparation data and process object, and of the channel handles in\n" +
+                    "the optional sequence 'handles'. Returns the tuple (pid, sentinel).")
+    @GenerateNodeFactory
+    abstract static class SpawnContextNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        PTuple spawn(VirtualFrame frame, Object handleObj, Object handlesObj,
+                        @Cached GetObjectArrayNode getObjectArrayNode,
+                        @Cached CastToJavaIntExactNode castNode,
+                        @CachedLanguage PythonLanguage lang) {
+            int handle = castNode.execute(handleObj);
+            Object[] handleObjs = PGuards.isNoValue(handlesObj) ? new Object[0] : getObjectArrayNode.execute(handlesObj);
+            int[] handles = new int[handleObjs.length + 1];
+            handles[0] = handle;
+            for (int i = 0; i < handleObjs.length; i++) {
+                handles[i + 1] = castNode.execute(handleObjs[i]);
+            }
+            SpawnedContext child = new SpawnedContext(lang.sharedMultiprocessingData, handle);
+            try {
+                child.transferHandles(handles);
+            } catch (IndexOutOfBoundsException e) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            long pid = child.start(getContext());
+            return factory().createTuple(new Object[]{pid, child.sentinel});
+        }
+    }
+
+    /**
+     * Closes the inner context of the sentinel if its child exited. This has to happen on a thread
+     * that is not entered in the inner context, so it is done by the parent when it learns about
+     * the exit. If the context cannot be closed yet, because threads started by the child are still
+     * running, it is kept for the next attempt.
+     */
+    @TruffleBoundary
+    static void closeExitedContext(SharedMultiprocessingData data, int sentinel) {
+        TruffleContext innerContext;
+        Thread thread;
+        try {
+            innerContext = data.takeExitedContext(sentinel);
+            thread = data.getThread(sentinel);
+        } catch (IndexOutOfBoundsException e) {
+            // not a sentinel
+            return;
+        }
+        if (innerContext == null) {
+            return;
+        }
+        try {
+            // the exit is signaled right before the thread leaves the context
+            thread.join();
+            innerContext.close();
+        } catch (InterruptedException e) {
+            data.returnExitedContext(sentinel, innerContext);
+            Thread.currentThread().interrupt();
+        } catch (IllegalStateException e) {
+            data.returnExitedContext(sentinel, innerContext);
+        }
+    }
+
+    /**
+     * Runs a child process in an inner context that shares the engine, and thus the compiled code,
+     * with its parent. Until the child context runs, the handles passed to it are owned by this
+     * object. When the child exits, all handles owned by it are closed.
+     */
+    private static final class SpawnedContext implements Runnable {
+        private final SharedMultiprocessingData data;
+        private final int handle;
+        private int sentinel;
+
+        SpawnedContext(SharedMultiprocessingData data, int handle) {
+            this.data = data;
+            this.handle = handle;
+        }
+
+        @TruffleBoundary
+        void transferHandles(int[] handles) throws IndexOutOfBoundsException {
+            for (int h : handles) {
+                data.transfer(h, this);
+            }
+        }
+
+        @TruffleBoundary
+        long start(PythonContext context) {
+            Env env = context.getEnv();
+            TruffleContext innerContext = env.newContextBuilder().build();
+            Thread thread = env.createThread(this, innerContext, context.getThreadGroup());
+            sentinel = data.newSentinel(thread, innerContext, context);
+            thread.start();
+            return thread.getId();
+        }
+
+        @Override
+        public void run() {
+            // the thread is entered in the inner context
+            int exitCode = 1;
+            PythonContext childContext = null;
+            try {
+                childContext = PythonLanguage.getContext();
+                exitCode = runMain(childContext);
+            } finally {
+                data.closeOwnedBy(this);
+                if (childContext != null) {
+                    data.closeOwnedBy(childContext);
+                }
+                data.exited(sentinel, exitCode);
+            }
+        }
+
+        private int runMain(PythonContext context) {
+            Source source = Source.newBuilder(PythonLanguage.ID, "from multiprocessing.popen_graalpy_context import _main\n_main(" + handle + ")", "<spawn>").internal(true).build();
+            try {
+                context.getEnv().parsePublic(source).call();
+                return 0;
+            } catch (PythonExitException e) {
+                return e.getExitStatus();
+            } catch (PException e) {
+                ExceptionUtils.printPythonLikeStackTrace(e);
+                return 1;
+            }
+        }
+    }
+
+    @Builtin(name = "_exitcode", minNumOfPositionalArgs = 1, parameterNames = {"sentinel"})
+    @GenerateNodeFactory
+    abstract static class ExitCodeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object exitCode(VirtualFrame frame, Object sentinelObj,
+                        @Cached CastToJavaIntExactNode castNode,
+                        @CachedLanguage PythonLanguage lang) {
+            int sentinel = castNode.execute(sentinelObj);
+            Integer exitCode;
+            try {
+                exitCode = lang.sharedMultiprocessingData.getExitCode(sentinel);
+            } catch (IndexOutOfBoundsException e) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            if (exitCode == null) {
+                return PNone.NONE;
+            }
+            closeExitedContext(lang.sharedMultiprocessingData, sentinel);
+            return exitCode;
+        }
+    }
+
+    @Builtin(name = "_terminate_context", minNumOfPositionalArgs = 1, parameterNames = {"sentinel"})
+    @GenerateNodeFactory
+    abstract static class TerminateContextNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        PNone terminate(VirtualFrame frame, Object sentinelObj,
+                        @Cached CastToJavaIntExactNode castNode,
+                        @CachedLanguage PythonLanguage lang) {
+            try {
+                lang.sharedMultiprocessingData.terminate(castNode.execute(sentinelObj));
+            } catch (IndexOutOfBoundsException e) {
+                throw raiseOSError(frame, OSErrorEnum.EBADF);
+            }
+            return PNone.NONE;
+        }
+    }
 }
@@ -45,6 +45,7 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.OSError;
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -55,6 +56,7 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.function.PBuiltinFunction;
 import com.oracle.graal.python.builtins.objects.function.PFunction;
 import com.oracle.graal.python.builtins.objects.method.PBuiltinMethod;
@@ -74,6 +76,11 @@ import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
 import com.oracle.graal.python.runtime.sequence.PSequence;
+import com.oracle.graal.python.runtime.sequence.storage.BoolSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -593,4 +600,46 @@ public final class PolyglotModuleBuiltins extends PythonBuiltins {
         }
     }
 
+
+    @Builtin(name = "storage_copy", minNumOfPositionalArgs = 1, doc = "Returns a host array holding a copy of the sequence's elements.\n" +
+                    "Sequences of ints or floats are copied into a primitive array in one step, so a host can obtain,\n" +
+                    "e.g., a 'double[]' with 'Value.as(double[].class)' without reading every element through interop.")
+    @GenerateNodeFactory
+    public abstract static class StorageCopyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object doSequence(PSequence seq,
+                        @Cached SequenceNodes.GetSequenceStorageNode getSequenceStorageNode,
+                        @Cached SequenceStorageNodes.ToArrayNode toArrayNode,
+                        @CachedContext(PythonLanguage.class) PythonContext context) {
+            SequenceStorage storage = getSequenceStorageNode.execute(seq);
+            Object copy = copyPrimitiveStorage(storage);
+            if (copy == null) {
+                copy = Arrays.copyOf(toArrayNode.execute(storage), storage.length());
+            }
+            return context.getEnv().asGuestValue(copy);
+        }
+
+        @TruffleBoundary
+        private static Object copyPrimitiveStorage(SequenceStorage storage) {
+            int len = storage.length();
+            if (storage instanceof DoubleSequenceStorage) {
+                return Arrays.copyOf(((DoubleSequenceStorage) storage).getInternalDoubleArray(), len);
+            } else if (storage instanceof IntSequenceStorage) {
+                return Arrays.copyOf(((IntSequenceStorage) storage).getInternalIntArray(), len);
+            } else if (storage instanceof LongSequenceStorage) {
+                return Arrays.copyOf(((LongSequenceStorage) storage).getInternalLongArray(), len);
+            } else if (storage instanceof ByteSequenceStorage) {
+                return Arrays.copyOf(((ByteSequenceStorage) storage).getInternalByteArray(), len);
+            } else if (storage instanceof BoolSequenceStorage) {
+                return Arrays.copyOf(((BoolSequenceStorage) storage).getInternalBoolArray(), len);
+            }
+            return null;
+        }
+
+        @Fallback
+        Object doError(Object object) {
+            throw raise(PythonBuiltinClassType.TypeError, ErrorMessages.UNSUPPORTED_OPERAND_P, object);
+        }
+    }
+
 }
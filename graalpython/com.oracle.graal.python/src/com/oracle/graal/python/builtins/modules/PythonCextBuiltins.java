@@ -216,6 +216,7 @@ import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.attributes.WriteAttributeToDynamicObjectNode;
 import com.oracle.graal.python.nodes.attributes.WriteAttributeToObjectNode;
 import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.call.GenericInvokeNode;
 import com.oracle.graal.python.nodes.call.special.CallBinaryMethodNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallBinaryNode;
 import com.oracle.graal.python.nodes.call.special.LookupAndCallUnaryNode;
@@ -3381,11 +3382,11 @@ public class PythonCextBuiltins extends PythonBuiltins {
         int doCachedDomainIdx(VirtualFrame frame, @SuppressWarnings("unused") long domain, Object pointerObject, long size,
                         @Cached("domain") @SuppressWarnings("unused") long cachedDomain,
                         @Cached("lookupDomain(domain)") int cachedDomainIdx,
-                        @Cached BranchProfile profile) {
+                        @Cached GenericInvokeNode invokeNode) {
 
             CApiContext cApiContext = getContext().getCApiContext();
             cApiContext.getTraceMallocDomain(cachedDomainIdx).track(pointerObject, size);
-            cApiContext.increaseMemoryPressure(frame, size, profile);
+            cApiContext.increaseMemoryPressure(frame, invokeNode, size);
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.fine(() -> String.format("Tracking memory (size: %d): %s", size, CApiContext.asHex(pointerObject)));
             }
@@ -3394,8 +3395,8 @@ public class PythonCextBuiltins extends PythonBuiltins {
 
         @Specialization(replaces = "doCachedDomainIdx")
         int doGeneric(VirtualFrame frame, int domain, Object pointerObject, long size,
-                        @Cached BranchProfile profile) {
-            return doCachedDomainIdx(frame, domain, pointerObject, size, domain, lookupDomain(domain), profile);
+                        @Cached GenericInvokeNode invokeNode) {
+            return doCachedDomainIdx(frame, domain, pointerObject, size, domain, lookupDomain(domain), invokeNode);
         }
 
         int lookupDomain(long domain) {
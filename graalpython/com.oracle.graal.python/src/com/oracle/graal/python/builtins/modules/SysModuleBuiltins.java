@@ -408,6 +408,46 @@ public class SysModuleBuiltins extends PythonBuiltins {
         }
     }
 
+    @Builtin(name = "settrace", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class SetTraceNode extends PythonBuiltinNode {
+        @Specialization
+        Object settrace(Object function) {
+            getContext().setTraceFunction(function == PNone.NONE ? null : function);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "gettrace")
+    @GenerateNodeFactory
+    public abstract static class GetTraceNode extends PythonBuiltinNode {
+        @Specialization
+        Object gettrace() {
+            Object function = getContext().getTraceFunction();
+            return function == null ? PNone.NONE : function;
+        }
+    }
+
+    @Builtin(name = "setprofile", minNumOfPositionalArgs = 1)
+    @GenerateNodeFactory
+    public abstract static class SetProfileNode extends PythonBuiltinNode {
+        @Specialization
+        Object setprofile(Object function) {
+            getContext().setProfileFunction(function == PNone.NONE ? null : function);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "getprofile")
+    @GenerateNodeFactory
+    public abstract static class GetProfileNode extends PythonBuiltinNode {
+        @Specialization
+        Object getprofile() {
+            Object function = getContext().getProfileFunction();
+            return function == null ? PNone.NONE : function;
+        }
+    }
+
     @Builtin(name = "getfilesystemencoding", minNumOfPositionalArgs = 0)
     @GenerateNodeFactory
     public abstract static class GetFileSystemEncodingNode extends PythonBuiltinNode {
@@ -25,7 +25,9 @@
  */
 package com.oracle.graal.python.builtins.objects.array;
 
+import com.oracle.graal.python.builtins.objects.array.ArrayBuiltins.ArrayNoGeneralizationNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.GenNodeSupplier;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.runtime.sequence.PMutableSequence;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
@@ -58,6 +60,11 @@ public class PArray extends PMutableSequence {
         this.store = store;
     }
 
+    @Override
+    protected GenNodeSupplier getGeneralizationNodeSupplier() {
+        return ArrayNoGeneralizationNode.SUPPLIER;
+    }
+
     public int len() {
         return store.length();
     }
@@ -27,7 +27,9 @@ package com.oracle.graal.python.builtins.objects.bytes;
 
 import java.util.Arrays;
 
+import com.oracle.graal.python.builtins.objects.bytes.BytesBuiltins.BytesLikeNoGeneralizationNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.GenNodeSupplier;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.runtime.sequence.PMutableSequence;
 import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
@@ -67,6 +69,11 @@ public final class PByteArray extends PMutableSequence implements PIBytesLike {
         this.store = store;
     }
 
+    @Override
+    protected GenNodeSupplier getGeneralizationNodeSupplier() {
+        return BytesLikeNoGeneralizationNode.SUPPLIER;
+    }
+
     @Override
     @TruffleBoundary
     public String toString() {
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.bz2;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.EOFError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OSError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
+
+import java.util.List;
+import java.util.zip.DataFormatException;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes.ToBytesNode;
+import com.oracle.graal.python.builtins.objects.bytes.PBytes;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PBZ2Decompressor)
+public class BZ2DecompressorBuiltins extends PythonBuiltins {
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return BZ2DecompressorBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "decompress", minNumOfPositionalArgs = 2, parameterNames = {"self", "data", "max_length"})
+    @GenerateNodeFactory
+    abstract static class DecompressNode extends PythonTernaryBuiltinNode {
+
+        @Specialization(guards = "isNoValue(maxLength)")
+        PBytes doUnlimited(VirtualFrame frame, PBZ2Decompressor self, Object data, @SuppressWarnings("unused") PNone maxLength,
+                        @Shared("toBytes") @Cached("createToBytes()") ToBytesNode toBytesNode) {
+            return decompress(self, toBytesNode.execute(frame, data), -1);
+        }
+
+        @Specialization
+        PBytes doInt(VirtualFrame frame, PBZ2Decompressor self, Object data, int maxLength,
+                        @Shared("toBytes") @Cached("createToBytes()") ToBytesNode toBytesNode) {
+            return decompress(self, toBytesNode.execute(frame, data), maxLength);
+        }
+
+        @Specialization(guards = "!isNoValue(maxLength)", replaces = "doInt", limit = "getCallSiteInlineCacheMaxDepth()")
+        PBytes doGeneric(VirtualFrame frame, PBZ2Decompressor self, Object data, Object maxLength,
+                        @CachedLibrary("maxLength") PythonObjectLibrary lib,
+                        @Shared("toBytes") @Cached("createToBytes()") ToBytesNode toBytesNode) {
+            return decompress(self, toBytesNode.execute(frame, data), lib.asSizeWithState(maxLength, PArguments.getThreadState(frame)));
+        }
+
+        private PBytes decompress(PBZ2Decompressor self, byte[] bytes, int maxLength) {
+            if (self.isEof()) {
+                throw raise(EOFError, ErrorMessages.END_OF_STREAM_ALREADY_REACHED);
+            }
+            try {
+                return factory().createBytes(self.decompress(bytes, maxLength));
+            } catch (DataFormatException e) {
+                throw raise(OSError, ErrorMessages.INVALID_DATA_STREAM);
+            }
+        }
+
+        static ToBytesNode createToBytes() {
+            return ToBytesNode.create(true, TypeError, ErrorMessages.BYTESLIKE_OBJ_REQUIRED);
+        }
+    }
+
+    @Builtin(name = "eof", minNumOfPositionalArgs = 1, parameterNames = {"self"}, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class EofNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        static boolean doEof(PBZ2Decompressor self) {
+            return self.isEof();
+        }
+    }
+
+    @Builtin(name = "needs_input", minNumOfPositionalArgs = 1, parameterNames = {"self"}, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class NeedsInputNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        static boolean doNeedsInput(PBZ2Decompressor self) {
+            return self.isNeedsInput();
+        }
+    }
+
+    @Builtin(name = "unused_data", minNumOfPositionalArgs = 1, parameterNames = {"self"}, isGetter = true)
+    @GenerateNodeFactory
+    abstract static class UnusedDataNode extends PythonUnaryBuiltinNode {
+
+        @Specialization
+        PBytes doUnusedData(PBZ2Decompressor self) {
+            return factory().createBytes(self.getUnusedData());
+        }
+    }
+}
@@ -0,0 +1,587 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.bz2;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+import com.oracle.graal.python.util.IncrementalDecoder;
+
+/**
+ * Incremental decoder for a single bzip2 stream.
+ *
+ * Compressed input is appended with {@link #feed} and decoded output is pulled with
+ * {@link #decode}, so callers can bound the amount of output produced per call. Block headers and
+ * coding tables are parsed atomically (and re-parsed if the input ends in the middle of them), but
+ * the Huffman coded block data is decoded symbol by symbol and can be suspended at any point
+ * without re-reading the block. The input buffer and the block buffer are reused across calls and
+ * blocks.
+ */
+final class BZip2Decoder extends IncrementalDecoder {
+
+    private static final int STATE_STREAM_HEADER = 0;
+    private static final int STATE_BLOCK_HEADER = 1;
+    private static final int STATE_BLOCK_DATA = 2;
+    private static final int STATE_BLOCK_OUTPUT = 3;
+    private static final int STATE_STREAM_END = 4;
+
+    private static final int RUNA = 0;
+    private static final int RUNB = 1;
+    private static final int MAX_GROUPS = 6;
+    private static final int GROUP_SIZE = 50;
+    private static final int MAX_ALPHA_SIZE = 258;
+    private static final int MAX_CODE_LEN = 20;
+    private static final int MAX_SELECTORS = 2 + (900000 / GROUP_SIZE);
+
+    private static final NeedInput NEED_INPUT = new NeedInput();
+
+    /** Signals that an atomically parsed section is incomplete; carries no stack trace. */
+    private static final class NeedInput extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        NeedInput() {
+            super(null, null, false, false);
+        }
+    }
+
+    private int state = STATE_STREAM_HEADER;
+
+    // input buffer and bit reader
+    private byte[] in = new byte[0];
+    private int inPos;
+    private int inEnd;
+    private long bitBuffer;
+    private int bitCount;
+
+    private int markPos;
+    private long markBitBuffer;
+    private int markBitCount;
+
+    private boolean stalled;
+
+    // stream state
+    private int blockSizeMax;
+    private int combinedCRC;
+
+    // block header and coding tables
+    private int storedBlockCRC;
+    private int origPtr;
+    private int nInUse;
+    private int alphaSize;
+    private int nSelectors;
+    private final byte[] seqToUnseq = new byte[256];
+    private final byte[] selectorMtf = new byte[MAX_SELECTORS];
+    private final byte[] selector = new byte[MAX_SELECTORS];
+    private final byte[][] codeLength = new byte[MAX_GROUPS][MAX_ALPHA_SIZE];
+    private final int[][] limit = new int[MAX_GROUPS][MAX_CODE_LEN + 2];
+    private final int[][] base = new int[MAX_GROUPS][MAX_CODE_LEN + 2];
+    private final int[][] perm = new int[MAX_GROUPS][MAX_ALPHA_SIZE];
+    private final int[] minLens = new int[MAX_GROUPS];
+
+    // symbol decoding state
+    private int[] tt;
+    private int nblock;
+    private int groupNo;
+    private int groupPos;
+    private int runLength;
+    private int runWeight;
+    private final byte[] yy = new byte[256];
+    private final int[] unzftab = new int[256];
+    private final int[] cftab = new int[257];
+
+    // output state
+    private int tPos;
+    private int nblockUsed;
+    private int lastByte;
+    private int repeatCount;
+    private int runRemaining;
+    private int blockCRC;
+
+    /**
+     * Appends compressed input. Input preceding the current read position is discarded, so the
+     * buffer only grows if the caller feeds more than what is needed to make progress.
+     */
+    @Override
+    public void feed(byte[] data, int off, int len) {
+        if (len == 0) {
+            return;
+        }
+        stalled = false;
+        int remaining = inEnd - inPos;
+        if (in.length - remaining < len) {
+            byte[] newIn = new byte[Math.max(remaining + len, in.length * 2)];
+            System.arraycopy(in, inPos, newIn, 0, remaining);
+            in = newIn;
+        } else if (in.length - inEnd < len) {
+            System.arraycopy(in, inPos, in, 0, remaining);
+        } else {
+            System.arraycopy(data, off, in, inEnd, len);
+            inEnd += len;
+            return;
+        }
+        inPos = 0;
+        inEnd = remaining;
+        System.arraycopy(data, off, in, inEnd, len);
+        inEnd += len;
+    }
+
+    /**
+     * Returns {@code true} if the last call to {@link #decode} stopped because more input is
+     * required.
+     */
+    @Override
+    public boolean isStalled() {
+        return stalled;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return state == STATE_STREAM_END;
+    }
+
+    /**
+     * Returns the input following the end-of-stream marker. Only meaningful once
+     * {@link #isFinished()} is {@code true}.
+     */
+    @Override
+    public byte[] getRemainingInput() {
+        return Arrays.copyOfRange(in, inPos, inEnd);
+    }
+
+    /**
+     * Decodes up to {@code len} bytes into {@code out} and returns the number of bytes written.
+     */
+    @Override
+    public int decode(byte[] out, int off, int len) throws DataFormatException {
+        int written = 0;
+        stalled = false;
+        while (true) {
+            switch (state) {
+                case STATE_STREAM_HEADER:
+                    mark();
+                    try {
+                        readStreamHeader();
+                    } catch (NeedInput e) {
+                        reset();
+                        stalled = true;
+                        return written;
+                    }
+                    state = STATE_BLOCK_HEADER;
+                    break;
+                case STATE_BLOCK_HEADER:
+                    mark();
+                    try {
+                        state = readBlockHeader();
+                    } catch (NeedInput e) {
+                        reset();
+                        stalled = true;
+                        return written;
+                    }
+                    break;
+                case STATE_BLOCK_DATA:
+                    if (!decodeSymbols()) {
+                        stalled = true;
+                        return written;
+                    }
+                    state = STATE_BLOCK_OUTPUT;
+                    break;
+                case STATE_BLOCK_OUTPUT:
+                    written += writeOutput(out, off + written, len - written);
+                    if (runRemaining > 0 || nblockUsed < nblock) {
+                        return written;
+                    }
+                    finishBlock();
+                    state = STATE_BLOCK_HEADER;
+                    break;
+                default:
+                    return written;
+            }
+        }
+    }
+
+    private void readStreamHeader() throws DataFormatException {
+        if (bits(8) != 'B' || bits(8) != 'Z' || bits(8) != 'h') {
+            throw new DataFormatException();
+        }
+        int level = bits(8) - '0';
+        if (level < 1 || level > 9) {
+            throw new DataFormatException();
+        }
+        blockSizeMax = level * 100000;
+        if (tt == null || tt.length < blockSizeMax) {
+            tt = new int[blockSizeMax];
+        }
+        combinedCRC = 0;
+    }
+
+    private int readBlockHeader() throws DataFormatException {
+        long magic = ((long) bits(24) << 24) | bits(24);
+        if (magic == BZip2Encoder.EOS_MAGIC) {
+            int storedCombinedCRC = bits(32);
+            if (storedCombinedCRC != combinedCRC) {
+                throw new DataFormatException();
+            }
+            // the stream is padded to a whole byte
+            bitCount = 0;
+            bitBuffer = 0;
+            return STATE_STREAM_END;
+        } else if (magic != BZip2Encoder.BLOCK_MAGIC) {
+            throw new DataFormatException();
+        }
+        storedBlockCRC = bits(32);
+        if (bits(1) != 0) {
+            // randomised blocks were only produced by bzip2 0.9.0 and earlier
+            throw new DataFormatException();
+        }
+        origPtr = bits(24);
+
+        int inUse16 = bits(16);
+        nInUse = 0;
+        for (int i = 0; i < 16; i++) {
+            if ((inUse16 & (0x8000 >>> i)) != 0) {
+                int inUse = bits(16);
+                for (int j = 0; j < 16; j++) {
+                    if ((inUse & (0x8000 >>> j)) != 0) {
+                        seqToUnseq[nInUse++] = (byte) (i * 16 + j);
+                    }
+                }
+            }
+        }
+        if (nInUse == 0) {
+            throw new DataFormatException();
+        }
+        alphaSize = nInUse + 2;
+
+        int nGroups = bits(3);
+        if (nGroups < 2 || nGroups > MAX_GROUPS) {
+            throw new DataFormatException();
+        }
+        int selectorsUsed = bits(15);
+        if (selectorsUsed < 1) {
+            throw new DataFormatException();
+        }
+        for (int i = 0; i < selectorsUsed; i++) {
+            int j = 0;
+            while (bits(1) != 0) {
+                j++;
+                if (j >= nGroups) {
+                    throw new DataFormatException();
+                }
+            }
+            // like libbzip2, ignore selectors beyond the maximum number a block can use
+            if (i < MAX_SELECTORS) {
+                selectorMtf[i] = (byte) j;
+            }
+        }
+        nSelectors = Math.min(selectorsUsed, MAX_SELECTORS);
+
+        byte[] pos = new byte[MAX_GROUPS];
+        for (int i = 0; i < nGroups; i++) {
+            pos[i] = (byte) i;
+        }
+        for (int i = 0; i < nSelectors; i++) {
+            int v = selectorMtf[i];
+            byte tmp = pos[v];
+            while (v > 0) {
+                pos[v] = pos[v - 1];
+                v--;
+            }
+            pos[0] = tmp;
+            selector[i] = tmp;
+        }
+
+        for (int t = 0; t < nGroups; t++) {
+            int curr = bits(5);
+            for (int i = 0; i < alphaSize; i++) {
+                while (true) {
+                    if (curr < 1 || curr > MAX_CODE_LEN) {
+                        throw new DataFormatException();
+                    }
+                    if (bits(1) == 0) {
+                        break;
+                    }
+                    curr += bits(1) == 0 ? 1 : -1;
+                }
+                codeLength[t][i] = (byte) curr;
+            }
+            createDecodeTables(t);
+        }
+
+        for (int i = 0; i < nInUse; i++) {
+            yy[i] = seqToUnseq[i];
+        }
+        Arrays.fill(unzftab, 0);
+        nblock = 0;
+        groupNo = -1;
+        groupPos = 0;
+        runLength = -1;
+        return STATE_BLOCK_DATA;
+    }
+
+    private void createDecodeTables(int t) {
+        byte[] length = codeLength[t];
+        int[] lim = limit[t];
+        int[] bas = base[t];
+        int[] prm = perm[t];
+        int minLen = 32;
+        int maxLen = 0;
+        for (int i = 0; i < alphaSize; i++) {
+            minLen = Math.min(minLen, length[i]);
+            maxLen = Math.max(maxLen, length[i]);
+        }
+        int pp = 0;
+        for (int i = minLen; i <= maxLen; i++) {
+            for (int j = 0; j < alphaSize; j++) {
+                if (length[j] == i) {
+                    prm[pp++] = j;
+                }
+            }
+        }
+        Arrays.fill(bas, 0);
+        for (int i = 0; i < alphaSize; i++) {
+            bas[length[i] + 1]++;
+        }
+        for (int i = 1; i < bas.length; i++) {
+            bas[i] += bas[i - 1];
+        }
+        Arrays.fill(lim, 0);
+        int vec = 0;
+        for (int i = minLen; i <= maxLen; i++) {
+            vec += bas[i + 1] - bas[i];
+            lim[i] = vec - 1;
+            vec <<= 1;
+        }
+        for (int i = minLen + 1; i <= maxLen; i++) {
+            bas[i] = ((lim[i - 1] + 1) << 1) - bas[i];
+        }
+        minLens[t] = minLen;
+    }
+
+    /**
+     * Decodes Huffman symbols until the end-of-block symbol. Returns {@code false} if the input
+     * ran out first; all state needed to resume is kept in fields.
+     */
+    private boolean decodeSymbols() throws DataFormatException {
+        final int eob = nInUse + 1;
+        int[] ttLocal = tt;
+        while (true) {
+            // a valid stream always has at least an end-of-stream marker after the last symbol
+            if (availableBits() <= MAX_CODE_LEN) {
+                return false;
+            }
+            if (groupPos == 0) {
+                groupNo++;
+                if (groupNo >= nSelectors) {
+                    throw new DataFormatException();
+                }
+                groupPos = GROUP_SIZE;
+            }
+            groupPos--;
+            int sym = decodeSymbol(selector[groupNo]);
+
+            if (sym == RUNA || sym == RUNB) {
+                if (runLength == -1) {
+                    runLength = 0;
+                    runWeight = 1;
+                } else if (runWeight >= 2 * 1024 * 1024) {
+                    throw new DataFormatException();
+                }
+                runLength += (sym + 1) * runWeight;
+                runWeight <<= 1;
+                continue;
+            }
+
+            if (runLength != -1) {
+                int uc = yy[0] & 0xff;
+                if (runLength > blockSizeMax - nblock) {
+                    throw new DataFormatException();
+                }
+                unzftab[uc] += runLength;
+                Arrays.fill(ttLocal, nblock, nblock + runLength, uc);
+                nblock += runLength;
+                runLength = -1;
+            }
+
+            if (sym == eob) {
+                break;
+            }
+            if (sym > eob || nblock >= blockSizeMax) {
+                throw new DataFormatException();
+            }
+            int nn = sym - 1;
+            byte uc = yy[nn];
+            System.arraycopy(yy, 0, yy, 1, nn);
+            yy[0] = uc;
+            unzftab[uc & 0xff]++;
+            ttLocal[nblock++] = uc & 0xff;
+        }
+
+        if (origPtr >= nblock) {
+            throw new DataFormatException();
+        }
+
+        // inverse Burrows-Wheeler transform: link each position to its successor
+        cftab[0] = 0;
+        for (int i = 1; i <= 256; i++) {
+            cftab[i] = cftab[i - 1] + unzftab[i - 1];
+        }
+        for (int i = 0; i < nblock; i++) {
+            int uc = ttLocal[i] & 0xff;
+            ttLocal[cftab[uc]++] |= i << 8;
+        }
+        tPos = ttLocal[origPtr] >>> 8;
+        nblockUsed = 0;
+        lastByte = -1;
+        repeatCount = 0;
+        runRemaining = 0;
+        blockCRC = BZip2Encoder.CRC_INIT;
+        return true;
+    }
+
+    private int decodeSymbol(int table) throws DataFormatException {
+        int[] lim = limit[table];
+        int zn = minLens[table];
+        int zvec = bits(zn);
+        while (true) {
+            if (zn > MAX_CODE_LEN) {
+                throw new DataFormatException();
+            }
+            if (zvec <= lim[zn]) {
+                break;
+            }
+            zn++;
+            zvec = (zvec << 1) | bits(1);
+        }
+        int idx = zvec - base[table][zn];
+        if (idx < 0 || idx >= alphaSize) {
+            throw new DataFormatException();
+        }
+        return perm[table][idx];
+    }
+
+    /**
+     * Undoes the initial run-length encoding while walking the BWT links. Returns the number of
+     * bytes written.
+     */
+    private int writeOutput(byte[] out, int off, int len) {
+        int[] ttLocal = tt;
+        int crc = blockCRC;
+        int n = 0;
+        while (n < len) {
+            if (runRemaining > 0) {
+                int count = Math.min(runRemaining, len - n);
+                byte b = (byte) lastByte;
+                Arrays.fill(out, off + n, off + n + count, b);
+                for (int i = 0; i < count; i++) {
+                    crc = BZip2Encoder.updateCRC(crc, b);
+                }
+                n += count;
+                runRemaining -= count;
+                if (runRemaining == 0) {
+                    lastByte = -1;
+                }
+                continue;
+            }
+            if (nblockUsed == nblock) {
+                break;
+            }
+            int entry = ttLocal[tPos];
+            int ch = entry & 0xff;
+            tPos = entry >>> 8;
+            nblockUsed++;
+            if (repeatCount == 4) {
+                // the byte following four equal bytes is the number of further repetitions
+                repeatCount = 0;
+                runRemaining = ch;
+                if (ch == 0) {
+                    lastByte = -1;
+                }
+                continue;
+            }
+            if (ch == lastByte) {
+                repeatCount++;
+            } else {
+                lastByte = ch;
+                repeatCount = 1;
+            }
+            out[off + n++] = (byte) ch;
+            crc = BZip2Encoder.updateCRC(crc, (byte) ch);
+        }
+        blockCRC = crc;
+        return n;
+    }
+
+    private void finishBlock() throws DataFormatException {
+        int computed = ~blockCRC;
+        if (computed != storedBlockCRC) {
+            throw new DataFormatException();
+        }
+        combinedCRC = ((combinedCRC << 1) | (combinedCRC >>> 31)) ^ computed;
+    }
+
+    private int availableBits() {
+        return bitCount + ((inEnd - inPos) << 3);
+    }
+
+    private int bits(int n) {
+        while (bitCount < n) {
+            if (inPos == inEnd) {
+                throw NEED_INPUT;
+            }
+            bitBuffer = (bitBuffer << 8) | (in[inPos++] & 0xff);
+            bitCount += 8;
+        }
+        bitCount -= n;
+        return (int) ((bitBuffer >>> bitCount) & ((1L << n) - 1));
+    }
+
+    private void mark() {
+        markPos = inPos;
+        markBitBuffer = bitBuffer;
+        markBitCount = bitCount;
+    }
+
+    private void reset() {
+        inPos = markPos;
+        bitBuffer = markBitBuffer;
+        bitCount = markBitCount;
+    }
+}
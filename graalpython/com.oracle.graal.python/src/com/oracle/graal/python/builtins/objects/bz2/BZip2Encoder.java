@@ -0,0 +1,763 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.bz2;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Incremental bzip2 encoder producing a single stream.
+ *
+ * Input is run-length encoded into blocks on the calling thread. Once a block is full, the
+ * expensive part (block sorting, move-to-front and Huffman coding) does not depend on any other
+ * block, so it is handed to the optional {@link Executor} and the coded blocks are stitched into
+ * the output bit stream in order. Block buffers are recycled once their output was consumed.
+ */
+final class BZip2Encoder {
+
+    static final long BLOCK_MAGIC = 0x314159265359L;
+    static final long EOS_MAGIC = 0x177245385090L;
+    static final int CRC_INIT = 0xffffffff;
+
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int c = i << 24;
+            for (int j = 0; j < 8; j++) {
+                c = (c & 0x80000000) != 0 ? (c << 1) ^ 0x04c11db7 : c << 1;
+            }
+            CRC_TABLE[i] = c;
+        }
+    }
+
+    static int updateCRC(int crc, byte b) {
+        return (crc << 8) ^ CRC_TABLE[((crc >>> 24) ^ b) & 0xff];
+    }
+
+    private final int blockSize100k;
+    private final int blockLimit;
+    private final Executor executor;
+    private final int maxPending;
+
+    private final BitWriter out = new BitWriter(1024);
+    private final ArrayDeque<Block> pending = new ArrayDeque<>();
+    private final ArrayDeque<Block> freeBlocks = new ArrayDeque<>();
+    private boolean headerWritten;
+    private int combinedCRC;
+
+    private Block current;
+    private int runChar = -1;
+    private int runLength;
+
+    /**
+     * @param executor used to code full blocks concurrently, or {@code null} to code them on the
+     *            calling thread
+     * @param maxPending maximal number of blocks being coded concurrently
+     */
+    BZip2Encoder(int blockSize100k, Executor executor, int maxPending) {
+        assert 1 <= blockSize100k && blockSize100k <= 9;
+        this.blockSize100k = blockSize100k;
+        // leave room for the last run, which may expand to five bytes
+        this.blockLimit = blockSize100k * 100000 - 19;
+        this.executor = executor;
+        this.maxPending = Math.max(1, maxPending);
+        this.current = new Block(blockSize100k * 100000);
+    }
+
+    void write(byte[] data, int off, int len) {
+        Block block = current;
+        int ch = runChar;
+        int chLen = runLength;
+        for (int i = off; i < off + len; i++) {
+            int b = data[i] & 0xff;
+            if (b == ch && chLen < 255) {
+                chLen++;
+                continue;
+            }
+            if (ch >= 0) {
+                block.addRun(ch, chLen);
+            }
+            ch = b;
+            chLen = 1;
+            if (block.length >= blockLimit) {
+                endBlock();
+                block = current;
+            }
+        }
+        runChar = ch;
+        runLength = chLen;
+    }
+
+    /**
+     * Returns the completely written bytes produced so far and removes them from the encoder.
+     */
+    byte[] takeOutput() {
+        drainPending(false);
+        return out.take();
+    }
+
+    void finish() {
+        if (runChar >= 0) {
+            current.addRun(runChar, runLength);
+            runChar = -1;
+        }
+        if (current.length > 0) {
+            endBlock();
+        }
+        drainPending(true);
+        writeHeaderIfNeeded();
+        out.write(24, (int) (EOS_MAGIC >>> 24));
+        out.write(24, (int) EOS_MAGIC);
+        out.write(32, combinedCRC);
+        out.alignToByte();
+    }
+
+    private void endBlock() {
+        Block block = current;
+        current = freeBlocks.isEmpty() ? new Block(blockSize100k * 100000) : freeBlocks.pop();
+        if (executor != null) {
+            block.future = CompletableFuture.runAsync(block::encode, executor);
+            pending.add(block);
+            drainPending(false);
+        } else {
+            block.encode();
+            pending.add(block);
+            drainPending(false);
+        }
+    }
+
+    private void drainPending(boolean all) {
+        while (!pending.isEmpty()) {
+            Block head = pending.peek();
+            if (head.future != null && !head.future.isDone() && !all && pending.size() <= maxPending) {
+                break;
+            }
+            if (head.future != null) {
+                head.future.join();
+                head.future = null;
+            }
+            pending.pop();
+            writeHeaderIfNeeded();
+            combinedCRC = ((combinedCRC << 1) | (combinedCRC >>> 31)) ^ head.crc;
+            out.append(head.bits);
+            head.reset();
+            freeBlocks.push(head);
+        }
+    }
+
+    private void writeHeaderIfNeeded() {
+        if (!headerWritten) {
+            headerWritten = true;
+            out.write(8, 'B');
+            out.write(8, 'Z');
+            out.write(8, 'h');
+            out.write(8, '0' + blockSize100k);
+        }
+    }
+
+    /** Growable MSB-first bit buffer. */
+    static final class BitWriter {
+        private byte[] buf;
+        private int pos;
+        private long acc;
+        private int accBits;
+
+        BitWriter(int initialCapacity) {
+            buf = new byte[initialCapacity];
+        }
+
+        void write(int n, int value) {
+            acc = (acc << n) | (value & ((1L << n) - 1));
+            accBits += n;
+            if (pos + 8 > buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2 + 8);
+            }
+            while (accBits >= 8) {
+                accBits -= 8;
+                buf[pos++] = (byte) (acc >>> accBits);
+            }
+        }
+
+        void append(BitWriter other) {
+            if (accBits == 0) {
+                if (pos + other.pos > buf.length) {
+                    buf = Arrays.copyOf(buf, Math.max(pos + other.pos, buf.length * 2));
+                }
+                System.arraycopy(other.buf, 0, buf, pos, other.pos);
+                pos += other.pos;
+            } else {
+                for (int i = 0; i < other.pos; i++) {
+                    write(8, other.buf[i]);
+                }
+            }
+            if (other.accBits > 0) {
+                write(other.accBits, (int) other.acc);
+            }
+        }
+
+        void alignToByte() {
+            if (accBits > 0) {
+                write(8 - accBits, 0);
+            }
+        }
+
+        byte[] take() {
+            byte[] result = Arrays.copyOf(buf, pos);
+            pos = 0;
+            return result;
+        }
+
+        void reset() {
+            pos = 0;
+            acc = 0;
+            accBits = 0;
+        }
+    }
+
+    /**
+     * One block of run-length encoded input together with the work arrays needed to code it.
+     */
+    private static final class Block {
+        private static final int RUNA = 0;
+        private static final int RUNB = 1;
+        private static final int MAX_GROUPS = 6;
+        private static final int GROUP_SIZE = 50;
+        private static final int MAX_ALPHA_SIZE = 258;
+        private static final int MAX_CODE_LEN = 17;
+        private static final int N_ITERS = 4;
+        private static final int LESSER_ICOST = 0;
+        private static final int GREATER_ICOST = 15;
+
+        final byte[] data;
+        int length;
+        int crc = CRC_INIT;
+        final boolean[] inUse = new boolean[256];
+        final BitWriter bits = new BitWriter(1024);
+        CompletableFuture<Void> future;
+
+        private final int[] buckets = new int[65536];
+        private int[] ptr;
+        private int[] rank;
+        private long[] sortKeys;
+        private char[] mtfv;
+
+        Block(int capacity) {
+            data = new byte[capacity];
+        }
+
+        void addRun(int ch, int len) {
+            byte b = (byte) ch;
+            for (int i = 0; i < len; i++) {
+                crc = updateCRC(crc, b);
+            }
+            inUse[ch] = true;
+            switch (len) {
+                case 1:
+                    data[length++] = b;
+                    break;
+                case 2:
+                    data[length++] = b;
+                    data[length++] = b;
+                    break;
+                case 3:
+                    data[length++] = b;
+                    data[length++] = b;
+                    data[length++] = b;
+                    break;
+                default:
+                    inUse[len - 4] = true;
+                    data[length++] = b;
+                    data[length++] = b;
+                    data[length++] = b;
+                    data[length++] = b;
+                    data[length++] = (byte) (len - 4);
+                    break;
+            }
+        }
+
+        void reset() {
+            length = 0;
+            crc = CRC_INIT;
+            Arrays.fill(inUse, false);
+            bits.reset();
+        }
+
+        void encode() {
+            crc = ~crc;
+            int n = length;
+            if (ptr == null || ptr.length < n) {
+                ptr = new int[n];
+                rank = new int[n];
+                sortKeys = new long[n];
+                mtfv = new char[n + 1];
+            }
+            sortRotations(n);
+
+            int origPtr = -1;
+            for (int i = 0; i < n; i++) {
+                if (ptr[i] == 0) {
+                    origPtr = i;
+                    break;
+                }
+            }
+            assert origPtr >= 0;
+
+            bits.write(24, (int) (BLOCK_MAGIC >>> 24));
+            bits.write(24, (int) BLOCK_MAGIC);
+            bits.write(32, crc);
+            bits.write(1, 0);
+            bits.write(24, origPtr);
+
+            int[] mtfFreq = new int[MAX_ALPHA_SIZE];
+            int nInUse = 0;
+            byte[] unseqToSeq = new byte[256];
+            for (int i = 0; i < 256; i++) {
+                if (inUse[i]) {
+                    unseqToSeq[i] = (byte) nInUse++;
+                }
+            }
+            int nMTF = generateMTFValues(n, nInUse, unseqToSeq, mtfFreq);
+            sendMTFValues(nInUse, nMTF, mtfFreq);
+        }
+
+        /**
+         * Sorts the cyclic rotations of the block. After bucket sorting by the first two bytes,
+         * rotations sharing a prefix of length {@code k} form a group ranked by the index of its
+         * last element; each round only re-sorts the groups that are not yet singletons by the
+         * rank of the rotation {@code k} positions further, doubling the sorted prefix length.
+         * Afterwards, {@code ptr} holds the start indices of the sorted rotations.
+         */
+        private void sortRotations(int n) {
+            int[] sa = ptr;
+            int[] rk = rank;
+            long[] keys = sortKeys;
+            int[] cnt = buckets;
+
+            Arrays.fill(cnt, 0);
+            for (int i = 0; i < n; i++) {
+                cnt[pairAt(i, n)]++;
+            }
+            for (int i = 1; i < cnt.length; i++) {
+                cnt[i] += cnt[i - 1];
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                sa[--cnt[pairAt(i, n)]] = i;
+            }
+            boolean unsorted = false;
+            int groupEnd = n - 1;
+            for (int i = n - 1; i >= 0; i--) {
+                if (i < n - 1) {
+                    if (pairAt(sa[i], n) != pairAt(sa[i + 1], n)) {
+                        groupEnd = i;
+                    } else {
+                        unsorted = true;
+                    }
+                }
+                rk[sa[i]] = groupEnd;
+            }
+
+            for (int k = 2; unsorted && k < n; k <<= 1) {
+                unsorted = false;
+                int p = 0;
+                while (p < n) {
+                    int end = rk[sa[p]];
+                    if (end == p) {
+                        p++;
+                        continue;
+                    }
+                    for (int j = p; j <= end; j++) {
+                        int i = sa[j];
+                        int next = i + k < n ? i + k : i + k - n;
+                        keys[j] = ((long) rk[next] << 32) | i;
+                    }
+                    Arrays.sort(keys, p, end + 1);
+                    groupEnd = end;
+                    for (int j = end; j >= p; j--) {
+                        sa[j] = (int) keys[j];
+                        if (j < end) {
+                            if ((keys[j] >>> 32) != (keys[j + 1] >>> 32)) {
+                                groupEnd = j;
+                            } else {
+                                unsorted = true;
+                            }
+                        }
+                        rk[sa[j]] = groupEnd;
+                    }
+                    p = end + 1;
+                }
+            }
+        }
+
+        private int pairAt(int i, int n) {
+            return ((data[i] & 0xff) << 8) | (data[i + 1 < n ? i + 1 : 0] & 0xff);
+        }
+
+        private int generateMTFValues(int n, int nInUse, byte[] unseqToSeq, int[] mtfFreq) {
+            int eob = nInUse + 1;
+            byte[] yy = new byte[256];
+            for (int i = 0; i < nInUse; i++) {
+                yy[i] = (byte) i;
+            }
+            int wr = 0;
+            int zPend = 0;
+            for (int i = 0; i < n; i++) {
+                int j = ptr[i] - 1;
+                if (j < 0) {
+                    j += n;
+                }
+                byte llI = unseqToSeq[data[j] & 0xff];
+                if (yy[0] == llI) {
+                    zPend++;
+                    continue;
+                }
+                if (zPend > 0) {
+                    wr = writeRun(zPend, wr, mtfFreq);
+                    zPend = 0;
+                }
+                int pos = 1;
+                while (yy[pos] != llI) {
+                    pos++;
+                }
+                System.arraycopy(yy, 0, yy, 1, pos);
+                yy[0] = llI;
+                mtfv[wr++] = (char) (pos + 1);
+                mtfFreq[pos + 1]++;
+            }
+            if (zPend > 0) {
+                wr = writeRun(zPend, wr, mtfFreq);
+            }
+            mtfv[wr++] = (char) eob;
+            mtfFreq[eob]++;
+            return wr;
+        }
+
+        /** Encodes a run of zeros as a bijective base-2 number of RUNA/RUNB symbols. */
+        private int writeRun(int zPendIn, int wrIn, int[] mtfFreq) {
+            int zPend = zPendIn - 1;
+            int wr = wrIn;
+            while (true) {
+                int sym = (zPend & 1) != 0 ? RUNB : RUNA;
+                mtfv[wr++] = (char) sym;
+                mtfFreq[sym]++;
+                if (zPend < 2) {
+                    break;
+                }
+                zPend = (zPend - 2) / 2;
+            }
+            return wr;
+        }
+
+        private void sendMTFValues(int nInUse, int nMTF, int[] mtfFreq) {
+            int alphaSize = nInUse + 2;
+            int nGroups;
+            if (nMTF < 200) {
+                nGroups = 2;
+            } else if (nMTF < 600) {
+                nGroups = 3;
+            } else if (nMTF < 1200) {
+                nGroups = 4;
+            } else if (nMTF < 2400) {
+                nGroups = 5;
+            } else {
+                nGroups = 6;
+            }
+
+            byte[][] len = new byte[nGroups][alphaSize];
+            // initial tables: partition the symbol range into groups of roughly equal frequency
+            int nPart = nGroups;
+            int remF = nMTF;
+            int gs = 0;
+            while (nPart > 0) {
+                int tFreq = remF / nPart;
+                int ge = gs - 1;
+                int aFreq = 0;
+                while (aFreq < tFreq && ge < alphaSize - 1) {
+                    ge++;
+                    aFreq += mtfFreq[ge];
+                }
+                if (ge > gs && nPart != nGroups && nPart != 1 && ((nGroups - nPart) % 2 == 1)) {
+                    aFreq -= mtfFreq[ge];
+                    ge--;
+                }
+                for (int v = 0; v < alphaSize; v++) {
+                    len[nPart - 1][v] = (byte) (v >= gs && v <= ge ? LESSER_ICOST : GREATER_ICOST);
+                }
+                nPart--;
+                gs = ge + 1;
+                remF -= aFreq;
+            }
+
+            // refine the tables by repeatedly assigning each group to its cheapest table
+            int maxSelectors = (nMTF + GROUP_SIZE - 1) / GROUP_SIZE;
+            byte[] selector = new byte[maxSelectors];
+            int[][] rfreq = new int[nGroups][alphaSize];
+            int[] cost = new int[nGroups];
+            int nSelectors = 0;
+            for (int iter = 0; iter < N_ITERS; iter++) {
+                for (int t = 0; t < nGroups; t++) {
+                    Arrays.fill(rfreq[t], 0);
+                }
+                nSelectors = 0;
+                gs = 0;
+                while (gs < nMTF) {
+                    int ge = Math.min(gs + GROUP_SIZE - 1, nMTF - 1);
+                    Arrays.fill(cost, 0);
+                    for (int i = gs; i <= ge; i++) {
+                        int icv = mtfv[i];
+                        for (int t = 0; t < nGroups; t++) {
+                            cost[t] += len[t][icv];
+                        }
+                    }
+                    int bt = 0;
+                    for (int t = 1; t < nGroups; t++) {
+                        if (cost[t] < cost[bt]) {
+                            bt = t;
+                        }
+                    }
+                    selector[nSelectors++] = (byte) bt;
+                    int[] freq = rfreq[bt];
+                    for (int i = gs; i <= ge; i++) {
+                        freq[mtfv[i]]++;
+                    }
+                    gs = ge + 1;
+                }
+                for (int t = 0; t < nGroups; t++) {
+                    makeCodeLengths(len[t], rfreq[t], alphaSize, MAX_CODE_LEN);
+                }
+            }
+
+            int[][] code = new int[nGroups][alphaSize];
+            for (int t = 0; t < nGroups; t++) {
+                assignCodes(code[t], len[t], alphaSize);
+            }
+
+            // symbol map
+            int inUse16 = 0;
+            for (int i = 0; i < 16; i++) {
+                for (int j = 0; j < 16; j++) {
+                    if (inUse[i * 16 + j]) {
+                        inUse16 |= 0x8000 >>> i;
+                        break;
+                    }
+                }
+            }
+            bits.write(16, inUse16);
+            for (int i = 0; i < 16; i++) {
+                if ((inUse16 & (0x8000 >>> i)) != 0) {
+                    int v = 0;
+                    for (int j = 0; j < 16; j++) {
+                        if (inUse[i * 16 + j]) {
+                            v |= 0x8000 >>> j;
+                        }
+                    }
+                    bits.write(16, v);
+                }
+            }
+
+            // selectors, move-to-front and unary coded
+            bits.write(3, nGroups);
+            bits.write(15, nSelectors);
+            byte[] pos = new byte[MAX_GROUPS];
+            for (int i = 0; i < nGroups; i++) {
+                pos[i] = (byte) i;
+            }
+            for (int i = 0; i < nSelectors; i++) {
+                byte s = selector[i];
+                int j = 0;
+                while (pos[j] != s) {
+                    j++;
+                }
+                System.arraycopy(pos, 0, pos, 1, j);
+                pos[0] = s;
+                for (int k = 0; k < j; k++) {
+                    bits.write(1, 1);
+                }
+                bits.write(1, 0);
+            }
+
+            // coding tables, delta coded
+            for (int t = 0; t < nGroups; t++) {
+                int curr = len[t][0];
+                bits.write(5, curr);
+                for (int i = 0; i < alphaSize; i++) {
+                    while (curr < len[t][i]) {
+                        bits.write(2, 2);
+                        curr++;
+                    }
+                    while (curr > len[t][i]) {
+                        bits.write(2, 3);
+                        curr--;
+                    }
+                    bits.write(1, 0);
+                }
+            }
+
+            // block data
+            gs = 0;
+            int selCtr = 0;
+            while (gs < nMTF) {
+                int ge = Math.min(gs + GROUP_SIZE - 1, nMTF - 1);
+                byte[] l = len[selector[selCtr]];
+                int[] c = code[selector[selCtr]];
+                for (int i = gs; i <= ge; i++) {
+                    int sym = mtfv[i];
+                    bits.write(l[sym], c[sym]);
+                }
+                gs = ge + 1;
+                selCtr++;
+            }
+        }
+
+        private static void assignCodes(int[] code, byte[] length, int alphaSize) {
+            int minLen = 32;
+            int maxLen = 0;
+            for (int i = 0; i < alphaSize; i++) {
+                minLen = Math.min(minLen, length[i]);
+                maxLen = Math.max(maxLen, length[i]);
+            }
+            int vec = 0;
+            for (int n = minLen; n <= maxLen; n++) {
+                for (int i = 0; i < alphaSize; i++) {
+                    if (length[i] == n) {
+                        code[i] = vec++;
+                    }
+                }
+                vec <<= 1;
+            }
+        }
+
+        /**
+         * Computes Huffman code lengths limited to {@code maxLen} bits. The weights keep the
+         * subtree depth in the lowest byte; if a code gets too long, the frequencies are flattened
+         * and the tree is rebuilt, like libbzip2 does.
+         */
+        private static void makeCodeLengths(byte[] len, int[] freq, int alphaSize, int maxLen) {
+            int[] heap = new int[MAX_ALPHA_SIZE + 2];
+            int[] weight = new int[MAX_ALPHA_SIZE * 2];
+            int[] parent = new int[MAX_ALPHA_SIZE * 2];
+            for (int i = 0; i < alphaSize; i++) {
+                weight[i + 1] = (freq[i] == 0 ? 1 : freq[i]) << 8;
+            }
+            while (true) {
+                int nNodes = alphaSize;
+                int nHeap = 0;
+                heap[0] = 0;
+                weight[0] = 0;
+                parent[0] = -2;
+                for (int i = 1; i <= alphaSize; i++) {
+                    parent[i] = -1;
+                    heap[++nHeap] = i;
+                    upHeap(heap, weight, nHeap);
+                }
+                while (nHeap > 1) {
+                    int n1 = heap[1];
+                    heap[1] = heap[nHeap--];
+                    downHeap(heap, weight, nHeap, 1);
+                    int n2 = heap[1];
+                    heap[1] = heap[nHeap--];
+                    downHeap(heap, weight, nHeap, 1);
+                    nNodes++;
+                    parent[n1] = nNodes;
+                    parent[n2] = nNodes;
+                    int w1 = weight[n1];
+                    int w2 = weight[n2];
+                    weight[nNodes] = ((w1 & 0xffffff00) + (w2 & 0xffffff00)) | (1 + Math.max(w1 & 0xff, w2 & 0xff));
+                    parent[nNodes] = -1;
+                    heap[++nHeap] = nNodes;
+                    upHeap(heap, weight, nHeap);
+                }
+                boolean tooLong = false;
+                for (int i = 1; i <= alphaSize; i++) {
+                    int j = 0;
+                    int k = i;
+                    while (parent[k] >= 0) {
+                        k = parent[k];
+                        j++;
+                    }
+                    len[i - 1] = (byte) j;
+                    if (j > maxLen) {
+                        tooLong = true;
+                    }
+                }
+                if (!tooLong) {
+                    return;
+                }
+                for (int i = 1; i <= alphaSize; i++) {
+                    int j = weight[i] >> 8;
+                    weight[i] = (1 + (j / 2)) << 8;
+                }
+            }
+        }
+
+        private static void upHeap(int[] heap, int[] weight, int z) {
+            int zz = z;
+            int tmp = heap[zz];
+            while (weight[tmp] < weight[heap[zz >> 1]]) {
+                heap[zz] = heap[zz >> 1];
+                zz >>= 1;
+            }
+            heap[zz] = tmp;
+        }
+
+        private static void downHeap(int[] heap, int[] weight, int nHeap, int z) {
+            int zz = z;
+            int tmp = heap[zz];
+            while (true) {
+                int yy = zz << 1;
+                if (yy > nHeap) {
+                    break;
+                }
+                if (yy < nHeap && weight[heap[yy + 1]] < weight[heap[yy]]) {
+                    yy++;
+                }
+                if (weight[tmp] < weight[heap[yy]]) {
+                    break;
+                }
+                heap[zz] = heap[yy];
+                zz = yy;
+            }
+            heap[zz] = tmp;
+        }
+    }
+}
@@ -45,6 +45,8 @@ import com.oracle.graal.python.builtins.objects.cext.DynamicObjectNativeWrapper.
 
 public abstract class CApiGuards {
 
+    private static final long NEGATIVE_ZERO_BITS = Double.doubleToRawLongBits(-0.0);
+
     public static boolean isPrimitiveNativeWrapper(Object object) {
         return object instanceof PrimitiveNativeWrapper;
     }
@@ -74,6 +76,14 @@ public abstract class CApiGuards {
         return -5 <= i && i < 257;
     }
 
+    /**
+     * Doubles with the integral value of a small integer (but not {@code -0.0}) also use cached
+     * native wrappers. See {@link #isSmallInteger(int)}.
+     */
+    public static boolean isSmallDouble(double d) {
+        return -5 <= d && d < 257 && (int) d == d && Double.doubleToRawLongBits(d) != NEGATIVE_ZERO_BITS;
+    }
+
     public static boolean isSmallIntegerWrapper(PrimitiveNativeWrapper nativeWrapper) {
         return nativeWrapper.isIntLike() && isSmallLong(nativeWrapper.getLong());
     }
@@ -381,7 +381,17 @@ public abstract class CExtNodes {
             return PrimitiveNativeWrapper.createLong(l);
         }
 
-        @Specialization(guards = "!isNaN(d)")
+        @Specialization(guards = "isSmallDouble(d)")
+        static PrimitiveNativeWrapper doDoubleSmall(@SuppressWarnings("unused") CExtContext cextContext, double d,
+                        @Shared("contextRef") @CachedContext(PythonLanguage.class) ContextReference<PythonContext> contextRef) {
+            PythonContext context = contextRef.get();
+            if (context.getCApiContext() != null) {
+                return context.getCApiContext().getCachedPrimitiveNativeWrapper(d);
+            }
+            return PrimitiveNativeWrapper.createDouble(d);
+        }
+
+        @Specialization(guards = {"!isNaN(d)", "!isSmallDouble(d)"})
         static Object doDouble(@SuppressWarnings("unused") CExtContext cextContext, double d) {
             return PrimitiveNativeWrapper.createDouble(d);
         }
@@ -619,7 +629,19 @@ public abstract class CExtNodes {
             return PrimitiveNativeWrapper.createLong(l);
         }
 
-        @Specialization(guards = "!isNaN(d)")
+        @Specialization(guards = "isSmallDouble(d)")
+        static PrimitiveNativeWrapper doDoubleSmall(@SuppressWarnings("unused") CExtContext cextContext, double d,
+                        @Shared("contextRef") @CachedContext(PythonLanguage.class) ContextReference<PythonContext> contextRef) {
+            PythonContext context = contextRef.get();
+            if (context.getCApiContext() != null) {
+                PrimitiveNativeWrapper cachedPrimitiveNativeWrapper = context.getCApiContext().getCachedPrimitiveNativeWrapper(d);
+                cachedPrimitiveNativeWrapper.increaseRefCount();
+                return cachedPrimitiveNativeWrapper;
+            }
+            return PrimitiveNativeWrapper.createDouble(d);
+        }
+
+        @Specialization(guards = {"!isNaN(d)", "!isSmallDouble(d)"})
         static Object doDouble(CExtContext cextContext, double d) {
             return ToSulongNode.doDouble(cextContext, d);
         }
@@ -811,7 +833,13 @@ public abstract class CExtNodes {
             return ToNewRefNode.doLong(cextContext, l, contextRef);
         }
 
-        @Specialization(guards = "!isNaN(d)")
+        @Specialization(guards = "isSmallDouble(d)")
+        static PrimitiveNativeWrapper doDoubleSmall(CExtContext cextContext, double d,
+                        @Shared("contextRef") @CachedContext(PythonLanguage.class) ContextReference<PythonContext> contextRef) {
+            return ToNewRefNode.doDoubleSmall(cextContext, d, contextRef);
+        }
+
+        @Specialization(guards = {"!isNaN(d)", "!isSmallDouble(d)"})
         static Object doDouble(CExtContext cextContext, double d) {
             return ToSulongNode.doDouble(cextContext, d);
         }
@@ -41,10 +41,14 @@
 package com.oracle.graal.python.builtins.objects.cext;
 
 import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.objects.cext.capi.CApiContext;
+import com.oracle.graal.python.builtins.objects.cext.capi.NativeHandleTable;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.CachedContext;
 import com.oracle.truffle.api.dsl.GenerateUncached;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -58,6 +62,7 @@ import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
 import com.oracle.truffle.api.nodes.InvalidAssumptionException;
 import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @ExportLibrary(InteropLibrary.class)
 public final class HandleCache implements TruffleObject {
@@ -114,17 +119,30 @@ public final class HandleCache implements TruffleObject {
             return cachedValue;
         }
 
-        @Specialization(replaces = "doCachedSingleContext", assumptions = "singleContextAssumption()")
-        static Object doGenericSingleContext(@SuppressWarnings("unused") HandleCache cache, long handle,
-                        @Cached(value = "cache.getPtrToResolveHandle()", allowUncached = true) TruffleObject resolveHandleFunction,
-                        @CachedLibrary("resolveHandleFunction") InteropLibrary interopLibrary) throws UnsupportedTypeException, ArityException, UnsupportedMessageException {
-            return resolveHandle(handle, resolveHandleFunction, interopLibrary);
-        }
-
-        @Specialization(limit = "3", replaces = {"doCachedSingleContext", "doGenericSingleContext"})
-        static Object doGeneric(@SuppressWarnings("unused") HandleCache cache, long handle,
+        /**
+         * Looks up the handle in the context's {@link NativeHandleTable} and only calls into native
+         * code on a miss. The handle cache is created by a C constructor, i.e., before the C API
+         * context exists. Handles resolved until then are not recorded.
+         */
+        @Specialization(limit = "3", replaces = "doCachedSingleContext")
+        static Object doGeneric(HandleCache cache, long handle,
+                        @CachedContext(PythonLanguage.class) PythonContext context,
+                        @Cached("createBinaryProfile()") ConditionProfile hitProfile,
                         @CachedLibrary("cache.getPtrToResolveHandle()") InteropLibrary interopLibrary) throws UnsupportedTypeException, ArityException, UnsupportedMessageException {
-            return resolveHandle(handle, cache.getPtrToResolveHandle(), interopLibrary);
+            CApiContext cApiContext = context.getCApiContext();
+            if (cApiContext == null) {
+                return resolveHandle(handle, cache.getPtrToResolveHandle(), interopLibrary);
+            }
+            NativeHandleTable handleTable = cApiContext.getHandleTable();
+            PythonNativeWrapper nativeWrapper = handleTable.get(handle);
+            if (hitProfile.profile(nativeWrapper != null)) {
+                return nativeWrapper;
+            }
+            Object resolved = resolveHandle(handle, cache.getPtrToResolveHandle(), interopLibrary);
+            if (resolved instanceof PythonNativeWrapper) {
+                handleTable.put(handle, (PythonNativeWrapper) resolved);
+            }
+            return resolved;
         }
 
         static PythonNativeWrapper resolveHandleUncached(HandleCache cache, long handle)
@@ -49,6 +49,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import org.graalvm.collections.EconomicMap;
@@ -97,19 +99,36 @@ public final class CApiContext extends CExtContext {
     public static final long REFERENCE_COUNT_BITS = Integer.SIZE;
     public static final long REFERENCE_COUNT_MARKER = (1L << REFERENCE_COUNT_BITS);
 
-    /** Total amount of allocated native memory (in bytes). */
-    private long allocatedMemory = 0;
+    /**
+     * Time (in milliseconds) to wait for collected native objects after the first forced GC. Each
+     * further escalation step waits {@value #RECLAIM_ESCALATION_FACTOR} times as long.
+     */
+    private static final long RECLAIM_INITIAL_WAIT_MILLIS = 10;
+    private static final int RECLAIM_ESCALATION_FACTOR = 5;
+    private static final int RECLAIM_MAX_GC_ATTEMPTS = 3;
+
+    private final NativeMemoryPressure nativeMemoryPressure;
 
     private final ReferenceQueue<Object> nativeObjectsQueue;
+
+    /**
+     * References taken from {@link #nativeObjectsQueue} by the async action thread that were not
+     * released yet. Threads waiting for reclamation progress wait on this queue.
+     */
+    private final ConcurrentLinkedQueue<NativeObjectReference> collectedReferences;
+    private final boolean asyncReferenceProcessing;
     private Map<Object, AllocInfo> allocatedNativeMemory;
     private final NativeReferenceStack nativeObjectWrapperList;
     private TraceMallocDomain[] traceMallocDomains;
 
+    /** Resolves native handles to native wrappers without calling into native code. */
+    private final NativeHandleTable handleTable = new NativeHandleTable();
+
     /** Container of pointers that have seen to be free'd. */
     private Map<Object, AllocInfo> freedNativeMemory;
 
     @CompilationFinal private RootCallTarget referenceCleanerCallTarget;
-    @CompilationFinal private RootCallTarget triggerAsyncActionsCallTarget;
+    @CompilationFinal private RootCallTarget reclaimNativeMemoryCallTarget;
 
     /**
      * This cache is used to cache native wrappers for frequently used primitives. This is strictly
@@ -117,6 +136,7 @@ public final class CApiContext extends CExtContext {
      * {@code PyLong_FromLong}; implemented in macro {@code CHECK_SMALL_INT}).
      */
     @CompilationFinal(dimensions = 1) private final PrimitiveNativeWrapper[] primitiveNativeWrapperCache;
+    @CompilationFinal(dimensions = 1) private final PrimitiveNativeWrapper[] primitiveNativeWrapperDoubleCache;
 
     /** Just used for integrity checks if assertions are enabled. */
     @CompilationFinal private ReferenceLibrary referenceLibrary;
@@ -129,7 +149,10 @@ public final class CApiContext extends CExtContext {
 
     public CApiContext(PythonContext context, Object hpyLibrary) {
         super(context, hpyLibrary, CAPIConversionNodeSupplier.INSTANCE);
+        nativeMemoryPressure = new NativeMemoryPressure(context.getOption(PythonOptions.MaxNativeMemory));
         nativeObjectsQueue = new ReferenceQueue<>();
+        collectedReferences = new ConcurrentLinkedQueue<>();
+        asyncReferenceProcessing = !context.getOption(PythonOptions.NoAsyncActions);
         nativeObjectWrapperList = new NativeReferenceStack();
 
         // avoid 0 to be used as ID
@@ -143,6 +166,12 @@ public final class CApiContext extends CExtContext {
             nativeWrapper.increaseRefCount();
             primitiveNativeWrapperCache[i] = nativeWrapper;
         }
+        primitiveNativeWrapperDoubleCache = new PrimitiveNativeWrapper[262];
+        for (int i = 0; i < primitiveNativeWrapperDoubleCache.length; i++) {
+            PrimitiveNativeWrapper nativeWrapper = PrimitiveNativeWrapper.createDouble(i - 5);
+            nativeWrapper.increaseRefCount();
+            primitiveNativeWrapperDoubleCache[i] = nativeWrapper;
+        }
 
         context.registerAsyncAction(() -> {
             Reference<?> reference = null;
@@ -152,23 +181,91 @@ public final class CApiContext extends CExtContext {
                 Thread.currentThread().interrupt();
             }
 
-            ArrayList<NativeObjectReference> refs = new ArrayList<>();
-            do {
-                if (reference instanceof NativeObjectReference) {
-                    refs.add((NativeObjectReference) reference);
-                }
-                // consume all
-                reference = nativeObjectsQueue.poll();
-            } while (reference != null);
-
-            if (!refs.isEmpty()) {
-                return new CApiReferenceCleanerAction(refs.toArray(new NativeObjectReference[0]));
+            if (moveToCollectedReferences(reference) > 0) {
+                // the references may already be released by a thread reclaiming native memory
+                return CApiReferenceCleanerAction.INSTANCE;
             }
-
             return null;
         });
     }
 
+    public NativeMemoryPressure getNativeMemoryPressure() {
+        return nativeMemoryPressure;
+    }
+
+    public NativeHandleTable getHandleTable() {
+        return handleTable;
+    }
+
+    /**
+     * Moves the given reference and all other references currently in {@link #nativeObjectsQueue}
+     * to {@link #collectedReferences} and wakes up threads waiting for reclamation progress.
+     */
+    private int moveToCollectedReferences(Reference<?> first) {
+        int n = 0;
+        Reference<?> reference = first;
+        while (reference != null) {
+            if (reference instanceof NativeObjectReference) {
+                collectedReferences.add((NativeObjectReference) reference);
+                n++;
+            }
+            // consume all
+            reference = nativeObjectsQueue.poll();
+        }
+        if (n > 0) {
+            synchronized (collectedReferences) {
+                collectedReferences.notifyAll();
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Releases the native objects of all collected references and returns how many there were.
+     */
+    @TruffleBoundary
+    int releaseCollectedReferences() {
+        moveToCollectedReferences(nativeObjectsQueue.poll());
+        ArrayList<NativeObjectReference> refs = new ArrayList<>();
+        NativeObjectReference ref;
+        while ((ref = collectedReferences.poll()) != null) {
+            refs.add(ref);
+        }
+        if (!refs.isEmpty()) {
+            Object[] pArguments = PArguments.create(1);
+            PArguments.setArgument(pArguments, 0, refs.toArray(new NativeObjectReference[0]));
+            GenericInvokeNode.getUncached().execute(getReferenceCleanerCallTarget(), pArguments);
+        }
+        return refs.size();
+    }
+
+    /**
+     * Forces a GC and waits at most {@code timeoutMillis} until the managed counterparts of native
+     * objects are collected. Returns as soon as there is at least one collected reference.
+     */
+    @TruffleBoundary
+    private void collectAndAwaitReferences(long timeoutMillis) {
+        LOGGER.fine("full GC due to native memory");
+        nativeMemoryPressure.gcTriggered();
+        System.gc();
+        try {
+            if (!asyncReferenceProcessing) {
+                // nobody else takes references from the queue
+                moveToCollectedReferences(nativeObjectsQueue.remove(timeoutMillis));
+                return;
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            synchronized (collectedReferences) {
+                long remaining;
+                while (collectedReferences.isEmpty() && (remaining = deadline - System.nanoTime()) > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(collectedReferences, remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     public int getPyLongBitsInDigit() {
         if (pyLongBitsInDigit < 0) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -209,12 +306,12 @@ public final class CApiContext extends CExtContext {
         return referenceCleanerCallTarget;
     }
 
-    RootCallTarget getTriggerAsyncActionsCallTarget() {
-        if (triggerAsyncActionsCallTarget == null) {
+    RootCallTarget getReclaimNativeMemoryCallTarget() {
+        if (reclaimNativeMemoryCallTarget == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            triggerAsyncActionsCallTarget = Truffle.getRuntime().createCallTarget(new TriggerAsyncActionsRootNode(getContext()));
+            reclaimNativeMemoryCallTarget = Truffle.getRuntime().createCallTarget(new ReclaimNativeMemoryRootNode(getContext()));
         }
-        return triggerAsyncActionsCallTarget;
+        return reclaimNativeMemoryCallTarget;
     }
 
     public TraceMallocDomain getTraceMallocDomain(int domainIdx) {
@@ -254,6 +351,14 @@ public final class CApiContext extends CExtContext {
         return getCachedPrimitiveNativeWrapper((int) l);
     }
 
+    public PrimitiveNativeWrapper getCachedPrimitiveNativeWrapper(double d) {
+        assert CApiGuards.isSmallDouble(d);
+        PrimitiveNativeWrapper primitiveNativeWrapper = primitiveNativeWrapperDoubleCache[(int) d + 5];
+        primitiveNativeWrapper.increaseRefCount();
+        assert primitiveNativeWrapper.getRefCount() > 0;
+        return primitiveNativeWrapper;
+    }
+
     static class NativeObjectReference extends WeakReference<PythonAbstractNativeObject> {
 
         /**
@@ -319,7 +424,7 @@ public final class CApiContext extends CExtContext {
             try {
                 NativeObjectReference[] nativeObjectReferences = (NativeObjectReference[]) PArguments.getArgument(frame, 0);
                 int cleaned = 0;
-                long allocatedNativeMem = cApiContext.allocatedMemory;
+                long allocatedNativeMem = cApiContext.nativeMemoryPressure.getAllocated();
                 long startTime = 0;
                 long middleTime = 0;
                 final int n = nativeObjectReferences.length;
@@ -367,7 +472,7 @@ public final class CApiContext extends CExtContext {
                     final long countDuration = middleTime - startTime;
                     final long duration = System.currentTimeMillis() - middleTime;
                     final int finalCleaned = cleaned;
-                    final long freedNativeMemory = allocatedNativeMem - cApiContext.allocatedMemory;
+                    final long freedNativeMemory = allocatedNativeMem - cApiContext.nativeMemoryPressure.getAllocated();
                     LOGGER.fine(() -> "Total queued references: " + n);
                     LOGGER.fine(() -> "Cleaned references: " + finalCleaned);
                     LOGGER.fine(() -> "Free'd native memory: " + freedNativeMemory);
@@ -405,22 +510,21 @@ public final class CApiContext extends CExtContext {
      * Reference cleaner action that will be executed by the {@link AsyncHandler}.
      */
     private static final class CApiReferenceCleanerAction implements AsyncHandler.AsyncAction {
-
-        private final NativeObjectReference[] nativeObjectReferences;
-
-        public CApiReferenceCleanerAction(NativeObjectReference[] nativeObjectReferences) {
-            this.nativeObjectReferences = nativeObjectReferences;
-        }
+        private static final CApiReferenceCleanerAction INSTANCE = new CApiReferenceCleanerAction();
 
         @Override
         public void execute(PythonContext context) {
-            Object[] pArguments = PArguments.create(1);
-            PArguments.setArgument(pArguments, 0, nativeObjectReferences);
-            GenericInvokeNode.getUncached().execute(context.getCApiContext().getReferenceCleanerCallTarget(), pArguments);
+            context.getCApiContext().releaseCollectedReferences();
         }
     }
 
-    private static final class TriggerAsyncActionsRootNode extends PRootNode {
+    /**
+     * Reclaims native memory once the soft watermark is exceeded. Above the soft watermark, only
+     * native objects whose managed counterparts are already collected are released. Above the hard
+     * watermark, GCs are forced with increasing waiting times for the collected references until
+     * the allocated memory drops below the hard watermark or a GC does not release anything.
+     */
+    private static final class ReclaimNativeMemoryRootNode extends PRootNode {
         private static final Signature SIGNATURE = new Signature(-1, false, -1, false, new String[0], new String[0]);
 
         @Child private CalleeContext calleeContext = CalleeContext.create();
@@ -429,7 +533,7 @@ public final class CApiContext extends CExtContext {
         private final BranchProfile asyncProfile = BranchProfile.create();
         private final PythonContext context;
 
-        protected TriggerAsyncActionsRootNode(PythonContext context) {
+        protected ReclaimNativeMemoryRootNode(PythonContext context) {
             super(context.getLanguage());
             this.context = context;
         }
@@ -438,8 +542,24 @@ public final class CApiContext extends CExtContext {
         public Object execute(VirtualFrame frame) {
             CalleeContext.enter(frame, customLocalsProfile);
             try {
-                doGc();
+                CApiContext cApiContext = context.getCApiContext();
+                NativeMemoryPressure pressure = cApiContext.nativeMemoryPressure;
+                long start = System.nanoTime();
+                cApiContext.releaseCollectedReferences();
                 context.triggerAsyncActions(frame, asyncProfile);
+                long waitMillis = RECLAIM_INITIAL_WAIT_MILLIS;
+                for (int i = 0; i < RECLAIM_MAX_GC_ATTEMPTS && pressure.isAboveHardWatermark(); i++) {
+                    long allocatedBefore = pressure.getAllocated();
+                    cApiContext.collectAndAwaitReferences(waitMillis);
+                    int released = cApiContext.releaseCollectedReferences();
+                    context.triggerAsyncActions(frame, asyncProfile);
+                    if (released == 0 && pressure.getAllocated() >= allocatedBefore) {
+                        // the GC did not find anything, another one won't either
+                        break;
+                    }
+                    waitMillis *= RECLAIM_ESCALATION_FACTOR;
+                }
+                pressure.stalled(System.nanoTime() - start);
             } finally {
                 calleeContext.exit(frame, this);
             }
@@ -617,50 +737,29 @@ public final class CApiContext extends CExtContext {
     }
 
     public void increaseMemoryPressure(GenericInvokeNode invokeNode, long size) {
-        if (allocatedMemory <= getContext().getOption(PythonOptions.MaxNativeMemory)) {
-            allocatedMemory += size;
-            return;
+        if (!nativeMemoryPressure.allocate(size)) {
+            // Reclaiming memory is hidden behind a call target to keep this method slim.
+            invokeNode.execute(getReclaimNativeMemoryCallTarget(), PArguments.create());
+            checkNativeMemoryLimit(size);
         }
-
-        // Triggering the GC and the async actions is hidden behind a call target to keep this
-        // method slim.
-        invokeNode.execute(getTriggerAsyncActionsCallTarget(), PArguments.create());
-
-        if (allocatedMemory + size > getContext().getOption(PythonOptions.MaxNativeMemory)) {
-            throw new OutOfMemoryError("native memory");
-        }
-        allocatedMemory += size;
     }
 
-    public void increaseMemoryPressure(VirtualFrame frame, long size, BranchProfile asyncProfile) {
-        if (allocatedMemory <= getContext().getOption(PythonOptions.MaxNativeMemory)) {
-            allocatedMemory += size;
-            return;
+    public void increaseMemoryPressure(VirtualFrame frame, GenericInvokeNode invokeNode, long size) {
+        if (!nativeMemoryPressure.allocate(size)) {
+            invokeNode.execute(frame, getReclaimNativeMemoryCallTarget(), PArguments.create());
+            checkNativeMemoryLimit(size);
         }
+    }
 
-        doGc();
-        getContext().triggerAsyncActions(frame, asyncProfile);
-
-        if (allocatedMemory + size > getContext().getOption(PythonOptions.MaxNativeMemory)) {
+    private void checkNativeMemoryLimit(long size) {
+        if (nativeMemoryPressure.isAboveHardWatermark()) {
+            nativeMemoryPressure.cancel(size);
             throw new OutOfMemoryError("native memory");
         }
-        allocatedMemory += size;
     }
 
     public void reduceMemoryPressure(long size) {
-        allocatedMemory -= size;
-    }
-
-    @TruffleBoundary
-    private static void doGc() {
-        LOGGER.fine("full GC due to native memory");
-        System.gc();
-        try {
-            Thread.sleep(50);
-        } catch (InterruptedException x) {
-            // Restore interrupt status
-            Thread.currentThread().interrupt();
-        }
+        nativeMemoryPressure.free(size);
     }
 
     /**
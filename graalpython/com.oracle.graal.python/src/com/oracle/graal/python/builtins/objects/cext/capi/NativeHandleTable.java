@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.cext.capi;
+
+import com.oracle.graal.python.builtins.objects.cext.PythonNativeWrapper;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Maps native handles (as produced by {@code truffle_handle_for_managed}) to the native wrappers
+ * they were created for. The table uses open addressing with linear probing such that lookups
+ * are allocation-free and can be partially evaluated. Entries must be removed when the handle is
+ * released (see {@link PyTruffleObjectFree.ReleaseHandleNode}) since the handle value may be
+ * reused afterwards.
+ *
+ * The table may be accessed by several threads. Lookups are lock-free: they read the slot array
+ * once from a volatile field and each slot holds an immutable {@link Entry}, so a lookup never
+ * pairs a handle with the wrong wrapper. Mutations are serialized on the table and a resize
+ * publishes a completely filled new slot array. A lookup racing with a removal may miss an entry
+ * that is being moved; callers then resolve the handle natively.
+ */
+public final class NativeHandleTable {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final class Entry {
+        final long handle;
+        final PythonNativeWrapper nativeWrapper;
+
+        Entry(long handle, PythonNativeWrapper nativeWrapper) {
+            this.handle = handle;
+            this.nativeWrapper = nativeWrapper;
+        }
+    }
+
+    private volatile Entry[] entries;
+    private int size;
+
+    public NativeHandleTable() {
+        entries = new Entry[INITIAL_CAPACITY];
+    }
+
+    private static int hash(long handle, int mask) {
+        return (int) ((handle * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    public PythonNativeWrapper get(long handle) {
+        if (handle == 0) {
+            return null;
+        }
+        Entry[] e = entries;
+        int mask = e.length - 1;
+        for (int i = hash(handle, mask);; i = (i + 1) & mask) {
+            Entry entry = e[i];
+            if (entry == null) {
+                return null;
+            } else if (entry.handle == handle) {
+                return entry.nativeWrapper;
+            }
+        }
+    }
+
+    @TruffleBoundary
+    public synchronized void put(long handle, PythonNativeWrapper nativeWrapper) {
+        assert nativeWrapper != null;
+        if (handle == 0) {
+            return;
+        }
+        Entry[] e = entries;
+        if (3 * (size + 1) > 2 * e.length) {
+            e = resize(e, e.length * 2);
+        }
+        int mask = e.length - 1;
+        int i = hash(handle, mask);
+        while (e[i] != null && e[i].handle != handle) {
+            i = (i + 1) & mask;
+        }
+        if (e[i] == null) {
+            size++;
+        }
+        e[i] = new Entry(handle, nativeWrapper);
+    }
+
+    @TruffleBoundary
+    public synchronized void remove(long handle) {
+        if (handle == 0) {
+            return;
+        }
+        Entry[] e = entries;
+        int mask = e.length - 1;
+        int i = hash(handle, mask);
+        for (;; i = (i + 1) & mask) {
+            if (e[i] == null) {
+                return;
+            } else if (e[i].handle == handle) {
+                break;
+            }
+        }
+        // backward-shift deletion: move following entries of the same cluster into the gap
+        int gap = i;
+        for (int j = (gap + 1) & mask; e[j] != null; j = (j + 1) & mask) {
+            int home = hash(e[j].handle, mask);
+            // the entry at 'j' may be moved if its home slot is not in the range (gap, j]
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                e[gap] = e[j];
+                gap = j;
+            }
+        }
+        e[gap] = null;
+        size--;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private Entry[] resize(Entry[] oldEntries, int newCapacity) {
+        Entry[] newEntries = new Entry[newCapacity];
+        int mask = newCapacity - 1;
+        for (Entry entry : oldEntries) {
+            if (entry != null) {
+                int i = hash(entry.handle, mask);
+                while (newEntries[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                newEntries[i] = entry;
+            }
+        }
+        entries = newEntries;
+        return newEntries;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.cext.capi;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accounting of the native memory allocated through the C API. Allocations are counted without
+ * locking from any thread. Crossing the <em>soft watermark</em> makes the allocating thread release
+ * native objects whose managed counterparts were already collected, crossing the <em>hard
+ * watermark</em> (option {@code MaxNativeMemory}) additionally forces garbage collections. The
+ * cumulative counters and the watermarks are exposed by
+ * {@code __graalpython__.native_memory_stats()}.
+ */
+public final class NativeMemoryPressure {
+    /** The soft watermark in percent of the hard watermark. */
+    private static final int SOFT_WATERMARK_PERCENT = 75;
+
+    private final long softWatermark;
+    private final long hardWatermark;
+
+    /** Currently allocated native memory (in bytes). */
+    private final AtomicLong allocated = new AtomicLong();
+
+    private final LongAdder totalAllocated = new LongAdder();
+    private final LongAdder totalFreed = new LongAdder();
+    private final LongAdder gcReclaims = new LongAdder();
+    private final LongAdder stallNanos = new LongAdder();
+
+    NativeMemoryPressure(long maxNativeMemory) {
+        this.hardWatermark = maxNativeMemory;
+        this.softWatermark = getSoftWatermark(maxNativeMemory);
+    }
+
+    /** The soft watermark belonging to the given hard watermark. */
+    public static long getSoftWatermark(long hardWatermark) {
+        return hardWatermark / 100 * SOFT_WATERMARK_PERCENT;
+    }
+
+    /**
+     * Accounts {@code size} bytes and returns {@code true} if the allocated memory is still below
+     * the soft watermark afterwards.
+     */
+    boolean allocate(long size) {
+        totalAllocated.add(size);
+        return allocated.addAndGet(size) <= softWatermark;
+    }
+
+    /** Reverts {@link #allocate(long)} for an allocation that is not going to happen. */
+    void cancel(long size) {
+        totalAllocated.add(-size);
+        allocated.addAndGet(-size);
+    }
+
+    void free(long size) {
+        totalFreed.add(size);
+        allocated.addAndGet(-size);
+    }
+
+    void gcTriggered() {
+        gcReclaims.increment();
+    }
+
+    void stalled(long nanos) {
+        stallNanos.add(nanos);
+    }
+
+    boolean isAboveHardWatermark() {
+        return allocated.get() > hardWatermark;
+    }
+
+    public long getAllocated() {
+        return allocated.get();
+    }
+
+    public long getTotalAllocated() {
+        return totalAllocated.sum();
+    }
+
+    public long getTotalFreed() {
+        return totalFreed.sum();
+    }
+
+    /** Number of garbage collections forced because the hard watermark was exceeded. */
+    public long getGcReclaims() {
+        return gcReclaims.sum();
+    }
+
+    /** Total time (in nanoseconds) allocating threads spent reclaiming native memory. */
+    public long getStallNanos() {
+        return stallNanos.sum();
+    }
+
+    public long getSoftWatermark() {
+        return softWatermark;
+    }
+
+    public long getHardWatermark() {
+        return hardWatermark;
+    }
+}
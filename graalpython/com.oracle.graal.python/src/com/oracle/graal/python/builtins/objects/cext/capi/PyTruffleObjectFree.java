@@ -49,9 +49,11 @@ import com.oracle.graal.python.builtins.objects.cext.CExtNodes.PCallCapiFunction
 import com.oracle.graal.python.builtins.objects.cext.NativeCAPISymbols;
 import com.oracle.graal.python.builtins.objects.cext.PythonNativeWrapper;
 import com.oracle.graal.python.builtins.objects.cext.PythonNativeWrapperLibrary;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.TruffleLogger;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.CachedContext;
 import com.oracle.truffle.api.dsl.GenerateUncached;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -92,6 +94,8 @@ public class PyTruffleObjectFree implements TruffleObject {
         static int doNativeWrapper(PythonNativeWrapper nativeWrapper,
                         @CachedLibrary("nativeWrapper") PythonNativeWrapperLibrary lib,
                         @Cached ClearNativeWrapperNode clearNativeWrapperNode,
+                        @CachedContext(PythonLanguage.class) PythonContext context,
+                        @CachedLibrary(limit = "1") InteropLibrary pointerLib,
                         @Cached PCallCapiFunction callReleaseHandleNode) {
             if (nativeWrapper.getRefCount() > 0) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -102,7 +106,7 @@ public class PyTruffleObjectFree implements TruffleObject {
             Object delegate = lib.getDelegate(nativeWrapper);
             clearNativeWrapperNode.execute(delegate, nativeWrapper);
 
-            ReleaseHandleNode.doNativeWrapper(nativeWrapper, lib, callReleaseHandleNode);
+            ReleaseHandleNode.doNativeWrapper(nativeWrapper, lib, context, pointerLib, callReleaseHandleNode);
             return 1;
         }
 
@@ -121,6 +125,8 @@ public class PyTruffleObjectFree implements TruffleObject {
         @Specialization(limit = "3")
         static void doNativeWrapper(PythonNativeWrapper nativeWrapper,
                         @CachedLibrary("nativeWrapper") PythonNativeWrapperLibrary lib,
+                        @CachedContext(PythonLanguage.class) PythonContext context,
+                        @CachedLibrary(limit = "1") InteropLibrary pointerLib,
                         @Cached PCallCapiFunction callReleaseHandleNode) {
 
             // If wrapper already received toNative, release the handle or free the native memory.
@@ -132,8 +138,20 @@ public class PyTruffleObjectFree implements TruffleObject {
                 if (LOGGER.isLoggable(Level.FINER)) {
                     LOGGER.finer(() -> String.format("Releasing handle: %s (object: %s)", nativePointer, nativeWrapper));
                 }
+                // the handle may be reused once released, so it must not resolve to this wrapper
+                CApiContext cApiContext = context.getCApiContext();
+                if (cApiContext != null) {
+                    removeFromHandleTable(cApiContext.getHandleTable(), nativePointer, pointerLib);
+                }
                 callReleaseHandleNode.call(NativeCAPISymbols.FUN_PY_TRUFFLE_FREE, nativePointer);
             }
         }
+
+        private static void removeFromHandleTable(NativeHandleTable handleTable, Object nativePointer, InteropLibrary pointerLib) {
+            Object handle = CApiContext.asPointer(nativePointer, pointerLib);
+            if (handle instanceof Long) {
+                handleTable.remove((long) handle);
+            }
+        }
     }
 }
@@ -46,6 +46,8 @@ import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
 import static com.oracle.graal.python.builtins.objects.cext.NativeCAPISymbols.FUN_GET_BUFFER_R;
 import static com.oracle.graal.python.builtins.objects.cext.NativeCAPISymbols.FUN_GET_BUFFER_RW;
 
+import java.util.Arrays;
+
 import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
@@ -138,6 +140,9 @@ public abstract class CExtParseArgumentsNode {
     static final char FORMAT_LOWER_P = 'p';
     static final char FORMAT_PAR_OPEN = '(';
 
+    /** The maximum number of format units that are unrolled for a cached format string. */
+    static final int MAX_EXPLODED_FORMAT_UNITS = 16;
+
     @GenerateUncached
     @ReportPolymorphism
     @ImportStatic(PGuards.class)
@@ -145,11 +150,12 @@ public abstract class CExtParseArgumentsNode {
 
         public abstract int execute(String funName, Object argv, Object kwds, Object format, Object kwdnames, Object varargs, CExtContext nativeContext);
 
-        @Specialization(guards = {"isDictOrNull(kwds)", "cachedFormat.equals(format)", "cachedFormat.length() <= 8"}, limit = "5")
+        @Specialization(guards = {"isDictOrNull(kwds)", "cachedFormat.equals(format)", "unitIndices.length <= MAX_EXPLODED_FORMAT_UNITS"}, limit = "5")
         int doSpecial(String funName, PTuple argv, Object kwds, @SuppressWarnings("unused") String format, Object kwdnames, Object varargs, CExtContext nativeConext,
                         @Cached(value = "format", allowUncached = true) @SuppressWarnings("unused") String cachedFormat,
                         @Cached(value = "getChars(format)", allowUncached = true, dimensions = 1) char[] chars,
-                        @Cached("createConvertArgNodes(cachedFormat)") ConvertArgNode[] convertArgNodes,
+                        @Cached(value = "getFormatUnitIndices(chars)", allowUncached = true, dimensions = 1) int[] unitIndices,
+                        @Cached("createConvertArgNodes(unitIndices)") ConvertArgNode[] convertArgNodes,
                         @Cached HashingCollectionNodes.LenNode kwdsLenNode,
                         @Cached PRaiseNativeNode raiseNode) {
             try {
@@ -157,7 +163,7 @@ public abstract class CExtParseArgumentsNode {
                 if (kwds != null && kwdsLenNode.execute((PDict) kwds) != 0) {
                     kwdsDict = (PDict) kwds;
                 }
-                doParsingExploded(funName, argv, kwdsDict, chars, kwdnames, varargs, nativeConext, convertArgNodes, raiseNode);
+                doParsingExploded(funName, argv, kwdsDict, chars, unitIndices, kwdnames, varargs, nativeConext, convertArgNodes, raiseNode);
                 return 1;
             } catch (InteropException | ParseArgumentsException e) {
                 return 0;
@@ -186,13 +192,13 @@ public abstract class CExtParseArgumentsNode {
         }
 
         @ExplodeLoop(kind = LoopExplosionKind.FULL_UNROLL_UNTIL_RETURN)
-        private static void doParsingExploded(String funName, PTuple argv, Object kwds, char[] chars, Object kwdnames, Object varargs, CExtContext nativeContext,
+        private static void doParsingExploded(String funName, PTuple argv, Object kwds, char[] chars, int[] unitIndices, Object kwdnames, Object varargs, CExtContext nativeContext,
                         ConvertArgNode[] convertArgNodes, PRaiseNativeNode raiseNode)
                         throws InteropException, ParseArgumentsException {
-            CompilerAsserts.partialEvaluationConstant(chars.length);
+            CompilerAsserts.partialEvaluationConstant(unitIndices.length);
             ParserState state = new ParserState(funName, new PositionalArgStack(argv, null), nativeContext);
-            for (int i = 0; i < chars.length; i++) {
-                state = convertArg(state, kwds, chars, i, kwdnames, varargs, convertArgNodes[i], raiseNode);
+            for (int i = 0; i < unitIndices.length; i++) {
+                state = convertArg(state, kwds, chars, unitIndices[i], kwdnames, varargs, convertArgNodes[i], raiseNode);
             }
         }
 
@@ -265,8 +271,28 @@ public abstract class CExtParseArgumentsNode {
             }
         }
 
-        static ConvertArgNode[] createConvertArgNodes(String format) {
-            ConvertArgNode[] convertArgNodes = new ConvertArgNode[format.length()];
+        /**
+         * Compiles the format string into the indices of the characters that need to be
+         * interpreted. The modifiers {@code '!'}, {@code '&'}, {@code '*'}, and {@code '#'} are
+         * consumed by the look-ahead of the preceding format unit and are therefore skipped.
+         */
+        static int[] getFormatUnitIndices(char[] format) {
+            int n = 0;
+            int[] unitIndices = new int[format.length];
+            for (int i = 0; i < format.length; i++) {
+                if (!isFormatModifier(format[i])) {
+                    unitIndices[n++] = i;
+                }
+            }
+            return Arrays.copyOf(unitIndices, n);
+        }
+
+        private static boolean isFormatModifier(char c) {
+            return c == '!' || c == '&' || c == '*' || c == '#';
+        }
+
+        static ConvertArgNode[] createConvertArgNodes(int[] unitIndices) {
+            ConvertArgNode[] convertArgNodes = new ConvertArgNode[unitIndices.length];
             for (int i = 0; i < convertArgNodes.length; i++) {
                 convertArgNodes[i] = ConvertArgNodeGen.create();
             }
@@ -284,7 +284,12 @@ public final class PCode extends PythonBuiltinObject {
     }
 
     private static RootNode rootNodeForExtraction(RootNode rootNode) {
-        return (rootNode instanceof GeneratorFunctionRootNode) ? ((GeneratorFunctionRootNode) rootNode).getFunctionRootNode() : rootNode;
+        RootNode funcRootNode = (rootNode instanceof GeneratorFunctionRootNode) ? ((GeneratorFunctionRootNode) rootNode).getFunctionRootNode() : rootNode;
+        if (funcRootNode instanceof FunctionRootNode) {
+            // the body of a function that was not called yet may not be translated
+            ((FunctionRootNode) funcRootNode).ensureBodyTranslated();
+        }
+        return funcRootNode;
     }
 
     @TruffleBoundary
@@ -298,8 +303,8 @@ public final class PCode extends PythonBuiltinObject {
             // 0x20 - generator
             if (funcRootNode instanceof GeneratorFunctionRootNode) {
                 flags |= FLAG_GENERATOR;
-                funcRootNode = ((GeneratorFunctionRootNode) funcRootNode).getFunctionRootNode();
             }
+            funcRootNode = rootNodeForExtraction(funcRootNode);
             // 0x04 - *arguments
             if (NodeUtil.findFirstNodeInstance(funcRootNode, ReadVarArgsNode.class) != null) {
                 flags |= FLAG_VAR_ARGS;
@@ -30,6 +30,7 @@ import static com.oracle.graal.python.builtins.objects.cext.NativeCAPISymbols.FU
 import static com.oracle.graal.python.builtins.objects.cext.NativeCAPISymbols.FUN_PY_TRUFFLE_INT_ARRAY_TO_NATIVE;
 import static com.oracle.graal.python.builtins.objects.cext.NativeCAPISymbols.FUN_PY_TRUFFLE_LONG_ARRAY_TO_NATIVE;
 import static com.oracle.graal.python.builtins.objects.cext.NativeCAPISymbols.FUN_PY_TRUFFLE_OBJECT_ARRAY_TO_NATIVE;
+import static com.oracle.graal.python.builtins.objects.cext.NativeCAPISymbols.FUN_PY_TRUFFLE_OBJECT_ARRAY_REALLOC;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__EQ__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GE__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__GT__;
@@ -60,6 +61,7 @@ import com.oracle.graal.python.builtins.objects.cext.CExtNodes;
 import com.oracle.graal.python.builtins.objects.cext.CExtNodes.PCallCapiFunction;
 import com.oracle.graal.python.builtins.objects.cext.CExtNodes.ToSulongNode;
 import com.oracle.graal.python.builtins.objects.cext.NativeCAPISymbols;
+import com.oracle.graal.python.builtins.objects.cext.capi.CApiContext;
 import com.oracle.graal.python.builtins.objects.common.IndexNodes.NormalizeIndexCustomMessageNode;
 import com.oracle.graal.python.builtins.objects.common.IndexNodes.NormalizeIndexNode;
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetSequenceStorageNode;
@@ -90,6 +92,7 @@ import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFacto
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.ListGeneralizationNodeGen;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.NoGeneralizationCustomMessageNodeGen;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.NoGeneralizationNodeGen;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.ReadArrayElementNodeGen;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.RepeatNodeGen;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.SetItemDynamicNodeGen;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.SetItemNodeGen;
@@ -99,6 +102,7 @@ import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFacto
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.SetStorageSliceNodeGen;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.StorageToNativeNodeGen;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.VerifyNativeItemNodeGen;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodesFactory.WriteArrayElementNodeGen;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.function.PArguments.ThreadState;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
@@ -115,6 +119,7 @@ import com.oracle.graal.python.nodes.PNodeWithContext;
 import com.oracle.graal.python.nodes.PRaiseNode;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.builtins.ListNodes;
+import com.oracle.graal.python.nodes.call.GenericInvokeNode;
 import com.oracle.graal.python.nodes.control.GetIteratorExpressionNode.GetIteratorNode;
 import com.oracle.graal.python.nodes.control.GetNextNode;
 import com.oracle.graal.python.nodes.control.GetNextNode.GetNextWithoutFrameNode;
@@ -295,6 +300,10 @@ public abstract class SequenceStorageNodes {
             return store.getElementType() == ListStorageType.Byte;
         }
 
+        protected static boolean isObjectStorage(NativeSequenceStorage store) {
+            return store.getElementType() == ListStorageType.Generic;
+        }
+
         /**
          * Tests if {@code left} has the same element type as {@code right}.
          */
@@ -803,6 +812,73 @@ public abstract class SequenceStorageNodes {
         }
     }
 
+    /**
+     * Reads an element of a sequence storage for the interop {@code readArrayElement} message.
+     * Bounds are checked against the storage length (not the capacity) and reported as
+     * {@link InvalidArrayIndexException}. Primitive storages are read directly so that hosts
+     * iterating over large homogeneous sequences do not pay for generic item access.
+     */
+    @GenerateUncached
+    public abstract static class ReadArrayElementNode extends Node {
+
+        public abstract Object execute(SequenceStorage s, long idx) throws InvalidArrayIndexException;
+
+        @Specialization
+        static int doInt(IntSequenceStorage storage, long idx) throws InvalidArrayIndexException {
+            return storage.getIntItemNormalized(checkIndex(storage, idx));
+        }
+
+        @Specialization
+        static long doLong(LongSequenceStorage storage, long idx) throws InvalidArrayIndexException {
+            return storage.getLongItemNormalized(checkIndex(storage, idx));
+        }
+
+        @Specialization
+        static double doDouble(DoubleSequenceStorage storage, long idx) throws InvalidArrayIndexException {
+            return storage.getDoubleItemNormalized(checkIndex(storage, idx));
+        }
+
+        @Specialization
+        static int doByte(ByteSequenceStorage storage, long idx) throws InvalidArrayIndexException {
+            return storage.getIntItemNormalized(checkIndex(storage, idx));
+        }
+
+        @Specialization
+        static boolean doBoolean(BoolSequenceStorage storage, long idx) throws InvalidArrayIndexException {
+            return storage.getBoolItemNormalized(checkIndex(storage, idx));
+        }
+
+        @Specialization
+        static Object doObject(ObjectSequenceStorage storage, long idx) throws InvalidArrayIndexException {
+            return storage.getItemNormalized(checkIndex(storage, idx));
+        }
+
+        @Specialization(replaces = {"doInt", "doLong", "doDouble", "doByte", "doBoolean", "doObject"})
+        static Object doGeneric(SequenceStorage storage, long idx,
+                        @Cached LenNode lenNode,
+                        @Cached GetItemScalarNode getItemScalarNode) throws InvalidArrayIndexException {
+            if (0 <= idx && idx < lenNode.execute(storage)) {
+                return getItemScalarNode.execute(storage, (int) idx);
+            }
+            throw InvalidArrayIndexException.create(idx);
+        }
+
+        private static int checkIndex(BasicSequenceStorage storage, long idx) throws InvalidArrayIndexException {
+            if (0 <= idx && idx < storage.length()) {
+                return (int) idx;
+            }
+            throw InvalidArrayIndexException.create(idx);
+        }
+
+        public static ReadArrayElementNode create() {
+            return ReadArrayElementNodeGen.create();
+        }
+
+        public static ReadArrayElementNode getUncached() {
+            return ReadArrayElementNodeGen.getUncached();
+        }
+    }
+
     @GenerateUncached
     @ImportStatic({ListStorageType.class, SequenceStorageBaseNode.class})
     abstract static class GetItemSliceNode extends Node {
@@ -1275,6 +1351,20 @@ public abstract class SequenceStorageNodes {
             }
         }
 
+        @Specialization(guards = "isObjectStorage(storage)")
+        protected void doNativeObject(NativeSequenceStorage storage, int idx, Object value,
+                        @Shared("raiseNode") @Cached PRaiseNode raiseNode,
+                        @Shared("lib") @CachedLibrary(limit = "1") InteropLibrary lib,
+                        @Cached ToSulongNode toSulongNode) {
+            // a 'PyObject*' array can hold any value, it just needs to be wrapped like in
+            // 'StorageToNativeNode'
+            try {
+                lib.writeArrayElement(storage.getPtr(), idx, toSulongNode.execute(value));
+            } catch (UnsupportedMessageException | UnsupportedTypeException | InvalidArrayIndexException e) {
+                throw raiseNode.raise(SystemError, e);
+            }
+        }
+
         @Specialization
         protected void doNative(NativeSequenceStorage storage, int idx, Object value,
                         @Shared("raiseNode") @Cached PRaiseNode raiseNode,
@@ -1305,6 +1395,78 @@ public abstract class SequenceStorageNodes {
         }
     }
 
+    /**
+     * Writes an element of a sequence storage for the interop {@code writeArrayElement} message.
+     * Writing at index {@code length} appends the value. If the value does not fit into the
+     * storage, it is generalized using the given supplier and the (possibly new) storage is
+     * returned.
+     */
+    @GenerateUncached
+    public abstract static class WriteArrayElementNode extends Node {
+
+        public abstract SequenceStorage execute(GenNodeSupplier genNodeSupplier, SequenceStorage s, long idx, Object value) throws InvalidArrayIndexException;
+
+        @Specialization(guards = "isInBounds(storage, idx)")
+        static SequenceStorage doInt(@SuppressWarnings("unused") GenNodeSupplier genNodeSupplier, IntSequenceStorage storage, long idx, int value) {
+            storage.setIntItemNormalized((int) idx, value);
+            return storage;
+        }
+
+        @Specialization(guards = "isInBounds(storage, idx)")
+        static SequenceStorage doLong(@SuppressWarnings("unused") GenNodeSupplier genNodeSupplier, LongSequenceStorage storage, long idx, long value) {
+            storage.setLongItemNormalized((int) idx, value);
+            return storage;
+        }
+
+        @Specialization(guards = "isInBounds(storage, idx)")
+        static SequenceStorage doDouble(@SuppressWarnings("unused") GenNodeSupplier genNodeSupplier, DoubleSequenceStorage storage, long idx, double value) {
+            storage.setDoubleItemNormalized((int) idx, value);
+            return storage;
+        }
+
+        @Specialization(guards = "isInBounds(storage, idx)")
+        static SequenceStorage doObject(@SuppressWarnings("unused") GenNodeSupplier genNodeSupplier, ObjectSequenceStorage storage, long idx, Object value) {
+            storage.setItemNormalized((int) idx, value);
+            return storage;
+        }
+
+        @Specialization
+        static SequenceStorage doGeneric(GenNodeSupplier genNodeSupplier, SequenceStorage storage, long idx, Object value,
+                        @Cached LenNode lenNode,
+                        @Cached SetItemScalarNode setItemScalarNode,
+                        @Cached AppendNode appendNode,
+                        @Cached DoGeneralizationNode doGenNode,
+                        @Cached BranchProfile generalizeProfile) throws InvalidArrayIndexException {
+            int len = lenNode.execute(storage);
+            if (idx == len) {
+                return appendNode.execute(storage, value, genNodeSupplier);
+            } else if (0 <= idx && idx < len) {
+                try {
+                    setItemScalarNode.execute(storage, (int) idx, value);
+                    return storage;
+                } catch (SequenceStoreException e) {
+                    generalizeProfile.enter();
+                    SequenceStorage generalized = doGenNode.execute(genNodeSupplier, storage, e.getIndicationValue());
+                    setItemScalarNode.execute(generalized, (int) idx, value);
+                    return generalized;
+                }
+            }
+            throw InvalidArrayIndexException.create(idx);
+        }
+
+        static boolean isInBounds(BasicSequenceStorage storage, long idx) {
+            return 0 <= idx && idx < storage.length();
+        }
+
+        public static WriteArrayElementNode create() {
+            return WriteArrayElementNodeGen.create();
+        }
+
+        public static WriteArrayElementNode getUncached() {
+            return WriteArrayElementNodeGen.getUncached();
+        }
+    }
+
     @GenerateUncached
     @ImportStatic({ListStorageType.class, SequenceStorageBaseNode.class})
     public abstract static class SetItemSliceNode extends Node {
@@ -2906,7 +3068,24 @@ public abstract class SequenceStorageNodes {
             }
         }
 
-        // TODO native sequence storage
+        @Specialization
+        static SequenceStorage doNative(NativeSequenceStorage s, Object val, @SuppressWarnings("unused") GenNodeSupplier genNodeSupplier,
+                        @Cached EnsureCapacityNode ensureCapacity,
+                        @Cached SetItemScalarNode setItemNode,
+                        @Cached PRaiseNode raiseNode) {
+            // A native storage cannot be generalized because native code may already hold the
+            // pointer to its elements. Object storages accept any value, so this only fails for
+            // typed storages.
+            int len = s.length();
+            ensureCapacity.execute(s, len + 1);
+            try {
+                setItemNode.execute(s, len, val);
+            } catch (SequenceStoreException e) {
+                throw raiseNode.raise(TypeError, ErrorMessages.CANNOT_STORE_IN_NATIVE_STORAGE, val, s.getElementType());
+            }
+            s.setNewLength(len + 1);
+            return s;
+        }
 
         public static AppendNode create() {
             return AppendNodeGen.create();
@@ -3092,11 +3271,54 @@ public abstract class SequenceStorageNodes {
             }
         }
 
-        @Specialization
-        NativeSequenceStorage doObject(@SuppressWarnings("unused") NativeSequenceStorage s, @SuppressWarnings("unused") int cap) {
-            // TODO re-allocate native memory
-            CompilerDirectives.transferToInterpreterAndInvalidate();
-            throw new UnsupportedOperationException();
+        /**
+         * Object storages are only exposed to native code through {@code ob_item}, which is read
+         * from the storage every time, so they can be reallocated like a CPython list. Other native
+         * storages may be exported as buffers and cannot be resized. The grown part is accounted as
+         * native memory pressure before it is allocated.
+         */
+        @Specialization(guards = "isObjectStorage(s)")
+        static NativeSequenceStorage doNativeObject(NativeSequenceStorage s, int cap,
+                        @Cached PCallCapiFunction callReallocNode,
+                        @Cached GenericInvokeNode invokeNode,
+                        @CachedLibrary(limit = "1") InteropLibrary lib,
+                        @CachedContext(PythonLanguage.class) PythonContext context,
+                        @Cached PRaiseNode raiseNode,
+                        @Cached("create()") BranchProfile overflowErrorProfile,
+                        @Cached("create()") BranchProfile memoryErrorProfile) {
+            if (cap > s.getCapacity()) {
+                int newCapacity;
+                try {
+                    newCapacity = Math.max(16, Math.multiplyExact(cap, 2));
+                } catch (ArithmeticException e) {
+                    overflowErrorProfile.enter();
+                    throw raiseNode.raise(OverflowError);
+                }
+                CApiContext cApiContext = context.getCApiContext();
+                long grownSize = ((long) newCapacity - s.getCapacity()) * Long.BYTES;
+                try {
+                    cApiContext.increaseMemoryPressure(invokeNode, grownSize);
+                } catch (OutOfMemoryError e) {
+                    memoryErrorProfile.enter();
+                    throw raiseNode.raise(MemoryError);
+                }
+                Object newPtr = callReallocNode.call(FUN_PY_TRUFFLE_OBJECT_ARRAY_REALLOC, s.getPtr(), (long) newCapacity);
+                if (lib.isNull(newPtr)) {
+                    // like 'realloc', the old array is still valid
+                    memoryErrorProfile.enter();
+                    cApiContext.reduceMemoryPressure(grownSize);
+                    throw raiseNode.raise(MemoryError);
+                }
+                s.setPtr(newPtr);
+                s.setCapacity(newCapacity);
+            }
+            return s;
+        }
+
+        @Specialization(guards = "!isObjectStorage(s)")
+        static NativeSequenceStorage doNative(NativeSequenceStorage s, int cap) {
+            s.ensureCapacity(cap);
+            return s;
         }
 
         public static EnsureCapacityNode create() {
@@ -3115,6 +3337,21 @@ public abstract class SequenceStorageNodes {
 
         public abstract SequenceStorage execute(SequenceStorage s);
 
+        /*
+         * A copy of a native storage is not shared with native code, so it can be managed.
+         */
+        @Specialization(guards = "isObjectStorage(s)")
+        static SequenceStorage doNativeObject(NativeSequenceStorage s,
+                        @Cached GetInternalObjectArrayNode getInternalObjectArrayNode) {
+            return new ObjectSequenceStorage(getInternalObjectArrayNode.execute(s));
+        }
+
+        @Specialization(guards = "isByteStorage(s)")
+        static SequenceStorage doNativeByte(NativeSequenceStorage s,
+                        @Cached GetInternalByteArrayNode getInternalByteArrayNode) {
+            return new ByteSequenceStorage(getInternalByteArrayNode.execute(s));
+        }
+
         @Specialization(limit = "MAX_SEQUENCE_STORAGES", guards = "s.getClass() == cachedClass")
         static SequenceStorage doSpecial(SequenceStorage s,
                         @Cached("s.getClass()") Class<? extends SequenceStorage> cachedClass) {
@@ -3142,6 +3379,18 @@ public abstract class SequenceStorageNodes {
 
         public abstract void execute(SequenceStorage s, int to, int from);
 
+        @Specialization
+        static void doNative(NativeSequenceStorage s, int to, int from,
+                        @CachedLibrary(limit = "1") InteropLibrary lib,
+                        @Cached PRaiseNode raiseNode) {
+            // moves the raw element (e.g. the 'PyObject*') without converting it
+            try {
+                lib.writeArrayElement(s.getPtr(), to, lib.readArrayElement(s.getPtr(), from));
+            } catch (UnsupportedMessageException | UnsupportedTypeException | InvalidArrayIndexException e) {
+                throw raiseNode.raise(SystemError, e);
+            }
+        }
+
         @Specialization(limit = "MAX_SEQUENCE_STORAGES", guards = "s.getClass() == cachedClass")
         static void doSpecial(SequenceStorage s, int to, int from,
                         @Cached("s.getClass()") Class<? extends SequenceStorage> cachedClass) {
@@ -3653,6 +3902,31 @@ public abstract class SequenceStorageNodes {
 
         protected abstract SequenceStorage execute(SequenceStorage storage, int index, Object value, boolean recursive);
 
+        @Specialization
+        protected static SequenceStorage doNative(NativeSequenceStorage storage, int index, Object value, @SuppressWarnings("unused") boolean recursive,
+                        @Cached EnsureCapacityNode ensureCapacity,
+                        @Cached CopyItemNode copyItemNode,
+                        @Cached SetItemScalarNode setItemNode,
+                        @Cached PRaiseNode raiseNode) {
+            // Like in 'AppendNode', a native storage cannot be generalized because native code may
+            // already hold the pointer to its elements.
+            int len = storage.length();
+            ensureCapacity.execute(storage, len + 1);
+            for (int i = len; i > index; i--) {
+                copyItemNode.execute(storage, i, i - 1);
+            }
+            try {
+                setItemNode.execute(storage, index, value);
+            } catch (SequenceStoreException e) {
+                for (int i = index; i < len; i++) {
+                    copyItemNode.execute(storage, i, i + 1);
+                }
+                throw raiseNode.raise(TypeError, ErrorMessages.CANNOT_STORE_IN_NATIVE_STORAGE, value, storage.getElementType());
+            }
+            storage.setNewLength(len + 1);
+            return storage;
+        }
+
         @Specialization(limit = "MAX_ARRAY_STORAGES", guards = {"storage.getClass() == cachedClass"})
         protected SequenceStorage doStorage(SequenceStorage storage, int index, Object value, boolean recursive,
                         @Cached InsertItemNode recursiveNode,
@@ -45,6 +45,7 @@ import com.oracle.graal.python.nodes.frame.ReadCallerFrameNode;
 import com.oracle.graal.python.nodes.frame.ReadLocalsNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.RootCallTarget;
@@ -117,13 +118,18 @@ public final class FrameBuiltins extends PythonBuiltins {
         }
     }
 
-    @Builtin(name = "f_trace", minNumOfPositionalArgs = 1, isGetter = true)
+    @Builtin(name = "f_trace", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2, isGetter = true, isSetter = true)
     @GenerateNodeFactory
-    public abstract static class GetTraceNode extends PythonBuiltinNode {
-        @Specialization
-        Object get(@SuppressWarnings("unused") PFrame self) {
-            // TODO: frames: This must return the traceback if there is a
-            // handled exception here
+    public abstract static class GetTraceNode extends PythonBinaryBuiltinNode {
+        @Specialization(guards = "isNoValue(none)")
+        static Object get(PFrame self, @SuppressWarnings("unused") PNone none) {
+            Object traceFunction = self.getLocalTraceFunction();
+            return traceFunction == null ? PNone.NONE : traceFunction;
+        }
+
+        @Specialization(guards = "!isNoValue(function)")
+        static Object set(PFrame self, Object function) {
+            self.setLocalTraceFunction(function == PNone.NONE ? null : function);
             return PNone.NONE;
         }
     }
@@ -48,6 +48,7 @@ import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.nodes.PRootNode;
 import com.oracle.graal.python.nodes.function.ClassBodyRootNode;
+import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.object.PythonObjectFactory;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -67,6 +68,15 @@ public final class PFrame extends PythonBuiltinObject {
     private int line = -2;
     private int lasti = -1;
 
+    /*
+     * the local trace function ('f_trace'), the position of the last statement traced in this
+     * frame and the last exception reported to the trace function
+     */
+    private Object localTraceFunction;
+    private int traceLine = -1;
+    private int traceCharIndex = -1;
+    private PException tracedException;
+
     private PFrame.Reference backref = null;
 
     // TODO: frames: this is a large object, think about how to make this
@@ -308,7 +318,11 @@ public final class PFrame extends PythonBuiltinObject {
     }
 
     public void setLocation(Node location) {
-        this.location = location;
+        if (this.location != location) {
+            this.location = location;
+            // the cached line number belongs to the old location
+            this.line = -2;
+        }
     }
 
     /**
@@ -322,4 +336,33 @@ public final class PFrame extends PythonBuiltinObject {
     public void setLasti(int lasti) {
         this.lasti = lasti;
     }
+
+    public Object getLocalTraceFunction() {
+        return localTraceFunction;
+    }
+
+    public void setLocalTraceFunction(Object localTraceFunction) {
+        this.localTraceFunction = localTraceFunction;
+    }
+
+    public int getTraceLine() {
+        return traceLine;
+    }
+
+    public int getTraceCharIndex() {
+        return traceCharIndex;
+    }
+
+    public void setTracePosition(int traceLine, int traceCharIndex) {
+        this.traceLine = traceLine;
+        this.traceCharIndex = traceCharIndex;
+    }
+
+    public PException getTracedException() {
+        return tracedException;
+    }
+
+    public void setTracedException(PException tracedException) {
+        this.tracedException = tracedException;
+    }
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.ints;
+
+import java.math.BigInteger;
+
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Overflow checked arithmetic on 128-bit two's complement integers represented as a pair of
+ * longs {@code (high, low)}, as used by {@link PInt} for values that do not fit into a long. The
+ * operations return a {@code Long} if the result fits into a long, a new {@link PInt} if it fits
+ * into 128 bits, and {@code null} if the result overflows, in which case the caller has to fall
+ * back to {@link BigInteger} arithmetic.
+ */
+public final class Int128 {
+
+    private static final long MASK_32 = 0xFFFFFFFFL;
+
+    private Int128() {
+    }
+
+    static Object narrow(PythonObjectFactory factory, long high, long low) {
+        if (high == low >> 63) {
+            return low;
+        }
+        return factory.createInt(high, low);
+    }
+
+    public static int compare(long leftHigh, long leftLow, long rightHigh, long rightLow) {
+        if (leftHigh != rightHigh) {
+            return leftHigh < rightHigh ? -1 : 1;
+        }
+        return Long.compareUnsigned(leftLow, rightLow);
+    }
+
+    public static Object add(PythonObjectFactory factory, long leftHigh, long leftLow, long rightHigh, long rightLow) {
+        long low = leftLow + rightLow;
+        long high = leftHigh + rightHigh + (Long.compareUnsigned(low, leftLow) < 0 ? 1 : 0);
+        if (((leftHigh ^ high) & (rightHigh ^ high)) < 0) {
+            return null;
+        }
+        return narrow(factory, high, low);
+    }
+
+    public static Object subtract(PythonObjectFactory factory, long leftHigh, long leftLow, long rightHigh, long rightLow) {
+        long low = leftLow - rightLow;
+        long high = leftHigh - rightHigh - (Long.compareUnsigned(leftLow, rightLow) < 0 ? 1 : 0);
+        if (((leftHigh ^ rightHigh) & (leftHigh ^ high)) < 0) {
+            return null;
+        }
+        return narrow(factory, high, low);
+    }
+
+    public static Object multiply(PythonObjectFactory factory, long leftHigh, long leftLow, long rightHigh, long rightLow) {
+        boolean negative = (leftHigh ^ rightHigh) < 0;
+        // magnitudes as unsigned 128-bit values; the magnitude of the minimum value is 2^127
+        long aHigh = leftHigh;
+        long aLow = leftLow;
+        if (leftHigh < 0) {
+            aLow = -leftLow;
+            aHigh = ~leftHigh + (leftLow == 0 ? 1 : 0);
+        }
+        long bHigh = rightHigh;
+        long bLow = rightLow;
+        if (rightHigh < 0) {
+            bLow = -rightLow;
+            bHigh = ~rightHigh + (rightLow == 0 ? 1 : 0);
+        }
+        if (aHigh != 0 && bHigh != 0) {
+            return null;
+        }
+        long cross;
+        if (aHigh != 0) {
+            if (multiplyHighUnsigned(aHigh, bLow) != 0) {
+                return null;
+            }
+            cross = aHigh * bLow;
+        } else {
+            if (multiplyHighUnsigned(aLow, bHigh) != 0) {
+                return null;
+            }
+            cross = aLow * bHigh;
+        }
+        long low = aLow * bLow;
+        long high = multiplyHighUnsigned(aLow, bLow) + cross;
+        if (Long.compareUnsigned(high, cross) < 0) {
+            return null;
+        }
+        if (negative) {
+            if (high < 0 && (high != Long.MIN_VALUE || low != 0)) {
+                return null;
+            }
+            return narrow(factory, ~high + (low == 0 ? 1 : 0), -low);
+        } else if (high < 0) {
+            return null;
+        }
+        return narrow(factory, high, low);
+    }
+
+    public static Object negate(PythonObjectFactory factory, long high, long low) {
+        if (high == Long.MIN_VALUE && low == 0) {
+            return null;
+        }
+        return narrow(factory, ~high + (low == 0 ? 1 : 0), -low);
+    }
+
+    public static Object shiftLeft(PythonObjectFactory factory, long high, long low, int n) {
+        assert n >= 0;
+        if (n == 0 || (high == 0 && low == 0)) {
+            return narrow(factory, high, low);
+        } else if (n >= 127) {
+            return null;
+        }
+        long resultHigh;
+        long resultLow;
+        if (n < 64) {
+            resultHigh = (high << n) | (low >>> (64 - n));
+            resultLow = low << n;
+        } else {
+            resultHigh = low << (n - 64);
+            resultLow = 0;
+        }
+        // the shift overflowed iff shifting back does not restore the original value
+        long checkHigh;
+        if (n < 64) {
+            checkHigh = resultHigh >> n;
+        } else {
+            checkHigh = resultHigh >> 63;
+            if ((resultHigh >> (n - 64)) != low) {
+                return null;
+            }
+        }
+        if (checkHigh != high) {
+            return null;
+        }
+        return narrow(factory, resultHigh, resultLow);
+    }
+
+    public static Object shiftRight(PythonObjectFactory factory, long high, long low, long n) {
+        assert n >= 0;
+        if (n == 0) {
+            return narrow(factory, high, low);
+        } else if (n >= 128) {
+            return high >> 63;
+        } else if (n >= 64) {
+            return high >> (n - 64);
+        }
+        return narrow(factory, high >> n, (low >>> n) | (high << (64 - n)));
+    }
+
+    /**
+     * Returns the high 64 bits of the unsigned 128-bit product of {@code x} and {@code y}.
+     */
+    static long multiplyHighUnsigned(long x, long y) {
+        long x0 = x & MASK_32;
+        long x1 = x >>> 32;
+        long y0 = y & MASK_32;
+        long y1 = y >>> 32;
+        long w0 = x0 * y0;
+        long t = x1 * y0 + (w0 >>> 32);
+        long w1 = (t & MASK_32) + x0 * y1;
+        return x1 * y1 + (t >>> 32) + (w1 >>> 32);
+    }
+
+    @TruffleBoundary
+    static BigInteger toBigInteger(long high, long low) {
+        if (high == low >> 63) {
+            return BigInteger.valueOf(low);
+        }
+        return BigInteger.valueOf(high).shiftLeft(64).or(BigInteger.valueOf(low).and(BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE)));
+    }
+}
@@ -177,11 +177,39 @@ public class IntBuiltins extends PythonBuiltins {
             long r = x + y;
             // HD 2-12 Overflow iff both arguments have the opposite sign of the result
             if (((x ^ r) & (y ^ r)) < 0) {
-                return factory().createInt(op(PInt.longToBigInteger(x), PInt.longToBigInteger(y)));
+                // the true result has the opposite sign of r and needs exactly 65 bits
+                return factory().createInt(r < 0 ? 0 : -1, r);
             }
             return r;
         }
 
+        @Specialization(guards = "left.isInt128()")
+        Object addInt128Long(PInt left, long right) {
+            Object result = Int128.add(factory(), left.getHigh(), left.getLow(), right >> 63, right);
+            if (result == null) {
+                return factory().createInt(op(left.getValue(), PInt.longToBigInteger(right)));
+            }
+            return result;
+        }
+
+        @Specialization(guards = "right.isInt128()")
+        Object addLongInt128(long left, PInt right) {
+            Object result = Int128.add(factory(), left >> 63, left, right.getHigh(), right.getLow());
+            if (result == null) {
+                return factory().createInt(op(PInt.longToBigInteger(left), right.getValue()));
+            }
+            return result;
+        }
+
+        @Specialization(guards = {"left.isInt128()", "right.isInt128()"})
+        Object addInt128(PInt left, PInt right) {
+            Object result = Int128.add(factory(), left.getHigh(), left.getLow(), right.getHigh(), right.getLow());
+            if (result == null) {
+                return factory().createInt(op(left.getValue(), right.getValue()));
+            }
+            return result;
+        }
+
         @Specialization(rewriteOn = ArithmeticException.class)
         Object addPIntLongAndNarrow(PInt left, long right) {
             return PInt.longValueExact(op(left.getValue(), PInt.longToBigInteger(right)));
@@ -252,11 +280,39 @@ public class IntBuiltins extends PythonBuiltins {
             // HD 2-12 Overflow iff the arguments have different signs and
             // the sign of the result is different than the sign of x
             if (((x ^ y) & (x ^ r)) < 0) {
-                return factory().createInt(op(PInt.longToBigInteger(x), PInt.longToBigInteger(y)));
+                // the true result has the opposite sign of r and needs exactly 65 bits
+                return factory().createInt(r < 0 ? 0 : -1, r);
             }
             return r;
         }
 
+        @Specialization(guards = "left.isInt128()")
+        Object doInt128Long(PInt left, long right) {
+            Object result = Int128.subtract(factory(), left.getHigh(), left.getLow(), right >> 63, right);
+            if (result == null) {
+                return factory().createInt(op(left.getValue(), PInt.longToBigInteger(right)));
+            }
+            return result;
+        }
+
+        @Specialization(guards = "right.isInt128()")
+        Object doLongInt128(long left, PInt right) {
+            Object result = Int128.subtract(factory(), left >> 63, left, right.getHigh(), right.getLow());
+            if (result == null) {
+                return factory().createInt(op(PInt.longToBigInteger(left), right.getValue()));
+            }
+            return result;
+        }
+
+        @Specialization(guards = {"left.isInt128()", "right.isInt128()"})
+        Object doInt128(PInt left, PInt right) {
+            Object result = Int128.subtract(factory(), left.getHigh(), left.getLow(), right.getHigh(), right.getLow());
+            if (result == null) {
+                return factory().createInt(op(left.getValue(), right.getValue()));
+            }
+            return result;
+        }
+
         @Specialization(rewriteOn = ArithmeticException.class)
         long doPIntLongAndNarrow(PInt left, long right) {
             return PInt.longValueExact(op(left.getValue(), PInt.longToBigInteger(right)));
@@ -626,12 +682,31 @@ public class IntBuiltins extends PythonBuiltins {
                 // and check for the special case of Long.MIN_VALUE * -1
                 if (((y != 0) && (r / y != x)) ||
                                 (x == Long.MIN_VALUE && y == -1)) {
-                    return factory().createInt(mul(PInt.longToBigInteger(x), PInt.longToBigInteger(y)));
+                    // the product of two longs always fits into 128 bits
+                    return Int128.multiply(factory(), x >> 63, x, y >> 63, y);
                 }
             }
             return r;
         }
 
+        @Specialization(guards = "left.isInt128()")
+        Object doInt128Long(PInt left, long right) {
+            Object result = Int128.multiply(factory(), left.getHigh(), left.getLow(), right >> 63, right);
+            if (result == null) {
+                return factory().createInt(mul(left.getValue(), PInt.longToBigInteger(right)));
+            }
+            return result;
+        }
+
+        @Specialization(guards = {"left.isInt128()", "right.isInt128()"})
+        Object doInt128(PInt left, PInt right) {
+            Object result = Int128.multiply(factory(), left.getHigh(), left.getLow(), right.getHigh(), right.getLow());
+            if (result == null) {
+                return factory().createInt(mul(left.getValue(), right.getValue()));
+            }
+            return result;
+        }
+
         @Specialization(guards = "right == 0")
         int doPIntLongZero(@SuppressWarnings("unused") PInt left, @SuppressWarnings("unused") long right) {
             return 0;
@@ -1071,8 +1146,19 @@ public class IntBuiltins extends PythonBuiltins {
 
         @Specialization
         PInt negOvf(long arg) {
-            BigInteger value = arg == Long.MIN_VALUE ? negate(PInt.longToBigInteger(arg)) : PInt.longToBigInteger(-arg);
-            return factory().createInt(value);
+            if (arg == Long.MIN_VALUE) {
+                return factory().createInt(0, arg);
+            }
+            return factory().createInt(-arg);
+        }
+
+        @Specialization(guards = "operand.isInt128()")
+        Object doInt128(PInt operand) {
+            Object result = Int128.negate(factory(), operand.getHigh(), operand.getLow());
+            if (result == null) {
+                return factory().createInt(negate(operand.getValue()));
+            }
+            return result;
         }
 
         @Specialization
@@ -1105,6 +1191,11 @@ public class IntBuiltins extends PythonBuiltins {
             return ~arg;
         }
 
+        @Specialization(guards = "operand.isInt128()")
+        Object doInt128(PInt operand) {
+            return Int128.narrow(factory(), ~operand.getHigh(), ~operand.getLow());
+        }
+
         @Specialization
         PInt doPInt(PInt operand) {
             return factory().createInt(not(operand.getValue()));
@@ -1187,6 +1278,10 @@ public class IntBuiltins extends PythonBuiltins {
             } catch (OverflowException e) {
                 int rightI = (int) right;
                 if (rightI == right) {
+                    Object result = Int128.shiftLeft(factory(), left >> 63, left, rightI);
+                    if (result != null) {
+                        return result;
+                    }
                     return factory().createInt(op(PInt.longToBigInteger(left), rightI));
                 } else {
                     throw raise(PythonErrorType.OverflowError);
@@ -1213,6 +1308,27 @@ public class IntBuiltins extends PythonBuiltins {
             }
         }
 
+        @Specialization(guards = "left.isInt128()")
+        Object doInt128I(PInt left, int right) {
+            raiseNegativeShiftCount(right < 0);
+            Object result = Int128.shiftLeft(factory(), left.getHigh(), left.getLow(), right);
+            if (result == null) {
+                return doGuardedBiI(left.getValue(), right);
+            }
+            return result;
+        }
+
+        @Specialization(guards = "left.isInt128()")
+        Object doInt128L(PInt left, long right) {
+            int rightI = (int) right;
+            if (rightI == right) {
+                return doInt128I(left, rightI);
+            } else {
+                raiseNegativeShiftCount(right < 0);
+                throw raise(PythonErrorType.OverflowError);
+            }
+        }
+
         @Specialization
         PInt doPiI(PInt left, int right) {
             raiseNegativeShiftCount(right < 0);
@@ -1317,6 +1433,12 @@ public class IntBuiltins extends PythonBuiltins {
             return factory().createInt(op(PInt.longToBigInteger(left), right.intValue()));
         }
 
+        @Specialization(guards = "left.isInt128()")
+        Object doInt128(PInt left, long right) {
+            raiseNegativeShiftCount(right < 0);
+            return Int128.shiftRight(factory(), left.getHigh(), left.getLow(), right);
+        }
+
         @Specialization
         PInt doPiI(PInt left, int right) {
             raiseNegativeShiftCount(right < 0);
@@ -1381,6 +1503,21 @@ public class IntBuiltins extends PythonBuiltins {
             return op(left, right);
         }
 
+        @Specialization(guards = "right.isInt128()")
+        Object doLongInt128(long left, PInt right) {
+            return Int128.narrow(factory(), op(left >> 63, right.getHigh()), op(left, right.getLow()));
+        }
+
+        @Specialization(guards = "left.isInt128()")
+        Object doInt128Long(PInt left, long right) {
+            return Int128.narrow(factory(), op(left.getHigh(), right >> 63), op(left.getLow(), right));
+        }
+
+        @Specialization(guards = {"left.isInt128()", "right.isInt128()"})
+        Object doInt128(PInt left, PInt right) {
+            return Int128.narrow(factory(), op(left.getHigh(), right.getHigh()), op(left.getLow(), right.getLow()));
+        }
+
         @Specialization
         PInt doPInt(long left, PInt right) {
             return factory().createInt(op(PInt.longToBigInteger(left), right.getValue()));
@@ -60,12 +60,31 @@ import com.oracle.truffle.api.profiles.ConditionProfile;
 @ExportLibrary(InteropLibrary.class)
 public final class PInt extends PythonBuiltinObject {
 
-    private final BigInteger value;
+    /**
+     * Values with less than 128 significant bits are kept as a two's complement pair of longs
+     * ({@link #high}, {@link #low}) and the {@link BigInteger} is only created on demand. This
+     * allows the int builtins to do overflow checked arithmetic on mid-sized integers without
+     * going through {@link BigInteger} (see {@link Int128}).
+     */
+    private final boolean int128;
+    private final long high;
+    private final long low;
+    private BigInteger value;
 
     public PInt(Object clazz, DynamicObject storage, BigInteger value) {
         super(clazz, storage);
         assert value != null;
         this.value = value;
+        this.int128 = bitLength(value) < 128;
+        this.low = longValue(value);
+        this.high = int128 ? highWord(value) : 0;
+    }
+
+    public PInt(Object clazz, DynamicObject storage, long high, long low) {
+        super(clazz, storage);
+        this.int128 = true;
+        this.high = high;
+        this.low = low;
     }
 
     public static long abs(long a) {
@@ -73,17 +92,41 @@ public final class PInt extends PythonBuiltinObject {
     }
 
     public BigInteger getValue() {
+        if (value == null) {
+            value = Int128.toBigInteger(high, low);
+        }
         return value;
     }
 
-    @TruffleBoundary(allowInlining = true)
+    /**
+     * Returns {@code true} if this value fits into 128 bits, i.e., {@link #getHigh()} and
+     * {@link #getLow()} represent it.
+     */
+    public boolean isInt128() {
+        return int128;
+    }
+
+    public long getHigh() {
+        assert int128;
+        return high;
+    }
+
+    public long getLow() {
+        assert int128;
+        return low;
+    }
+
+    @TruffleBoundary
+    private static long highWord(BigInteger value) {
+        return value.shiftRight(64).longValue();
+    }
+
     public boolean isOne() {
-        return value.equals(BigInteger.ONE);
+        return int128 && high == 0 && low == 1;
     }
 
-    @TruffleBoundary(allowInlining = true)
     public boolean isZero() {
-        return value.equals(BigInteger.ZERO);
+        return int128 && high == 0 && low == 0;
     }
 
     @ExportMessage
@@ -279,11 +322,14 @@ public final class PInt extends PythonBuiltinObject {
 
     @Override
     public int hashCode() {
-        return value.hashCode();
+        return getValue().hashCode();
     }
 
     public int compareTo(PInt right) {
-        return compareTo(value, right.getValue());
+        if (int128 && right.int128) {
+            return Int128.compare(high, low, right.high, right.low);
+        }
+        return compareTo(getValue(), right.getValue());
     }
 
     @TruffleBoundary
@@ -292,7 +338,10 @@ public final class PInt extends PythonBuiltinObject {
     }
 
     public int compareTo(long i) {
-        return compareTo(value, i);
+        if (int128) {
+            return Int128.compare(high, low, i >> 63, i);
+        }
+        return compareTo(getValue(), i);
     }
 
     @TruffleBoundary
@@ -302,7 +351,7 @@ public final class PInt extends PythonBuiltinObject {
 
     @Override
     public String toString() {
-        return toString(value);
+        return toString(getValue());
     }
 
     @TruffleBoundary
@@ -316,7 +365,7 @@ public final class PInt extends PythonBuiltinObject {
     }
 
     public double doubleValue() {
-        return doubleValue(value);
+        return doubleValue(getValue());
     }
 
     @TruffleBoundary
@@ -325,7 +374,10 @@ public final class PInt extends PythonBuiltinObject {
     }
 
     public int intValue() {
-        return intValue(value);
+        if (int128) {
+            return (int) low;
+        }
+        return intValue(getValue());
     }
 
     @TruffleBoundary
@@ -334,7 +386,10 @@ public final class PInt extends PythonBuiltinObject {
     }
 
     public int intValueExact() {
-        return intValueExact(value);
+        if (int128 && high == low >> 63 && low == (int) low) {
+            return (int) low;
+        }
+        return intValueExact(getValue());
     }
 
     @TruffleBoundary
@@ -343,7 +398,10 @@ public final class PInt extends PythonBuiltinObject {
     }
 
     public long longValue() {
-        return longValue(value);
+        if (int128) {
+            return low;
+        }
+        return longValue(getValue());
     }
 
     @TruffleBoundary
@@ -352,7 +410,10 @@ public final class PInt extends PythonBuiltinObject {
     }
 
     public long longValueExact() throws ArithmeticException {
-        return longValueExact(value);
+        if (int128 && high == low >> 63) {
+            return low;
+        }
+        return longValueExact(getValue());
     }
 
     @TruffleBoundary
@@ -370,11 +431,11 @@ public final class PInt extends PythonBuiltinObject {
 
     @TruffleBoundary
     public BigInteger inc() {
-        return value.add(BigInteger.ONE);
+        return getValue().add(BigInteger.ONE);
     }
 
     public int bitLength() {
-        return bitLength(value);
+        return bitLength(getValue());
     }
 
     @TruffleBoundary
@@ -383,7 +444,7 @@ public final class PInt extends PythonBuiltinObject {
     }
 
     public int bitCount() {
-        return bitCount(value);
+        return bitCount(getValue());
     }
 
     @TruffleBoundary
@@ -392,15 +453,29 @@ public final class PInt extends PythonBuiltinObject {
     }
 
     public boolean isZeroOrPositive() {
-        return value.signum() >= 0;
+        if (int128) {
+            return high >= 0;
+        }
+        return signum(getValue()) >= 0;
     }
 
     public boolean isZeroOrNegative() {
-        return value.signum() <= 0;
+        if (int128) {
+            return high < 0 || (high == 0 && low == 0);
+        }
+        return signum(getValue()) <= 0;
     }
 
     public boolean isNegative() {
-        return value.signum() < 0;
+        if (int128) {
+            return high < 0;
+        }
+        return signum(getValue()) < 0;
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static int signum(BigInteger value) {
+        return value.signum();
     }
 
     public static int intValue(boolean bool) {
@@ -457,7 +532,7 @@ public final class PInt extends PythonBuiltinObject {
     }
 
     public byte byteValueExact() {
-        return byteValueExact(value);
+        return byteValueExact(getValue());
     }
 
     @TruffleBoundary
@@ -466,7 +541,7 @@ public final class PInt extends PythonBuiltinObject {
     }
 
     public byte[] toByteArray() {
-        return toByteArray(value);
+        return toByteArray(getValue());
     }
 
     @TruffleBoundary
@@ -479,10 +554,10 @@ public final class PInt extends PythonBuiltinObject {
     }
 
     public BigInteger abs() {
-        if (value.signum() < 0) {
-            return abs(value);
+        if (isNegative()) {
+            return abs(getValue());
         } else {
-            return value;
+            return getValue();
         }
     }
 
@@ -105,6 +105,7 @@ import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.EmptySequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.IntSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.LongSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.NativeSequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorageFactory;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -833,12 +834,30 @@ public class ListBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     public abstract static class ListReverseNode extends PythonUnaryBuiltinNode {
 
-        @Specialization
+        @Specialization(guards = "!isNativeStorage(list)")
         PList reverse(PList list) {
             list.reverse();
             return list;
         }
 
+        @Specialization(guards = "isNativeStorage(list)")
+        static PList reverseNative(PList list,
+                        @Cached SequenceStorageNodes.GetItemScalarNode getItemNode,
+                        @Cached SequenceStorageNodes.SetItemScalarNode setItemNode) {
+            // a native storage is reversed in place, since native code may hold its pointer
+            SequenceStorage store = list.getSequenceStorage();
+            for (int i = 0, j = store.length() - 1; i < j; i++, j--) {
+                Object item = getItemNode.execute(store, i);
+                setItemNode.execute(store, i, getItemNode.execute(store, j));
+                setItemNode.execute(store, j, item);
+            }
+            return list;
+        }
+
+        static boolean isNativeStorage(PList list) {
+            return list.getSequenceStorage() instanceof NativeSequenceStorage;
+        }
+
         public static ListReverseNode create() {
             return ListReverseNodeFactory.create();
         }
@@ -25,6 +25,8 @@
  */
 package com.oracle.graal.python.builtins.objects.list;
 
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.GenNodeSupplier;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.ListGeneralizationNode;
 import com.oracle.graal.python.nodes.literal.ListLiteralNode;
 import com.oracle.graal.python.runtime.sequence.PMutableSequence;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
@@ -62,6 +64,11 @@ public final class PList extends PMutableSequence {
         this.store = newStorage;
     }
 
+    @Override
+    protected GenNodeSupplier getGeneralizationNodeSupplier() {
+        return ListGeneralizationNode.SUPPLIER;
+    }
+
     @Override
     public final String toString() {
         StringBuilder buf = new StringBuilder("[");
@@ -40,23 +40,20 @@
  */
 package com.oracle.graal.python.builtins.objects.lzma;
 
-import static com.oracle.graal.python.builtins.PythonBuiltinClassType.OSError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.EOFError;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.LZMAError;
 import static com.oracle.graal.python.builtins.PythonBuiltinClassType.TypeError;
 
-import java.io.IOException;
 import java.util.List;
+import java.util.zip.DataFormatException;
 
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
-import com.oracle.graal.python.builtins.modules.LZMAModuleBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
-import com.oracle.graal.python.builtins.objects.bytes.BytesNodes;
+import com.oracle.graal.python.builtins.objects.bytes.BytesNodes.ToBytesNode;
 import com.oracle.graal.python.builtins.objects.bytes.PBytes;
-import com.oracle.graal.python.builtins.objects.bytes.PIBytesLike;
-import com.oracle.graal.python.builtins.objects.common.SequenceNodes;
-import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.nodes.ErrorMessages;
@@ -64,12 +61,8 @@ import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
-import com.oracle.graal.python.nodes.util.CastToByteNode;
-import com.oracle.graal.python.runtime.sequence.PSequence;
-import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
-import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
-import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -85,62 +78,42 @@ public class LZMADecompressorBuiltins extends PythonBuiltins {
         return LZMADecompressorBuiltinsFactory.getFactories();
     }
 
-    @Builtin(name = "decompress", minNumOfPositionalArgs = 2, parameterNames = {"self", "data", "max_length"}, needsFrame = true)
+    @Builtin(name = "decompress", minNumOfPositionalArgs = 2, parameterNames = {"self", "data", "max_length"})
     @GenerateNodeFactory
-    @TypeSystemReference(PythonArithmeticTypes.class)
     abstract static class DecompressNode extends PythonTernaryBuiltinNode {
 
         @Specialization(guards = "isNoValue(maxLength)")
-        PBytes doBytesLike(VirtualFrame frame, PLZMADecompressor self, PIBytesLike bytesLike, @SuppressWarnings("unused") PNone maxLength,
-                        @Cached BytesNodes.ToBytesNode toBytesNode) {
-            byte[] decompress;
-            try {
-                decompress = self.decompress(toBytesNode.execute(frame, bytesLike));
-                return factory().createBytes(decompress);
-            } catch (IOException e) {
-                throw raise(OSError, e);
-            }
+        PBytes doUnlimited(VirtualFrame frame, PLZMADecompressor self, Object data, @SuppressWarnings("unused") PNone maxLength,
+                        @Shared("toBytes") @Cached("createToBytes()") ToBytesNode toBytesNode) {
+            return decompress(self, toBytesNode.execute(frame, data), -1);
         }
 
         @Specialization
-        PBytes doBytesLikeWithMaxLengthI(VirtualFrame frame, PLZMADecompressor self, PIBytesLike bytesLike, int maxLength,
-                        @Cached SequenceNodes.GetSequenceStorageNode getSequenceStorageNode,
-                        @Cached SequenceNodes.LenNode lenNode,
-                        @Cached SequenceStorageNodes.GetItemNode getItemNode,
-                        @Cached CastToByteNode castToByteNode) {
-            SequenceStorage storage = getSequenceStorageNode.execute(bytesLike);
-            int len = lenNode.execute((PSequence) bytesLike);
-            byte[] compressed = new byte[Math.min(len, maxLength)];
-            for (int i = 0; i < compressed.length; i++) {
-                castToByteNode.execute(frame, getItemNode.execute(frame, storage, i));
-            }
-
-            try {
-                return factory().createBytes(self.decompress(compressed));
-            } catch (IOException e) {
-                throw raise(OSError, e);
-            }
+        PBytes doInt(VirtualFrame frame, PLZMADecompressor self, Object data, int maxLength,
+                        @Shared("toBytes") @Cached("createToBytes()") ToBytesNode toBytesNode) {
+            return decompress(self, toBytesNode.execute(frame, data), maxLength);
         }
 
-        @Specialization(replaces = "doBytesLikeWithMaxLengthI", limit = "getCallSiteInlineCacheMaxDepth()")
-        PBytes doBytesLikeWithMaxLength(VirtualFrame frame, PLZMADecompressor self, PIBytesLike bytesLike, Object maxLength,
+        @Specialization(guards = "!isNoValue(maxLength)", replaces = "doInt", limit = "getCallSiteInlineCacheMaxDepth()")
+        PBytes doGeneric(VirtualFrame frame, PLZMADecompressor self, Object data, Object maxLength,
                         @CachedLibrary("maxLength") PythonObjectLibrary lib,
-                        @Cached SequenceNodes.GetSequenceStorageNode getSequenceStorageNode,
-                        @Cached SequenceNodes.LenNode lenNode,
-                        @Cached SequenceStorageNodes.GetItemNode getItemNode,
-                        @Cached CastToByteNode castToByteNode) {
-            return doBytesLikeWithMaxLengthI(frame, self, bytesLike, lib.asSizeWithState(maxLength, PArguments.getThreadState(frame)), getSequenceStorageNode, lenNode, getItemNode, castToByteNode);
+                        @Shared("toBytes") @Cached("createToBytes()") ToBytesNode toBytesNode) {
+            return decompress(self, toBytesNode.execute(frame, data), lib.asSizeWithState(maxLength, PArguments.getThreadState(frame)));
         }
 
-        @Fallback
-        PBytes doError(@SuppressWarnings("unused") Object self, Object obj, @SuppressWarnings("unused") Object maxLength) {
-            throw raise(TypeError, ErrorMessages.BYTESLIKE_OBJ_REQUIRED, obj);
+        private PBytes decompress(PLZMADecompressor self, byte[] bytes, int maxLength) {
+            if (self.getEof()) {
+                throw raise(EOFError, ErrorMessages.ALREADY_AT_END_OF_STREAM);
+            }
+            try {
+                return factory().createBytes(self.decompress(bytes, maxLength));
+            } catch (DataFormatException e) {
+                throw raise(LZMAError, "%m", e);
+            }
         }
 
-        @TruffleBoundary
-        private static byte[] addBytes(PLZMACompressor self, byte[] data) throws IOException {
-            self.getLzmaStream().write(data);
-            return self.getBos().toByteArray();
+        static ToBytesNode createToBytes() {
+            return ToBytesNode.create(true, TypeError, ErrorMessages.BYTESLIKE_OBJ_REQUIRED);
         }
     }
 
@@ -174,9 +147,8 @@ public class LZMADecompressorBuiltins extends PythonBuiltins {
     abstract static class CheckNode extends PythonUnaryBuiltinNode {
 
         @Specialization
-        int doCheck(@SuppressWarnings("unused") PLZMADecompressor self) {
-            // TODO implement
-            return LZMAModuleBuiltins.LZMA_CHECK_UNKNOWN;
+        static int doCheck(PLZMADecompressor self) {
+            return self.getCheck();
         }
 
     }
@@ -187,9 +159,8 @@ public class LZMADecompressorBuiltins extends PythonBuiltins {
     abstract static class UnusedDataNode extends PythonUnaryBuiltinNode {
 
         @Specialization
-        PBytes doUnusedData(@SuppressWarnings("unused") PLZMADecompressor self) {
-            // TODO implement
-            return factory().createBytes(new byte[0]);
+        PBytes doUnusedData(PLZMADecompressor self) {
+            return factory().createBytes(self.getUnusedData());
         }
 
     }
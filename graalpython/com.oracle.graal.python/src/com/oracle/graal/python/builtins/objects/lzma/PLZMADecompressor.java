@@ -40,95 +40,55 @@
  */
 package com.oracle.graal.python.builtins.objects.lzma;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.DataFormatException;
 
-import org.tukaani.xz.LZMAInputStream;
-import org.tukaani.xz.XZFormatException;
-import org.tukaani.xz.XZInputStream;
-
-import com.oracle.graal.python.builtins.modules.LZMAModuleBuiltins;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
 
 public class PLZMADecompressor extends PythonObject {
 
+    private static final byte[] EMPTY = new byte[0];
+
     private final int memlimit;
-    private int format;
+    private final XZDecoder decoder;
     private boolean eof;
-    private boolean needsInput;
+    private boolean needsInput = true;
+    private byte[] unusedData = EMPTY;
 
     public PLZMADecompressor(Object clazz, DynamicObject storage, int format, int memlimit) {
         super(clazz, storage);
-        this.format = format;
         this.memlimit = memlimit;
+        this.decoder = createDecoder(format, memlimit);
+    }
+
+    @TruffleBoundary
+    private static XZDecoder createDecoder(int format, int memlimit) {
+        // independent blocks of multi-threaded .xz files can be decoded on other cores
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        return new XZDecoder(format, memlimit, parallelism > 1 ? ForkJoinPool.commonPool() : null, parallelism);
     }
 
     public int getMemlimit() {
         return memlimit;
     }
 
+    /**
+     * Decompresses {@code data} together with any input left over from previous calls. At most
+     * {@code maxLength} bytes are returned if {@code maxLength} is not negative.
+     */
     @TruffleBoundary
-    public byte[] decompress(byte[] data) throws IOException {
-        if (data.length == 0) {
+    public byte[] decompress(byte[] data, int maxLength) throws DataFormatException {
+        byte[] result = decoder.decompress(data, maxLength);
+        if (decoder.isFinished()) {
             eof = true;
             needsInput = false;
-            return data;
-        }
-
-        try {
-            ByteArrayInputStream bis = new ByteArrayInputStream(data);
-            InputStream xzStream = create(bis);
-            return doDecompression(xzStream, bis);
-        } catch (XZFormatException xze) {
-            // only retry if format was AUTO because we first tried XZ and now we try LZMA
-            if (format == LZMAModuleBuiltins.FORMAT_AUTO) {
-                ByteArrayInputStream bis = new ByteArrayInputStream(data);
-                return doDecompression(createLZMA(bis), bis);
-            }
-            throw xze;
+            unusedData = decoder.getRemainingInput();
+        } else {
+            needsInput = decoder.isStalled();
         }
-    }
-
-    private byte[] doDecompression(InputStream is, ByteArrayInputStream bis) throws IOException {
-        int n = is.available();
-        ByteArrayOutputStream bos = new ByteArrayOutputStream(n);
-        byte[] result = new byte[4096];
-        int read = -1;
-
-        while ((read = is.read(result)) > 0) {
-            bos.write(result, 0, read);
-        }
-        eof = read == -1;
-        needsInput = is.available() == 0 && bis.available() > 0;
-
-        return bos.toByteArray();
-    }
-
-    private InputStream create(ByteArrayInputStream bis) throws IOException {
-        switch (format) {
-            case LZMAModuleBuiltins.FORMAT_AUTO:
-            case LZMAModuleBuiltins.FORMAT_XZ:
-                return createXZ(bis);
-
-            case LZMAModuleBuiltins.FORMAT_ALONE:
-                return createLZMA(bis);
-
-            case LZMAModuleBuiltins.FORMAT_RAW:
-            default:
-                throw new IllegalStateException();
-        }
-    }
-
-    private XZInputStream createXZ(ByteArrayInputStream bis) throws IOException {
-        return new XZInputStream(bis, memlimit);
-    }
-
-    private LZMAInputStream createLZMA(ByteArrayInputStream bis) throws IOException {
-        return new LZMAInputStream(bis, memlimit);
+        return result;
     }
 
     public boolean getEof() {
@@ -138,4 +98,12 @@ public class PLZMADecompressor extends PythonObject {
     public boolean isNeedsInput() {
         return needsInput;
     }
+
+    public int getCheck() {
+        return decoder.getCheck();
+    }
+
+    public byte[] getUnusedData() {
+        return unusedData;
+    }
 }
@@ -0,0 +1,1264 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.lzma;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+
+import org.tukaani.xz.LZMA2InputStream;
+import org.tukaani.xz.LZMAInputStream;
+import org.tukaani.xz.UnsupportedOptionsException;
+import org.tukaani.xz.check.Check;
+import org.tukaani.xz.delta.DeltaDecoder;
+import org.tukaani.xz.simple.ARM;
+import org.tukaani.xz.simple.ARMThumb;
+import org.tukaani.xz.simple.IA64;
+import org.tukaani.xz.simple.PowerPC;
+import org.tukaani.xz.simple.SPARC;
+import org.tukaani.xz.simple.SimpleFilter;
+import org.tukaani.xz.simple.X86;
+
+import com.oracle.graal.python.builtins.modules.LZMAModuleBuiltins;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.util.IncrementalDecoder;
+
+/**
+ * Push-style decoder for .xz and .lzma streams. Unlike the stream classes of the XZ library, it
+ * never blocks on input: everything passed to {@link #feed} is consumed as far as possible and
+ * decoding resumes where it stopped once more input arrives. Memory use is bounded by the
+ * dictionary, the largest LZMA2 chunk (64 KiB) and the input not consumed yet, independent of the
+ * size of the stream.
+ *
+ * The .xz container is parsed here, the LZMA2 data is decoded by the XZ library. It is only asked
+ * for what can be decoded from the LZMA2 chunks received completely, so it never runs out of
+ * input. Blocks whose headers record both their compressed and uncompressed size (as written by
+ * multi-threaded xz encoders) can be decoded independently of each other. If an executor is
+ * given, such blocks are decoded in the background while their predecessors are being returned.
+ */
+final class XZDecoder extends IncrementalDecoder {
+
+    private static final byte[] HEADER_MAGIC = {(byte) 0xFD, '7', 'z', 'X', 'Z', 0};
+    private static final byte[] FOOTER_MAGIC = {'Y', 'Z'};
+    private static final int STREAM_HEADER_SIZE = 12;
+    private static final int ALONE_HEADER_SIZE = 13;
+    private static final int[] CHECK_SIZES = {0, 4, 4, 4, 8, 8, 8, 16, 16, 16, 32, 32, 32, 64, 64, 64};
+
+    private static final int FILTER_DELTA = 0x03;
+    private static final int FILTER_X86 = 0x04;
+    private static final int FILTER_POWERPC = 0x05;
+    private static final int FILTER_IA64 = 0x06;
+    private static final int FILTER_ARM = 0x07;
+    private static final int FILTER_ARMTHUMB = 0x08;
+    private static final int FILTER_SPARC = 0x09;
+    private static final int FILTER_LZMA2 = 0x21;
+
+    /** Blocks larger than this are always decoded sequentially to bound the memory use. */
+    private static final long MAX_PARALLEL_BLOCK_SIZE = 64 << 20;
+
+    /**
+     * Further blocks are only decoded in the background while the output of the blocks decoded
+     * ahead stays below this, independent of the number of cores.
+     */
+    private static final long MAX_PENDING_OUTPUT = 128 << 20;
+
+    private static final int DETECT = 0;
+    private static final int STREAM_HEADER = 1;
+    private static final int BLOCK_HEADER = 2;
+    private static final int BLOCK_DATA = 3;
+    private static final int BLOCK_TRAILER = 4;
+    private static final int INDEX = 5;
+    private static final int STREAM_FOOTER = 6;
+    private static final int ALONE_HEADER = 7;
+    private static final int ALONE_DATA = 8;
+    private static final int END = 9;
+
+    private static final NeedInput NEED_INPUT = new NeedInput();
+
+    private final boolean picky;
+    private final long memlimit;
+    private final Executor executor;
+    private final int maxPending;
+
+    private final Input input = new Input(new byte[0], 0, 0);
+    private int state;
+    private boolean stalled;
+    private int checkType = LZMAModuleBuiltins.LZMA_CHECK_UNKNOWN;
+    private int streamFlags;
+
+    // the block that is decoded sequentially
+    private BlockHeader block;
+    private Stage stage;
+    private Check check;
+    private long blockDataStart;
+    private long blockProduced;
+    private byte[] expectedCheck;
+
+    // blocks that are decoded by the executor, in stream order
+    private final ArrayDeque<ParallelBlock> pending = new ArrayDeque<>();
+    private long pendingOutput;
+
+    // .lzma streams
+    private AloneDecoder alone;
+
+    // summary of the decoded blocks, compared against the index
+    private final IndexHash blocks = new IndexHash();
+    private int indexSize;
+
+    /**
+     * @param format one of {@code FORMAT_AUTO}, {@code FORMAT_XZ} and {@code FORMAT_ALONE}
+     * @param memlimit the largest dictionary that may be allocated
+     * @param executor executes the decoding of independent blocks, or {@code null}
+     * @param maxPending the number of blocks which may be decoded ahead
+     */
+    XZDecoder(int format, long memlimit, Executor executor, int maxPending) {
+        this.memlimit = memlimit;
+        this.executor = executor;
+        this.maxPending = maxPending;
+        this.picky = format == LZMAModuleBuiltins.FORMAT_AUTO;
+        switch (format) {
+            case LZMAModuleBuiltins.FORMAT_XZ:
+                state = STREAM_HEADER;
+                break;
+            case LZMAModuleBuiltins.FORMAT_ALONE:
+                state = ALONE_HEADER;
+                break;
+            default:
+                state = DETECT;
+                break;
+        }
+    }
+
+    @Override
+    public void feed(byte[] data, int off, int len) {
+        if (alone != null) {
+            alone.feed(data, off, len);
+        } else {
+            input.feed(data, off, len);
+        }
+    }
+
+    /** Whether the decoder needs more input before it can produce more output. */
+    @Override
+    public boolean isStalled() {
+        return stalled;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return state == END;
+    }
+
+    /** The integrity check of the stream, {@code CHECK_UNKNOWN} until the header was read. */
+    int getCheck() {
+        return checkType;
+    }
+
+    @Override
+    public byte[] getRemainingInput() {
+        return alone != null ? alone.getRemainingInput() : input.remaining();
+    }
+
+    /**
+     * Decodes up to {@code len} bytes into {@code out} and returns how many were written. If
+     * fewer were written, the stream either ended or the decoder is {@linkplain #isStalled()
+     * stalled}.
+     */
+    @Override
+    public int decode(byte[] out, int off, int len) throws DataFormatException {
+        stalled = false;
+        int written = 0;
+        while (true) {
+            if (!pending.isEmpty()) {
+                if (written == len) {
+                    break;
+                }
+                if (pending.peekFirst().result.isDone()) {
+                    written += deliver(out, off + written, len - written);
+                    continue;
+                }
+            }
+            int n = step(out, off + written, len - written);
+            if (n >= 0) {
+                written += n;
+            } else if (!pending.isEmpty() && written < len) {
+                // nothing else to do than to wait for the next block
+                written += deliver(out, off + written, len - written);
+            } else {
+                stalled = pending.isEmpty() && state != END && written < len;
+                break;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Does one step of work. Returns the number of bytes written (which may be zero for steps that
+     * only consume input), or {@code -1} if no progress is possible.
+     */
+    private int step(byte[] out, int off, int len) throws DataFormatException {
+        int mark = input.pos;
+        try {
+            switch (state) {
+                case DETECT:
+                    if (input.available() == 0) {
+                        return -1;
+                    }
+                    state = (input.buf[input.pos] & 0xFF) == (HEADER_MAGIC[0] & 0xFF) ? STREAM_HEADER : ALONE_HEADER;
+                    return 0;
+                case STREAM_HEADER:
+                    readStreamHeader();
+                    state = BLOCK_HEADER;
+                    return 0;
+                case BLOCK_HEADER:
+                    return startBlock(mark);
+                case BLOCK_DATA:
+                    return readBlockData(out, off, len);
+                case BLOCK_TRAILER:
+                    readBlockTrailer();
+                    state = BLOCK_HEADER;
+                    return 0;
+                case INDEX:
+                    if (!pending.isEmpty()) {
+                        return -1;
+                    }
+                    readIndex();
+                    state = STREAM_FOOTER;
+                    return 0;
+                case STREAM_FOOTER:
+                    readStreamFooter();
+                    state = END;
+                    return 0;
+                case ALONE_HEADER:
+                    readAloneHeader();
+                    state = ALONE_DATA;
+                    return 0;
+                case ALONE_DATA:
+                    return readAloneData(out, off, len);
+                default:
+                    return -1;
+            }
+        } catch (NeedInput e) {
+            // headers and trailers are only consumed as a whole
+            input.pos = mark;
+            return -1;
+        }
+    }
+
+    // ---- .xz streams ----
+
+    private void readStreamHeader() throws NeedInput, DataFormatException {
+        if (input.available() < STREAM_HEADER_SIZE) {
+            throw NEED_INPUT;
+        }
+        for (int i = 0; i < HEADER_MAGIC.length; i++) {
+            if (input.readByte() != (HEADER_MAGIC[i] & 0xFF)) {
+                throw new DataFormatException(ErrorMessages.LZMA_INPUT_FORMAT_NOT_SUPPORTED);
+            }
+        }
+        int flagsStart = input.pos;
+        streamFlags = readStreamFlags();
+        if (readInt32() != crc32(input.buf, flagsStart, 2)) {
+            throw corrupt();
+        }
+        checkType = streamFlags & 0x0F;
+    }
+
+    private int readStreamFlags() throws NeedInput, DataFormatException {
+        int flags = (input.readByte() << 8) | input.readByte();
+        if ((flags & 0xFFF0) != 0) {
+            throw new DataFormatException(ErrorMessages.LZMA_INVALID_OPTIONS);
+        }
+        return flags;
+    }
+
+    private int startBlock(int mark) throws NeedInput, DataFormatException {
+        if (input.available() == 0) {
+            throw NEED_INPUT;
+        }
+        if (input.buf[input.pos] == 0) {
+            state = INDEX;
+            return 0;
+        }
+        BlockHeader header = readBlockHeader();
+        long windowSize = header.windowSize();
+        checkMemory(windowSize);
+        int checkSize = CHECK_SIZES[checkType];
+        if (executor != null && header.compressedSize >= 0 && header.uncompressedSize >= 0 &&
+                        header.compressedSize + header.uncompressedSize <= MAX_PARALLEL_BLOCK_SIZE) {
+            if (pending.size() >= maxPending || (!pending.isEmpty() && pendingOutput + header.uncompressedSize > MAX_PENDING_OUTPUT)) {
+                input.pos = mark;
+                return -1;
+            }
+            int size = (int) (align4(header.compressedSize) + checkSize);
+            if (input.available() < size) {
+                throw NEED_INPUT;
+            }
+            byte[] data = new byte[size];
+            System.arraycopy(input.buf, input.pos, data, 0, size);
+            input.pos += size;
+            int type = checkType;
+            ParallelBlock job = new ParallelBlock(header, checkSize);
+            job.result = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return decodeBlock(header, data, type, (int) windowSize);
+                } catch (DataFormatException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+            pending.addLast(job);
+            pendingOutput += header.uncompressedSize;
+            return 0;
+        }
+        if (!pending.isEmpty()) {
+            // the output of this block has to follow the output of the pending ones
+            input.pos = mark;
+            return -1;
+        }
+        block = header;
+        stage = createPipeline(header, input, (int) windowSize, false);
+        check = createCheck(checkType);
+        blockDataStart = input.position();
+        blockProduced = 0;
+        state = BLOCK_DATA;
+        return 0;
+    }
+
+    private int readBlockData(byte[] out, int off, int len) throws DataFormatException {
+        int n = stage.read(out, off, len);
+        if (n > 0) {
+            if (check != null) {
+                check.update(out, off, n);
+            }
+            blockProduced += n;
+            if (block.uncompressedSize >= 0 && blockProduced > block.uncompressedSize) {
+                throw corrupt();
+            }
+            return n;
+        }
+        if (!stage.isFinished()) {
+            return -1;
+        }
+        long compressed = input.position() - blockDataStart;
+        if ((block.compressedSize >= 0 && compressed != block.compressedSize) ||
+                        (block.uncompressedSize >= 0 && blockProduced != block.uncompressedSize)) {
+            throw corrupt();
+        }
+        block.compressedSize = compressed;
+        expectedCheck = check != null ? check.finish() : null;
+        stage = null;
+        state = BLOCK_TRAILER;
+        return 0;
+    }
+
+    private void readBlockTrailer() throws NeedInput, DataFormatException {
+        int checkSize = CHECK_SIZES[checkType];
+        int padding = (int) (align4(block.compressedSize) - block.compressedSize);
+        if (input.available() < padding + checkSize) {
+            throw NEED_INPUT;
+        }
+        verifyTrailer(input.buf, input.pos, padding, expectedCheck, checkSize);
+        input.pos += padding + checkSize;
+        blocks.add(block.unpaddedSize(checkSize), blockProduced);
+        block = null;
+    }
+
+    private static void verifyTrailer(byte[] buf, int pos, int padding, byte[] expected, int checkSize) throws DataFormatException {
+        for (int i = 0; i < padding; i++) {
+            if (buf[pos + i] != 0) {
+                throw corrupt();
+            }
+        }
+        if (expected != null) {
+            for (int i = 0; i < checkSize; i++) {
+                if (buf[pos + padding + i] != expected[i]) {
+                    throw corrupt();
+                }
+            }
+        }
+    }
+
+    private int deliver(byte[] out, int off, int len) throws DataFormatException {
+        ParallelBlock job = pending.peekFirst();
+        byte[] data;
+        try {
+            data = job.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof DataFormatException) {
+                throw (DataFormatException) e.getCause();
+            }
+            throw e;
+        }
+        int n = Math.min(len, data.length - job.delivered);
+        System.arraycopy(data, job.delivered, out, off, n);
+        job.delivered += n;
+        if (job.delivered == data.length) {
+            pending.removeFirst();
+            pendingOutput -= data.length;
+            blocks.add(job.header.unpaddedSize(job.checkSize), data.length);
+        }
+        return n;
+    }
+
+    /** Decodes a complete block, including its padding and check. */
+    private static byte[] decodeBlock(BlockHeader header, byte[] data, int checkType, int windowSize) throws DataFormatException {
+        Input in = new Input(data, 0, data.length);
+        Stage stage = createPipeline(header, in, windowSize, true);
+        byte[] out = new byte[(int) header.uncompressedSize];
+        int n = 0;
+        int r;
+        while (n < out.length && (r = stage.read(out, n, out.length - n)) > 0) {
+            n += r;
+        }
+        if (n != out.length || stage.read(new byte[1], 0, 1) != 0 || !stage.isFinished() || in.pos != header.compressedSize) {
+            throw corrupt();
+        }
+        Check check = createCheck(checkType);
+        byte[] expected = null;
+        if (check != null) {
+            check.update(out, 0, out.length);
+            expected = check.finish();
+        }
+        int padding = (int) (align4(header.compressedSize) - header.compressedSize);
+        verifyTrailer(data, in.pos, padding, expected, CHECK_SIZES[checkType]);
+        return out;
+    }
+
+    private static Check createCheck(int type) {
+        if (type == 0) {
+            return null;
+        }
+        try {
+            return Check.getInstance(type);
+        } catch (UnsupportedOptionsException e) {
+            // like liblzma, skip checks that are not supported
+            return null;
+        }
+    }
+
+    private BlockHeader readBlockHeader() throws NeedInput, DataFormatException {
+        int headerSize = (input.buf[input.pos] & 0xFF) * 4 + 4;
+        if (input.available() < headerSize) {
+            throw NEED_INPUT;
+        }
+        int start = input.pos;
+        int end = start + headerSize - 4;
+        if (crc32(input.buf, start, headerSize - 4) != getInt32(input.buf, end)) {
+            throw corrupt();
+        }
+        Input header = new Input(input.buf, start + 1, end);
+        BlockHeader result = new BlockHeader();
+        result.headerSize = headerSize;
+        try {
+            int flags = header.readByte();
+            if ((flags & 0x3C) != 0) {
+                throw new DataFormatException(ErrorMessages.LZMA_INVALID_OPTIONS);
+            }
+            int filterCount = (flags & 0x03) + 1;
+            if ((flags & 0x40) != 0) {
+                result.compressedSize = readVarint(header);
+                if (result.compressedSize == 0) {
+                    throw corrupt();
+                }
+            }
+            if ((flags & 0x80) != 0) {
+                result.uncompressedSize = readVarint(header);
+            }
+            result.filterIds = new int[filterCount];
+            result.filterProps = new int[filterCount];
+            for (int i = 0; i < filterCount; i++) {
+                long id = readVarint(header);
+                long propsSize = readVarint(header);
+                if (propsSize > header.available()) {
+                    throw corrupt();
+                }
+                boolean last = i == filterCount - 1;
+                if (last != (id == FILTER_LZMA2)) {
+                    throw new DataFormatException(ErrorMessages.LZMA_INVALID_OPTIONS);
+                }
+                result.filterIds[i] = (int) id;
+                result.filterProps[i] = readFilterProps((int) id, (int) propsSize, header);
+            }
+            while (header.available() > 0) {
+                if (header.readByte() != 0) {
+                    throw new DataFormatException(ErrorMessages.LZMA_INVALID_OPTIONS);
+                }
+            }
+        } catch (NeedInput e) {
+            throw corrupt();
+        }
+        input.pos += headerSize;
+        return result;
+    }
+
+    private static int readFilterProps(int id, int size, Input in) throws NeedInput, DataFormatException {
+        switch (id) {
+            case FILTER_LZMA2:
+                if (size == 1) {
+                    int props = in.readByte();
+                    if (props <= 40) {
+                        return props;
+                    }
+                }
+                break;
+            case FILTER_DELTA:
+                if (size == 1) {
+                    return in.readByte() + 1;
+                }
+                break;
+            case FILTER_X86:
+            case FILTER_POWERPC:
+            case FILTER_IA64:
+            case FILTER_ARM:
+            case FILTER_ARMTHUMB:
+            case FILTER_SPARC:
+                if (size == 0) {
+                    return 0;
+                } else if (size == 4) {
+                    return in.readByte() | (in.readByte() << 8) | (in.readByte() << 16) | (in.readByte() << 24);
+                }
+                break;
+        }
+        throw new DataFormatException(ErrorMessages.LZMA_INVALID_OPTIONS);
+    }
+
+    private static Stage createPipeline(BlockHeader header, Input in, int windowSize, boolean complete) {
+        Stage result = new LZMA2Stage(in, windowSize, complete);
+        // the filters are listed in encoding order
+        for (int i = header.filterIds.length - 2; i >= 0; i--) {
+            int props = header.filterProps[i];
+            switch (header.filterIds[i]) {
+                case FILTER_DELTA:
+                    result = new DeltaStage(result, props);
+                    break;
+                case FILTER_X86:
+                    result = new BCJStage(result, new X86(false, props));
+                    break;
+                case FILTER_POWERPC:
+                    result = new BCJStage(result, new PowerPC(false, props));
+                    break;
+                case FILTER_IA64:
+                    result = new BCJStage(result, new IA64(false, props));
+                    break;
+                case FILTER_ARM:
+                    result = new BCJStage(result, new ARM(false, props));
+                    break;
+                case FILTER_ARMTHUMB:
+                    result = new BCJStage(result, new ARMThumb(false, props));
+                    break;
+                case FILTER_SPARC:
+                    result = new BCJStage(result, new SPARC(false, props));
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+        return result;
+    }
+
+    private void readIndex() throws NeedInput, DataFormatException {
+        int start = input.pos;
+        input.readByte();
+        long count = readVarint(input);
+        IndexHash records = new IndexHash();
+        for (long i = 0; i < count; i++) {
+            long unpadded = readVarint(input);
+            long uncompressed = readVarint(input);
+            if (unpadded == 0) {
+                throw corrupt();
+            }
+            records.add(unpadded, uncompressed);
+        }
+        while (((input.pos - start) & 3) != 0) {
+            if (input.readByte() != 0) {
+                throw corrupt();
+            }
+        }
+        int size = input.pos - start;
+        if (input.available() < 4) {
+            throw NEED_INPUT;
+        }
+        if (readInt32() != crc32(input.buf, start, size) || !records.matches(blocks)) {
+            throw corrupt();
+        }
+        indexSize = size;
+    }
+
+    private void readStreamFooter() throws NeedInput, DataFormatException {
+        if (input.available() < STREAM_HEADER_SIZE) {
+            throw NEED_INPUT;
+        }
+        int crc = readInt32();
+        int crcStart = input.pos;
+        long backwardSize = (readInt32() & 0xFFFFFFFFL) + 1;
+        int flags = readStreamFlags();
+        if (crc != crc32(input.buf, crcStart, 6) || backwardSize * 4 != indexSize + 4 || flags != streamFlags) {
+            throw corrupt();
+        }
+        if (input.readByte() != FOOTER_MAGIC[0] || input.readByte() != FOOTER_MAGIC[1]) {
+            throw corrupt();
+        }
+    }
+
+    // ---- .lzma streams ----
+
+    private void readAloneHeader() throws NeedInput, DataFormatException {
+        if (input.available() < ALONE_HEADER_SIZE) {
+            throw NEED_INPUT;
+        }
+        int props = input.readByte();
+        int dictSize = readInt32();
+        long uncompressedSize = (readInt32() & 0xFFFFFFFFL) | ((long) readInt32() << 32);
+        int pb = props / (9 * 5);
+        int lp = (props - pb * 9 * 5) / 9;
+        int lc = props - pb * 9 * 5 - lp * 9;
+        if (pb > 4 || lc + lp > 4) {
+            throw new DataFormatException(ErrorMessages.LZMA_INPUT_FORMAT_NOT_SUPPORTED);
+        }
+        if (picky) {
+            // only accept what .lzma encoders actually write when guessing the format
+            int d = dictSize - 1;
+            d |= d >>> 2;
+            d |= d >>> 3;
+            d |= d >>> 4;
+            d |= d >>> 8;
+            d |= d >>> 16;
+            if (d + 1 != dictSize || (uncompressedSize != -1 && uncompressedSize >= 1L << 38)) {
+                throw new DataFormatException(ErrorMessages.LZMA_INPUT_FORMAT_NOT_SUPPORTED);
+            }
+        }
+        long windowSize = dictSize & 0xFFFFFFFFL;
+        if (uncompressedSize != -1) {
+            windowSize = Math.min(windowSize, uncompressedSize);
+        }
+        checkMemory(windowSize);
+        checkType = 0;
+        alone = new AloneDecoder(this, input, uncompressedSize, (byte) props, (int) windowSize);
+        Thread thread = new Thread(alone, "python-lzma-decoder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private int readAloneData(byte[] out, int off, int len) throws DataFormatException {
+        if (len == 0) {
+            return -1;
+        }
+        int n = alone.decode(out, off, len);
+        if (n == 0) {
+            state = END;
+        }
+        return n;
+    }
+
+    // ---- helpers ----
+
+    private void checkMemory(long windowSize) throws DataFormatException {
+        if (windowSize > memlimit || windowSize > Integer.MAX_VALUE - 16) {
+            throw new DataFormatException(ErrorMessages.LZMA_MEMORY_LIMIT_EXCEEDED);
+        }
+    }
+
+    private static DataFormatException corrupt() {
+        return new DataFormatException(ErrorMessages.LZMA_CORRUPT_INPUT_DATA);
+    }
+
+    private static long align4(long size) {
+        return (size + 3) & ~3L;
+    }
+
+    private int readInt32() throws NeedInput {
+        return input.readByte() | (input.readByte() << 8) | (input.readByte() << 16) | (input.readByte() << 24);
+    }
+
+    private static int getInt32(byte[] buf, int off) {
+        return (buf[off] & 0xFF) | ((buf[off + 1] & 0xFF) << 8) | ((buf[off + 2] & 0xFF) << 16) | ((buf[off + 3] & 0xFF) << 24);
+    }
+
+    private static int crc32(byte[] buf, int off, int len) {
+        CRC32 crc = new CRC32();
+        crc.update(buf, off, len);
+        return (int) crc.getValue();
+    }
+
+    /** Reads a variable-length integer as used by the .xz format. */
+    private static long readVarint(Input in) throws NeedInput, DataFormatException {
+        int b = in.readByte();
+        long result = b & 0x7F;
+        int i = 0;
+        while ((b & 0x80) != 0) {
+            if (++i >= 9) {
+                throw corrupt();
+            }
+            b = in.readByte();
+            if (b == 0) {
+                throw corrupt();
+            }
+            result |= (long) (b & 0x7F) << (i * 7);
+        }
+        return result;
+    }
+
+    private static final class BlockHeader {
+        int headerSize;
+        long compressedSize = -1;
+        long uncompressedSize = -1;
+        int[] filterIds;
+        int[] filterProps;
+
+        /** The dictionary needed by the block, which never exceeds its uncompressed size. */
+        long windowSize() {
+            int props = filterProps[filterProps.length - 1];
+            long dictSize = props == 40 ? 0xFFFFFFFFL : (2L | (props & 1)) << (props / 2 + 11);
+            return uncompressedSize >= 0 ? Math.min(dictSize, uncompressedSize) : dictSize;
+        }
+
+        long unpaddedSize(int checkSize) {
+            return headerSize + compressedSize + checkSize;
+        }
+    }
+
+    private static final class ParallelBlock {
+        final BlockHeader header;
+        final int checkSize;
+        CompletableFuture<byte[]> result;
+        int delivered;
+
+        ParallelBlock(BlockHeader header, int checkSize) {
+            this.header = header;
+            this.checkSize = checkSize;
+        }
+    }
+
+    /** Summarizes the block sizes so that they can be compared against the index. */
+    private static final class IndexHash {
+        private final CRC32 hash = new CRC32();
+        private long count;
+        private long unpaddedSum;
+        private long uncompressedSum;
+
+        void add(long unpadded, long uncompressed) {
+            count++;
+            unpaddedSum += unpadded;
+            uncompressedSum += uncompressed;
+            for (int i = 0; i < 64; i += 8) {
+                hash.update((int) (unpadded >>> i));
+                hash.update((int) (uncompressed >>> i));
+            }
+        }
+
+        boolean matches(IndexHash other) {
+            return count == other.count && unpaddedSum == other.unpaddedSum && uncompressedSum == other.uncompressedSum && hash.getValue() == other.hash.getValue();
+        }
+    }
+
+    // ---- block data ----
+
+    private abstract static class Stage {
+        /**
+         * Reads up to {@code len} decoded bytes. Returns {@code 0} if the stage is finished or
+         * needs more input.
+         */
+        abstract int read(byte[] out, int off, int len) throws DataFormatException;
+
+        abstract boolean isFinished();
+    }
+
+    /**
+     * Decodes LZMA2 data with the XZ library. The stream is asked for at most what is left of the
+     * current chunk or, between chunks, for the next chunk once it was received completely.
+     */
+    private static final class LZMA2Stage extends Stage {
+        private final Input in;
+        private final LZMA2InputStream lzma2;
+        private final boolean complete;
+        private boolean finished;
+
+        LZMA2Stage(Input in, int windowSize, boolean complete) {
+            this.in = in;
+            this.lzma2 = new LZMA2InputStream(in, Math.max(windowSize, LZMA2InputStream.DICT_SIZE_MIN));
+            this.complete = complete;
+        }
+
+        @Override
+        boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        int read(byte[] out, int off, int len) throws DataFormatException {
+            int size = 0;
+            try {
+                while (!finished) {
+                    int decodable = lzma2.available();
+                    if (decodable == 0) {
+                        decodable = nextChunkSize();
+                        if (decodable == 0) {
+                            // the end marker
+                            if (lzma2.read() != -1) {
+                                throw corrupt();
+                            }
+                            finished = true;
+                            break;
+                        } else if (decodable < 0) {
+                            if (complete) {
+                                throw corrupt();
+                            }
+                            break;
+                        }
+                    }
+                    if (size == len) {
+                        break;
+                    }
+                    int n = lzma2.read(out, off + size, Math.min(decodable, len - size));
+                    if (n <= 0) {
+                        throw corrupt();
+                    }
+                    size += n;
+                }
+            } catch (IOException e) {
+                throw corrupt();
+            }
+            return size;
+        }
+
+        /**
+         * Returns the uncompressed size of the next chunk if it was received completely, zero for
+         * the end marker and {@code -1} if more input is needed.
+         */
+        private int nextChunkSize() {
+            int available = in.available();
+            if (available == 0) {
+                return -1;
+            }
+            byte[] buf = in.buf;
+            int pos = in.pos;
+            int control = buf[pos] & 0xFF;
+            if (control == 0x00) {
+                return 0;
+            } else if (control >= 0x80) {
+                int headerSize = control >= 0xC0 ? 6 : 5;
+                if (available < headerSize) {
+                    return -1;
+                }
+                int compressedSize = ((buf[pos + 3] & 0xFF) << 8) + (buf[pos + 4] & 0xFF) + 1;
+                if (available < headerSize + compressedSize) {
+                    return -1;
+                }
+                return ((control & 0x1F) << 16) + ((buf[pos + 1] & 0xFF) << 8) + (buf[pos + 2] & 0xFF) + 1;
+            } else if (control <= 0x02) {
+                if (available < 3) {
+                    return -1;
+                }
+                int uncompressedSize = ((buf[pos + 1] & 0xFF) << 8) + (buf[pos + 2] & 0xFF) + 1;
+                return available < 3 + uncompressedSize ? -1 : uncompressedSize;
+            }
+            // an invalid control byte, which the XZ library reports
+            return 1;
+        }
+    }
+
+    private static final class DeltaStage extends Stage {
+        private final Stage source;
+        private final DeltaDecoder delta;
+
+        DeltaStage(Stage source, int distance) {
+            this.source = source;
+            this.delta = new DeltaDecoder(distance);
+        }
+
+        @Override
+        int read(byte[] out, int off, int len) throws DataFormatException {
+            int n = source.read(out, off, len);
+            delta.decode(out, off, n);
+            return n;
+        }
+
+        @Override
+        boolean isFinished() {
+            return source.isFinished();
+        }
+    }
+
+    /**
+     * Applies one of the branch converters. These may leave a few bytes at the end of their input
+     * unconverted until they saw what follows.
+     */
+    private static final class BCJStage extends Stage {
+        private final Stage source;
+        private final SimpleFilter filter;
+        private final byte[] buf = new byte[4096];
+        private int pos;
+        private int filtered;
+        private int unfiltered;
+        private boolean endReached;
+
+        BCJStage(Stage source, SimpleFilter filter) {
+            this.source = source;
+            this.filter = filter;
+        }
+
+        @Override
+        int read(byte[] out, int off, int len) throws DataFormatException {
+            int size = 0;
+            while (true) {
+                int n = Math.min(filtered, len);
+                System.arraycopy(buf, pos, out, off + size, n);
+                pos += n;
+                filtered -= n;
+                len -= n;
+                size += n;
+                if (pos + filtered + unfiltered == buf.length) {
+                    System.arraycopy(buf, pos, buf, 0, filtered + unfiltered);
+                    pos = 0;
+                }
+                if (len == 0 || endReached) {
+                    return size;
+                }
+                int start = pos + unfiltered;
+                n = source.read(buf, start, buf.length - start);
+                if (n > 0) {
+                    unfiltered += n;
+                    filtered = filter.code(buf, pos, unfiltered);
+                    unfiltered -= filtered;
+                } else if (source.isFinished()) {
+                    // the remaining bytes are too short to contain a branch
+                    endReached = true;
+                    filtered = unfiltered;
+                    unfiltered = 0;
+                } else {
+                    return size;
+                }
+            }
+        }
+
+        @Override
+        boolean isFinished() {
+            return endReached && filtered == 0;
+        }
+    }
+
+    // ---- input ----
+
+    /** Signals that a section that is only parsed as a whole is incomplete. */
+    private static final class NeedInput extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        NeedInput() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * A window of compressed bytes. As a stream, it reports the end of the window as the end of
+     * the input.
+     */
+    private static final class Input extends InputStream {
+        byte[] buf;
+        int pos;
+        int end;
+        /** Absolute stream position of {@code buf[0]}. */
+        long base;
+
+        Input(byte[] buf, int pos, int end) {
+            this.buf = buf;
+            this.pos = pos;
+            this.end = end;
+        }
+
+        @Override
+        public int available() {
+            return end - pos;
+        }
+
+        @Override
+        public int read() {
+            return pos == end ? -1 : buf[pos++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            } else if (pos == end) {
+                return -1;
+            }
+            int n = Math.min(len, end - pos);
+            System.arraycopy(buf, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        long position() {
+            return base + pos;
+        }
+
+        int readByte() throws NeedInput {
+            if (pos == end) {
+                throw NEED_INPUT;
+            }
+            return buf[pos++] & 0xFF;
+        }
+
+        /**
+         * Appends {@code len} bytes of {@code data}. Consumed bytes are dropped first so that the
+         * buffer only grows when the caller feeds more than was consumed.
+         */
+        void feed(byte[] data, int off, int len) {
+            if (pos > 0) {
+                System.arraycopy(buf, pos, buf, 0, end - pos);
+                base += pos;
+                end -= pos;
+                pos = 0;
+            }
+            if (end + len > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(end + len, buf.length * 2));
+            }
+            System.arraycopy(data, off, buf, end, len);
+            end += len;
+        }
+
+        byte[] remaining() {
+            return Arrays.copyOfRange(buf, pos, end);
+        }
+    }
+
+    /**
+     * Decodes a .lzma stream with the XZ library on a separate thread. Unlike LZMA2 data, a .lzma
+     * stream cannot be split into pieces that are known to be decodable, so the decoding thread
+     * waits whenever it runs out of input. It only asks the stream for as many bytes as can surely
+     * be decoded from the available input, so everything that can be decoded is returned before
+     * it waits. To keep the number of hand-overs small, the owner only takes output once the
+     * thread waits for input or for space in the output buffer, or finished. The thread ends with the stream
+     * or once the owning decoder was collected.
+     */
+    private static final class AloneDecoder extends InputStream implements Runnable {
+        private static final int BUFFER_SIZE = 1 << 16;
+        /** An LZMA symbol produces at least one byte from at most this many input bytes. */
+        private static final int MAX_SYMBOL_INPUT = 64;
+        private static final long POLL_MILLIS = 1000;
+
+        private final WeakReference<XZDecoder> owner;
+        private final long uncompressedSize;
+        private final byte props;
+        private final int dictSize;
+
+        // guarded by this
+        private final Input input;
+        private final byte[] output = new byte[BUFFER_SIZE];
+        private int outputPos;
+        private int outputEnd;
+        private boolean waitingForInput;
+        private boolean waitingForSpace;
+        private boolean finished;
+        private DataFormatException error;
+
+        /* the input taken by the decoding thread, only returned to the owner once finished */
+        private final byte[] taken = new byte[BUFFER_SIZE];
+        private int takenPos;
+        private int takenEnd;
+
+        AloneDecoder(XZDecoder owner, Input input, long uncompressedSize, byte props, int dictSize) {
+            this.owner = new WeakReference<>(owner);
+            this.input = input;
+            this.uncompressedSize = uncompressedSize;
+            this.props = props;
+            this.dictSize = dictSize;
+        }
+
+        synchronized void feed(byte[] data, int off, int len) {
+            input.feed(data, off, len);
+            notifyAll();
+        }
+
+        /**
+         * Waits for the decoding thread and returns the number of bytes written, {@code 0} at the
+         * end of the stream or {@code -1} if more input is needed.
+         */
+        synchronized int decode(byte[] out, int off, int len) throws DataFormatException {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    boolean needsInput = waitingForInput && input.available() == 0;
+                    if (outputPos < outputEnd && (finished || waitingForSpace || needsInput)) {
+                        int n = Math.min(len, outputEnd - outputPos);
+                        System.arraycopy(output, outputPos, out, off, n);
+                        outputPos += n;
+                        notifyAll();
+                        return n;
+                    } else if (finished) {
+                        if (error != null) {
+                            throw error;
+                        }
+                        return 0;
+                    } else if (needsInput) {
+                        return -1;
+                    }
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // the decoding thread makes progress, so just keep waiting
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        synchronized byte[] getRemainingInput() {
+            byte[] rest = input.remaining();
+            int n = takenEnd - takenPos;
+            byte[] result = Arrays.copyOfRange(taken, takenPos, takenPos + n + rest.length);
+            System.arraycopy(rest, 0, result, n, rest.length);
+            return result;
+        }
+
+        @Override
+        public void run() {
+            DataFormatException result = null;
+            try (LZMAInputStream in = new LZMAInputStream(this, uncompressedSize, props, dictSize)) {
+                byte[] buf = new byte[BUFFER_SIZE / 8];
+                while (true) {
+                    int len = Math.max(1, Math.min(buf.length, available() / MAX_SYMBOL_INPUT));
+                    int n = in.read(buf, 0, len);
+                    if (n == -1) {
+                        break;
+                    }
+                    publish(buf, n);
+                }
+            } catch (Abandoned e) {
+                return;
+            } catch (UnsupportedOptionsException e) {
+                result = new DataFormatException(ErrorMessages.LZMA_INVALID_OPTIONS);
+            } catch (IOException e) {
+                result = corrupt();
+            }
+            synchronized (this) {
+                finished = true;
+                error = result;
+                notifyAll();
+            }
+        }
+
+        private synchronized void publish(byte[] buf, int n) throws Abandoned {
+            while (output.length - (outputEnd - outputPos) < n) {
+                waitingForSpace = true;
+                notifyAll();
+                await();
+            }
+            waitingForSpace = false;
+            if (output.length - outputEnd < n) {
+                System.arraycopy(output, outputPos, output, 0, outputEnd - outputPos);
+                outputEnd -= outputPos;
+                outputPos = 0;
+            }
+            System.arraycopy(buf, 0, output, outputEnd, n);
+            outputEnd += n;
+        }
+
+        @Override
+        public synchronized int available() {
+            return takenEnd - takenPos + input.available();
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (takenPos == takenEnd) {
+                take();
+            }
+            return taken[takenPos++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (takenPos == takenEnd) {
+                take();
+            }
+            int n = Math.min(len, takenEnd - takenPos);
+            System.arraycopy(taken, takenPos, b, off, n);
+            takenPos += n;
+            return n;
+        }
+
+        /** Waits for input and moves as much as possible to {@link #taken}. */
+        private synchronized void take() throws Abandoned {
+            while (input.available() == 0) {
+                waitingForInput = true;
+                notifyAll();
+                await();
+            }
+            waitingForInput = false;
+            int n = Math.min(input.available(), taken.length);
+            System.arraycopy(input.buf, input.pos, taken, 0, n);
+            input.pos += n;
+            takenPos = 0;
+            takenEnd = n;
+        }
+
+        private void await() throws Abandoned {
+            if (owner.get() == null) {
+                throw new Abandoned();
+            }
+            try {
+                wait(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                throw new Abandoned();
+            }
+        }
+    }
+
+    /** Ends the decoding thread of a decoder that is no longer used. */
+    private static final class Abandoned extends IOException {
+        private static final long serialVersionUID = 1L;
+    }
+}
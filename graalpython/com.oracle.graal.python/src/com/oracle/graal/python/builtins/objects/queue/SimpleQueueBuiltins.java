@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.queue;
+
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.QueueEmpty;
+import static com.oracle.graal.python.builtins.PythonBuiltinClassType.ValueError;
+
+import java.util.List;
+
+import com.oracle.graal.python.builtins.Builtin;
+import com.oracle.graal.python.builtins.CoreFunctions;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.PythonBuiltins;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.OSErrorEnum;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
+import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
+import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonBinaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonQuaternaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
+import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.GenerateNodeFactory;
+import com.oracle.truffle.api.dsl.NodeFactory;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.BranchProfile;
+
+@CoreFunctions(extendClasses = PythonBuiltinClassType.PSimpleQueue)
+public class SimpleQueueBuiltins extends PythonBuiltins {
+
+    /*
+     * A blocking 'get' wakes up at least this often to run pending asynchronous actions like
+     * signal handlers, which may raise an exception in the waiting thread. Matches the delay of
+     * the async handler.
+     */
+    private static final long ASYNC_ACTION_INTERVAL_NANOS = 15_000_000L;
+
+    @Override
+    protected List<? extends NodeFactory<? extends PythonBuiltinBaseNode>> getNodeFactories() {
+        return SimpleQueueBuiltinsFactory.getFactories();
+    }
+
+    @Builtin(name = "put", minNumOfPositionalArgs = 2, parameterNames = {"$self", "item", "block", "timeout"})
+    @GenerateNodeFactory
+    abstract static class PutNode extends PythonQuaternaryBuiltinNode {
+        // the queue is unbounded, so 'block' and 'timeout' are only there for compatibility with
+        // 'queue.Queue.put'
+        @Specialization
+        static PNone doPut(PSimpleQueue self, Object item, @SuppressWarnings("unused") Object block, @SuppressWarnings("unused") Object timeout) {
+            self.put(item);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "put_nowait", minNumOfPositionalArgs = 2, parameterNames = {"$self", "item"})
+    @GenerateNodeFactory
+    abstract static class PutNoWaitNode extends PythonBinaryBuiltinNode {
+        @Specialization
+        static PNone doPut(PSimpleQueue self, Object item) {
+            self.put(item);
+            return PNone.NONE;
+        }
+    }
+
+    @Builtin(name = "get", minNumOfPositionalArgs = 1, parameterNames = {"$self", "block", "timeout"})
+    @GenerateNodeFactory
+    abstract static class GetNode extends PythonTernaryBuiltinNode {
+
+        @Specialization(guards = "isNoValue(block)")
+        Object doDefault(VirtualFrame frame, PSimpleQueue self, @SuppressWarnings("unused") PNone block, Object timeout,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached BranchProfile asyncProfile) {
+            return doGet(frame, self, true, timeout, lib, asyncProfile);
+        }
+
+        @Specialization(guards = "!isNoValue(block)")
+        Object doGeneric(VirtualFrame frame, PSimpleQueue self, Object block, Object timeout,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary lib,
+                        @Cached BranchProfile asyncProfile) {
+            return doGet(frame, self, lib.isTrueWithState(block, PArguments.getThreadState(frame)), timeout, lib, asyncProfile);
+        }
+
+        private Object doGet(VirtualFrame frame, PSimpleQueue self, boolean block, Object timeout, PythonObjectLibrary lib, BranchProfile asyncProfile) {
+            Object item = self.poll();
+            if (item != null) {
+                return item;
+            }
+            if (!block) {
+                throw raise(QueueEmpty);
+            }
+            long deadline = Long.MAX_VALUE;
+            boolean hasTimeout = !PGuards.isPNone(timeout);
+            if (hasTimeout) {
+                double seconds = lib.asJavaDoubleWithState(timeout, PArguments.getThreadState(frame));
+                if (seconds < 0) {
+                    throw raise(ValueError, ErrorMessages.TIMEOUT_MUST_BE_NON_NEG_NUMBER);
+                }
+                deadline = System.nanoTime() + (long) (seconds * 1e9);
+            }
+            while (true) {
+                long remaining = hasTimeout ? deadline - System.nanoTime() : ASYNC_ACTION_INTERVAL_NANOS;
+                if (remaining <= 0) {
+                    throw raise(QueueEmpty);
+                }
+                try {
+                    item = self.poll(Math.min(remaining, ASYNC_ACTION_INTERVAL_NANOS));
+                } catch (InterruptedException e) {
+                    throw raiseOSError(frame, OSErrorEnum.EINTR);
+                }
+                if (item != null) {
+                    return item;
+                }
+                getContext().triggerAsyncActions(frame, asyncProfile);
+            }
+        }
+    }
+
+    @Builtin(name = "get_nowait", minNumOfPositionalArgs = 1, parameterNames = {"$self"})
+    @GenerateNodeFactory
+    abstract static class GetNoWaitNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        Object doGet(PSimpleQueue self) {
+            Object item = self.poll();
+            if (item == null) {
+                throw raise(QueueEmpty);
+            }
+            return item;
+        }
+    }
+
+    @Builtin(name = "empty", minNumOfPositionalArgs = 1, parameterNames = {"$self"})
+    @GenerateNodeFactory
+    abstract static class EmptyNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static boolean doEmpty(PSimpleQueue self) {
+            return self.size() == 0;
+        }
+    }
+
+    @Builtin(name = "qsize", minNumOfPositionalArgs = 1, parameterNames = {"$self"})
+    @GenerateNodeFactory
+    abstract static class QSizeNode extends PythonUnaryBuiltinNode {
+        @Specialization
+        static int doSize(PSimpleQueue self) {
+            return self.size();
+        }
+    }
+}
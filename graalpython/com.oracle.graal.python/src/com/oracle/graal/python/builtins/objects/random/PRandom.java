@@ -40,54 +40,127 @@
  */
 package com.oracle.graal.python.builtins.objects.random;
 
-import java.util.Random;
-
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
 
-public class PRandom extends PythonBuiltinObject {
-    private static class PythonRandom extends Random {
-        private static final long serialVersionUID = 1L;
-
-        long getSeed() {
-            int nextseed = this.next(48); // 48 magic number of bits shifted away in superclass
-            this.setSeed(nextseed);
-            return nextseed;
-        }
-    }
+/**
+ * The Mersenne Twister (MT19937) generator of CPython's {@code _random.Random}. The algorithm and
+ * the seeding procedures are the same as in {@code Modules/_randommodule.c}, so that the same seed
+ * produces the same sequence as on CPython and states can be exchanged via
+ * {@code getstate}/{@code setstate}. The state is owned by the instance and not synchronized,
+ * like in CPython.
+ */
+public final class PRandom extends PythonBuiltinObject {
+    public static final int N = 624;
+    private static final int M = 397;
+    private static final int MATRIX_A = 0x9908b0df;
+    private static final int UPPER_MASK = 0x80000000;
+    private static final int LOWER_MASK = 0x7fffffff;
 
-    private PythonRandom javaRandom;
+    private final int[] mt = new int[N];
+    private int index = N + 1;
 
     public PRandom(Object cls, DynamicObject storage) {
         super(cls, storage);
-        resetJavaRandom();
     }
 
+    private void initGenRand(int s) {
+        mt[0] = s;
+        for (int i = 1; i < N; i++) {
+            mt[i] = 1812433253 * (mt[i - 1] ^ (mt[i - 1] >>> 30)) + i;
+        }
+        index = N;
+    }
+
+    /**
+     * Initializes the state from a key of 32-bit words (least significant word first), like
+     * {@code init_by_array} in CPython.
+     */
     @TruffleBoundary
-    public void setSeed(long seed) {
-        javaRandom.setSeed(seed);
+    public void seed(int[] key) {
+        assert key.length > 0;
+        initGenRand(19650218);
+        int i = 1;
+        int j = 0;
+        for (int k = Math.max(N, key.length); k > 0; k--) {
+            mt[i] = (mt[i] ^ ((mt[i - 1] ^ (mt[i - 1] >>> 30)) * 1664525)) + key[j] + j;
+            i++;
+            j++;
+            if (i >= N) {
+                mt[0] = mt[N - 1];
+                i = 1;
+            }
+            if (j >= key.length) {
+                j = 0;
+            }
+        }
+        for (int k = N - 1; k > 0; k--) {
+            mt[i] = (mt[i] ^ ((mt[i - 1] ^ (mt[i - 1] >>> 30)) * 1566083941)) - i;
+            i++;
+            if (i >= N) {
+                mt[0] = mt[N - 1];
+                i = 1;
+            }
+        }
+        mt[0] = UPPER_MASK;
+        index = N;
     }
 
     @TruffleBoundary
-    public long getSeed() {
-        return javaRandom.getSeed();
+    private void twist() {
+        int kk;
+        int y;
+        for (kk = 0; kk < N - M; kk++) {
+            y = (mt[kk] & UPPER_MASK) | (mt[kk + 1] & LOWER_MASK);
+            mt[kk] = mt[kk + M] ^ (y >>> 1) ^ ((y & 1) * MATRIX_A);
+        }
+        for (; kk < N - 1; kk++) {
+            y = (mt[kk] & UPPER_MASK) | (mt[kk + 1] & LOWER_MASK);
+            mt[kk] = mt[kk + (M - N)] ^ (y >>> 1) ^ ((y & 1) * MATRIX_A);
+        }
+        y = (mt[N - 1] & UPPER_MASK) | (mt[0] & LOWER_MASK);
+        mt[N - 1] = mt[M - 1] ^ (y >>> 1) ^ ((y & 1) * MATRIX_A);
+        index = 0;
     }
 
-    public long nextLong() {
-        return javaRandom.nextLong();
+    /**
+     * Returns the next 32 random bits ({@code genrand_int32} in CPython). The result must be
+     * interpreted as unsigned.
+     */
+    public int nextInt() {
+        if (index >= N) {
+            twist();
+        }
+        int y = mt[index++];
+        y ^= y >>> 11;
+        y ^= (y << 7) & 0x9d2c5680;
+        y ^= (y << 15) & 0xefc60000;
+        y ^= y >>> 18;
+        return y;
     }
 
+    /**
+     * Returns a random double in [0.0, 1.0) with 53 bits of randomness ({@code random_random} in
+     * CPython).
+     */
     public double nextDouble() {
-        return javaRandom.nextDouble();
+        int a = nextInt() >>> 5;
+        int b = nextInt() >>> 6;
+        return (a * 67108864.0 + b) * (1.0 / 9007199254740992.0);
     }
 
-    public Random getJavaRandom() {
-        return javaRandom;
+    public int[] getState() {
+        return mt;
     }
 
-    @TruffleBoundary
-    public void resetJavaRandom() {
-        javaRandom = new PythonRandom();
+    public int getIndex() {
+        return index;
+    }
+
+    public void setState(int[] state, int newIndex) {
+        assert state.length == N && 0 <= newIndex && newIndex <= N;
+        System.arraycopy(state, 0, mt, 0, N);
+        index = newIndex;
     }
 }
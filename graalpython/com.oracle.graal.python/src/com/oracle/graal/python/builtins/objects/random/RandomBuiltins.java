@@ -41,13 +41,17 @@
 package com.oracle.graal.python.builtins.objects.random;
 
 import java.math.BigInteger;
+import java.security.SecureRandom;
 import java.util.List;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.array.PArray;
+import com.oracle.graal.python.builtins.objects.bytes.PByteArray;
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes.GetObjectArrayNode;
 import com.oracle.graal.python.builtins.objects.function.PArguments;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
@@ -56,11 +60,16 @@ import com.oracle.graal.python.builtins.objects.tuple.PTuple;
 import com.oracle.graal.python.nodes.ErrorMessages;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.truffle.PythonArithmeticTypes;
+import com.oracle.graal.python.runtime.PythonContext;
 import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.graal.python.runtime.sequence.storage.ByteSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.DoubleSequenceStorage;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.CachedContext;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
@@ -75,33 +84,36 @@ public class RandomBuiltins extends PythonBuiltins {
         return RandomBuiltinsFactory.getFactories();
     }
 
-    @Builtin(name = "seed", minNumOfPositionalArgs = 2)
+    @Builtin(name = "seed", minNumOfPositionalArgs = 1, maxNumOfPositionalArgs = 2)
     @GenerateNodeFactory
     @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class SeedNode extends PythonBuiltinNode {
-
         @Specialization
-        @TruffleBoundary
-        PNone seed(PRandom random, @SuppressWarnings("unused") PNone none) {
-            random.setSeed(System.currentTimeMillis());
+        PNone seed(PRandom random, @SuppressWarnings("unused") PNone none,
+                        @CachedContext(PythonLanguage.class) PythonContext context) {
+            random.seed(createRandomKey(context.getSecureRandom()));
             return PNone.NONE;
         }
 
-        @Specialization
-        PNone seed(PRandom random, long inputSeed) {
-            random.setSeed(inputSeed);
-            return PNone.NONE;
+        @TruffleBoundary
+        private static int[] createRandomKey(SecureRandom secureRandom) {
+            int[] key = new int[PRandom.N];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = secureRandom.nextInt();
+            }
+            return key;
         }
 
         @Specialization
-        PNone seed(PRandom random, PInt inputSeed) {
-            random.setSeed(inputSeed.longValue());
+        PNone seed(PRandom random, long inputSeed) {
+            // Math.abs(Long.MIN_VALUE) is negative but has the right unsigned value
+            random.seed(keyFromUnsignedLong(Math.abs(inputSeed)));
             return PNone.NONE;
         }
 
         @Specialization
-        PNone seed(PRandom random, double inputSeed) {
-            random.setSeed((long) ((Long.MAX_VALUE - inputSeed) * 412316924));
+        PNone seed(PRandom random, PInt inputSeed) {
+            random.seed(keyFromBigInteger(inputSeed.abs()));
             return PNone.NONE;
         }
 
@@ -114,13 +126,41 @@ public class RandomBuiltins extends PythonBuiltins {
                     CompilerDirectives.transferToInterpreterAndInvalidate();
                     objectLib = insert(PythonObjectLibrary.getFactory().createDispatched(PythonOptions.getCallSiteInlineCacheMaxDepth()));
                 }
+                // like CPython, use the hash value interpreted as unsigned
                 long hash = objectLib.hashWithState(inputSeed, PArguments.getThreadState(frame));
-                ((PRandom) random).setSeed(hash);
+                ((PRandom) random).seed(keyFromUnsignedLong(hash));
                 return PNone.NONE;
             } else {
                 throw raise(PythonErrorType.TypeError, ErrorMessages.DESCRIPTOR_REQUIRES_OBJ, "seed", "_random.Random", random);
             }
         }
+
+        private static int[] keyFromUnsignedLong(long n) {
+            int high = (int) (n >>> 32);
+            if (high == 0) {
+                return new int[]{(int) n};
+            }
+            return new int[]{(int) n, high};
+        }
+
+        @TruffleBoundary
+        private static int[] keyFromBigInteger(BigInteger n) {
+            assert n.signum() >= 0;
+            int bits = n.bitLength();
+            int[] key = new int[bits == 0 ? 1 : (bits - 1) / 32 + 1];
+            byte[] bytes = n.toByteArray();
+            for (int i = 0; i < key.length; i++) {
+                int word = 0;
+                for (int b = 0; b < Integer.BYTES; b++) {
+                    int idx = bytes.length - 1 - (i * Integer.BYTES + b);
+                    if (idx >= 0) {
+                        word |= (bytes[idx] & 0xFF) << (8 * b);
+                    }
+                }
+                key[i] = word;
+            }
+            return key;
+        }
     }
 
     @Builtin(name = "setstate", minNumOfPositionalArgs = 2)
@@ -131,15 +171,60 @@ public class RandomBuiltins extends PythonBuiltins {
         public PNone setstate(PRandom random, PTuple tuple,
                         @Cached GetObjectArrayNode getObjectArrayNode) {
             Object[] arr = getObjectArrayNode.execute(tuple);
-            if (arr.length == 1) {
-                Object object = arr[0];
-                if (object instanceof Long) {
-                    random.resetJavaRandom();
-                    random.setSeed((Long) object);
-                    return PNone.NONE;
+            if (arr.length != PRandom.N + 1) {
+                throw raise(PythonErrorType.ValueError, ErrorMessages.STATE_VECTOR_WRONG_SIZE);
+            }
+            int[] state = new int[PRandom.N];
+            for (int i = 0; i < PRandom.N; i++) {
+                state[i] = (int) toUnsignedLong(arr[i]);
+            }
+            long index = toLong(arr[PRandom.N]);
+            if (index < 0 || index > PRandom.N) {
+                throw raise(PythonErrorType.ValueError, ErrorMessages.INVALID_STATE);
+            }
+            random.setState(state, (int) index);
+            return PNone.NONE;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        public PNone setstate(Object random, Object state) {
+            throw raise(PythonErrorType.TypeError, ErrorMessages.STATE_VECTOR_MUST_BE_TUPLE);
+        }
+
+        private long toUnsignedLong(Object value) {
+            if (value instanceof PInt) {
+                PInt pint = (PInt) value;
+                if (pint.isNegative()) {
+                    throw raise(PythonErrorType.OverflowError, ErrorMessages.CANT_CONVERT_NEG_VALUE_TO_UNSIGNED_INT);
+                }
+                if (pint.bitLength() > Long.SIZE) {
+                    throw raise(PythonErrorType.OverflowError, ErrorMessages.PYTHON_INT_TOO_LARGE_TO_CONV_TO, "C unsigned long");
                 }
+                return pint.longValue();
             }
-            throw raise(PythonErrorType.SystemError, ErrorMessages.STATE_VECTOR_INVALID);
+            long l = toLong(value);
+            if (l < 0) {
+                throw raise(PythonErrorType.OverflowError, ErrorMessages.CANT_CONVERT_NEG_VALUE_TO_UNSIGNED_INT);
+            }
+            return l;
+        }
+
+        private long toLong(Object value) {
+            if (value instanceof Integer) {
+                return (int) value;
+            } else if (value instanceof Long) {
+                return (long) value;
+            } else if (value instanceof Boolean) {
+                return (boolean) value ? 1 : 0;
+            } else if (value instanceof PInt) {
+                try {
+                    return ((PInt) value).longValueExact();
+                } catch (ArithmeticException e) {
+                    throw raise(PythonErrorType.OverflowError, ErrorMessages.PYTHON_INT_TOO_LARGE_TO_CONV_TO, "C long");
+                }
+            }
+            throw raise(PythonErrorType.TypeError, ErrorMessages.INTEGER_REQUIRED);
         }
     }
 
@@ -150,7 +235,13 @@ public class RandomBuiltins extends PythonBuiltins {
         @Specialization
         @TruffleBoundary
         public PTuple getstate(PRandom random) {
-            return factory().createTuple(new Object[]{random.getSeed()});
+            int[] state = random.getState();
+            Object[] result = new Object[PRandom.N + 1];
+            for (int i = 0; i < PRandom.N; i++) {
+                result[i] = Integer.toUnsignedLong(state[i]);
+            }
+            result[PRandom.N] = random.getIndex();
+            return factory().createTuple(result);
         }
     }
 
@@ -159,7 +250,6 @@ public class RandomBuiltins extends PythonBuiltins {
     public abstract static class RandomNode extends PythonBuiltinNode {
 
         @Specialization
-        @TruffleBoundary
         public double random(PRandom random) {
             return random.nextDouble();
         }
@@ -167,16 +257,110 @@ public class RandomBuiltins extends PythonBuiltins {
 
     @Builtin(name = "getrandbits", minNumOfPositionalArgs = 2)
     @GenerateNodeFactory
+    @TypeSystemReference(PythonArithmeticTypes.class)
     public abstract static class GetRandBitsNode extends PythonBuiltinNode {
 
+        @Specialization(guards = "k <= 32")
+        long getrandbitsInt(PRandom random, int k) {
+            if (k <= 0) {
+                throw raise(PythonErrorType.ValueError, ErrorMessages.NUMBER_OF_BITS_MUST_BE_GREATER_THAN_ZERO);
+            }
+            return Integer.toUnsignedLong(random.nextInt()) >>> (32 - k);
+        }
+
+        @Specialization(guards = {"k > 32", "k < 64"})
+        long getrandbitsLong(PRandom random, int k) {
+            long low = Integer.toUnsignedLong(random.nextInt());
+            long high = Integer.toUnsignedLong(random.nextInt()) >>> (64 - k);
+            return low | (high << 32);
+        }
+
+        @Specialization(guards = "k >= 64")
+        PInt getrandbits(PRandom random, int k) {
+            return factory().createInt(createRandomBits(random, k));
+        }
+
+        /**
+         * Builds the number from 32-bit words, least significant first, dropping the low bits of
+         * the last word, exactly like CPython.
+         */
         @TruffleBoundary
         private static BigInteger createRandomBits(PRandom random, int k) {
-            return new BigInteger(k, random.getJavaRandom());
+            int words = (k - 1) / 32 + 1;
+            // big-endian with a leading zero byte to keep the number positive
+            byte[] bytes = new byte[words * Integer.BYTES + 1];
+            int remaining = k;
+            for (int i = 0; i < words; i++, remaining -= 32) {
+                int r = random.nextInt();
+                if (remaining < 32) {
+                    r >>>= 32 - remaining;
+                }
+                int pos = bytes.length - 1 - i * Integer.BYTES;
+                for (int b = 0; b < Integer.BYTES; b++) {
+                    bytes[pos - b] = (byte) (r >>> (8 * b));
+                }
+            }
+            return new BigInteger(bytes);
         }
+    }
 
-        @Specialization
-        public PInt getrandbits(PRandom random, int k) {
-            return factory().createInt(createRandomBits(random, k));
+    /**
+     * Fills the whole storage of the given buffer in one call: a {@code bytearray} receives the
+     * same bytes as {@code getrandbits(8 * len).to_bytes(len, 'little')} and an {@code array('d')}
+     * receives consecutive {@code random()} values.
+     */
+    @Builtin(name = "fill", minNumOfPositionalArgs = 2, doc = "fill($self, buffer, /)\n--\n\nFill a bytearray with random bytes or an array('d') with random floats.")
+    @GenerateNodeFactory
+    public abstract static class FillNode extends PythonBuiltinNode {
+
+        @Specialization(guards = "isByteStorage(buffer)")
+        PNone fillBytes(PRandom random, PByteArray buffer) {
+            ByteSequenceStorage storage = (ByteSequenceStorage) buffer.getSequenceStorage();
+            fillBytes(random, storage.getInternalByteArray(), storage.length());
+            return PNone.NONE;
+        }
+
+        @Specialization(guards = "isDoubleStorage(buffer)")
+        PNone fillDoubles(PRandom random, PArray buffer) {
+            DoubleSequenceStorage storage = (DoubleSequenceStorage) buffer.getSequenceStorage();
+            fillDoubles(random, storage.getInternalDoubleArray(), storage.length());
+            return PNone.NONE;
+        }
+
+        @Fallback
+        @SuppressWarnings("unused")
+        PNone fill(Object random, Object buffer) {
+            throw raise(PythonErrorType.TypeError, ErrorMessages.FILL_ARG_MUST_BE_BYTEARRAY_OR_DOUBLE_ARRAY_NOT_P, buffer);
+        }
+
+        @TruffleBoundary
+        private static void fillBytes(PRandom random, byte[] bytes, int len) {
+            for (int i = 0; i < len; i += Integer.BYTES) {
+                int r = random.nextInt();
+                int n = Math.min(Integer.BYTES, len - i);
+                if (n < Integer.BYTES) {
+                    r >>>= 32 - 8 * n;
+                }
+                for (int b = 0; b < n; b++) {
+                    bytes[i + b] = (byte) (r >>> (8 * b));
+                }
+            }
+        }
+
+        @TruffleBoundary
+        private static void fillDoubles(PRandom random, double[] doubles, int len) {
+            for (int i = 0; i < len; i++) {
+                doubles[i] = random.nextDouble();
+            }
+        }
+
+        static boolean isByteStorage(PByteArray buffer) {
+            return buffer.getSequenceStorage() instanceof ByteSequenceStorage;
+        }
+
+        static boolean isDoubleStorage(PArray buffer) {
+            SequenceStorage storage = buffer.getSequenceStorage();
+            return storage instanceof DoubleSequenceStorage;
         }
     }
 }
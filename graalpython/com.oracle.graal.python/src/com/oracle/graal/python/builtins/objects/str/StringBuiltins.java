@@ -1507,7 +1507,21 @@ public final class StringBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class ModNode extends PythonBinaryBuiltinNode {
 
-        @Specialization
+        @Specialization(guards = "stringEquals(cachedSelf, self, stringProfile)", limit = "3")
+        Object doStringCached(VirtualFrame frame, @SuppressWarnings("unused") String self, Object right,
+                        @SuppressWarnings("unused") @Cached("createBinaryProfile()") ConditionProfile stringProfile,
+                        @SuppressWarnings("unused") @Cached("self") String cachedSelf,
+                        @Cached("compileFormat(self)") StringFormatter.Plan plan,
+                        @Shared("callNode") @Cached CallNode callNode,
+                        @CachedLibrary(limit = "3") PythonObjectLibrary plib,
+                        @Shared("lookupAttrNode") @Cached LookupAttributeInMRONode.Dynamic lookupAttrNode,
+                        @Shared("getItemNode") @Cached("create(__GETITEM__)") LookupAndCallBinaryNode getItemNode,
+                        @Shared("getTupleItemNode") @Cached TupleBuiltins.GetItemNode getTupleItemNode,
+                        @Shared("context") @CachedContext(PythonLanguage.class) PythonContext context) {
+            return format(frame, plan, right, callNode, plib, lookupAttrNode, getItemNode, getTupleItemNode, context);
+        }
+
+        @Specialization(replaces = "doStringCached")
         Object doStringObject(VirtualFrame frame, String self, Object right,
                         @Shared("callNode") @Cached CallNode callNode,
                         @CachedLibrary(limit = "3") PythonObjectLibrary plib,
@@ -1515,13 +1529,7 @@ public final class StringBuiltins extends PythonBuiltins {
                         @Shared("getItemNode") @Cached("create(__GETITEM__)") LookupAndCallBinaryNode getItemNode,
                         @Shared("getTupleItemNode") @Cached TupleBuiltins.GetItemNode getTupleItemNode,
                         @Shared("context") @CachedContext(PythonLanguage.class) PythonContext context) {
-            Object state = IndirectCallContext.enter(frame, context, this);
-            try {
-                return new StringFormatter(context.getCore(), self).format(right, callNode, (object, key) -> lookupAttrNode.execute(plib.getLazyPythonClass(object), key), getItemNode,
-                                getTupleItemNode);
-            } finally {
-                IndirectCallContext.exit(frame, context, state);
-            }
+            return format(frame, compileFormat(self), right, callNode, plib, lookupAttrNode, getItemNode, getTupleItemNode, context);
         }
 
         @Specialization
@@ -1537,6 +1545,21 @@ public final class StringBuiltins extends PythonBuiltins {
             String selfStr = castSelfNode.cast(self, INVALID_RECEIVER, __MOD__, self);
             return doStringObject(frame, selfStr, right, callNode, plib, lookupAttrNode, getItemNode, getTupleItemNode, context);
         }
+
+        private Object format(VirtualFrame frame, StringFormatter.Plan plan, Object right, CallNode callNode, PythonObjectLibrary plib, LookupAttributeInMRONode.Dynamic lookupAttrNode,
+                        LookupAndCallBinaryNode getItemNode, TupleBuiltins.GetItemNode getTupleItemNode, PythonContext context) {
+            Object state = IndirectCallContext.enter(frame, context, this);
+            try {
+                return new StringFormatter(context.getCore(), plan).format(right, callNode, (object, key) -> lookupAttrNode.execute(plib.getLazyPythonClass(object), key), getItemNode,
+                                getTupleItemNode);
+            } finally {
+                IndirectCallContext.exit(frame, context, state);
+            }
+        }
+
+        static StringFormatter.Plan compileFormat(String format) {
+            return StringFormatter.compile(format);
+        }
     }
 
     @Builtin(name = "isascii", minNumOfPositionalArgs = 1)
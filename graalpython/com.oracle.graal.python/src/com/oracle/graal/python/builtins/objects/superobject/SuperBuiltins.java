@@ -63,8 +63,10 @@ import com.oracle.graal.python.builtins.objects.superobject.SuperBuiltinsFactory
 import com.oracle.graal.python.builtins.objects.superobject.SuperBuiltinsFactory.GetTypeNodeGen;
 import com.oracle.graal.python.builtins.objects.superobject.SuperBuiltinsFactory.SuperInitNodeFactory;
 import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
+import com.oracle.graal.python.builtins.objects.type.PythonManagedClass;
 import com.oracle.graal.python.builtins.objects.type.TypeNodes;
 import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetMroNode;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetMroStorageNode;
 import com.oracle.graal.python.builtins.objects.type.TypeNodes.IsSameTypeNode;
 import com.oracle.graal.python.builtins.objects.type.TypeNodesFactory.IsSameTypeNodeGen;
 import com.oracle.graal.python.nodes.ErrorMessages;
@@ -87,7 +89,10 @@ import com.oracle.graal.python.nodes.function.builtins.PythonVarargsBuiltinNode;
 import com.oracle.graal.python.nodes.object.GetClassNode;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.exception.PythonErrorType;
+import com.oracle.graal.python.runtime.sequence.storage.MroSequenceStorage;
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
@@ -424,7 +429,63 @@ public final class SuperBuiltins extends PythonBuiltins {
             return objectGetattributeNode.execute(frame, object, attr);
         }
 
-        @Specialization
+        static final class SuperLookupResult {
+            final Assumption assumption;
+            final Object value;
+
+            SuperLookupResult(Assumption assumption, Object value) {
+                this.assumption = assumption;
+                this.value = value;
+            }
+        }
+
+        /**
+         * Looks up the attribute in the MRO of {@code startType} after {@code thisType}, like the
+         * generic {@link #get} does it, and registers an assumption that is invalidated if the
+         * attribute changes in any class of that MRO or if the MRO changes. Returns {@code null} if
+         * the lookup has to be done in the generic way.
+         */
+        @TruffleBoundary
+        static SuperLookupResult lookupAfterType(Object startType, Object thisType, String attr) {
+            if (!(startType instanceof PythonManagedClass) || SpecialAttributeNames.__CLASS__.equals(attr)) {
+                return null;
+            }
+            MroSequenceStorage mro = ((PythonManagedClass) startType).getMethodResolutionOrder();
+            int n = mro.length();
+            int i;
+            for (i = 0; i + 1 < n; i++) {
+                if (IsSameTypeNodeGen.getUncached().execute(thisType, mro.getItemNormalized(i))) {
+                    break;
+                }
+            }
+            i++; /* skip su->type (if any) */
+            if (i >= n) {
+                return null;
+            }
+            Assumption assumption = mro.createAttributeInMROFinalAssumption(attr);
+            for (; i < n; i++) {
+                Object cls = mro.getItemNormalized(i);
+                GetMroStorageNode.getUncached().execute(cls).addAttributeInMROFinalAssumption(attr, assumption);
+                Object res = ReadAttributeFromObjectNode.getUncachedForceType().execute(cls, attr);
+                if (res != PNone.NO_VALUE) {
+                    return new SuperLookupResult(assumption, res);
+                }
+            }
+            return null;
+        }
+
+        @Specialization(guards = {"attr == cachedAttr", "self.getType() == cachedType", "self.getObjectType() == cachedStartType", "cachedResult != null"}, //
+                        limit = "getAttributeAccessInlineCacheMaxDepth()", //
+                        assumptions = {"cachedResult.assumption", "singleContextAssumption()"})
+        Object getCached(VirtualFrame frame, SuperObject self, @SuppressWarnings("unused") String attr,
+                        @SuppressWarnings("unused") @Cached("attr") String cachedAttr,
+                        @SuppressWarnings("unused") @Cached("self.getType()") Object cachedType,
+                        @Cached("self.getObjectType()") Object cachedStartType,
+                        @Cached("lookupAfterType(cachedStartType, cachedType, cachedAttr)") SuperLookupResult cachedResult) {
+            return bindFoundAttribute(frame, self, cachedResult.value, cachedStartType);
+        }
+
+        @Specialization(replaces = "getCached")
         public Object get(VirtualFrame frame, SuperObject self, Object attr) {
             Object startType = getObjectType.execute(self);
             if (startType == null) {
@@ -471,26 +532,30 @@ public final class SuperBuiltins extends PythonBuiltins {
                 PythonAbstractClass tmp = mro[i];
                 Object res = readFromDict.execute(tmp, attr);
                 if (res != PNone.NO_VALUE) {
-                    Object get = readGet.execute(res);
-                    if (get != PNone.NO_VALUE) {
-                        /*
-                         * Only pass 'obj' param if this is instance-mode super (See SF ID #743627)
-                         */
-                        // acts as a branch profile
-                        if (callGet == null) {
-                            CompilerDirectives.transferToInterpreterAndInvalidate();
-                            getObject = insert(GetObjectNodeGen.create());
-                            callGet = insert(CallTernaryMethodNode.create());
-                        }
-                        res = callGet.execute(frame, get, res, getObject.execute(self) == startType ? PNone.NONE : self.getObject(), startType);
-                    }
-                    return res;
+                    return bindFoundAttribute(frame, self, res, startType);
                 }
             }
 
             return genericGetAttr(frame, self, attr);
         }
 
+        private Object bindFoundAttribute(VirtualFrame frame, SuperObject self, Object res, Object startType) {
+            Object get = readGet.execute(res);
+            if (get != PNone.NO_VALUE) {
+                /*
+                 * Only pass 'obj' param if this is instance-mode super (See SF ID #743627)
+                 */
+                // acts as a branch profile
+                if (callGet == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    getObject = insert(GetObjectNodeGen.create());
+                    callGet = insert(CallTernaryMethodNode.create());
+                }
+                return callGet.execute(frame, get, res, getObject.execute(self) == startType ? PNone.NONE : self.getObject(), startType);
+            }
+            return res;
+        }
+
         private boolean isSameType(Object execute, PythonAbstractClass abstractPythonClass) {
             if (isSameTypeNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -42,11 +42,13 @@ package com.oracle.graal.python.builtins.objects.superobject;
 
 import com.oracle.graal.python.builtins.objects.object.PythonBuiltinObject;
 import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.object.DynamicObject;
 
 public class SuperObject extends PythonBuiltinObject {
-    private final Assumption neverReinitialized = Truffle.getRuntime().createAssumption("super object was never reinitialized");
+    /** Created lazily, most super objects are only used for a single attribute lookup. */
+    private Assumption neverReinitialized;
     private Object type;
     private Object objecttype;
     private Object object;
@@ -56,7 +58,7 @@ public class SuperObject extends PythonBuiltinObject {
     }
 
     public void init(Object newType, Object newObjecttype, Object newObject) {
-        if (this.type != null) {
+        if (this.type != null && neverReinitialized != null) {
             neverReinitialized.invalidate();
         }
         this.type = newType;
@@ -77,6 +79,10 @@ public class SuperObject extends PythonBuiltinObject {
     }
 
     public Assumption getNeverReinitializedAssumption() {
+        CompilerAsserts.neverPartOfCompilation();
+        if (neverReinitialized == null) {
+            neverReinitialized = Truffle.getRuntime().createAssumption("super object was never reinitialized");
+        }
         return neverReinitialized;
     }
 }
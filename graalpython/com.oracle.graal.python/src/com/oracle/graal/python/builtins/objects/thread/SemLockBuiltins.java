@@ -44,7 +44,9 @@ import static com.oracle.graal.python.nodes.SpecialMethodNames.__ENTER__;
 import static com.oracle.graal.python.nodes.SpecialMethodNames.__EXIT__;
 
 import java.util.List;
+import java.util.concurrent.Semaphore;
 
+import com.oracle.graal.python.PythonLanguage;
 import com.oracle.graal.python.builtins.Builtin;
 import com.oracle.graal.python.builtins.CoreFunctions;
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
@@ -52,13 +54,17 @@ import com.oracle.graal.python.builtins.PythonBuiltins;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.thread.LockBuiltins.AcquireLockNode;
 import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.PGuards;
 import com.oracle.graal.python.nodes.function.PythonBuiltinBaseNode;
 import com.oracle.graal.python.nodes.function.PythonBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonTernaryBuiltinNode;
 import com.oracle.graal.python.nodes.function.builtins.PythonUnaryBuiltinNode;
+import com.oracle.graal.python.nodes.util.CastToJavaIntExactNode;
+import com.oracle.graal.python.nodes.util.CastToJavaStringNode;
 import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.CachedLanguage;
 import com.oracle.truffle.api.dsl.GenerateNodeFactory;
 import com.oracle.truffle.api.dsl.NodeFactory;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -119,8 +125,36 @@ public class SemLockBuiltins extends PythonBuiltins {
     @GenerateNodeFactory
     abstract static class GetNameNode extends PythonUnaryBuiltinNode {
         @Specialization
-        Object getName(@SuppressWarnings("unused") PSemLock self) {
-            return PNone.NONE;
+        Object getName(PSemLock self) {
+            String name = self.getName();
+            return name == null ? PNone.NONE : name;
+        }
+    }
+
+    @Builtin(name = "_rebuild", minNumOfPositionalArgs = 5, parameterNames = {"cls", "handle", "kind", "maxvalue", "name"}, isClassmethod = true)
+    @GenerateNodeFactory
+    abstract static class RebuildNode extends PythonBuiltinNode {
+        // the handle of a semaphore is only meaningful in forked processes, so we can only rebuild
+        // semaphores from their name, which is shared by all contexts of the engine
+        @Specialization
+        PSemLock rebuild(Object cls, @SuppressWarnings("unused") Object handle, Object kindObj, @SuppressWarnings("unused") Object maxvalue, Object nameObj,
+                        @Cached CastToJavaIntExactNode castKindNode,
+                        @Cached CastToJavaStringNode castNameNode,
+                        @CachedLanguage PythonLanguage lang) {
+            if (PGuards.isNone(nameObj)) {
+                throw raise(PythonBuiltinClassType.NotImplementedError, ErrorMessages.CANNOT_REBUILD_UNNAMED_SEMAPHORE);
+            }
+            String name = castNameNode.execute(nameObj);
+            Semaphore semaphore = getSemaphore(lang, name);
+            if (semaphore == null) {
+                throw raise(PythonBuiltinClassType.FileNotFoundError, ErrorMessages.NO_SUCH_FILE_OR_DIR, "semaphores", name);
+            }
+            return factory().createSemLock(cls, name, castKindNode.execute(kindObj), semaphore);
+        }
+
+        @TruffleBoundary
+        private static Semaphore getSemaphore(PythonLanguage lang, String name) {
+            return lang.namedSemaphores.get(name);
         }
     }
 
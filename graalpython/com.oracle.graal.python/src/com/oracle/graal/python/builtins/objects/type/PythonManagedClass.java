@@ -46,6 +46,8 @@ import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.HiddenKey;
+import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
 
 public abstract class PythonManagedClass extends PythonObject implements PythonAbstractClass {
@@ -57,7 +59,7 @@ public abstract class PythonManagedClass extends PythonObject implements PythonA
     private final MroSequenceStorage methodResolutionOrder;
 
     private final Set<PythonAbstractClass> subClasses = Collections.newSetFromMap(new WeakHashMap<PythonAbstractClass, Boolean>());
-    private final Shape instanceShape;
+    @CompilationFinal private Shape instanceShape;
     private final FlagsContainer flags;
 
     /** {@code true} if the MRO contains a native class. */
@@ -90,14 +92,56 @@ public abstract class PythonManagedClass extends PythonObject implements PythonA
             this.instanceShape = instanceShape;
         } else {
             // provide our instances with a fresh shape tree
+            Shape shape;
             if (PythonLanguage.getCurrent().singleContextAssumption.isValid()) {
-                this.instanceShape = PythonObject.freshShape(this);
+                shape = PythonObject.freshShape(this);
             } else {
-                this.instanceShape = PythonObject.freshShape();
+                shape = PythonObject.freshShape();
             }
+            this.instanceShape = inheritSlots(shape);
         }
     }
 
+    /**
+     * Pre-allocates the slots of all base classes in the given shape, starting with the most
+     * generic base, so that instances get the same slot layout as instances of the bases.
+     */
+    private Shape inheritSlots(Shape freshShape) {
+        Shape shape = freshShape;
+        PythonAbstractClass[] mro = methodResolutionOrder.getInternalClassArray();
+        for (int i = methodResolutionOrder.length() - 1; i > 0; i--) {
+            if (mro[i] instanceof PythonManagedClass) {
+                for (Property property : ((PythonManagedClass) mro[i]).getInstanceShape().getPropertyList()) {
+                    shape = defineSlot(shape, property.getKey());
+                }
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * Defines properties for the given {@code __slots__} keys in the shape of new instances. Thus
+     * all instances start out with the same shape with fixed locations for the slots, and
+     * assigning a slot does not cause a shape transition. This must be called before any instance
+     * is created.
+     */
+    @TruffleBoundary
+    public void addSlotsToInstanceShape(HiddenKey[] slotKeys, int length) {
+        Shape shape = instanceShape;
+        for (int i = 0; i < length; i++) {
+            shape = defineSlot(shape, slotKeys[i]);
+        }
+        instanceShape = shape;
+    }
+
+    private static Shape defineSlot(Shape shape, Object key) {
+        if (shape.hasProperty(key)) {
+            return shape;
+        }
+        // a generic, nullable location: an unassigned slot reads as null, i.e., as no value
+        return shape.addProperty(Property.create(key, shape.allocator().locationForType(Object.class), 0));
+    }
+
     private static String getBaseName(String qname) {
         int lastDot = qname.lastIndexOf('.');
         if (lastDot != -1) {
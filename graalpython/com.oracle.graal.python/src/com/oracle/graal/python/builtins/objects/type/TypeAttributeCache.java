@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.builtins.objects.type;
+
+import com.oracle.graal.python.runtime.sequence.storage.MroSequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A global cache for attribute lookups in the MRO of a class, similar to CPython's method cache.
+ * It is used by call sites where the inline caches of the lookup nodes overflowed. Entries are
+ * indexed by the version tag of the MRO (see {@link MroSequenceStorage#getOrAssignVersionTag()})
+ * and the attribute name. Since version tags are never reused, stale entries are simply never hit
+ * again and need not be removed. Lookups that did not find anything are cached as well.
+ */
+public final class TypeAttributeCache {
+
+    private static final int SIZE_EXP = 12;
+    private static final int MASK = (1 << SIZE_EXP) - 1;
+
+    private final Entry[] entries = new Entry[1 << SIZE_EXP];
+
+    private static final class Entry {
+        final long versionTag;
+        final String name;
+        final Object value;
+
+        Entry(long versionTag, String name, Object value) {
+            this.versionTag = versionTag;
+            this.name = name;
+            this.value = value;
+        }
+    }
+
+    private static int index(long versionTag, String name) {
+        return ((int) versionTag ^ name.hashCode()) & MASK;
+    }
+
+    /**
+     * Returns the cached result of looking up {@code name} in an MRO with the given version tag,
+     * or {@code null} if there is no such entry.
+     */
+    @TruffleBoundary
+    public Object get(long versionTag, String name) {
+        Entry entry = entries[index(versionTag, name)];
+        if (entry != null && entry.versionTag == versionTag && entry.name.equals(name)) {
+            return entry.value;
+        }
+        return null;
+    }
+
+    @TruffleBoundary
+    public void put(long versionTag, String name, Object value) {
+        entries[index(versionTag, name)] = new Entry(versionTag, name, value);
+    }
+}
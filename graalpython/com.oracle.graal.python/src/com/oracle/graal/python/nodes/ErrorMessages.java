@@ -42,6 +42,7 @@ package com.oracle.graal.python.nodes;
 
 public abstract class ErrorMessages {
     public static final String ABSOLUTE_VALUE_TOO_LARGE = "absolute value too large";
+    public static final String ALREADY_AT_END_OF_STREAM = "Already at end of stream";
     public static final String ARG_AFTER_MUST_BE_ITERABLE = "argument after * must be an iterable, not %p";
     public static final String ARG_CONVERTED_NOT_EXECUTABLE = "argument converted is not executable";
     public static final String ARG_D_MUST_BE_S = "%s arg %d must be a %s";
@@ -125,13 +126,16 @@ public abstract class ErrorMessages {
     public static final String CANNOT_LOAD = "cannot load %s: %s";
     public static final String CANNOT_LOAD_M = "cannot load %s: %m";
     public static final String CANNOT_MMAP_FILE = "cannot mmap file";
+    public static final String CANNOT_REBUILD_UNNAMED_SEMAPHORE = "cannot rebuild an unnamed semaphore";
     public static final String CANNOT_RELEASE_UNAQUIRED_LOCK = "cannot release un-acquired lock";
     public static final String CANNOT_RESIZE_BUFFER = "cannot resize buffer";
     public static final String CANNOT_SPECIFY_FILTERS = "Cannot specify filters except with FORMAT_RAW";
     public static final String CANNOT_SPECIFY_MEM_LIMIT = "Cannot specify memory limit with FORMAT_RAW";
     public static final String CANNOT_SPECIFY_PREST_AND_FILTER_CHAIN = "Cannot specify both preset and filter chain";
+    public static final String CANNOT_STORE_IN_NATIVE_STORAGE = "cannot store %p in native sequence storage of type %s";
     public static final String CANNOT_USE_TO_INITIALIZE_ARRAY = "cannot use a %p to initialize an array with typecode '%s'";
     public static final String CANT_CONCAT_S_TO_P = "can't concat %s to %p";
+    public static final String CANT_CONVERT_NEG_VALUE_TO_UNSIGNED_INT = "can't convert negative value to unsigned int";
     public static final String CANT_CONVERT_TO_FLOAT = "can't convert %s to float";
     public static final String CANT_CONVERT_TO_STR_EXPLICITELY = "Can't convert '%p' object to str implicitly";
     public static final String CANT_DELETE = "can't delete '%s'";
@@ -160,6 +164,8 @@ public abstract class ErrorMessages {
     public static final String COMPLEX_MODULO = "complex modulo";
     public static final String COMPLEX_RETURNED_NON_COMPLEX = "__complex__ returned non-complex (type %p)";
     public static final String COMPLEX_SHOULD_RETURN_COMPLEX = "__complex__ should return a complex object";
+    public static final String COMPRESSLEVEL_MUST_BE_BETWEEN_1_AND_9 = "compresslevel must be between 1 and 9";
+    public static final String COMPRESSOR_HAS_BEEN_FLUSHED = "Compressor has been flushed";
     public static final String CONTIGUOUS_BUFFER = "contiguous buffer";
     public static final String CONVERTER_FUNC_FAILED_TO_SET_ERROR = "converter function failed to set an error on failure";
     public static final String CORRUPTED_CAPI_LIB_OBJ = "corrupted C API library object: %s";
@@ -183,6 +189,7 @@ public abstract class ErrorMessages {
     public static final String EMPTY_SEPARATOR = "empty separator";
     public static final String EMPTY_STR_FOR_COMPLEX = "empty string for complex()";
     public static final String END_MUST_BE_NONE_OR_STRING = "end must be None or a string, not %p";
+    public static final String END_OF_STREAM_ALREADY_REACHED = "End of stream already reached";
     public static final String ERROR57_SOCKET_CANNOT_BE_CONNECTED = "[Errno 57] Socket is not connected";
     public static final String ERROR_5_WHILE_DECOMPRESSING = "Error -5 while decompressing data: incomplete or truncated stream";
     public static final String ERROR_WRITING_FORKEXEC = "there was an error writing the fork_exec error to the error pipe";
@@ -204,6 +211,7 @@ public abstract class ErrorMessages {
     public static final String EXPONENT_TOO_LARGE = "exponent too large";
     public static final String FACTORIAL_NOT_DEFINED_FOR_NEGATIVE = "factorial() not defined for negative values";
     public static final String FILE_NOT_OPENED_FOR_READING = "file not opened for reading";
+    public static final String FILL_ARG_MUST_BE_BYTEARRAY_OR_DOUBLE_ARRAY_NOT_P = "fill() argument must be a bytearray or array('d'), not '%p'";
     public static final String FILL_CHAR_MUST_BE_LENGTH_1 = "The fill character must be exactly one character long";
     public static final String FILTER_SPEC_MUST_BE_DICT = "Filter specifier must be a dict or dict-like object";
     public static final String FILTER_SPECIFIER_MUST_HAVE = "Filter specifier must have an \"id\" entry";
@@ -270,6 +278,7 @@ public abstract class ErrorMessages {
     public static final String INVALID_BASE_TYPE_OBJ_FOR_CLASS = "Invalid base type object for class %s (base type was '%p' object).";
     public static final String INVALID_CAPI_FUNC = "invalid C API function: %s";
     public static final String INVALID_CONTAINER_FORMAT = "Invalid container format: %d";
+    public static final String INVALID_DATA_STREAM = "Invalid data stream";
     public static final String INVALID_ESCAPE_AT = "invalid %s escape at position %d";
     public static final String INVALID_ESCAPE_SEQ_AT = "invalid escape sequence '\\%s' at position %d";
     public static final String INVALID_FILE_DESCRIPTOR = "invalid file descriptor";
@@ -287,6 +296,7 @@ public abstract class ErrorMessages {
     public static final String INVALID_OBJ_FROM_NATIVE = "invalid object from native: %s";
     public static final String INVALID_PARAMS = "invalid parameters";
     public static final String INVALID_PTR_OBJ = "invalid pointer object: %s";
+    public static final String INVALID_STATE = "invalid state";
     public static final String INVALID_SYNTAX = "invalid syntax";
     public static final String INVALID_USE_OF_W_FORMAT_CHAR = "invalid use of 'w' format character";
     public static final String IS_EMPTY = "%s is empty";
@@ -311,6 +321,10 @@ public abstract class ErrorMessages {
     public static final String LOCAL_VAR_REFERENCED_BEFORE_ASSIGMENT = "local variable '%s' referenced before assignment";
     public static final String LOCALS_MUST_BE_MAPPING = "%s() locals must be a mapping or None, not %p";
     public static final String LOST_SYSBREAKPOINTHOOK = "lost sys.breakpointhook";
+    public static final String LZMA_CORRUPT_INPUT_DATA = "Corrupt input data";
+    public static final String LZMA_INPUT_FORMAT_NOT_SUPPORTED = "Input format not supported by decoder";
+    public static final String LZMA_INVALID_OPTIONS = "Invalid or unsupported options";
+    public static final String LZMA_MEMORY_LIMIT_EXCEEDED = "Memory usage limit exceeded";
     public static final String MALFORMED_STR_FOR_COMPLEX = "malformed string for complex() %s";
     public static final String MATH_DOMAIN_ERROR = "math domain error";
     public static final String MATH_RANGE_ERROR = "math range error";
@@ -361,6 +375,7 @@ public abstract class ErrorMessages {
     public static final String NOT_ENOUGH_ARGS_FOR_FORMAT_STRING = "not enough arguments for format string";
     public static final String NOT_ENOUGH_VALUES_TO_UNPACK = "not enough values to unpack (expected %d, got %d)";
     public static final String NOT_SUPPORTED_BETWEEN_INSTANCES = "'%s' not supported between instances of '%p' and '%p'";
+    public static final String NUMBER_OF_BITS_MUST_BE_GREATER_THAN_ZERO = "number of bits must be greater than zero";
     public static final String NUMBER_S_CANNOT_FIT_INTO_INDEXSIZED_INT = "number %s cannot fit into index-sized integer";
     public static final String OBJ_INDEX_MUST_BE_INT_OR_SLICES = "%s indices must be integers or slices, not %p";
     public static final String OBJ_CANNOT_BE_INTERPRETED_AS_INT = "%s cannot be interpreted as int (type %p)";
@@ -399,6 +414,7 @@ public abstract class ErrorMessages {
     public static final String READ_BYTE_OUT_OF_RANGE = "read byte out of range";
     public static final String READ_WRITE_BYTELIKE_OBJ = "read-write bytes-like object";
     public static final String READONLY_ATTRIBUTE = "readonly attribute";
+    public static final String REPEATED_CALL_TO_FLUSH = "Repeated call to flush()";
     public static final String REQUIRES_CODE_OBJ = "%s() requires a code object with %d free vars, not %d";
     public static final String REQUIRES_INT_OR_CHAR = "%%%c requires int or char";
     public static final String REQUIRES_OBJ_THAT_IMPLEMENTS_S = " %%r requires an object that implements %s";
@@ -437,7 +453,8 @@ public abstract class ErrorMessages {
     public static final String SLOT_DISALLOWED_WE_GOT_ONE = "%s slot disallowed: we already got one";
     public static final String STAR_WANTS_INT = "* wants int";
     public static final String STARRED_ASSIGMENT_MUST_BE_IN_LIST_OR_TUPLE = "starred assignment target must be in a list or tuple";
-    public static final String STATE_VECTOR_INVALID = "state vector invalid.";
+    public static final String STATE_VECTOR_MUST_BE_TUPLE = "state vector must be a tuple";
+    public static final String STATE_VECTOR_WRONG_SIZE = "state vector is the wrong size";
     public static final String STEP_1_NOT_SUPPORTED = "step != 1 not supported";
     public static final String STRING_ARG_WO_ENCODING = "string argument without an encoding";
     public static final String STRING_INDEX_OUT_OF_RANGE = "IndexError: string index out of range";
@@ -450,6 +467,7 @@ public abstract class ErrorMessages {
     public static final String TAKES_FROM_D_TO_D_POS_ARG_S_BUT_D_S_GIVEN_S = "%s() takes from %d to %d positional argument%s but %d %s given%s";
     public static final String TAKES_NO_KEYWORD_ARGS = "%s takes no keyword arguments";
     public static final String THROW_THIRD_ARG_MUST_BE_TRACEBACK = "throw() third argument must be a traceback object";
+    public static final String TIMEOUT_MUST_BE_NON_NEG_NUMBER = "'timeout' must be a non-negative number";
     public static final String TIMEOUT_VALUE_MUST_BE_POSITIVE = "timeout value must be positive";
     public static final String TIMEOUT_VALUE_TOO_LARGE = "timeout value is too large";
     public static final String TOLERANCE_MUST_NON_NEGATIVE = "tolerances must be non-negative";
@@ -137,6 +137,11 @@ public class NodeFactory {
         return new FunctionRootNode(language, sourceSection, functionName, isGenerator, false, frameDescriptor, body, cellSlots, signature);
     }
 
+    public FunctionRootNode createFunctionRoot(SourceSection sourceSection, String functionName, FrameDescriptor frameDescriptor, FunctionRootNode.LazyBody lazyBody, ExecutionCellSlots cellSlots,
+                    Signature signature) {
+        return new FunctionRootNode(language, sourceSection, functionName, frameDescriptor, lazyBody, cellSlots, signature);
+    }
+
     public ClassBodyRootNode createClassBodyRoot(SourceSection sourceSection, String functionName, FrameDescriptor frameDescriptor, ExpressionNode body, ExecutionCellSlots cellSlots) {
         return new ClassBodyRootNode(language, sourceSection, functionName, frameDescriptor, body, cellSlots);
     }
@@ -459,10 +459,120 @@ public abstract class CreateArgumentsNode extends PNodeWithContext {
             return ApplyKeywordsNodeGen.create();
         }
 
+        /** Marks a keyword that names a positional-only parameter in a keyword index mapping. */
+        private static final int POSITIONAL_ONLY_KEYWORD = -2;
+
         int getUserArgumentLength(Object[] arguments) {
             return PArguments.getUserArgumentLength(arguments);
         }
 
+        /**
+         * Fast path for call sites that always pass the same keyword names (which are then the same
+         * string objects) to the same callee. The mapping of the keywords to the parameters is
+         * computed only once, so the keywords are written straight to the callee's arguments
+         * without any string comparisons.
+         */
+        @Specialization(guards = {"kwLen == keywords.length", "calleeSignature == cachedSignature", "namesMatch(keywords, cachedNames)"})
+        @ExplodeLoop
+        Object[] applyCachedNames(Object callee, @SuppressWarnings("unused") Signature calleeSignature, Object[] arguments, PKeyword[] keywords,
+                        @Cached PRaiseNode raise,
+                        @Cached("keywords.length") int kwLen,
+                        @SuppressWarnings("unused") @Cached("calleeSignature") Signature cachedSignature,
+                        @Cached(value = "getNames(keywords)", dimensions = 1) String[] cachedNames,
+                        @Cached(value = "getKeywordIndices(cachedSignature, cachedNames)", dimensions = 1) int[] kwIndices,
+                        @Cached("cachedSignature.takesVarKeywordArgs()") boolean takesVarKwds,
+                        @Cached("countUnusedKeywords(kwIndices)") int unusedKeywordCount) {
+            PKeyword[] unusedKeywords = takesVarKwds && unusedKeywordCount > 0 ? new PKeyword[unusedKeywordCount] : null;
+            int k = 0;
+            int additionalKwds = 0;
+            String lastWrongKeyword = null;
+            for (int i = 0; i < kwLen; i++) {
+                int kwIdx = kwIndices[i];
+                if (kwIdx >= 0) {
+                    if (PArguments.getArgument(arguments, kwIdx) != null) {
+                        throw raise.raise(PythonBuiltinClassType.TypeError, ErrorMessages.GOT_MULTIPLE_VALUES_FOR_ARG, CreateArgumentsNode.getName(callee), cachedNames[i]);
+                    }
+                    PArguments.setArgument(arguments, kwIdx, keywords[i].getValue());
+                } else if (takesVarKwds) {
+                    unusedKeywords[k++] = keywords[i];
+                } else if (kwIdx == POSITIONAL_ONLY_KEYWORD) {
+                    throw raise.raise(PythonBuiltinClassType.TypeError, ErrorMessages.GOT_SOME_POS_ONLY_ARGS_PASSED_AS_KEYWORD, CreateArgumentsNode.getName(callee), cachedNames[i]);
+                } else {
+                    additionalKwds++;
+                    lastWrongKeyword = cachedNames[i];
+                }
+            }
+            if (unusedKeywords != null) {
+                PArguments.setKeywordArguments(arguments, unusedKeywords);
+            } else {
+                storeKeywordsOrRaise(callee, arguments, null, 0, additionalKwds, lastWrongKeyword, raise);
+            }
+            return arguments;
+        }
+
+        @ExplodeLoop
+        static boolean namesMatch(PKeyword[] keywords, String[] cachedNames) {
+            for (int i = 0; i < cachedNames.length; i++) {
+                if (keywords[i].getName() != cachedNames[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        static String[] getNames(PKeyword[] keywords) {
+            String[] names = new String[keywords.length];
+            for (int i = 0; i < keywords.length; i++) {
+                names[i] = keywords[i].getName();
+            }
+            return names;
+        }
+
+        /**
+         * Maps the given keyword names to the indices of the parameters of the signature, like
+         * {@link #applyUncached} does it. Keywords that do not name a parameter are mapped to -1,
+         * keywords that name a positional-only parameter to {@link #POSITIONAL_ONLY_KEYWORD}.
+         */
+        static int[] getKeywordIndices(Signature signature, String[] names) {
+            String[] parameters = signature.getParameterIds();
+            String[] kwNames = signature.getKeywordNames();
+            int positionalOnlyArgIndex = signature.getPositionalOnlyArgIndex();
+            int[] indices = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                int kwIdx = indexOf(parameters, names[i]);
+                if (kwIdx == -1) {
+                    int kwOnlyIdx = indexOf(kwNames, names[i]);
+                    if (kwOnlyIdx != -1) {
+                        kwIdx = kwOnlyIdx + parameters.length;
+                    }
+                }
+                if (kwIdx != -1 && positionalOnlyArgIndex > -1 && kwIdx < positionalOnlyArgIndex) {
+                    kwIdx = POSITIONAL_ONLY_KEYWORD;
+                }
+                indices[i] = kwIdx;
+            }
+            return indices;
+        }
+
+        private static int indexOf(String[] parameters, String name) {
+            for (int i = 0; i < parameters.length; i++) {
+                if (parameters[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        static int countUnusedKeywords(int[] kwIndices) {
+            int count = 0;
+            for (int idx : kwIndices) {
+                if (idx < 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
         @Specialization(guards = {"kwLen == keywords.length", "calleeSignature == cachedSignature"})
         @ExplodeLoop
         Object[] applyCached(Object callee, @SuppressWarnings("unused") Signature calleeSignature, Object[] arguments, PKeyword[] keywords,
@@ -516,7 +626,7 @@ public abstract class CreateArgumentsNode extends PNodeWithContext {
             return arguments;
         }
 
-        @Specialization(replaces = "applyCached")
+        @Specialization(replaces = {"applyCachedNames", "applyCached"})
         Object[] applyUncached(Object callee, Signature calleeSignature, Object[] arguments, PKeyword[] keywords,
                         @Cached PRaiseNode raise,
                         @Exclusive @Cached SearchNamedParameterNode searchParamNode,
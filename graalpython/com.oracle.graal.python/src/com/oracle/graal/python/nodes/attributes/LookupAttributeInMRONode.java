@@ -45,6 +45,7 @@ import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.PNone;
 import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
 import com.oracle.graal.python.builtins.objects.type.PythonClass;
+import com.oracle.graal.python.builtins.objects.type.TypeAttributeCache;
 import com.oracle.graal.python.builtins.objects.type.TypeNodes;
 import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetMroStorageNode;
 import com.oracle.graal.python.builtins.objects.type.TypeNodesFactory.IsSameTypeNodeGen;
@@ -60,6 +61,7 @@ import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleLanguage.ContextReference;
 import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.CachedContext;
 import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.ReportPolymorphism;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -107,9 +109,10 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
 
         @Specialization(replaces = "lookupConstantMRO")
         protected Object lookup(Object klass, Object key,
+                        @CachedContext(PythonLanguage.class) PythonContext context,
                         @Cached("create()") GetMroStorageNode getMroNode,
                         @Cached("createForceType()") ReadAttributeFromObjectNode readAttrNode) {
-            return lookupSlow(klass, key, getMroNode, readAttrNode, false);
+            return lookupSlow(klass, key, getMroNode, readAttrNode, false, context.getTypeAttributeCache());
         }
     }
 
@@ -122,7 +125,7 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
             if (klass instanceof PythonBuiltinClassType) {
                 return findAttr(PythonLanguage.getCore(), (PythonBuiltinClassType) klass, key);
             } else if (klass instanceof PythonAbstractClass) {
-                return lookupSlow(klass, key, getMroNode, readAttrNode, false);
+                return lookupSlow(klass, key, getMroNode, readAttrNode, false, PythonLanguage.getContext().getTypeAttributeCache());
             } else {
                 CompilerDirectives.transferToInterpreter();
                 throw new RuntimeException("not implemented: lookup inherited attribute from non-PythonClass");
@@ -267,8 +270,9 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
 
     @Specialization(replaces = {"lookupConstantMROCached", "lookupConstantMRO"})
     protected Object lookup(Object klass,
+                    @CachedContext(PythonLanguage.class) PythonContext context,
                     @Cached("createForceType()") ReadAttributeFromObjectNode readAttrNode) {
-        return lookupSlow(klass, key, getMroNode, readAttrNode, skipPythonClasses);
+        return lookupSlow(klass, key, ensureGetMroNode(), readAttrNode, skipPythonClasses, skipPythonClasses ? null : context.getTypeAttributeCache());
     }
 
     protected GetMroStorageNode ensureGetMroNode() {
@@ -283,8 +287,23 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
         return ensureGetMroNode().execute(clazz);
     }
 
-    private static Object lookupSlow(Object klass, Object key, GetMroStorageNode getMroNode, ReadAttributeFromObjectNode readAttrNode, boolean skipPythonClasses) {
+    /**
+     * Walks the MRO of {@code klass}. If a {@code cache} is given, the result is looked up in and
+     * recorded to it, provided that the MRO has a valid version tag.
+     */
+    private static Object lookupSlow(Object klass, Object key, GetMroStorageNode getMroNode, ReadAttributeFromObjectNode readAttrNode, boolean skipPythonClasses, TypeAttributeCache cache) {
         MroSequenceStorage mro = getMroNode.execute(klass);
+        long versionTag = 0;
+        if (cache != null && key instanceof String) {
+            versionTag = mro.getOrAssignVersionTag();
+            if (versionTag != 0) {
+                Object cached = cache.get(versionTag, (String) key);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+        Object result = PNone.NO_VALUE;
         for (int i = 0; i < mro.length(); i++) {
             Object kls = mro.getItemNormalized(i);
             if (skipPythonClasses && kls instanceof PythonClass) {
@@ -292,10 +311,14 @@ public abstract class LookupAttributeInMRONode extends PNodeWithContext {
             }
             Object value = readAttrNode.execute(kls, key);
             if (value != PNone.NO_VALUE) {
-                return value;
+                result = value;
+                break;
             }
         }
-        return PNone.NO_VALUE;
+        if (versionTag != 0) {
+            cache.put(versionTag, (String) key, result);
+        }
+        return result;
     }
 
     protected boolean isSameType(Object cachedKlass, Object klass) {
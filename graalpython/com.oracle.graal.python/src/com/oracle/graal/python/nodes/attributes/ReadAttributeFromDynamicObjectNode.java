@@ -127,7 +127,8 @@ public abstract class ReadAttributeFromDynamicObjectNode extends ObjectAttribute
         if (loc == null) {
             return PNone.NO_VALUE;
         } else {
-            return loc.get(dynamicObject, cachedShape);
+            Object value = loc.get(dynamicObject, cachedShape);
+            return value == null ? PNone.NO_VALUE : value;
         }
     }
 
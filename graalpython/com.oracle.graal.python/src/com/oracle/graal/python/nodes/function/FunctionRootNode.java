@@ -35,9 +35,11 @@ import com.oracle.graal.python.nodes.expression.ExpressionNode;
 import com.oracle.graal.python.parser.ExecutionCellSlots;
 import com.oracle.graal.python.runtime.ExecutionContext.CalleeContext;
 import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.util.Supplier;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleLanguage.ContextReference;
 import com.oracle.truffle.api.frame.Frame;
 import com.oracle.truffle.api.frame.FrameDescriptor;
@@ -66,10 +68,12 @@ public class FunctionRootNode extends PClosureFunctionRootNode {
     private final ValueProfile generatorFrameProfile;
     private final ConditionProfile customLocalsProfile = ConditionProfile.createCountingProfile();
 
+    /** The body; {@code null} as long as a {@link #lazyBody lazy body} was not translated. */
     @Child private ExpressionNode body;
     @Child private CalleeContext calleeContext = CalleeContext.create();
 
     private final ExpressionNode uninitializedBody;
+    private final LazyBody lazyBody;
     private final boolean isRewritten;
 
     public FunctionRootNode(PythonLanguage language, SourceSection sourceSection, String functionName, boolean isGenerator, boolean isRewritten, FrameDescriptor frameDescriptor,
@@ -84,10 +88,30 @@ public class FunctionRootNode extends PClosureFunctionRootNode {
         this.body = new InnerRootNode(this, NodeUtil.cloneNode(uninitializedBody));
         // "uninitializedBody" is never modified or executed
         this.uninitializedBody = uninitializedBody;
+        this.lazyBody = null;
         this.generatorFrameProfile = isGenerator ? ValueProfile.createClassProfile() : null;
         this.isRewritten = isRewritten;
     }
 
+    /**
+     * Creates a function root node whose body is translated on first execution. This must not be
+     * used for generator functions.
+     */
+    public FunctionRootNode(PythonLanguage language, SourceSection sourceSection, String functionName, FrameDescriptor frameDescriptor, LazyBody lazyBody, ExecutionCellSlots executionCellSlots,
+                    Signature signature) {
+        super(language, frameDescriptor, executionCellSlots, signature);
+        this.executionCellSlots = executionCellSlots;
+
+        this.sourceSection = sourceSection;
+        assert sourceSection != null;
+        this.functionName = functionName;
+        this.isGenerator = false;
+        this.uninitializedBody = null;
+        this.lazyBody = lazyBody;
+        this.generatorFrameProfile = null;
+        this.isRewritten = false;
+    }
+
     /**
      * Creates a shallow copy.
      */
@@ -101,6 +125,7 @@ public class FunctionRootNode extends PClosureFunctionRootNode {
         this.generatorFrameProfile = other.isGenerator ? ValueProfile.createClassProfile() : null;
         this.isRewritten = other.isRewritten;
         this.uninitializedBody = other.uninitializedBody;
+        this.lazyBody = other.lazyBody;
     }
 
     @Override
@@ -110,6 +135,9 @@ public class FunctionRootNode extends PClosureFunctionRootNode {
 
     @Override
     protected RootNode cloneUninitialized() {
+        if (lazyBody != null) {
+            return new FunctionRootNode(PythonLanguage.getCurrent(), getSourceSection(), functionName, getFrameDescriptor(), lazyBody, executionCellSlots, getSignature());
+        }
         return new FunctionRootNode(PythonLanguage.getCurrent(), getSourceSection(), functionName, isGenerator, isRewritten, getFrameDescriptor(), uninitializedBody, executionCellSlots,
                         getSignature());
     }
@@ -119,12 +147,36 @@ public class FunctionRootNode extends PClosureFunctionRootNode {
      * the given node visitor.
      */
     public FunctionRootNode rewriteWithNewSignature(Signature newSignature, NodeVisitor nodeVisitor) {
-        ExpressionNode newUninitializedBody = NodeUtil.cloneNode(uninitializedBody);
+        ExpressionNode newUninitializedBody = NodeUtil.cloneNode(getUninitializedBody());
         newUninitializedBody.accept(nodeVisitor);
         return new FunctionRootNode(PythonLanguage.getCurrent(), getSourceSection(), functionName, isGenerator, true, getFrameDescriptor(), newUninitializedBody, executionCellSlots,
                         newSignature);
     }
 
+    private ExpressionNode getUninitializedBody() {
+        if (lazyBody != null) {
+            return lazyBody.get();
+        }
+        return uninitializedBody;
+    }
+
+    /**
+     * Ensures that the body of this function was translated. This needs to be called before
+     * inspecting the nodes of a function that may not have been executed yet.
+     */
+    public void ensureBodyTranslated() {
+        CompilerAsserts.neverPartOfCompilation();
+        if (body == null) {
+            ExpressionNode translated = lazyBody.get();
+            atomic(() -> {
+                if (body == null) {
+                    body = insert(new InnerRootNode(this, NodeUtil.cloneNode(translated)));
+                    notifyInserted(body);
+                }
+            });
+        }
+    }
+
     public boolean isLambda() {
         return functionName.equals(BuiltinNames.LAMBDA_NAME);
     }
@@ -174,6 +226,10 @@ public class FunctionRootNode extends PClosureFunctionRootNode {
 
     @Override
     public Object execute(VirtualFrame frame) {
+        if (body == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            ensureBodyTranslated();
+        }
         CalleeContext.enter(frame, customLocalsProfile);
         if (CompilerDirectives.inInterpreter() || CompilerDirectives.inCompilationRoot()) {
             if (contextRef == null) {
@@ -224,4 +280,27 @@ public class FunctionRootNode extends PClosureFunctionRootNode {
         return executionCellSlots;
     }
 
+    /**
+     * Translates the body of a function at most once, no matter how many copies of the root node
+     * request it. The translator is dropped afterwards such that the parser state it refers to can
+     * be collected.
+     */
+    public static final class LazyBody {
+        private Supplier<ExpressionNode> translator;
+        private ExpressionNode translated;
+
+        public LazyBody(Supplier<ExpressionNode> translator) {
+            this.translator = translator;
+        }
+
+        @TruffleBoundary
+        synchronized ExpressionNode get() {
+            if (translated == null) {
+                translated = translator.get();
+                translator = null;
+            }
+            return translated;
+        }
+    }
+
 }
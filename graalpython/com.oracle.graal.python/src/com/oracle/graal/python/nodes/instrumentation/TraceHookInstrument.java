@@ -0,0 +1,392 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.nodes.instrumentation;
+
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.objects.PNone;
+import com.oracle.graal.python.builtins.objects.exception.PBaseException;
+import com.oracle.graal.python.builtins.objects.frame.PFrame;
+import com.oracle.graal.python.builtins.objects.function.PArguments;
+import com.oracle.graal.python.builtins.objects.traceback.GetTracebackNode;
+import com.oracle.graal.python.builtins.objects.traceback.LazyTraceback;
+import com.oracle.graal.python.builtins.objects.traceback.PTraceback;
+import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.frame.MaterializeFrameNode;
+import com.oracle.graal.python.nodes.object.GetClassNode;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.exception.PException;
+import com.oracle.graal.python.runtime.object.PythonObjectFactory;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.TruffleLanguage.ContextReference;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventListener;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
+import com.oracle.truffle.api.instrumentation.InstrumentableNode;
+import com.oracle.truffle.api.instrumentation.InstrumentableNode.WrapperNode;
+import com.oracle.truffle.api.instrumentation.Instrumenter;
+import com.oracle.truffle.api.instrumentation.SourceFilter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.instrumentation.StandardTags.RootTag;
+import com.oracle.truffle.api.instrumentation.StandardTags.StatementTag;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument.Registration;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * Implements the {@code sys.settrace} and {@code sys.setprofile} hooks on top of Truffle
+ * instrumentation. The execution event nodes are only attached while at least one thread has a
+ * hook installed, so once all hooks are removed again, the instrumented code is invalidated and
+ * recompiled without any tracing overhead.
+ *
+ * The hooks themselves are stored per thread in the {@link PythonContext}. Root nodes report the
+ * {@code 'call'} and {@code 'return'} events and statements report {@code 'line'} and
+ * {@code 'exception'} events to the local trace function of their frame (see
+ * {@link PFrame#getLocalTraceFunction()}). Internal sources are not traced, just like CPython
+ * does not trace functions implemented in C.
+ */
+@Registration(id = TraceHookInstrument.ID, name = "Python Trace Hooks", internal = true, services = TraceHookInstrument.Hooks.class)
+public final class TraceHookInstrument extends TruffleInstrument {
+
+    public static final String ID = "python-trace-hooks";
+
+    @Override
+    protected void onCreate(Env env) {
+        env.registerService(new Hooks(env.getInstrumenter()));
+    }
+
+    /**
+     * Counts the installed hooks of all threads and attaches the event nodes as needed.
+     */
+    public static final class Hooks {
+        private final Instrumenter instrumenter;
+        private int traceHooks;
+        private int profileHooks;
+        private EventBinding<?> callBinding;
+        private EventBinding<?> lineBinding;
+
+        Hooks(Instrumenter instrumenter) {
+            this.instrumenter = instrumenter;
+        }
+
+        public synchronized void traceHookChanged(boolean installed) {
+            traceHooks += installed ? 1 : -1;
+            assert traceHooks >= 0;
+            updateBindings();
+        }
+
+        public synchronized void profileHookChanged(boolean installed) {
+            profileHooks += installed ? 1 : -1;
+            assert profileHooks >= 0;
+            updateBindings();
+        }
+
+        private void updateBindings() {
+            boolean needCalls = traceHooks > 0 || profileHooks > 0;
+            if (needCalls && callBinding == null) {
+                callBinding = instrumenter.attachExecutionEventFactory(createFilter(RootTag.class, false), CallEventNode::new);
+            } else if (!needCalls && callBinding != null) {
+                callBinding.dispose();
+                callBinding = null;
+            }
+            boolean needLines = traceHooks > 0;
+            if (needLines && lineBinding == null) {
+                lineBinding = instrumenter.attachExecutionEventFactory(createFilter(StatementTag.class, false), LineEventNode::new);
+            } else if (!needLines && lineBinding != null) {
+                lineBinding.dispose();
+                lineBinding = null;
+            }
+        }
+
+        /**
+         * Attaches a listener to the roots of all Python functions, e.g. for the {@code _lsprof}
+         * profiler. The returned binding must be disposed by the caller.
+         */
+        public EventBinding<?> attachCallListener(boolean includeInternal, ExecutionEventListener listener) {
+            return instrumenter.attachExecutionEventListener(createFilter(RootTag.class, includeInternal), listener);
+        }
+
+        private static SourceSectionFilter createFilter(Class<?> tag, boolean includeInternal) {
+            SourceFilter sourceFilter = SourceFilter.newBuilder().languageIs(PythonLanguage.ID).includeInternal(includeInternal).build();
+            return SourceSectionFilter.newBuilder().tagIs(tag).sourceFilter(sourceFilter).build();
+        }
+    }
+
+    abstract static class HookEventNode extends ExecutionEventNode {
+        protected final EventContext eventContext;
+
+        @CompilationFinal private ContextReference<PythonContext> contextRef;
+        @Child private MaterializeFrameNode materializeFrameNode = MaterializeFrameNode.create();
+        @Child private CallNode callNode = CallNode.create();
+        @Child private GetClassNode getClassNode;
+        @Child private GetTracebackNode getTracebackNode;
+        @Child private PythonObjectFactory factory;
+
+        HookEventNode(EventContext eventContext) {
+            this.eventContext = eventContext;
+        }
+
+        protected final PythonContext getContext() {
+            if (contextRef == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                contextRef = lookupContextReference(PythonLanguage.class);
+            }
+            return contextRef.get();
+        }
+
+        protected final PFrame materializeFrame(VirtualFrame frame) {
+            return materializeFrameNode.execute(frame, eventContext.getInstrumentedNode(), true, true);
+        }
+
+        /**
+         * Calls a hook function while disabling tracing for the current thread. Like in CPython,
+         * a hook that raises an exception is removed and the exception is propagated to the
+         * traced code.
+         */
+        protected final Object callHook(VirtualFrame frame, PythonContext context, Object hook, boolean isProfile, PFrame pyFrame, String event, Object arg) {
+            context.setTracing(true);
+            try {
+                return callNode.execute(frame, hook, pyFrame, event, arg);
+            } catch (PException e) {
+                if (isProfile) {
+                    context.setProfileFunction(null);
+                } else {
+                    context.setTraceFunction(null);
+                    pyFrame.setLocalTraceFunction(null);
+                }
+                throw eventContext.createError(e);
+            } finally {
+                context.setTracing(false);
+            }
+        }
+
+        /**
+         * Reports an exception to the local trace function of the frame, once per frame the
+         * exception is raised in or propagated through.
+         */
+        protected final void traceException(VirtualFrame frame, PythonContext context, PFrame pyFrame, PException exception, boolean materialize) {
+            if (pyFrame.getTracedException() == exception) {
+                return;
+            }
+            pyFrame.setTracedException(exception);
+            Object localTrace = pyFrame.getLocalTraceFunction();
+            if (localTrace != null) {
+                if (materialize) {
+                    materializeFrame(frame);
+                }
+                callHook(frame, context, localTrace, false, pyFrame, "exception", createExcInfo(exception));
+            }
+        }
+
+        private Object createExcInfo(PException exception) {
+            if (factory == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getClassNode = insert(GetClassNode.create());
+                getTracebackNode = insert(GetTracebackNode.create());
+                factory = insert(PythonObjectFactory.create());
+            }
+            PBaseException value = exception.getEscapedException();
+            LazyTraceback lazyTraceback = exception.getTraceback();
+            PTraceback traceback = lazyTraceback != null ? getTracebackNode.execute(lazyTraceback) : null;
+            return factory.createTuple(new Object[]{getClassNode.execute(value), value, traceback == null ? PNone.NONE : traceback});
+        }
+    }
+
+    /**
+     * Reports calls and returns. The frames of 'return' events are not materialized again, so
+     * that their line number is the one of the last executed statement.
+     */
+    static final class CallEventNode extends HookEventNode {
+        CallEventNode(EventContext eventContext) {
+            super(eventContext);
+        }
+
+        @Override
+        protected void onEnter(VirtualFrame frame) {
+            PythonContext context = getContext();
+            Object profile = context.getProfileFunction();
+            Object trace = context.getTraceFunction();
+            if ((profile == null && trace == null) || context.isTracing()) {
+                return;
+            }
+            PFrame pyFrame = materializeFrame(frame);
+            pyFrame.setTracePosition(-1, -1);
+            if (profile != null) {
+                callHook(frame, context, profile, true, pyFrame, "call", PNone.NONE);
+            }
+            if (trace != null) {
+                // the result of the global trace function is the local one of the new frame
+                Object localTrace = callHook(frame, context, trace, false, pyFrame, "call", PNone.NONE);
+                pyFrame.setLocalTraceFunction(localTrace == PNone.NONE ? null : localTrace);
+            }
+        }
+
+        @Override
+        protected void onReturnValue(VirtualFrame frame, Object result) {
+            onReturn(frame, result == null ? PNone.NONE : result);
+        }
+
+        @Override
+        protected void onReturnExceptional(VirtualFrame frame, Throwable exception) {
+            if (!(exception instanceof PException)) {
+                return;
+            }
+            PythonContext context = getContext();
+            if (context.getTraceFunction() != null && !context.isTracing()) {
+                // usually already reported by the statement that raised it
+                PFrame pyFrame = PArguments.getCurrentFrameInfo(frame).getPyFrame();
+                if (pyFrame != null) {
+                    traceException(frame, context, pyFrame, (PException) exception, false);
+                }
+            }
+            onReturn(frame, PNone.NONE);
+        }
+
+        private void onReturn(VirtualFrame frame, Object result) {
+            PythonContext context = getContext();
+            Object profile = context.getProfileFunction();
+            Object trace = context.getTraceFunction();
+            if ((profile == null && trace == null) || context.isTracing()) {
+                return;
+            }
+            PFrame pyFrame = PArguments.getCurrentFrameInfo(frame).getPyFrame();
+            Object localTrace = trace != null && pyFrame != null ? pyFrame.getLocalTraceFunction() : null;
+            if (profile == null && localTrace == null) {
+                return;
+            }
+            if (pyFrame == null) {
+                pyFrame = materializeFrame(frame);
+            }
+            if (localTrace != null) {
+                callHook(frame, context, localTrace, false, pyFrame, "return", result);
+            }
+            if (profile != null) {
+                callHook(frame, context, profile, true, pyFrame, "return", result);
+            }
+        }
+    }
+
+    /**
+     * Reports a 'line' event when execution moves to a new line. Like in CPython, several
+     * statements on one physical line are reported once, unless execution jumps back to an earlier
+     * (or the same) statement on that line, so that e.g. a loop body on the line of its header is
+     * reported again for each further iteration. Some statements consist of several statement
+     * nodes starting at the same position (e.g. a block and its first statement); only the
+     * outermost of them is considered.
+     *
+     * Statements also report the 'exception' event when an exception is raised in them or
+     * propagates through them, even if it is caught later in the same frame.
+     */
+    static final class LineEventNode extends HookEventNode {
+        private final boolean nestedInSameStatement;
+        private final int line;
+        private final int charIndex;
+
+        LineEventNode(EventContext eventContext) {
+            super(eventContext);
+            this.nestedInSameStatement = isNestedInSameStatement(eventContext);
+            SourceSection section = eventContext.getInstrumentedSourceSection();
+            this.line = section != null ? section.getStartLine() : -1;
+            this.charIndex = section != null ? section.getCharIndex() : -1;
+        }
+
+        private static boolean isNestedInSameStatement(EventContext eventContext) {
+            SourceSection section = eventContext.getInstrumentedSourceSection();
+            if (section == null) {
+                return false;
+            }
+            for (Node parent = eventContext.getInstrumentedNode().getParent(); parent != null; parent = parent.getParent()) {
+                if (parent instanceof InstrumentableNode && !(parent instanceof WrapperNode) && ((InstrumentableNode) parent).hasTag(StatementTag.class)) {
+                    SourceSection parentSection = parent.getSourceSection();
+                    if (parentSection != null) {
+                        return parentSection.getSource().equals(section.getSource()) && parentSection.getCharIndex() == section.getCharIndex();
+                    }
+                }
+            }
+            return false;
+        }
+
+        @Override
+        protected void onEnter(VirtualFrame frame) {
+            if (nestedInSameStatement) {
+                return;
+            }
+            PythonContext context = getContext();
+            if (context.getTraceFunction() == null || context.isTracing()) {
+                return;
+            }
+            PFrame pyFrame = PArguments.getCurrentFrameInfo(frame).getPyFrame();
+            if (pyFrame == null || pyFrame.getLocalTraceFunction() == null) {
+                return;
+            }
+            // a statement re-raising the exception it handles reports it again
+            pyFrame.setTracedException(null);
+            boolean continuesLine = line == pyFrame.getTraceLine() && charIndex > pyFrame.getTraceCharIndex();
+            pyFrame.setTracePosition(line, charIndex);
+            if (continuesLine) {
+                return;
+            }
+            materializeFrame(frame);
+            Object result = callHook(frame, context, pyFrame.getLocalTraceFunction(), false, pyFrame, "line", PNone.NONE);
+            if (result != PNone.NONE) {
+                pyFrame.setLocalTraceFunction(result);
+            }
+        }
+
+        @Override
+        protected void onReturnExceptional(VirtualFrame frame, Throwable exception) {
+            if (nestedInSameStatement || !(exception instanceof PException)) {
+                return;
+            }
+            PythonContext context = getContext();
+            if (context.getTraceFunction() == null || context.isTracing()) {
+                return;
+            }
+            PFrame pyFrame = PArguments.getCurrentFrameInfo(frame).getPyFrame();
+            if (pyFrame != null) {
+                traceException(frame, context, pyFrame, (PException) exception, true);
+            }
+        }
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.parser;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.oracle.graal.python.PythonFileDetector;
+import com.oracle.graal.python.PythonLanguage;
+import com.oracle.graal.python.builtins.PythonBuiltinClassType;
+import com.oracle.graal.python.builtins.objects.common.HashingStorageLibrary;
+import com.oracle.graal.python.builtins.objects.list.PList;
+import com.oracle.graal.python.builtins.objects.str.PString;
+import com.oracle.graal.python.parser.sst.SSTNode;
+import com.oracle.graal.python.parser.sst.SSTNodeUtils;
+import com.oracle.graal.python.runtime.PythonContext;
+import com.oracle.graal.python.runtime.PythonParser.ErrorType;
+import com.oracle.graal.python.runtime.PythonParser.ParserErrorCallback;
+import com.oracle.graal.python.runtime.PythonParser.ParserMode;
+import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * Speculatively parses the modules imported at the top level of a module on background threads
+ * while the importing module is being translated and executed, so that the parse results are
+ * likely to be ready when the imports actually happen. Modules are resolved against
+ * {@code sys.path} (or the directory of the importing module for relative imports) in the same
+ * way as the default file finder does it, but only source files in plain directories are
+ * considered.
+ *
+ * Only the parsing to SST is done in the background, the translation to Truffle nodes still
+ * happens on the importing thread. The background threads do not enter the context, so any
+ * syntax error (or anything else that would need the context) just drops the result and the
+ * module is parsed again in the normal way when it is imported. A prefetched result is only used
+ * if the source compiled by the import is equal to the one that was parsed in the background,
+ * so the import semantics are not affected.
+ *
+ * Every file is parsed at most once. Once its import asked for the result, the file is marked as
+ * taken so that a background parse scheduled too late does not leave a result behind that nobody
+ * will ask for. Results of modules that are never imported are dropped oldest first when more
+ * than {@link #MAX_PENDING} are waiting.
+ */
+final class ImportPrefetcher {
+    /** Maximal number of results that are kept around for modules that were not imported yet. */
+    private static final int MAX_PENDING = 256;
+    /** Marks files whose import already asked for the result. */
+    private static final CompletableFuture<Prefetched> TAKEN = CompletableFuture.completedFuture(null);
+
+    private final PythonParserImpl parser;
+    private volatile PythonLanguage language;
+    /** The result (or {@link #TAKEN}) for each file a background parse was started for. */
+    private final ConcurrentHashMap<String, CompletableFuture<Prefetched>> results = new ConcurrentHashMap<>();
+    /** The files in the order their background parse was started, used to drop old results. */
+    private final ConcurrentLinkedQueue<String> order = new ConcurrentLinkedQueue<>();
+    /** The number of results in {@link #results} that were not taken yet. */
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile ThreadPoolExecutor executor;
+
+    static final class Prefetched {
+        final Source source;
+        final PythonSSTNodeFactory sstFactory;
+        final SSTNode sst;
+        private final DeferredErrorCallback errors;
+
+        Prefetched(Source source, PythonSSTNodeFactory sstFactory, SSTNode sst, DeferredErrorCallback errors) {
+            this.source = source;
+            this.sstFactory = sstFactory;
+            this.sst = sst;
+            this.errors = errors;
+        }
+    }
+
+    ImportPrefetcher(PythonParserImpl parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Returns the prefetched parse result for the given source, waiting for it if it is still
+     * being parsed, or {@code null} if there is none. Any errors found while translating the result
+     * are reported to {@code errors}.
+     */
+    @TruffleBoundary
+    Prefetched take(Source source, ParserErrorCallback errors) {
+        String path = source.getPath();
+        if (path == null) {
+            return null;
+        }
+        CompletableFuture<Prefetched> future = results.put(path, TAKEN);
+        if (future == null || future == TAKEN) {
+            return null;
+        }
+        pending.decrementAndGet();
+        Prefetched result;
+        try {
+            result = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+        if (result == null || !result.source.equals(source)) {
+            return null;
+        }
+        result.errors.delegate = errors;
+        return result;
+    }
+
+    /**
+     * Schedules the parsing of the modules imported at the top level of the given module. Must be
+     * called on a thread that has entered the context.
+     */
+    @TruffleBoundary
+    void prefetchImportsOf(Source source, SSTNode module) {
+        PythonContext context = PythonLanguage.getContext();
+        if (!context.getCore().isInitialized()) {
+            return;
+        }
+        language = context.getLanguage();
+        List<String> imports = new ArrayList<>();
+        SSTNodeUtils.collectTopLevelImports(module, imports);
+        if (imports.isEmpty()) {
+            return;
+        }
+        HashingStorageLibrary lib = HashingStorageLibrary.getUncached();
+        List<String> toPrefetch = new ArrayList<>(imports.size());
+        for (String name : imports) {
+            if (name.startsWith(".") || !lib.hasKey(context.getSysModules().getDictStorage(), name)) {
+                toPrefetch.add(name);
+            }
+        }
+        if (toPrefetch.isEmpty()) {
+            return;
+        }
+        TruffleFile moduleDir = null;
+        TruffleFile[] searchPath;
+        try {
+            moduleDir = context.getPublicTruffleFileRelaxed(source.getPath(), PythonLanguage.DEFAULT_PYTHON_EXTENSIONS).getParent();
+            searchPath = getSearchPath(context);
+        } catch (SecurityException | UnsupportedOperationException | IllegalArgumentException e) {
+            return;
+        }
+        TruffleFile relativeBase = moduleDir;
+        getExecutor().execute(() -> {
+            for (String name : toPrefetch) {
+                prefetchModule(searchPath, relativeBase, name);
+            }
+        });
+    }
+
+    private static TruffleFile[] getSearchPath(PythonContext context) {
+        Object path = context.getCore().lookupBuiltinModule("sys").getAttribute("path");
+        if (!(path instanceof PList)) {
+            return new TruffleFile[0];
+        }
+        SequenceStorage storage = ((PList) path).getSequenceStorage();
+        List<TruffleFile> result = new ArrayList<>(storage.length());
+        for (int i = 0; i < storage.length(); i++) {
+            Object entry = storage.getItemNormalized(i);
+            String entryPath = entry instanceof PString ? ((PString) entry).getValue() : entry instanceof String ? (String) entry : null;
+            if (entryPath != null) {
+                // the file finder uses the current directory for empty entries
+                result.add(context.getPublicTruffleFileRelaxed(entryPath.isEmpty() ? "." : entryPath));
+            }
+        }
+        return result.toArray(new TruffleFile[result.size()]);
+    }
+
+    private ThreadPoolExecutor getExecutor() {
+        ThreadPoolExecutor result = executor;
+        if (result == null) {
+            synchronized (this) {
+                result = executor;
+                if (result == null) {
+                    int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+                    result = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                        Thread t = Executors.defaultThreadFactory().newThread(r);
+                        t.setName("python-import-prefetch");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    result.allowCoreThreadTimeOut(true);
+                    executor = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the source files the import of the module with the given (possibly dotted or
+     * relative) name would load and parses those that were not parsed before.
+     */
+    private void prefetchModule(TruffleFile[] searchPath, TruffleFile moduleDir, String name) {
+        try {
+            int level = 0;
+            while (level < name.length() && name.charAt(level) == '.') {
+                level++;
+            }
+            String[] parts = name.substring(level).split("\\.");
+            if (level > 0) {
+                TruffleFile base = moduleDir;
+                for (int i = 1; i < level && base != null; i++) {
+                    base = base.getParent();
+                }
+                if (base != null) {
+                    prefetchInDirectory(base, parts);
+                }
+            } else {
+                for (TruffleFile entry : searchPath) {
+                    if (prefetchInDirectory(entry, parts)) {
+                        break;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // this is only speculative, the actual import will do the real work
+        }
+    }
+
+    /**
+     * Resolves the given module name parts in the given directory, parsing the
+     * {@code __init__.py} files of packages on the way and the module itself.
+     *
+     * @return {@code true} if the first part of the name was found in the directory
+     */
+    private boolean prefetchInDirectory(TruffleFile directory, String[] parts) {
+        TruffleFile dir = directory;
+        for (int i = 0; i < parts.length; i++) {
+            TruffleFile packageDir = dir.resolve(parts[i]);
+            TruffleFile init = packageDir.resolve("__init__.py");
+            if (init.isRegularFile()) {
+                prefetchFile(init);
+            } else {
+                TruffleFile moduleFile = dir.resolve(parts[i] + ".py");
+                if (moduleFile.isRegularFile()) {
+                    prefetchFile(moduleFile);
+                    return true;
+                } else if (!packageDir.isDirectory()) {
+                    return i > 0;
+                }
+                // a namespace package
+            }
+            dir = packageDir;
+        }
+        return true;
+    }
+
+    private void prefetchFile(TruffleFile file) {
+        String path = file.getPath();
+        CompletableFuture<Prefetched> future = new CompletableFuture<>();
+        if (results.putIfAbsent(path, future) != null) {
+            // already parsed or already imported
+            return;
+        }
+        order.add(path);
+        if (pending.incrementAndGet() > MAX_PENDING) {
+            dropOldestResult();
+        }
+        Prefetched result = null;
+        try {
+            result = parse(file);
+        } catch (Exception | StackOverflowError e) {
+            // the import will parse it again and report any errors
+        } finally {
+            future.complete(result);
+        }
+    }
+
+    /**
+     * Drops the oldest result that was not taken yet. The file stays marked as taken, so it is not
+     * parsed in the background again.
+     */
+    private void dropOldestResult() {
+        String path;
+        while ((path = order.poll()) != null) {
+            CompletableFuture<Prefetched> future = results.get(path);
+            if (future != null && future != TAKEN && results.replace(path, future, TAKEN)) {
+                pending.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Creates the source like {@code compile} does it for the bytes the import system reads from
+     * the file and parses it.
+     */
+    private Prefetched parse(TruffleFile file) throws IOException, PythonFileDetector.InvalidEncodingException {
+        byte[] bytes = file.readAllBytes();
+        Charset charset = PythonFileDetector.findEncodingStrict(bytes);
+        String code = new String(bytes, charset);
+        if (!code.endsWith("\n")) {
+            code += '\n';
+        }
+        long size = file.size();
+        if (code.length() != size && code.getBytes().length != size) {
+            // compile would not create a file-backed source for it
+            return null;
+        }
+        Source source = Source.newBuilder(PythonLanguage.ID, file).content(code).build();
+        DeferredErrorCallback errors = new DeferredErrorCallback(language);
+        PythonSSTNodeFactory sstFactory = new PythonSSTNodeFactory(errors, source);
+        SSTNode sst = parser.parseToSST(ParserMode.File, errors, sstFactory, source, null, null);
+        return new Prefetched(source, sstFactory, sst, errors);
+    }
+
+    /**
+     * The error callback for parsing in the background. Errors just abort the background parse
+     * until the result is taken by the importing thread, which then gets all errors found during
+     * the translation (or the lazy translation of function bodies).
+     */
+    private static final class DeferredErrorCallback implements ParserErrorCallback {
+        private final PythonLanguage language;
+        private volatile ParserErrorCallback delegate;
+
+        DeferredErrorCallback(PythonLanguage language) {
+            this.language = language;
+        }
+
+        private ParserErrorCallback getDelegate() {
+            ParserErrorCallback result = delegate;
+            if (result == null) {
+                throw PrefetchAbortedException.INSTANCE;
+            }
+            return result;
+        }
+
+        @Override
+        public RuntimeException raise(PythonBuiltinClassType type, String message, Object... args) {
+            return getDelegate().raise(type, message, args);
+        }
+
+        @Override
+        public RuntimeException raiseInvalidSyntax(ErrorType type, Source source, SourceSection section, String message, Object... arguments) {
+            return getDelegate().raiseInvalidSyntax(type, source, section, message, arguments);
+        }
+
+        @Override
+        public RuntimeException raiseInvalidSyntax(ErrorType type, Node location, String message, Object... arguments) {
+            return getDelegate().raiseInvalidSyntax(type, location, message, arguments);
+        }
+
+        @Override
+        public PythonLanguage getLanguage() {
+            return language;
+        }
+    }
+
+    private static final class PrefetchAbortedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        static final PrefetchAbortedException INSTANCE = new PrefetchAbortedException();
+
+        private PrefetchAbortedException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -33,9 +33,11 @@ import java.io.IOException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.PredictionMode;
 import org.graalvm.nativeimage.ImageInfo;
 
 import com.oracle.graal.python.PythonFileDetector;
@@ -75,6 +77,8 @@ public final class PythonParserImpl implements PythonParser, PythonCodeSerialize
 
     private final boolean logFiles;
     private final int timeStatistics;
+    private final boolean sllPrediction;
+    private final ImportPrefetcher importPrefetcher;
     private long timeInParser = 0;
     private long numberOfFiles = 0;
     private static final boolean IN_IMAGE_BUILD_TIME = ImageInfo.inImageBuildtimeCode();
@@ -86,18 +90,25 @@ public final class PythonParserImpl implements PythonParser, PythonCodeSerialize
     public PythonParserImpl(Env env) {
         this.logFiles = env.getOptions().get(PythonOptions.ParserLogFiles);
         this.timeStatistics = env.getOptions().get(PythonOptions.ParserStatistics);
+        this.sllPrediction = env.getOptions().get(PythonOptions.ParserSLLPrediction);
+        this.importPrefetcher = env.getOptions().get(PythonOptions.ImportPrefetch) ? new ImportPrefetcher(this) : null;
     }
 
     private static Python3Parser getPython3Parser(Source source, String sourceText, ParserErrorCallback errors) {
+        Python3Parser parser = createPython3Parser(sourceText);
+        parser.setFactory(new PythonSSTNodeFactory(errors, source));
+        parser.addErrorListener(ERROR_LISTENER);
+        parser.setErrorHandler(new PythonErrorStrategy());
+        return parser;
+    }
+
+    private static Python3Parser createPython3Parser(String sourceText) {
         Python3Lexer lexer = new Python3Lexer(CharStreams.fromString(sourceText));
         lexer.removeErrorListeners();
         lexer.addErrorListener(ERROR_LISTENER);
         Python3Parser parser = new Python3Parser(new CommonTokenStream(lexer));
         parser.setBuildParseTree(false);
-        parser.setFactory(new PythonSSTNodeFactory(errors, source));
         parser.removeErrorListeners();
-        parser.addErrorListener(ERROR_LISTENER);
-        parser.setErrorHandler(new PythonErrorStrategy());
         return parser;
     }
 
@@ -261,6 +272,25 @@ public final class PythonParserImpl implements PythonParser, PythonCodeSerialize
     }
 
     private CacheItem parseWithANTLR(ParserMode mode, ParserErrorCallback errors, PythonSSTNodeFactory sstFactory, Source source, Frame currentFrame, String[] argumentNames) {
+        return cacheResult(source, parseToSST(mode, errors, sstFactory, source, currentFrame, argumentNames), sstFactory);
+    }
+
+    private CacheItem cacheResult(Source source, SSTNode parserSSTResult, PythonSSTNodeFactory sstFactory) {
+        if (!IN_IMAGE_BUILD_TIME) {
+            cachedLastAntlrResult.globalScope = sstFactory.getScopeEnvironment().getGlobalScope();
+            cachedLastAntlrResult.antlrResult = parserSSTResult;
+            cachedLastAntlrResult.source = source;
+            return cachedLastAntlrResult;
+        } else {
+            return new CacheItem(source, parserSSTResult, sstFactory.getScopeEnvironment().getGlobalScope());
+        }
+    }
+
+    /**
+     * Parses the source to SST. This does not touch any state of the parser, so it may also be
+     * used by the {@link ImportPrefetcher} on other threads.
+     */
+    SSTNode parseToSST(ParserMode mode, ParserErrorCallback errors, PythonSSTNodeFactory sstFactory, Source source, Frame currentFrame, String[] argumentNames) {
         FrameDescriptor inlineLocals = mode == ParserMode.InlineEvaluation ? currentFrame.getFrameDescriptor() : null;
         String sourceText = source.getCharacters().toString();
         // Preprocessing
@@ -286,66 +316,146 @@ public final class PythonParserImpl implements PythonParser, PythonCodeSerialize
             throw errors.raiseInvalidSyntax(ErrorType.Indentation, source, source.createSection(0, matcher.end(1)), "unexpected indent");
         }
         // ANTLR parsing
-        Python3Parser parser = getPython3Parser(source, sourceText, errors);
-        parser.setFactory(sstFactory);
         SSTNode parserSSTResult = null;
-
-        try {
-            switch (mode) {
-                case Eval:
-                    parserSSTResult = parser.eval_input().result;
-                    break;
-                case File:
-                    parserSSTResult = parser.file_input().result;
-                    break;
-                case InteractiveStatement:
-                case InlineEvaluation:
-                case Statement:
-                    parserSSTResult = parser.single_input(source.isInteractive(), inlineLocals).result;
-                    break;
-                case WithArguments:
-                    // at the first, create global scope
-                    ScopeInfo globalScope = sstFactory.getScopeEnvironment().pushScope("module", ScopeInfo.ScopeKind.Module, currentFrame == null ? null : currentFrame.getFrameDescriptor());
-                    // we expect that the source is the body of the result function
-                    parserSSTResult = parser.withArguments_input(false, new FrameDescriptor()).result;
-                    // wrap the result with function definition
-                    ScopeInfo functionScope = globalScope.getFirstChildScope();
-                    parserSSTResult = SSTNodeUtils.createFunctionDefWithArguments(source.getName(), functionScope, parserSSTResult, argumentNames);
-                    break;
-                default:
-                    throw new RuntimeException("unexpected mode: " + mode);
-            }
-
-        } catch (Exception e) {
-            if ((mode == ParserMode.InteractiveStatement || mode == ParserMode.Statement) && e instanceof PIncompleteSourceException) {
-                ((PIncompleteSourceException) e).setSource(source);
-                throw e;
-            } else if (mode == ParserMode.InlineEvaluation) {
-                try {
-                    parser.reset();
-                    parserSSTResult = parser.eval_input().result;
-                } catch (Exception e2) {
+        if (sllPrediction) {
+            parserSSTResult = tryParseWithSLL(mode, errors, sstFactory, source, sourceText, currentFrame, inlineLocals, argumentNames);
+        }
+        if (parserSSTResult == null) {
+            Python3Parser parser = getPython3Parser(source, sourceText, errors);
+            parser.setFactory(sstFactory);
+            try {
+                parserSSTResult = parse(parser, mode, sstFactory, source, currentFrame, inlineLocals, argumentNames);
+            } catch (Exception e) {
+                if ((mode == ParserMode.InteractiveStatement || mode == ParserMode.Statement) && e instanceof PIncompleteSourceException) {
+                    ((PIncompleteSourceException) e).setSource(source);
+                    throw e;
+                } else if (mode == ParserMode.InlineEvaluation) {
+                    try {
+                        parser.reset();
+                        parserSSTResult = parser.eval_input().result;
+                    } catch (Exception e2) {
+                        throw handleParserError(errors, source, e);
+                    }
+                } else {
                     throw handleParserError(errors, source, e);
                 }
-            } else {
-                throw handleParserError(errors, source, e);
             }
         }
+        return parserSSTResult;
+    }
 
-        if (!IN_IMAGE_BUILD_TIME) {
-            cachedLastAntlrResult.globalScope = sstFactory.getScopeEnvironment().getGlobalScope();
-            cachedLastAntlrResult.antlrResult = parserSSTResult;
-            cachedLastAntlrResult.source = source;
-            return cachedLastAntlrResult;
-        } else {
-            return new CacheItem(source, parserSSTResult, sstFactory.getScopeEnvironment().getGlobalScope());
+    /**
+     * Tries to parse the source using ANTLR's SLL prediction mode, which is much faster than full
+     * LL prediction but may fail on some valid inputs. Returns {@code null} if parsing failed for
+     * any reason. The source then needs to be parsed again using full LL prediction, which either
+     * produces the result or the appropriate error.
+     *
+     * Nothing is reported to {@code errors} during the attempt: any report aborts it, and the full
+     * LL parse reports it again, so it is reported exactly once.
+     */
+    private static SSTNode tryParseWithSLL(ParserMode mode, ParserErrorCallback errors, PythonSSTNodeFactory sstFactory, Source source, String sourceText, Frame currentFrame,
+                    FrameDescriptor inlineLocals, String[] argumentNames) {
+        Python3Parser parser = createPython3Parser(sourceText);
+        parser.setFactory(sstFactory);
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        ParserErrorCallback previous = sstFactory.setErrorCallback(new SpeculativeErrorCallback(errors.getLanguage()));
+        try {
+            return parse(parser, mode, sstFactory, source, currentFrame, inlineLocals, argumentNames);
+        } catch (Exception e) {
+            // drop the scopes created by the failed attempt
+            sstFactory.getScopeEnvironment().reset();
+            return null;
+        } finally {
+            sstFactory.setErrorCallback(previous);
+        }
+    }
+
+    /**
+     * The error callback of the SLL attempt. It reports nothing and just aborts the attempt.
+     */
+    private static final class SpeculativeErrorCallback implements ParserErrorCallback {
+        private final PythonLanguage language;
+
+        SpeculativeErrorCallback(PythonLanguage language) {
+            this.language = language;
+        }
+
+        @Override
+        public RuntimeException raise(PythonBuiltinClassType type, String message, Object... args) {
+            throw SpeculationAbortedException.INSTANCE;
+        }
+
+        @Override
+        public RuntimeException raiseInvalidSyntax(ErrorType type, Source source, SourceSection section, String message, Object... arguments) {
+            throw SpeculationAbortedException.INSTANCE;
+        }
+
+        @Override
+        public RuntimeException raiseInvalidSyntax(ErrorType type, Node location, String message, Object... arguments) {
+            throw SpeculationAbortedException.INSTANCE;
+        }
+
+        @Override
+        public PythonLanguage getLanguage() {
+            return language;
+        }
+    }
+
+    private static final class SpeculationAbortedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        static final SpeculationAbortedException INSTANCE = new SpeculationAbortedException();
+
+        private SpeculationAbortedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static SSTNode parse(Python3Parser parser, ParserMode mode, PythonSSTNodeFactory sstFactory, Source source, Frame currentFrame, FrameDescriptor inlineLocals, String[] argumentNames) {
+        switch (mode) {
+            case Eval:
+                return parser.eval_input().result;
+            case File:
+                return parser.file_input().result;
+            case InteractiveStatement:
+            case InlineEvaluation:
+            case Statement:
+                return parser.single_input(source.isInteractive(), inlineLocals).result;
+            case WithArguments:
+                // at the first, create global scope
+                ScopeInfo globalScope = sstFactory.getScopeEnvironment().pushScope("module", ScopeInfo.ScopeKind.Module, currentFrame == null ? null : currentFrame.getFrameDescriptor());
+                // we expect that the source is the body of the result function
+                SSTNode body = parser.withArguments_input(false, new FrameDescriptor()).result;
+                // wrap the result with function definition
+                ScopeInfo functionScope = globalScope.getFirstChildScope();
+                return SSTNodeUtils.createFunctionDefWithArguments(source.getName(), functionScope, body, argumentNames);
+            default:
+                throw new RuntimeException("unexpected mode: " + mode);
         }
     }
 
     @TruffleBoundary
     public Node parseN(ParserMode mode, ParserErrorCallback errors, Source source, Frame currentFrame, String[] argumentNames) {
-        PythonSSTNodeFactory sstFactory = new PythonSSTNodeFactory(errors, source);
-        CacheItem parserSSTResult = parseWithANTLR(mode, errors, sstFactory, source, currentFrame, argumentNames);
+        PythonSSTNodeFactory sstFactory;
+        CacheItem parserSSTResult;
+        ImportPrefetcher.Prefetched prefetched = null;
+        boolean isModuleFile = importPrefetcher != null && mode == ParserMode.File && currentFrame == null && source.getPath() != null;
+        if (isModuleFile) {
+            prefetched = importPrefetcher.take(source, errors);
+        }
+        if (prefetched != null) {
+            if (logFiles) {
+                System.out.println("Using prefetched parse of: " + source.getPath());
+            }
+            sstFactory = prefetched.sstFactory;
+            parserSSTResult = cacheResult(source, prefetched.sst, sstFactory);
+        } else {
+            sstFactory = new PythonSSTNodeFactory(errors, source);
+            parserSSTResult = parseWithANTLR(mode, errors, sstFactory, source, currentFrame, argumentNames);
+        }
+        if (isModuleFile) {
+            importPrefetcher.prefetchImportsOf(source, parserSSTResult.antlrResult);
+        }
         try {
             return sstFactory.createParserResult(parserSSTResult.antlrResult, mode, currentFrame);
         } catch (Exception e) {
@@ -88,7 +88,7 @@ public final class PythonSSTNodeFactory {
     private final NodeFactory nodeFactory;
     private final ScopeEnvironment scopeEnvironment;
     private final Source source;
-    private final PythonParser.ParserErrorCallback errors;
+    private PythonParser.ParserErrorCallback errors;
 
     public PythonSSTNodeFactory(PythonParser.ParserErrorCallback errors, Source source) {
         this.errors = errors;
@@ -97,6 +97,16 @@ public final class PythonSSTNodeFactory {
         this.source = source;
     }
 
+    /**
+     * Replaces the callback errors are reported to and returns the previous one. Used to keep a
+     * speculative parse that may be repeated from reporting anything.
+     */
+    PythonParser.ParserErrorCallback setErrorCallback(PythonParser.ParserErrorCallback newErrors) {
+        PythonParser.ParserErrorCallback oldErrors = errors;
+        errors = newErrors;
+        return oldErrors;
+    }
+
     public ScopeEnvironment getScopeEnvironment() {
         return scopeEnvironment;
     }
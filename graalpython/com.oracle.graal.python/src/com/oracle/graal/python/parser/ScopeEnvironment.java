@@ -413,6 +413,15 @@ public class ScopeEnvironment implements CellFrameSlotSupplier {
         return getWriteNode(name, ReadVarKeywordsNode.createForUserFunction(names));
     }
 
+    /**
+     * Discards all scopes, e.g., the ones created by a failed parsing attempt.
+     */
+    public void reset() {
+        currentScope = null;
+        globalScope = null;
+        unresolvedVars.clear();
+    }
+
     public ScopeInfo setCurrentScope(ScopeInfo info) {
         ScopeInfo oldCurrent = currentScope;
         currentScope = info;
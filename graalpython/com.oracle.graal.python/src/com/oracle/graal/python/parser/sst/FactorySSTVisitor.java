@@ -121,6 +121,7 @@ import com.oracle.graal.python.parser.ScopeInfo;
 import com.oracle.graal.python.parser.ScopeInfo.ScopeKind;
 import com.oracle.graal.python.parser.sst.NumberLiteralSSTNode.BigIntegerLiteralSSTNode;
 import com.oracle.graal.python.parser.sst.NumberLiteralSSTNode.IntegerLiteralSSTNode;
+import com.oracle.graal.python.runtime.PythonOptions;
 import com.oracle.graal.python.runtime.PythonParser;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
@@ -140,12 +141,20 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
 
     protected int comprLevel;
 
+    /**
+     * Function bodies are only translated lazily for file-backed sources. Syntax errors detected
+     * during translation are then reported on the first call, which would break code that uses
+     * {@code compile} or {@code exec} on strings to check the syntax.
+     */
+    private final boolean lazyFunctionBodies;
+
     public FactorySSTVisitor(PythonParser.ParserErrorCallback errors, ScopeEnvironment scopeEnvironment, NodeFactory nodeFactory, Source source) {
         this.scopeEnvironment = scopeEnvironment;
         this.source = source;
         this.nodeFactory = nodeFactory;
         this.errors = errors;
         this.comprLevel = 0;
+        this.lazyFunctionBodies = source.getPath() != null && errors.getLanguage().getEngineOption(PythonOptions.LazyFunctionBodies);
     }
 
     public ExpressionNode asExpression(BlockSSTNode block) {
@@ -763,12 +772,95 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
         ScopeInfo oldScope = scopeEnvironment.getCurrentScope();
         scopeEnvironment.setCurrentScope(node.scope);
         Signature signature = node.argBuilder.getSignature();
-        StatementNode argumentNodes = nodeFactory.createBlock(node.argBuilder.getArgumentNodes(scopeEnvironment));
+        SourceSection sourceSection = createSourceSection(node.startOffset, node.endOffset);
 
-        StatementNode body;
+        ExpressionNode returnTarget = null;
+        FunctionRootNode.LazyBody lazyBody = null;
         GeneratorFactorySSTVisitor generatorFactory = null;
+        if (lazyFunctionBodies && !scopeEnvironment.isInGeneratorScope()) {
+            FactorySSTVisitor bodyVisitor = this instanceof GeneratorFactorySSTVisitor ? ((GeneratorFactorySSTVisitor) this).parentVisitor : this;
+            lazyBody = new FunctionRootNode.LazyBody(() -> bodyVisitor.translateFunctionBody(node, sourceSection));
+        } else {
+            if (scopeEnvironment.isInGeneratorScope()) {
+                generatorFactory = new GeneratorFactorySSTVisitor(errors, scopeEnvironment, nodeFactory, source, this);
+            }
+            returnTarget = createReturnTarget(node, sourceSection, generatorFactory);
+        }
+        ExpressionNode doc = extractDoc(node);
+        if (doc == null) {
+            doc = EMPTY_DOC;
+        }
+
+        ExpressionNode funcDef;
+
+        scopeEnvironment.setCurrentScope(node.scope.getParent());
+        ExpressionNode[] defaults = node.argBuilder.getDefaultParameterValues(this);
+        FunctionDefinitionNode.KwDefaultExpressionNode[] kwDefaults = node.argBuilder.getKwDefaultParameterValues(this);
+        Map<String, SSTNode> sstAnnotations = node.argBuilder.getAnnotatedArgs();
+        Map<String, ExpressionNode> annotations = null;
+        if (sstAnnotations != null && !sstAnnotations.isEmpty()) {
+            annotations = new HashMap<>(sstAnnotations.size());
+            for (String argName : sstAnnotations.keySet()) {
+                SSTNode sstType = sstAnnotations.get(argName);
+                annotations.put(argName, (ExpressionNode) sstType.accept(this));
+            }
+        }
+        scopeEnvironment.setCurrentScope(node.scope);
+
+        /*
+         * Function root
+         */
+        FrameDescriptor fd = scopeEnvironment.getCurrentFrame();
+        String name = node.name;
+        String qualname = getQualifiedName(node.scope, name);
+        FunctionRootNode funcRoot;
+        if (lazyBody != null) {
+            funcRoot = nodeFactory.createFunctionRoot(sourceSection, name, fd, lazyBody, scopeEnvironment.getExecutionCellSlots(), signature);
+        } else {
+            funcRoot = nodeFactory.createFunctionRoot(sourceSection, name, scopeEnvironment.isInGeneratorScope(), fd, returnTarget, scopeEnvironment.getExecutionCellSlots(), signature);
+        }
+        RootCallTarget ct = Truffle.getRuntime().createCallTarget(funcRoot);
         if (scopeEnvironment.isInGeneratorScope()) {
-            generatorFactory = new GeneratorFactorySSTVisitor(errors, scopeEnvironment, nodeFactory, source, this);
+            funcDef = GeneratorFunctionDefinitionNode.create(name, qualname, node.enclosingClassName, doc, defaults, kwDefaults, ct, fd,
+                            scopeEnvironment.getDefinitionCellSlots(), scopeEnvironment.getExecutionCellSlots(),
+                            generatorFactory.getGeneratorInfo(), annotations);
+        } else {
+            funcDef = new FunctionDefinitionNode(name, qualname, node.enclosingClassName, doc, defaults, kwDefaults, ct, scopeEnvironment.getDefinitionCellSlots(),
+                            scopeEnvironment.getExecutionCellSlots(), annotations);
+        }
+        scopeEnvironment.setCurrentScope(node.scope.getParent());
+        ReadNode funcVar = scopeEnvironment.findVariable(name);
+        StatementNode writeNode = funcVar.makeWriteNode(funcDef);
+        // TODO I'm not sure, whether this assingning of sourcesection is right.
+        writeNode.assignSourceSection(((FunctionDefinitionNode) funcDef).getFunctionRoot().getSourceSection());
+        scopeEnvironment.setCurrentScope(oldScope);
+        return writeNode;
+    }
+
+    /**
+     * Translates the body of a function that was deferred until its first call. Concurrent
+     * translations share the scope environment, so they are serialized.
+     */
+    private ExpressionNode translateFunctionBody(FunctionDefSSTNode node, SourceSection sourceSection) {
+        synchronized (scopeEnvironment) {
+            ScopeInfo oldScope = scopeEnvironment.setCurrentScope(node.scope);
+            try {
+                return createReturnTarget(node, sourceSection, null);
+            } finally {
+                scopeEnvironment.setCurrentScope(oldScope);
+            }
+        }
+    }
+
+    /**
+     * Creates the return target containing the argument reading and the function body. The
+     * docstring is not part of the body. Expects the current scope to be the function's scope.
+     */
+    private ExpressionNode createReturnTarget(FunctionDefSSTNode node, SourceSection sourceSection, GeneratorFactorySSTVisitor generatorFactory) {
+        StatementNode argumentNodes = nodeFactory.createBlock(node.argBuilder.getArgumentNodes(scopeEnvironment));
+
+        StatementNode body;
+        if (generatorFactory != null) {
             body = (StatementNode) node.body.accept(generatorFactory);
         } else {
             body = (StatementNode) node.body.accept(this instanceof GeneratorFactorySSTVisitor
@@ -786,7 +878,7 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
                 } else {
                     if (st.length == 2) {
                         functionBody = FunctionBodyNode.create(st[1]);
-                        if (scopeEnvironment.isInGeneratorScope()) {
+                        if (generatorFactory != null) {
                             generatorFactory.decreaseNumOfGeneratorBlockNode();
                         }
                     } else {
@@ -810,61 +902,32 @@ public class FactorySSTVisitor implements SSTreeVisitor<PNode> {
         }
 
         body = functionBody;
-        if (doc == null) {
-            doc = EMPTY_DOC;
-        }
 
-        ExpressionNode funcDef;
         ExpressionNode returnTarget;
-
-        if (scopeEnvironment.isInGeneratorScope()) {
+        if (generatorFactory != null) {
             returnTarget = new GeneratorReturnTargetNode(argumentNodes, body, ReadGeneratorFrameVariableNode.create(scopeEnvironment.getReturnSlot()), generatorFactory.getMutableGeneratorInfo());
         } else {
             body = nodeFactory.createBlock(argumentNodes, body);
             returnTarget = new ReturnTargetNode(body, nodeFactory.createReadLocal(scopeEnvironment.getReturnSlot()));
         }
-
-        SourceSection sourceSection = createSourceSection(node.startOffset, node.endOffset);
         returnTarget.assignSourceSection(sourceSection);
+        return returnTarget;
+    }
 
-        scopeEnvironment.setCurrentScope(node.scope.getParent());
-        ExpressionNode[] defaults = node.argBuilder.getDefaultParameterValues(this);
-        FunctionDefinitionNode.KwDefaultExpressionNode[] kwDefaults = node.argBuilder.getKwDefaultParameterValues(this);
-        Map<String, SSTNode> sstAnnotations = node.argBuilder.getAnnotatedArgs();
-        Map<String, ExpressionNode> annotations = null;
-        if (sstAnnotations != null && !sstAnnotations.isEmpty()) {
-            annotations = new HashMap<>(sstAnnotations.size());
-            for (String argName : sstAnnotations.keySet()) {
-                SSTNode sstType = sstAnnotations.get(argName);
-                annotations.put(argName, (ExpressionNode) sstType.accept(this));
-            }
+    /**
+     * Returns the docstring of a function without translating its body. This is equivalent to
+     * {@link StringUtils#extractDoc(StatementNode)} on the translated body.
+     */
+    private ExpressionNode extractDoc(FunctionDefSSTNode node) {
+        SSTNode first = node.body;
+        if (first instanceof BlockSSTNode) {
+            SSTNode[] statements = ((BlockSSTNode) first).statements;
+            first = statements.length > 0 ? statements[0] : null;
         }
-        scopeEnvironment.setCurrentScope(node.scope);
-
-        /*
-         * Function root
-         */
-        FrameDescriptor fd = scopeEnvironment.getCurrentFrame();
-        String name = node.name;
-        String qualname = getQualifiedName(node.scope, name);
-        FunctionRootNode funcRoot = nodeFactory.createFunctionRoot(sourceSection, name, scopeEnvironment.isInGeneratorScope(), fd, returnTarget, scopeEnvironment.getExecutionCellSlots(),
-                        signature);
-        RootCallTarget ct = Truffle.getRuntime().createCallTarget(funcRoot);
-        if (scopeEnvironment.isInGeneratorScope()) {
-            funcDef = GeneratorFunctionDefinitionNode.create(name, qualname, node.enclosingClassName, doc, defaults, kwDefaults, ct, fd,
-                            scopeEnvironment.getDefinitionCellSlots(), scopeEnvironment.getExecutionCellSlots(),
-                            generatorFactory.getGeneratorInfo(), annotations);
-        } else {
-            funcDef = new FunctionDefinitionNode(name, qualname, node.enclosingClassName, doc, defaults, kwDefaults, ct, scopeEnvironment.getDefinitionCellSlots(),
-                            scopeEnvironment.getExecutionCellSlots(), annotations);
+        if (first instanceof ExpressionStatementSSTNode && ((ExpressionStatementSSTNode) first).expression instanceof StringLiteralSSTNode.RawStringLiteralSSTNode) {
+            return (ExpressionNode) ((ExpressionStatementSSTNode) first).expression.accept(this);
         }
-        scopeEnvironment.setCurrentScope(node.scope.getParent());
-        ReadNode funcVar = scopeEnvironment.findVariable(name);
-        StatementNode writeNode = funcVar.makeWriteNode(funcDef);
-        // TODO I'm not sure, whether this assingning of sourcesection is right.
-        writeNode.assignSourceSection(((FunctionDefinitionNode) funcDef).getFunctionRoot().getSourceSection());
-        scopeEnvironment.setCurrentScope(oldScope);
-        return writeNode;
+        return null;
     }
 
     @Override
@@ -40,6 +40,8 @@
  */
 package com.oracle.graal.python.parser.sst;
 
+import java.util.List;
+
 import com.oracle.graal.python.parser.ScopeInfo;
 
 public class SSTNodeUtils {
@@ -71,4 +73,45 @@ public class SSTNodeUtils {
         }
         return new FunctionDefSSTNode(functionScope, name, null, argBuilder, body, body.getStartOffset(), body.getEndOffset());
     }
+
+    /**
+     * Collects the names of the modules imported by the {@code import} and {@code from ... import}
+     * statements at the top level of a module, including those nested in top-level {@code if} and
+     * {@code try} statements. Relative imports keep their leading dots. For {@code from}-imports,
+     * the imported names are also added as submodules of the module they are imported from, since
+     * they may well be submodules.
+     */
+    public static void collectTopLevelImports(SSTNode node, List<String> result) {
+        if (node instanceof BlockSSTNode) {
+            for (SSTNode statement : ((BlockSSTNode) node).statements) {
+                collectTopLevelImports(statement, result);
+            }
+        } else if (node instanceof ImportSSTNode) {
+            result.add(((ImportSSTNode) node).name);
+        } else if (node instanceof ImportFromSSTNode) {
+            ImportFromSSTNode importFrom = (ImportFromSSTNode) node;
+            if (!importFrom.from.endsWith(".")) {
+                result.add(importFrom.from);
+            }
+            if (importFrom.asNames != null) {
+                String prefix = importFrom.from.endsWith(".") ? importFrom.from : importFrom.from + ".";
+                for (String[] asName : importFrom.asNames) {
+                    result.add(prefix + asName[0]);
+                }
+            }
+        } else if (node instanceof IfSSTNode) {
+            collectTopLevelImports(((IfSSTNode) node).thenStatement, result);
+            collectTopLevelImports(((IfSSTNode) node).elseStatement, result);
+        } else if (node instanceof TrySSTNode) {
+            TrySSTNode tryNode = (TrySSTNode) node;
+            collectTopLevelImports(tryNode.body, result);
+            if (tryNode.exceptNodes != null) {
+                for (ExceptSSTNode except : tryNode.exceptNodes) {
+                    collectTopLevelImports(except.body, result);
+                }
+            }
+            collectTopLevelImports(tryNode.elseStatement, result);
+            collectTopLevelImports(tryNode.finallyStatement, result);
+        }
+    }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.oracle.graal.python.runtime.PythonParser.ParserMode;
+import com.oracle.graal.python.util.Supplier;
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A bounded cache of call targets for code compiled from strings by {@code compile}, {@code exec}
+ * and {@code eval}. Library code like {@code collections.namedtuple} or {@code dataclasses}
+ * generates the same source text over and over again, so we key the entries by the source text
+ * itself together with the filename and the parser mode. The least recently used entry is evicted
+ * once the cache is full. The cache is owned by the language and thus shared across contexts.
+ */
+public final class CompiledStringCache {
+
+    private final LinkedHashMap<Key, CallTarget> entries;
+    private final int capacity;
+
+    public CompiledStringCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, CallTarget>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CallTarget> eldest) {
+                return size() > CompiledStringCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached call target for the given code or creates and caches a new one. The call
+     * target is created outside of the lock, so concurrent misses for the same code may both parse
+     * it, but only the first result is kept.
+     */
+    @TruffleBoundary
+    public CallTarget getOrCreate(String code, String filename, ParserMode mode, Supplier<CallTarget> createCode) {
+        if (capacity <= 0) {
+            return createCode.get();
+        }
+        Key key = new Key(code, filename, mode);
+        CallTarget cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            return cached;
+        }
+        CallTarget created = createCode.get();
+        synchronized (entries) {
+            cached = entries.putIfAbsent(key, created);
+        }
+        return cached != null ? cached : created;
+    }
+
+    private static final class Key {
+        private final String code;
+        private final String filename;
+        private final ParserMode mode;
+        private final int hash;
+
+        Key(String code, String filename, ParserMode mode) {
+            this.code = code;
+            this.filename = filename;
+            this.mode = mode;
+            this.hash = Objects.hash(code, filename, mode);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash && mode == other.mode && filename.equals(other.filename) && code.equals(other.code);
+        }
+    }
+}
@@ -38,6 +38,7 @@ import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.lang.ref.WeakReference;
 import java.nio.file.LinkOption;
+import java.security.SecureRandom;
 import java.text.MessageFormat;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -70,10 +71,12 @@ import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObjectLibrary;
 import com.oracle.graal.python.builtins.objects.str.PString;
 import com.oracle.graal.python.builtins.objects.thread.PLock;
+import com.oracle.graal.python.builtins.objects.type.TypeAttributeCache;
 import com.oracle.graal.python.nodes.SpecialAttributeNames;
 import com.oracle.graal.python.nodes.SpecialMethodNames;
 import com.oracle.graal.python.nodes.attributes.ReadAttributeFromObjectNode;
 import com.oracle.graal.python.nodes.call.CallNode;
+import com.oracle.graal.python.nodes.instrumentation.TraceHookInstrument;
 import com.oracle.graal.python.runtime.AsyncHandler.AsyncAction;
 import com.oracle.graal.python.runtime.exception.ExceptionUtils;
 import com.oracle.graal.python.runtime.exception.PException;
@@ -122,6 +125,13 @@ public final class PythonContext {
         /* corresponds to 'PyThreadState.exc_*' */
         PException caughtException;
 
+        /* corresponds to 'PyThreadState.c_tracefunc' and 'PyThreadState.c_profilefunc' */
+        Object traceFunction;
+        Object profileFunction;
+
+        /* corresponds to 'PyThreadState.tracing' */
+        boolean tracing;
+
         PythonThreadState() {
             owners = new LinkedList<>();
         }
@@ -213,9 +223,18 @@ public final class PythonContext {
     /** The thread-local state object. */
     private ThreadLocal<PThreadState> customThreadState;
 
+    /* the engine-wide instrument implementing 'sys.settrace' and 'sys.setprofile' */
+    private TraceHookInstrument.Hooks traceHooks;
+
     /** Native wrappers for context-insensitive singletons like {@link PNone#NONE}. */
     @CompilationFinal(dimensions = 1) private final PythonNativeWrapper[] singletonNativePtrs = new PythonNativeWrapper[PythonLanguage.getNumberOfSpecialSingletons()];
 
+    /** Cache for attribute lookups in the MRO at megamorphic call sites. */
+    private final TypeAttributeCache typeAttributeCache = new TypeAttributeCache();
+
+    /* the source of seeds for 'random.Random' instances seeded without an explicit seed */
+    private SecureRandom secureRandom;
+
     // The context-local resources
     private final PosixResources resources;
     private final AsyncHandler handler;
@@ -321,6 +340,18 @@ public final class PythonContext {
         return core;
     }
 
+    public TypeAttributeCache getTypeAttributeCache() {
+        return typeAttributeCache;
+    }
+
+    @TruffleBoundary
+    public synchronized SecureRandom getSecureRandom() {
+        if (secureRandom == null) {
+            secureRandom = new SecureRandom();
+        }
+        return secureRandom;
+    }
+
     public InputStream getStandardIn() {
         return in;
     }
@@ -349,6 +380,77 @@ public final class PythonContext {
         return getThreadState().caughtException;
     }
 
+    public Object getTraceFunction() {
+        return getThreadState().traceFunction;
+    }
+
+    /**
+     * Sets the {@code sys.settrace} hook of the current thread ({@code null} to remove it).
+     */
+    @TruffleBoundary
+    public void setTraceFunction(Object function) {
+        PythonThreadState ts = getThreadState();
+        Object old = ts.traceFunction;
+        ts.traceFunction = function;
+        if ((old == null) != (function == null)) {
+            getTraceHooks().traceHookChanged(function != null);
+        }
+    }
+
+    public Object getProfileFunction() {
+        return getThreadState().profileFunction;
+    }
+
+    /**
+     * Sets the {@code sys.setprofile} hook of the current thread ({@code null} to remove it).
+     */
+    @TruffleBoundary
+    public void setProfileFunction(Object function) {
+        PythonThreadState ts = getThreadState();
+        Object old = ts.profileFunction;
+        ts.profileFunction = function;
+        if ((old == null) != (function == null)) {
+            getTraceHooks().profileHookChanged(function != null);
+        }
+    }
+
+    /**
+     * Returns {@code true} while a trace or profile hook of the current thread is running.
+     */
+    public boolean isTracing() {
+        return getThreadState().tracing;
+    }
+
+    public void setTracing(boolean tracing) {
+        getThreadState().tracing = tracing;
+    }
+
+    @TruffleBoundary
+    public TraceHookInstrument.Hooks getTraceHooks() {
+        if (traceHooks == null) {
+            traceHooks = env.lookup(env.getInstruments().get(TraceHookInstrument.ID), TraceHookInstrument.Hooks.class);
+        }
+        return traceHooks;
+    }
+
+    /**
+     * Removes the trace and profile hooks of all threads, e.g., when the context is finalized.
+     */
+    public void releaseTraceHooks() {
+        applyToAllThreadStates(this::releaseTraceHooks);
+    }
+
+    private void releaseTraceHooks(PythonThreadState ts) {
+        if (ts.traceFunction != null) {
+            ts.traceFunction = null;
+            getTraceHooks().traceHookChanged(false);
+        }
+        if (ts.profileFunction != null) {
+            ts.profileFunction = null;
+            getTraceHooks().profileHookChanged(false);
+        }
+    }
+
     public void setTopFrameInfo(PFrame.Reference topframeref) {
         getThreadState().topframeref = topframeref;
     }
@@ -948,6 +1050,7 @@ public final class PythonContext {
             // only release sentinel lock if all owners are gone
             if (!singleThreadState.hasOwners()) {
                 releaseSentinelLock(singleThreadState.sentinelLock);
+                releaseTraceHooks(singleThreadState);
             }
         } else {
             PythonThreadState ts = threadStateMapping.get(threadId);
@@ -956,6 +1059,7 @@ public final class PythonContext {
             threadStateMapping.remove(threadId);
             if (!ts.hasOwners()) {
                 releaseSentinelLock(ts.sentinelLock);
+                releaseTraceHooks(ts);
             }
         }
     }
@@ -138,6 +138,12 @@ public final class PythonOptions {
     @Option(category = OptionCategory.EXPERT, help = "Prints parser time statistics after number of parsed files, set by this option. 0 or <0 means no statistics are printed.") //
     public static final OptionKey<Integer> ParserStatistics = new OptionKey<>(0);
 
+    @EngineOption @Option(category = OptionCategory.EXPERT, help = "Parse using ANTLR's faster SLL prediction first and only fall back to full LL prediction if that fails. Default true.") //
+    public static final OptionKey<Boolean> ParserSLLPrediction = new OptionKey<>(true);
+
+    @Option(category = OptionCategory.EXPERT, help = "Parse the modules imported at the top level of a module on background threads while the module is loaded. Default false.") //
+    public static final OptionKey<Boolean> ImportPrefetch = new OptionKey<>(false);
+
     @EngineOption @Option(category = OptionCategory.EXPERT, help = "") //
     public static final OptionKey<Integer> AttributeAccessInlineCacheMaxDepth = new OptionKey<>(5);
 
@@ -203,6 +209,13 @@ public final class PythonOptions {
     @Option(category = OptionCategory.EXPERT, help = "Propagate append operations to lists created as literals back to where they were created, to inform overallocation to avoid having to grow them later.") //
     public static final OptionKey<Boolean> OverallocateLiteralLists = new OptionKey<>(true);
 
+    @EngineOption @Option(category = OptionCategory.EXPERT, help = "Experimental, off by default. Translate the bodies of functions defined in files on their first call instead of when the module is loaded. " +
+                    "Syntax errors detected during translation of a body are then only reported on its first call, unlike in CPython.") //
+    public static final OptionKey<Boolean> LazyFunctionBodies = new OptionKey<>(false);
+
+    @EngineOption @Option(category = OptionCategory.EXPERT, help = "Maximum number of code objects compiled from strings by compile(), exec() and eval() that are cached for reuse. 0 disables the cache. Default 256.") //
+    public static final OptionKey<Integer> CompiledStringCacheSize = new OptionKey<>(256);
+
     @EngineOption @Option(category = OptionCategory.USER, help = "Emulate some Jython features that can cause performance degradation") //
     public static final OptionKey<Boolean> EmulateJython = new OptionKey<>(false);
 
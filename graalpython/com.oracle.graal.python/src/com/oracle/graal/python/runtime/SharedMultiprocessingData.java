@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.runtime;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleContext;
+
+/**
+ * In-memory channels that connect the contexts of one engine. They are used by the
+ * {@code 'graalpy-context'} start method of {@code multiprocessing}, which runs each child process
+ * in a separate context on a thread of this process.
+ *
+ * Like file descriptors, the ends of a channel are identified by integer handles that can be passed
+ * on to other contexts. The handles are negative, so they never clash with the file descriptors of
+ * {@link PosixResources}, and they are never reused. A channel transports whole messages, usually
+ * pickled objects, so there is no framing and no copying through the OS. A channel reaches EOF
+ * once all of its write ends are closed.
+ *
+ * Each handle is owned by a context, usually the one that created it. Like the file descriptors of
+ * an exiting process, the handles a context still owns are closed when it exits (see
+ * {@link #closeOwnedBy}), so that, e.g., the parent of a crashed child sees EOF instead of waiting
+ * forever. Handles passed to a spawned context are transferred to it.
+ *
+ * The exit of a spawned context is signaled through a sentinel, i.e., the read end of a channel
+ * whose only writer is the thread running that context. The sentinel also keeps the inner context
+ * until its parent closes it.
+ */
+public final class SharedMultiprocessingData {
+    /**
+     * Returned by {@link #read} if all write ends of the channel are closed.
+     */
+    public static final byte[] EOF = new byte[0];
+
+    /* exit code of a terminated context, as if the process was killed by SIGTERM */
+    private static final int TERMINATED_EXIT_CODE = -15;
+
+    private static final class Channel {
+        final ArrayDeque<byte[]> messages = new ArrayDeque<>();
+        int writers = 1;
+
+        /* only set for the sentinels of spawned contexts */
+        final Thread thread;
+        TruffleContext context;
+        boolean terminated;
+        int exitCode;
+
+        Channel(Thread thread, TruffleContext context) {
+            this.thread = thread;
+            this.context = context;
+        }
+
+        boolean isReadable() {
+            return !messages.isEmpty() || writers == 0;
+        }
+    }
+
+    private static final class End {
+        final Channel channel;
+        final boolean write;
+        Object owner;
+
+        End(Channel channel, boolean write, Object owner) {
+            this.channel = channel;
+            this.write = write;
+            this.owner = owner;
+        }
+    }
+
+    private final Map<Integer, End> ends = new HashMap<>();
+    private int lastHandle = 0;
+
+    private int addEnd(Channel channel, boolean write, Object owner) {
+        int handle = --lastHandle;
+        ends.put(handle, new End(channel, write, owner));
+        return handle;
+    }
+
+    private End getEnd(int handle) throws IndexOutOfBoundsException {
+        End end = ends.get(handle);
+        if (end == null) {
+            throw new IndexOutOfBoundsException();
+        }
+        return end;
+    }
+
+    private End getReadEnd(int handle) throws IndexOutOfBoundsException {
+        End end = getEnd(handle);
+        if (end.write) {
+            throw new IndexOutOfBoundsException();
+        }
+        return end;
+    }
+
+    /**
+     * Creates a new channel owned by {@code owner} and returns the handles of its read and write
+     * end.
+     */
+    @TruffleBoundary
+    public synchronized int[] pipe(Object owner) {
+        Channel channel = new Channel(null, null);
+        return new int[]{addEnd(channel, false, owner), addEnd(channel, true, owner)};
+    }
+
+    @TruffleBoundary
+    public synchronized int dup(int handle, Object owner) throws IndexOutOfBoundsException {
+        End end = getEnd(handle);
+        if (end.write) {
+            end.channel.writers++;
+        }
+        return addEnd(end.channel, end.write, owner);
+    }
+
+    /**
+     * Makes {@code owner} the owner of the handle, e.g., when it is passed to another context.
+     */
+    @TruffleBoundary
+    public synchronized void transfer(int handle, Object owner) throws IndexOutOfBoundsException {
+        getEnd(handle).owner = owner;
+    }
+
+    @TruffleBoundary
+    public synchronized void close(int handle) throws IndexOutOfBoundsException {
+        End end = ends.remove(handle);
+        if (end == null) {
+            throw new IndexOutOfBoundsException();
+        }
+        closeEnd(end);
+    }
+
+    /**
+     * Closes all handles still owned by {@code owner}, like the OS closes the file descriptors of
+     * an exiting process.
+     */
+    @TruffleBoundary
+    public synchronized void closeOwnedBy(Object owner) {
+        List<Integer> owned = new ArrayList<>();
+        for (Map.Entry<Integer, End> entry : ends.entrySet()) {
+            if (entry.getValue().owner == owner) {
+                owned.add(entry.getKey());
+            }
+        }
+        for (Integer handle : owned) {
+            closeEnd(ends.remove(handle));
+        }
+    }
+
+    private void closeEnd(End end) {
+        if (end.write && --end.channel.writers == 0) {
+            notifyAll();
+        }
+    }
+
+    @TruffleBoundary
+    public synchronized void write(int handle, byte[] message) throws IndexOutOfBoundsException {
+        End end = getEnd(handle);
+        if (!end.write) {
+            throw new IndexOutOfBoundsException();
+        }
+        // the sender may still modify its buffer
+        end.channel.messages.add(Arrays.copyOf(message, message.length));
+        notifyAll();
+    }
+
+    /**
+     * Takes the next message from the channel, waiting at most {@code timeoutNanos} nanoseconds
+     * for it to arrive. Returns {@code null} if there was none in time and {@link #EOF} if all write
+     * ends are closed.
+     */
+    @TruffleBoundary
+    public synchronized byte[] read(int handle, long timeoutNanos) throws IndexOutOfBoundsException, InterruptedException {
+        Channel channel = getReadEnd(handle).channel;
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (true) {
+            byte[] message = channel.messages.poll();
+            if (message != null) {
+                return message;
+            } else if (channel.writers == 0) {
+                return EOF;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+    }
+
+    /**
+     * Waits at most {@code timeoutNanos} nanoseconds until any of the given read ends has a message
+     * or reached EOF, and returns those that did. Sentinels become ready when their context exits.
+     */
+    @TruffleBoundary
+    public synchronized int[] select(int[] handles, long timeoutNanos) throws IndexOutOfBoundsException, InterruptedException {
+        Channel[] channels = new Channel[handles.length];
+        for (int i = 0; i < handles.length; i++) {
+            channels[i] = getReadEnd(handles[i]).channel;
+        }
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (true) {
+            int[] ready = new int[handles.length];
+            int n = 0;
+            for (int i = 0; i < handles.length; i++) {
+                if (channels[i].isReadable()) {
+                    ready[n++] = handles[i];
+                }
+            }
+            long remaining = deadline - System.nanoTime();
+            if (n > 0 || remaining <= 0) {
+                return Arrays.copyOf(ready, n);
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+    }
+
+    /**
+     * Creates the sentinel, owned by {@code owner}, for the inner {@code context} that will be run
+     * by {@code thread}.
+     */
+    @TruffleBoundary
+    public synchronized int newSentinel(Thread thread, TruffleContext context, Object owner) {
+        return addEnd(new Channel(thread, context), false, owner);
+    }
+
+    /**
+     * Marks the context of the sentinel as exited. The sentinel may already be closed if the parent
+     * lost interest in the child.
+     */
+    @TruffleBoundary
+    public synchronized void exited(int sentinel, int exitCode) {
+        End end = ends.get(sentinel);
+        if (end != null) {
+            Channel channel = end.channel;
+            channel.exitCode = channel.terminated ? TERMINATED_EXIT_CODE : exitCode;
+            channel.writers = 0;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Returns the exit code of the context of the sentinel or {@code null} if it is still running.
+     */
+    @TruffleBoundary
+    public synchronized Integer getExitCode(int sentinel) throws IndexOutOfBoundsException {
+        Channel channel = getSentinel(sentinel);
+        return channel.writers == 0 ? channel.exitCode : null;
+    }
+
+    /**
+     * Asks the context of the sentinel to terminate by interrupting its thread. Blocking operations
+     * of the context are interrupted, but running Python code is not stopped.
+     */
+    @TruffleBoundary
+    public synchronized void terminate(int sentinel) throws IndexOutOfBoundsException {
+        Channel channel = getSentinel(sentinel);
+        if (channel.writers > 0) {
+            channel.terminated = true;
+            channel.thread.interrupt();
+        }
+    }
+
+    /**
+     * Returns the inner context of the sentinel if it exited and was not taken before, or
+     * {@code null}. The caller is responsible for closing it, see {@link #returnExitedContext}.
+     */
+    @TruffleBoundary
+    public synchronized TruffleContext takeExitedContext(int sentinel) throws IndexOutOfBoundsException {
+        Channel channel = getSentinel(sentinel);
+        TruffleContext context = null;
+        if (channel.writers == 0) {
+            context = channel.context;
+            channel.context = null;
+        }
+        return context;
+    }
+
+    /**
+     * Gives back a context obtained from {@link #takeExitedContext} that could not be closed yet.
+     */
+    @TruffleBoundary
+    public synchronized void returnExitedContext(int sentinel, TruffleContext context) {
+        End end = ends.get(sentinel);
+        if (end != null) {
+            end.channel.context = context;
+        }
+    }
+
+    /**
+     * Returns the thread that runs the context of the sentinel.
+     */
+    @TruffleBoundary
+    public synchronized Thread getThread(int sentinel) throws IndexOutOfBoundsException {
+        return getSentinel(sentinel).thread;
+    }
+
+    private Channel getSentinel(int sentinel) throws IndexOutOfBoundsException {
+        Channel channel = getReadEnd(sentinel).channel;
+        if (channel.thread == null) {
+            throw new IndexOutOfBoundsException();
+        }
+        return channel;
+    }
+}
@@ -16,6 +16,7 @@ import static com.oracle.graal.python.runtime.exception.PythonErrorType.TypeErro
 import static com.oracle.graal.python.runtime.exception.PythonErrorType.ValueError;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
 
 import com.oracle.graal.python.builtins.PythonBuiltinClassType;
 import com.oracle.graal.python.builtins.objects.PNone;
@@ -36,36 +37,294 @@ import com.oracle.graal.python.runtime.PythonCore;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.util.BiFunction;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.ControlFlowException;
 
 public class StringFormatter {
-    int index;
-    String formatText;
-    StringBuilder buffer;
     int argIndex;
     Object args;
     private final PythonCore core;
+    private final Plan plan;
 
-    final char pop() {
-        try {
-            return formatText.charAt(index++);
-        } catch (StringIndexOutOfBoundsException e) {
-            throw core.raise(ValueError, ErrorMessages.INCOMPLETE_FORMAT);
+    /**
+     * A format string compiled to a sequence of segments, which are either literal text
+     * ({@link String}) or conversion specifiers ({@link Conversion}). Plans are immutable, so the
+     * plan for a constant format string can be cached, e.g., at the call site of the formatting
+     * operation.
+     */
+    public static final class Plan {
+        private final int length;
+        private final Object[] segments;
+
+        private Plan(int length, Object[] segments) {
+            this.length = length;
+            this.segments = segments;
         }
     }
 
-    final char peek() {
-        return formatText.charAt(index);
-    }
+    /**
+     * A parsed conversion specifier. If the width or precision is given as '*', it is read from
+     * the arguments while formatting, so the {@link InternalFormat.Spec} can only be precomputed
+     * if neither is. A malformed specifier is the last segment of a plan and carries the error,
+     * which is raised after reading the arguments the specifier consumes, in the same order as if
+     * the format string was parsed while formatting.
+     */
+    static final class Conversion {
+        private boolean hasMappingKey;
+        private String mappingKey;
+        private boolean altFlag;
+        private char sign = InternalFormat.Spec.NONE;
+        private char fill = ' ';
+        private char align = '>';
+        private boolean widthFromArg;
+        private int width;
+        private boolean precisionFromArg;
+        private int precision = InternalFormat.Spec.UNSPECIFIED;
+        private char type;
+        private InternalFormat.Spec spec;
+        private String errorMessage;
+        private Object[] errorArgs;
+
+        private void setError(String message, Object... arguments) {
+            this.errorMessage = message;
+            this.errorArgs = arguments;
+        }
 
-    final void push() {
-        index--;
+        /**
+         * Encode as an InternalFormat.Spec. As a function of the conversion type override some of
+         * the formatting flags read from the format specification. The values in the constructor
+         * always have specified values, except for sign, width and precision.
+         */
+        private InternalFormat.Spec createSpec(int actualWidth, char actualAlign, int actualPrecision) {
+            char actualFill = fill;
+            char usedAlign = actualAlign;
+            switch (type) {
+                case 's':
+                case 'r':
+                case 'c':
+                case '%':
+                    // These have string-like results: fill, if needed, is always blank.
+                    actualFill = ' ';
+                    break;
+
+                default:
+                    if (actualFill == '0' && usedAlign == '>') {
+                        // Zero-fill comes after the sign in right-justification.
+                        usedAlign = '=';
+                    } else {
+                        // If left-justifying, the fill is always blank.
+                        actualFill = ' ';
+                    }
+            }
+            return new InternalFormat.Spec(actualFill, usedAlign, sign, altFlag, actualWidth, false, actualPrecision, type);
+        }
     }
 
     public StringFormatter(PythonCore core, String format) {
+        this(core, compile(format));
+    }
+
+    public StringFormatter(PythonCore core, Plan plan) {
         this.core = core;
-        index = 0;
-        this.formatText = format;
-        buffer = new StringBuilder(format.length() + 100);
+        this.plan = plan;
+    }
+
+    /**
+     * Compiles the given format string to a {@link Plan}. This never raises, errors in the format
+     * string are raised when the plan is used for formatting.
+     */
+    @TruffleBoundary
+    public static Plan compile(String format) {
+        return new PlanParser(format).parse();
+    }
+
+    private static final class PlanParser {
+        private final String formatText;
+        private int index;
+
+        PlanParser(String formatText) {
+            this.formatText = formatText;
+        }
+
+        private char pop() {
+            if (index >= formatText.length()) {
+                throw IncompleteFormatException.INSTANCE;
+            }
+            return formatText.charAt(index++);
+        }
+
+        private void push() {
+            index--;
+        }
+
+        Plan parse() {
+            ArrayList<Object> segments = new ArrayList<>();
+            int literalStart = 0;
+            while (index < formatText.length()) {
+                int percent = formatText.indexOf('%', index);
+                if (percent < 0) {
+                    break;
+                }
+                if (percent > literalStart) {
+                    segments.add(formatText.substring(literalStart, percent));
+                }
+                index = percent + 1;
+                Conversion conversion = parseConversion();
+                segments.add(conversion);
+                if (conversion.errorMessage != null) {
+                    // formatting will always fail at this point
+                    return new Plan(formatText.length(), segments.toArray());
+                }
+                literalStart = index;
+            }
+            if (literalStart < formatText.length()) {
+                segments.add(formatText.substring(literalStart));
+            }
+            return new Plan(formatText.length(), segments.toArray());
+        }
+
+        private Conversion parseConversion() {
+            Conversion conversion = new Conversion();
+            try {
+                // A conversion specifier contains the following components, in this order:
+                // + The '%' character, which marks the start of the specifier.
+                // + Mapping key (optional), consisting of a parenthesised sequence of characters.
+                // + Conversion flags (optional), which affect the result of some conversion types.
+                // + Minimum field width (optional), or an '*' (asterisk).
+                // + Precision (optional), given as a '.' (dot) followed by the precision or '*'.
+                // + Length modifier (optional).
+                // + Conversion type.
+
+                char c = pop();
+                if (c == '(') {
+                    // Mapping key, consisting of a parenthesised sequence of characters.
+                    conversion.hasMappingKey = true;
+                    // Scan along until a matching close parenthesis is found
+                    int parens = 1;
+                    int keyStart = index;
+                    while (parens > 0) {
+                        c = pop();
+                        if (c == ')') {
+                            parens--;
+                        } else if (c == '(') {
+                            parens++;
+                        }
+                    }
+                    // Last c=pop() is the closing ')' while indexKey is just after the opening '('
+                    conversion.mappingKey = formatText.substring(keyStart, index - 1);
+                } else {
+                    // Not a mapping key: next clause will re-read c.
+                    push();
+                }
+
+                // Conversion flags (optional) that affect the result of some conversion types.
+                while (true) {
+                    switch (c = pop()) {
+                        case '-':
+                            conversion.align = '<';
+                            continue;
+                        case '+':
+                            conversion.sign = '+';
+                            continue;
+                        case ' ':
+                            if (!InternalFormat.Spec.specified(conversion.sign)) {
+                                // Blank sign only wins if '+' not specified.
+                                conversion.sign = ' ';
+                            }
+                            continue;
+                        case '#':
+                            conversion.altFlag = true;
+                            continue;
+                        case '0':
+                            conversion.fill = '0';
+                            continue;
+                    }
+                    break;
+                }
+
+                /*
+                 * Minimum field width (optional). If specified as an '*' (asterisk), the actual
+                 * width is read from the next element of the tuple in values, and the object to
+                 * convert comes after the minimum field width and optional precision.
+                 */
+                if (c == '*') {
+                    conversion.widthFromArg = true;
+                } else {
+                    push();
+                    conversion.width = parseNumber();
+                }
+
+                /*
+                 * Precision (optional), given as a '.' (dot) followed by the precision. If
+                 * specified as '*' (an asterisk), the actual precision is read from the next
+                 * element of the tuple in values, and the value to convert comes after the
+                 * precision.
+                 */
+                c = pop();
+                if (c == '.') {
+                    if (pop() == '*') {
+                        conversion.precisionFromArg = true;
+                    } else {
+                        push();
+                        conversion.precision = parseNumber();
+                    }
+                    c = pop();
+                }
+
+                // Length modifier (optional). (Compatibility feature?) It has no effect.
+                if (c == 'h' || c == 'l' || c == 'L') {
+                    c = pop();
+                }
+
+                conversion.type = c;
+                switch (c) {
+                    case 'b':
+                    case 's':
+                    case 'r':
+                    case 'd':
+                    case 'o':
+                    case 'x':
+                    case 'X':
+                    case 'c':
+                    case 'u':
+                    case 'i':
+                    case 'e':
+                    case 'E':
+                    case 'f':
+                    case 'F':
+                    case 'g':
+                    case 'G':
+                    case '%':
+                        break;
+                    default:
+                        conversion.setError(ErrorMessages.UNSUPPORTED_FORMAT_CHAR_AT_INDEX, c, (int) c, index - 1);
+                }
+            } catch (IncompleteFormatException e) {
+                conversion.setError(ErrorMessages.INCOMPLETE_FORMAT);
+            }
+            if (!conversion.widthFromArg && !conversion.precisionFromArg && conversion.errorMessage == null) {
+                conversion.spec = conversion.createSpec(conversion.width, conversion.align, conversion.precision);
+            }
+            return conversion;
+        }
+
+        private int parseNumber() {
+            char c = pop();
+            if (Character.isDigit(c)) {
+                int numStart = index - 1;
+                while (Character.isDigit(pop())) {
+                    // empty
+                }
+                push();
+                return Integer.parseInt(formatText.substring(numStart, index));
+            }
+            push();
+            return 0;
+        }
+    }
+
+    private static final class IncompleteFormatException extends ControlFlowException {
+        private static final long serialVersionUID = 1L;
+        static final IncompleteFormatException INSTANCE = new IncompleteFormatException();
     }
 
     Object getarg(TupleBuiltins.GetItemNode getTupleItemNode) {
@@ -97,34 +356,19 @@ public class StringFormatter {
     }
 
     int getNumber(TupleBuiltins.GetItemNode getTupleItemNode) {
-        char c = pop();
-        if (c == '*') {
-            Object o = getarg(getTupleItemNode);
-            if (o instanceof Long) {
-                return ((Long) o).intValue();
-            } else if (o instanceof Integer) {
-                return (int) o;
-            } else if (o instanceof PInt) {
-                return ((PInt) o).intValue();
-            } else if (o instanceof Double) {
-                return ((Double) o).intValue();
-            } else if (o instanceof PFloat) {
-                return (int) ((PFloat) o).getValue();
-            }
-            throw core.raise(TypeError, ErrorMessages.STAR_WANTS_INT);
-        } else {
-            if (Character.isDigit(c)) {
-                int numStart = index - 1;
-                while (Character.isDigit(c = pop())) {
-                    // empty
-                }
-                index -= 1;
-                Integer i = Integer.valueOf(formatText.substring(numStart, index));
-                return i.intValue();
-            }
-            index -= 1;
-            return 0;
+        Object o = getarg(getTupleItemNode);
+        if (o instanceof Long) {
+            return ((Long) o).intValue();
+        } else if (o instanceof Integer) {
+            return (int) o;
+        } else if (o instanceof PInt) {
+            return ((PInt) o).intValue();
+        } else if (o instanceof Double) {
+            return ((Double) o).intValue();
+        } else if (o instanceof PFloat) {
+            return (int) ((PFloat) o).getValue();
         }
+        throw core.raise(TypeError, ErrorMessages.STAR_WANTS_INT);
     }
 
     private static Object asNumber(Object arg, CallNode callNode, BiFunction<Object, String, Object> lookupAttribute) {
@@ -193,154 +437,53 @@ public class StringFormatter {
             }
         }
 
-        while (index < formatText.length()) {
-            // Read one character from the format string
-            char c = pop();
-            if (c != '%') {
-                buffer.append(c);
+        StringBuilder buffer = new StringBuilder(plan.length + 100);
+        for (Object segment : plan.segments) {
+            if (segment instanceof String) {
+                buffer.append((String) segment);
                 continue;
             }
-
-            // It's a %, so the beginning of a conversion specifier. Parse it.
-
-            // Attributes to be parsed from the next format specifier
-            boolean altFlag = false;
-            char sign = InternalFormat.Spec.NONE;
-            char fill = ' ';
-            char align = '>';
-            int width = InternalFormat.Spec.UNSPECIFIED;
-            int precision = InternalFormat.Spec.UNSPECIFIED;
-
-            // A conversion specifier contains the following components, in this order:
-            // + The '%' character, which marks the start of the specifier.
-            // + Mapping key (optional), consisting of a parenthesised sequence of characters.
-            // + Conversion flags (optional), which affect the result of some conversion types.
-            // + Minimum field width (optional), or an '*' (asterisk).
-            // + Precision (optional), given as a '.' (dot) followed by the precision or '*'.
-            // + Length modifier (optional).
-            // + Conversion type.
-
-            c = pop();
-            if (c == '(') {
-                // Mapping key, consisting of a parenthesised sequence of characters.
+            Conversion conversion = (Conversion) segment;
+            if (conversion.hasMappingKey) {
                 if (mapping == null) {
                     throw core.raise(TypeError, ErrorMessages.FORMAT_REQUIRES_MAPPING);
                 }
-                // Scan along until a matching close parenthesis is found
-                int parens = 1;
-                int keyStart = index;
-                while (parens > 0) {
-                    c = pop();
-                    if (c == ')') {
-                        parens--;
-                    } else if (c == '(') {
-                        parens++;
-                    }
+                if (conversion.mappingKey != null) {
+                    // Look it up using this extent as the (right type of) key. The caller must
+                    // have pushed the frame.
+                    this.args = getItemNode.executeObject(null, mapping, conversion.mappingKey);
                 }
-                // Last c=pop() is the closing ')' while indexKey is just after the opening '('
-                String tmp = formatText.substring(keyStart, index - 1);
-                // Look it up using this extent as the (right type of) key. The caller must have
-                // pushed the frame.
-                this.args = getItemNode.executeObject(null, mapping, tmp);
-            } else {
-                // Not a mapping key: next clause will re-read c.
-                push();
             }
 
-            // Conversion flags (optional) that affect the result of some conversion types.
-            while (true) {
-                switch (c = pop()) {
-                    case '-':
+            InternalFormat.Spec spec = conversion.spec;
+            if (spec == null) {
+                /*
+                 * The width or precision were specified via the argument list (or the specifier
+                 * is malformed). It is important we don't read the argument to convert from the
+                 * list until these were read.
+                 */
+                int width = conversion.width;
+                char align = conversion.align;
+                if (conversion.widthFromArg) {
+                    width = getNumber(getTupleItemNode);
+                    if (width < 0) {
+                        width = -width;
                         align = '<';
-                        continue;
-                    case '+':
-                        sign = '+';
-                        continue;
-                    case ' ':
-                        if (!InternalFormat.Spec.specified(sign)) {
-                            // Blank sign only wins if '+' not specified.
-                            sign = ' ';
-                        }
-                        continue;
-                    case '#':
-                        altFlag = true;
-                        continue;
-                    case '0':
-                        fill = '0';
-                        continue;
-                }
-                break;
-            }
-            // Push back c as next clause will re-read c.
-            push();
-
-            /*
-             * Minimum field width (optional). If specified as an '*' (asterisk), the actual width
-             * is read from the next element of the tuple in values, and the object to convert comes
-             * after the minimum field width and optional precision. A custom getNumber() takes care
-             * of the '*' case.
-             */
-            width = getNumber(getTupleItemNode);
-            if (width < 0) {
-                width = -width;
-                align = '<';
-            }
-
-            /*
-             * Precision (optional), given as a '.' (dot) followed by the precision. If specified as
-             * '*' (an asterisk), the actual precision is read from the next element of the tuple in
-             * values, and the value to convert comes after the precision. A custom getNumber()
-             * takes care of the '*' case.
-             */
-            c = pop();
-            if (c == '.') {
-                precision = getNumber(getTupleItemNode);
-                if (precision < -1) {
-                    precision = 0;
+                    }
                 }
-                c = pop();
-            }
-
-            // Length modifier (optional). (Compatibility feature?) It has no effect.
-            if (c == 'h' || c == 'l' || c == 'L') {
-                c = pop();
-            }
-
-            /*
-             * As a function of the conversion type (currently in c) override some of the formatting
-             * flags we read from the format specification.
-             */
-            switch (c) {
-                case 's':
-                case 'r':
-                case 'c':
-                case '%':
-                    // These have string-like results: fill, if needed, is always blank.
-                    fill = ' ';
-                    break;
-
-                default:
-                    if (fill == '0' && align == '>') {
-                        // Zero-fill comes after the sign in right-justification.
-                        align = '=';
-                    } else {
-                        // If left-justifying, the fill is always blank.
-                        fill = ' ';
+                int precision = conversion.precision;
+                if (conversion.precisionFromArg) {
+                    precision = getNumber(getTupleItemNode);
+                    if (precision < -1) {
+                        precision = 0;
                     }
+                }
+                if (conversion.errorMessage != null) {
+                    throw core.raise(ValueError, conversion.errorMessage, conversion.errorArgs);
+                }
+                spec = conversion.createSpec(width, align, precision);
             }
 
-            /*
-             * Encode as an InternalFormat.Spec. The values in the constructor always have specified
-             * values, except for sign, width and precision.
-             */
-            InternalFormat.Spec spec = new InternalFormat.Spec(fill, align, sign, altFlag, width, false, precision, c);
-
-            /*
-             * Process argument according to format specification decoded from the string. It is
-             * important we don't read the argument from the list until this point because of the
-             * possibility that width and precision were specified via the argument list.
-             */
-
             // Depending on the type of conversion, we use one of these formatters:
             FloatFormatter ff;
             IntegerFormatter fi;
@@ -451,7 +594,7 @@ public class StringFormatter {
                     break;
 
                 default:
-                    throw core.raise(ValueError, ErrorMessages.UNSUPPORTED_FORMAT_CHAR_AT_INDEX, spec.type, (int) spec.type, index - 1);
+                    throw new IllegalStateException("unexpected conversion type");
             }
 
             // Pad the result as specified (in-place, in the buffer).
@@ -32,6 +32,8 @@ import java.nio.channels.SeekableByteChannel;
 import java.nio.file.DirectoryStream;
 import java.util.concurrent.Semaphore;
 
+import com.oracle.graal.python.builtins.objects.bz2.PBZ2Compressor;
+import com.oracle.graal.python.builtins.objects.bz2.PBZ2Decompressor;
 import org.graalvm.collections.EconomicMap;
 import org.tukaani.xz.FinishableOutputStream;
 
@@ -99,6 +101,7 @@ import com.oracle.graal.python.builtins.objects.module.PythonModule;
 import com.oracle.graal.python.builtins.objects.object.PythonObject;
 import com.oracle.graal.python.builtins.objects.posix.PDirEntry;
 import com.oracle.graal.python.builtins.objects.posix.PScandirIterator;
+import com.oracle.graal.python.builtins.objects.queue.PSimpleQueue;
 import com.oracle.graal.python.builtins.objects.random.PRandom;
 import com.oracle.graal.python.builtins.objects.range.PRange;
 import com.oracle.graal.python.builtins.objects.referencetype.PReferenceType;
@@ -257,11 +260,18 @@ public abstract class PythonObjectFactory extends Node {
      * Primitive types
      */
     public PInt createInt(int value) {
-        return createInt(PInt.longToBigInteger(value));
+        return createInt(value >> 31, value);
     }
 
     public PInt createInt(long value) {
-        return createInt(PInt.longToBigInteger(value));
+        return createInt(value >> 63, value);
+    }
+
+    /**
+     * Creates an int from the two's complement 128-bit value {@code (high << 64) | low}.
+     */
+    public PInt createInt(long high, long low) {
+        return createInt(PythonBuiltinClassType.PInt, high, low);
     }
 
     public PInt createInt(BigInteger value) {
@@ -280,6 +290,10 @@ public abstract class PythonObjectFactory extends Node {
         return trace(new PInt(cls, makeStorage(cls), value));
     }
 
+    public PInt createInt(Object cls, long high, long low) {
+        return trace(new PInt(cls, makeStorage(cls), high, low));
+    }
+
     public PFloat createFloat(double value) {
         return createFloat(PythonBuiltinClassType.PFloat, value);
     }
@@ -916,4 +930,16 @@ public abstract class PythonObjectFactory extends Node {
     public PLZMADecompressor createLZMADecompressor(Object clazz, int format, int memlimit) {
         return trace(new PLZMADecompressor(clazz, makeStorage(clazz), format, memlimit));
     }
+
+    public PBZ2Compressor createBZ2Compressor(Object clazz, int compresslevel) {
+        return trace(new PBZ2Compressor(clazz, makeStorage(clazz), compresslevel));
+    }
+
+    public PBZ2Decompressor createBZ2Decompressor(Object clazz) {
+        return trace(new PBZ2Decompressor(clazz, makeStorage(clazz)));
+    }
+
+    public PSimpleQueue createSimpleQueue(Object clazz) {
+        return trace(new PSimpleQueue(clazz, makeStorage(clazz)));
+    }
 }
@@ -43,8 +43,11 @@ package com.oracle.graal.python.runtime.sequence;
 import com.oracle.graal.python.builtins.objects.common.IndexNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceNodes;
 import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.GenNodeSupplier;
+import com.oracle.graal.python.builtins.objects.common.SequenceStorageNodes.NoGeneralizationNode;
 import com.oracle.graal.python.builtins.objects.ints.PInt;
 import com.oracle.graal.python.nodes.ErrorMessages;
+import com.oracle.graal.python.nodes.interop.PForeignToPTypeNode;
 import com.oracle.graal.python.runtime.exception.PException;
 import com.oracle.graal.python.runtime.sequence.storage.SequenceStorage;
 import com.oracle.graal.python.util.OverflowException;
@@ -53,9 +56,11 @@ import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Exclusive;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 
 @ExportLibrary(InteropLibrary.class)
 public abstract class PMutableSequence extends PSequence {
@@ -73,15 +78,8 @@ public abstract class PMutableSequence extends PSequence {
     @ExportMessage
     public boolean isArrayElementModifiable(long index,
                     @Exclusive @Cached SequenceNodes.GetSequenceStorageNode getSequenceStorageNode,
-                    @Exclusive @Cached SequenceStorageNodes.LenNode lenNode,
-                    @Exclusive @Cached IndexNodes.NormalizeIndexCustomMessageNode normalize) {
-        final int len = lenNode.execute(getSequenceStorageNode.execute(this));
-        try {
-            normalize.execute(index, len, ErrorMessages.INDEX_OUT_OF_RANGE);
-        } catch (PException e) {
-            return false;
-        }
-        return true;
+                    @Exclusive @Cached SequenceStorageNodes.LenNode lenNode) {
+        return 0 <= index && index < lenNode.execute(getSequenceStorageNode.execute(this));
     }
 
     @ExportMessage
@@ -106,15 +104,31 @@ public abstract class PMutableSequence extends PSequence {
         return true;
     }
 
+    /**
+     * The generalization applied when a value written through interop does not fit into the
+     * current storage.
+     */
+    protected GenNodeSupplier getGeneralizationNodeSupplier() {
+        return NoGeneralizationNode.DEFAULT;
+    }
+
     @ExportMessage
     public void writeArrayElement(long index, Object value,
                     @Exclusive @Cached SequenceNodes.GetSequenceStorageNode getSequenceStorageNode,
-                    @Exclusive @Cached SequenceStorageNodes.SetItemScalarNode setItem) throws InvalidArrayIndexException {
+                    @Cached PForeignToPTypeNode fromForeign,
+                    @Cached SequenceStorageNodes.WriteArrayElementNode writeArrayElementNode,
+                    @Cached("createBinaryProfile()") ConditionProfile updateStorageProfile) throws InvalidArrayIndexException, UnsupportedTypeException {
+        Object convertedValue = fromForeign.executeConvert(value);
+        SequenceStorage storage = getSequenceStorageNode.execute(this);
+        SequenceStorage updatedStorage;
         try {
-            setItem.execute(getSequenceStorageNode.execute(this), PInt.intValueExact(index), value);
-        } catch (OverflowException e) {
-            CompilerDirectives.transferToInterpreterAndInvalidate();
-            throw InvalidArrayIndexException.create(index);
+            updatedStorage = writeArrayElementNode.execute(getGeneralizationNodeSupplier(), storage, index, convertedValue);
+        } catch (PException e) {
+            // the value cannot be stored in this kind of sequence (e.g. a float in a bytearray)
+            throw UnsupportedTypeException.create(new Object[]{value});
+        }
+        if (updateStorageProfile.profile(storage != updatedStorage)) {
+            setSequenceStorage(updatedStorage);
         }
     }
 
@@ -45,8 +45,12 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.oracle.graal.python.builtins.objects.type.PythonAbstractClass;
+import com.oracle.graal.python.builtins.objects.type.PythonManagedClass;
+import com.oracle.graal.python.builtins.objects.type.TypeAttributeCache;
+import com.oracle.graal.python.builtins.objects.type.TypeNodes.GetSubclassesNode;
 import com.oracle.graal.python.util.PythonUtils;
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
@@ -71,6 +75,23 @@ public final class MroSequenceStorage extends TypedSequenceStorage {
      */
     private final Map<String, List<Assumption>> attributesInMROFinalAssumptions;
 
+    private static final AtomicLong nextVersionTag = new AtomicLong();
+
+    /**
+     * Guards assigning and invalidating version tags. Both walk several MROs, and without the lock
+     * a tag computed from the bases could be published after a concurrent invalidation.
+     */
+    private static final Object versionTagLock = new Object();
+
+    /**
+     * Identifies the current state of the attributes of all classes in this MRO for the
+     * {@link TypeAttributeCache}. {@code 0} means that no tag has been assigned yet or that the
+     * tag has been invalidated. A valid tag is only ever assigned if all classes in the MRO are
+     * managed classes with a valid tag, so whenever a tag is invalidated, the tags of all
+     * subclasses are invalidated, too. Only written while holding {@link #versionTagLock}.
+     */
+    private volatile long versionTag;
+
     @CompilationFinal(dimensions = 1) private PythonAbstractClass[] values;
 
     @TruffleBoundary
@@ -293,6 +314,7 @@ public final class MroSequenceStorage extends TypedSequenceStorage {
 
     @TruffleBoundary
     public void invalidateAttributeInMROFinalAssumptions(String name) {
+        invalidateVersionTag();
         List<Assumption> assumptions = attributesInMROFinalAssumptions.getOrDefault(name, new ArrayList<>());
         if (!assumptions.isEmpty()) {
             String message = getClassName() + "." + name;
@@ -302,6 +324,62 @@ public final class MroSequenceStorage extends TypedSequenceStorage {
         }
     }
 
+    /**
+     * Returns the current version tag of this MRO, assigning a fresh one if necessary, or
+     * {@code 0} if the MRO contains a class whose attributes may change without notice (i.e. a
+     * native class).
+     */
+    @TruffleBoundary
+    public long getOrAssignVersionTag() {
+        long tag = versionTag;
+        if (tag != 0) {
+            return tag;
+        }
+        synchronized (versionTagLock) {
+            return assignVersionTag();
+        }
+    }
+
+    private long assignVersionTag() {
+        assert Thread.holdsLock(versionTagLock);
+        long tag = versionTag;
+        if (tag != 0) {
+            return tag;
+        }
+        if (length == 0 || !(values[0] instanceof PythonManagedClass)) {
+            return 0;
+        }
+        // assign the tags of the bases first, the MROs of the bases are suffixes of ours
+        for (int i = length - 1; i > 0; i--) {
+            if (!(values[i] instanceof PythonManagedClass) || ((PythonManagedClass) values[i]).getMethodResolutionOrder().assignVersionTag() == 0) {
+                return 0;
+            }
+        }
+        tag = nextVersionTag.incrementAndGet();
+        versionTag = tag;
+        return tag;
+    }
+
+    @TruffleBoundary
+    private void invalidateVersionTag() {
+        synchronized (versionTagLock) {
+            invalidateVersionTagLocked();
+        }
+    }
+
+    private void invalidateVersionTagLocked() {
+        if (versionTag == 0) {
+            // subclasses cannot have a valid tag either
+            return;
+        }
+        versionTag = 0;
+        for (PythonAbstractClass subclass : GetSubclassesNode.getUncached().execute(values[0])) {
+            if (subclass instanceof PythonManagedClass) {
+                ((PythonManagedClass) subclass).getMethodResolutionOrder().invalidateVersionTagLocked();
+            }
+        }
+    }
+
     public void lookupChanged() {
         CompilerDirectives.transferToInterpreterAndInvalidate();
         for (List<Assumption> list : attributesInMROFinalAssumptions.values()) {
@@ -309,6 +387,7 @@ public final class MroSequenceStorage extends TypedSequenceStorage {
                 assumption.invalidate();
             }
         }
+        invalidateVersionTag();
         lookupStableAssumption.invalidate();
     }
 
@@ -319,6 +398,7 @@ public final class MroSequenceStorage extends TypedSequenceStorage {
                 assumption.invalidate();
             }
         }
+        invalidateVersionTag();
         lookupStableAssumption.invalidate(msg);
     }
 
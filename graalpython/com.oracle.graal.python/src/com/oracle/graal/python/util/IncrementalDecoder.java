@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.graal.python.util;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+/**
+ * A decoder of a compressed stream that is fed with input in pieces and never blocks on input, as
+ * used by the decompressor objects of the {@code _bz2} and {@code _lzma} modules.
+ */
+public abstract class IncrementalDecoder {
+
+    // as defined in '_bz2module.c' and '_lzmamodule.c'
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+    /** Appends compressed input. */
+    public abstract void feed(byte[] data, int off, int len);
+
+    /**
+     * Decodes up to {@code len} bytes into {@code out} and returns how many were written. If fewer
+     * were written, the stream either ended or the decoder is {@linkplain #isStalled() stalled}.
+     */
+    public abstract int decode(byte[] out, int off, int len) throws DataFormatException;
+
+    /** Whether the last call to {@link #decode} stopped because more input is required. */
+    public abstract boolean isStalled();
+
+    public abstract boolean isFinished();
+
+    /** Returns the input following the end of the stream. */
+    public abstract byte[] getRemainingInput();
+
+    /**
+     * Decodes {@code data} together with any input left over from previous calls. At most
+     * {@code maxLength} bytes are returned if {@code maxLength} is not negative. Like in CPython,
+     * the output buffer starts small and doubles in size, and it is not kept across calls.
+     */
+    public final byte[] decompress(byte[] data, int maxLength) throws DataFormatException {
+        feed(data, 0, data.length);
+        int limit = maxLength < 0 ? Integer.MAX_VALUE : maxLength;
+        byte[] out = new byte[Math.min(INITIAL_BUFFER_SIZE, limit)];
+        int size = 0;
+        while (size < limit) {
+            if (size == out.length) {
+                int newLength = out.length > MAX_BUFFER_SIZE / 2 ? MAX_BUFFER_SIZE : out.length * 2;
+                out = Arrays.copyOf(out, Math.min(newLength, limit));
+            }
+            size += decode(out, size, out.length - size);
+            if (isFinished() || isStalled()) {
+                break;
+            }
+        }
+        return size == out.length ? out : Arrays.copyOf(out, size);
+    }
+}
@@ -72,10 +72,7 @@ def make_wrapped_getstats(original):
     return getstats
 
 
-try:
-    Profiler.getstats = make_wrapped_getstats(Profiler.getstats)
-except NameError:
-    pass # Profiler isn't available, we've been built without tools
+Profiler.getstats = make_wrapped_getstats(Profiler.getstats)
 
 
 # cleanup
@@ -339,8 +339,50 @@ class TemplateFormatter(object):
         return iter(self.parser_list)
 
 
+# Parsed templates of str.format, see _compile_template
+_template_plans = {}
+_TEMPLATE_PLANS_MAX = 512
+
+
+def _compile_template(template):
+    """
+    Parses the template to a list of (literal, field name, format spec, conversion) tuples, or
+    returns None if the template is malformed or has nested replacement fields, in which case it
+    has to be interpreted while formatting so that errors are raised in the right order.
+    """
+    try:
+        plan = list(TemplateFormatter(template).formatter_parser())
+    except ValueError:
+        return None
+    for literal, name, spec, conversion in plan:
+        if spec is not None and "{" in spec:
+            return None
+    return plan
+
+
 def strformat(___self, *___args, **___kwargs):
     template = TemplateFormatter(___self)
+    if type(___self) is str:
+        plan = _template_plans.get(___self, False)
+        if plan is False:
+            plan = _compile_template(___self)
+            if len(_template_plans) >= _TEMPLATE_PLANS_MAX:
+                _template_plans.clear()
+            _template_plans[___self] = plan
+        if plan is not None:
+            template.args = ___args
+            template.kwargs = ___kwargs
+            template.auto_numbering = 0
+            template.auto_numbering_state = ANS_INIT
+            out = []
+            for literal, name, spec, conversion in plan:
+                out.append(literal)
+                if name is not None:
+                    obj = template._get_argument(name)
+                    if conversion is not None:
+                        obj = template._convert(obj, conversion)
+                    out.append(format(obj, spec))
+            return "".join(out)
     return template.build(___args, ___kwargs)
 
 
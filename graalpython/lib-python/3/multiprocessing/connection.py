@@ -425,6 +425,63 @@ class Connection(_ConnectionBase):
         return bool(r)
 
 
+# BEGIN TRUFFLE PATCH
+class ChannelConnection(_ConnectionBase):
+    """
+    Connection based on the in-memory channels that connect the contexts of
+    one engine (used by the 'graalpy-context' start method).  Channels carry
+    whole messages, so no framing is needed.  Their handles are negative, so
+    they never clash with file descriptors.
+    """
+
+    def __init__(self, read_handle, write_handle):
+        if read_handle is None and write_handle is None:
+            raise ValueError(
+                "at least one of `read_handle` and `write_handle` must be given")
+        self._read_handle = read_handle
+        self._write_handle = write_handle
+        self._handle = read_handle if read_handle is not None else write_handle
+        self._readable = read_handle is not None
+        self._writable = write_handle is not None
+
+    def _close(self):
+        if self._read_handle is not None:
+            _multiprocessing._close(self._read_handle)
+        if self._write_handle is not None:
+            _multiprocessing._close(self._write_handle)
+
+    def _send_bytes(self, buf):
+        _multiprocessing._write(self._write_handle, buf)
+
+    def _recv_bytes(self, maxsize=None):
+        buf = _multiprocessing._read(self._read_handle)
+        if buf is None:
+            raise EOFError
+        if maxsize is not None and len(buf) > maxsize:
+            return None
+        f = io.BytesIO(buf)
+        f.seek(0, io.SEEK_END)
+        return f
+
+    def _poll(self, timeout):
+        return bool(_multiprocessing._select([self._read_handle], timeout))
+
+
+def _is_channel(obj):
+    if isinstance(obj, int):
+        return obj < 0
+    return isinstance(obj, ChannelConnection)
+
+
+def _wait_channels(object_list, timeout):
+    handles = [obj if isinstance(obj, int) else obj._read_handle
+               for obj in object_list]
+    ready = set(_multiprocessing._select(
+        [h for h in handles if h is not None], timeout))
+    return [obj for obj, h in zip(object_list, handles) if h in ready]
+# END TRUFFLE PATCH
+
+
 #
 # Public functions
 #
@@ -513,6 +570,20 @@ def Client(address, family=None, authkey=None):
 
 if sys.platform != 'win32':
 
+    # BEGIN TRUFFLE PATCH
+    def ChannelPipe(duplex=True):
+        '''
+        Returns pair of connection objects at either end of an in-memory pipe
+        that can be passed to processes started with 'graalpy-context'
+        '''
+        if duplex:
+            r1, w1 = _multiprocessing._pipe()
+            r2, w2 = _multiprocessing._pipe()
+            return ChannelConnection(r1, w2), ChannelConnection(r2, w1)
+        r, w = _multiprocessing._pipe()
+        return ChannelConnection(r, None), ChannelConnection(None, w)
+    # END TRUFFLE PATCH
+
     def Pipe(duplex=True):
         '''
         Returns pair of connection objects at either end of a pipe
@@ -919,6 +990,10 @@ else:
 
         Returns list of those objects in object_list which are ready/readable.
         '''
+        # BEGIN TRUFFLE PATCH
+        if object_list and all(_is_channel(obj) for obj in object_list):
+            return _wait_channels(object_list, timeout)
+        # END TRUFFLE PATCH
         with _WaitSelector() as selector:
             for obj in object_list:
                 selector.register(obj, selectors.EVENT_READ)
@@ -970,3 +1045,30 @@ else:
         fd = df.detach()
         return Connection(fd, readable, writable)
     reduction.register(Connection, reduce_connection)
+
+    # BEGIN TRUFFLE PATCH
+    # channel handles are valid in all contexts of the engine, so each pickled
+    # connection just gets its own duplicate of the handles; the duplicates
+    # are owned by the context that unpickles them (or by the child that is
+    # being spawned) and closed when that context exits
+    def _dup_channel(handle):
+        if handle is None:
+            return None
+        from .context import get_spawning_popen
+        popen = get_spawning_popen()
+        if popen is not None:
+            return popen.duplicate_for_child(handle)
+        return _multiprocessing._dup(handle)
+    def _adopt_channel(handle):
+        if handle is not None:
+            _multiprocessing._adopt(handle)
+        return handle
+    def rebuild_channel_connection(read_handle, write_handle):
+        return ChannelConnection(_adopt_channel(read_handle),
+                                 _adopt_channel(write_handle))
+    def reduce_channel_connection(conn):
+        conn._check_closed()
+        return rebuild_channel_connection, (_dup_channel(conn._read_handle),
+                                            _dup_channel(conn._write_handle))
+    reduction.register(ChannelConnection, reduce_channel_connection)
+    # END TRUFFLE PATCH
@@ -257,10 +257,12 @@ class DefaultContext(BaseContext):
         if sys.platform == 'win32':
             return ['spawn']
         else:
+            # BEGIN TRUFFLE PATCH
             if reduction.HAVE_SEND_HANDLE:
-                return ['fork', 'spawn', 'forkserver']
+                return ['fork', 'spawn', 'forkserver', 'graalpy-context']
             else:
-                return ['fork', 'spawn']
+                return ['fork', 'spawn', 'graalpy-context']
+            # END TRUFFLE PATCH
 
 #
 # Context types for fixed start method
@@ -316,6 +318,26 @@ if sys.platform != 'win32':
     else:
         _default_context = DefaultContext(_concrete_contexts['fork'])
     # BEGIN TRUFFLE PATCH
+    class GraalPyContextProcess(process.BaseProcess):
+        _start_method = 'graalpy-context'
+        @staticmethod
+        def _Popen(process_obj):
+            from .popen_graalpy_context import Popen
+            return Popen(process_obj)
+
+    class GraalPyContextContext(BaseContext):
+        '''
+        Runs child processes as separate contexts on threads of this process.
+        They share the engine, and thus the compiled code, with the parent.
+        '''
+        _name = 'graalpy-context'
+        Process = GraalPyContextProcess
+        def Pipe(self, duplex=True):
+            '''Returns two connection object connected by an in-memory pipe'''
+            from .connection import ChannelPipe
+            return ChannelPipe(duplex)
+
+    _concrete_contexts['graalpy-context'] = GraalPyContextContext()
     _default_context = DefaultContext(_concrete_contexts['spawn'])
     # END TRUFFLE PATCH
 
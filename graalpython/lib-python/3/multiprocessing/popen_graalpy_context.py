@@ -0,0 +1,149 @@
+# Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+# DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+#
+# The Universal Permissive License (UPL), Version 1.0
+#
+# Subject to the condition set forth below, permission is hereby granted to any
+# person obtaining a copy of this software, associated documentation and/or
+# data (collectively the "Software"), free of charge and under any and all
+# copyright rights in the Software, and any and all patent rights owned or
+# freely licensable by each licensor hereunder covering either (i) the
+# unmodified Software as contributed to or provided by such licensor, or (ii)
+# the Larger Works (as defined below), to deal in both
+#
+# (a) the Software, and
+#
+# (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+# one is included with the Software each a "Larger Work" to which the Software
+# is contributed by such licensors),
+#
+# without restriction, including without limitation the rights to copy, create
+# derivative works of, display, perform, and distribute the Software and make,
+# use, sell, offer for sale, import, export, have made, and have sold the
+# Software and the Larger Work(s), and to sublicense the foregoing rights on
+# either these or other terms.
+#
+# This license is subject to the following condition:
+#
+# The above copyright notice and either this complete permission notice or at a
+# minimum a reference to the UPL must be included in all copies or substantial
+# portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+# SOFTWARE.
+
+#
+# Start child processes as separate contexts on threads of this process.
+# They share the engine, and thus the compiled code, with the parent, and
+# communicate with it through in-memory channels instead of OS pipes.
+#
+
+import io
+import sys
+
+import _multiprocessing
+
+from . import process
+from . import spawn
+from . import util
+from .connection import wait
+from .context import reduction, set_spawning_popen
+
+__all__ = ['Popen']
+
+
+class Popen(object):
+    method = 'graalpy-context'
+
+    def __init__(self, process_obj):
+        util._flush_std_streams()
+        self.returncode = None
+        self.finalizer = None
+        self._child_handles = []
+        self._launch(process_obj)
+
+    def duplicate_for_child(self, fd):
+        if isinstance(fd, int) and fd < 0:
+            # a channel handle: the child owns the duplicate and closes it
+            # when it exits, even if it never unpickles it
+            handle = _multiprocessing._dup(fd)
+            self._child_handles.append(handle)
+            return handle
+        return fd
+
+    def _launch(self, process_obj):
+        prep_data = spawn.get_preparation_data(process_obj._name)
+        fp = io.BytesIO()
+        set_spawning_popen(self)
+        try:
+            reduction.dump(prep_data, fp)
+            reduction.dump(process_obj, fp)
+        finally:
+            set_spawning_popen(None)
+
+        child_r = parent_w = None
+        try:
+            child_r, parent_w = _multiprocessing._pipe()
+            # the child owns child_r and the handles duplicated for it from
+            # now on; it keeps child_r as the sentinel of its parent, which
+            # becomes ready when we close parent_w
+            self.pid, self.sentinel = _multiprocessing._spawn_context(child_r, self._child_handles)
+            child_r = None
+            self._child_handles = []
+            _multiprocessing._write(parent_w, fp.getbuffer())
+        finally:
+            handles_to_close = []
+            for handle in (parent_w, getattr(self, 'sentinel', None)):
+                if handle is not None:
+                    handles_to_close.append(handle)
+            self.finalizer = util.Finalize(self, _close_handles, (handles_to_close,))
+            if child_r is not None:
+                _close_handles([child_r] + self._child_handles)
+
+    def poll(self, flag=None):
+        if self.returncode is None:
+            self.returncode = _multiprocessing._exitcode(self.sentinel)
+        return self.returncode
+
+    def wait(self, timeout=None):
+        if self.returncode is None:
+            if not wait([self.sentinel], timeout):
+                return None
+            return self.poll()
+        return self.returncode
+
+    def terminate(self):
+        if self.returncode is None:
+            _multiprocessing._terminate_context(self.sentinel)
+
+    kill = terminate
+
+    def close(self):
+        if self.finalizer is not None:
+            self.finalizer()
+
+
+def _close_handles(handles):
+    for handle in handles:
+        _multiprocessing._close(handle)
+
+
+def _main(handle):
+    '''
+    Run code specified by data received over the channel 'handle'
+    '''
+    from_parent = io.BytesIO(_multiprocessing._read(handle))
+    process.current_process()._inheriting = True
+    try:
+        preparation_data = reduction.pickle.load(from_parent)
+        spawn.prepare(preparation_data)
+        self = reduction.pickle.load(from_parent)
+    finally:
+        del process.current_process()._inheriting
+    exitcode = self._bootstrap(parent_sentinel=handle)
+    sys.exit(exitcode)
@@ -76,10 +76,19 @@ class SemLock(object):
             # We only get here if we are on Unix with forking
             # disabled.  When the object is garbage collected or the
             # process shuts down we unlink the semaphore name
-            from .resource_tracker import register
-            register(self._semlock.name, "semaphore")
-            util.Finalize(self, SemLock._cleanup, (self._semlock.name,),
-                          exitpriority=0)
+            # BEGIN TRUFFLE PATCH
+            if name == 'graalpy-context':
+                # The children run in contexts of this engine, and named
+                # semaphores only live as long as the engine, so we do not
+                # need to start a resource tracker process for them.
+                util.Finalize(self, sem_unlink, (self._semlock.name,),
+                              exitpriority=0)
+            else:
+                from .resource_tracker import register
+                register(self._semlock.name, "semaphore")
+                util.Finalize(self, SemLock._cleanup, (self._semlock.name,),
+                              exitpriority=0)
+            # END TRUFFLE PATCH
 
     @staticmethod
     def _cleanup(name):
@@ -1108,7 +1108,6 @@ def import_python_sources(args):
         "memoryobject.c": "_memoryview.c",
         "_sre.c": "_cpython_sre.c",
         "unicodedata.c": "_cpython_unicodedata.c",
-        "_bz2module.c": "_bz2.c",
         "mmapmodule.c": "_mmap.c",
     }
     extra_pypy_files = [
@@ -53,8 +53,10 @@ ITER_10 = ['-i', '10']
 
 MICRO_BENCHMARKS = {
     'arith-binop': ITER_10 + ['5'],
+    'arith-bigint-sized': ITER_10 + ['500'],
     'arith-modulo-sized': ITER_10 + ['500'],
     'attribute-access-polymorphic': ITER_10 + ['1000'],
+    'attribute-access-megamorphic': ITER_10 + ['500'],
     'attribute-access': ITER_10 + ['5000'],
     'attribute-access-super': ITER_10 + ['5_000'],
     'attribute-bool': ITER_10 + ['3000'],
@@ -65,6 +67,7 @@ MICRO_BENCHMARKS = {
     'call-method-polymorphic': ITER_10 + ['1000'],
     'for-range': ITER_15 + ['50000'],
     'function-call-sized': ITER_10 + ['2_000_000_000'],
+    'function-call-keywords-sized': ITER_10 + ['500_000_000'],
     'generator-expression-sized': ITER_10 + ['30_000'],
     'generator-notaligned-sized': ITER_10 + ['30_000'],
     'generator-sized': ITER_10 + ['30_000'],
@@ -81,9 +84,11 @@ MICRO_BENCHMARKS = {
     'math-sqrt': ITER_10 + ['500000000'],
     'object-allocate': ITER_10 + ['5000'],
     'object-layout-change': ITER_10 + ['1000000'],
+    'parse-stdlib': ITER_10 + ['3'],
     'special-add-int-sized': ITER_10 + ['20_000'],
     'special-add-sized': ITER_10 + ['20_000'],
     'special-len': ITER_10 + ['5'],
+    'string-format': ITER_10 + ['100'],
     'member-access': ITER_10 + ['5000'],
     'magic-bool-sized': ITER_10 + ['300_000_000'],
     'magic-iter': ITER_10 + ['50000000'],
@@ -91,11 +96,13 @@ MICRO_BENCHMARKS = {
     'call-classmethod-sized': ITER_10 + ['500_000_000'],
     'mmap-anonymous-sized': ITER_10 + ['20_000'],
     'mmap-file': ITER_10 + ['1000'],
+    'queue-handoff-sized': ITER_10 + ['20'],
     'generate-functions-sized': ITER_15 + ['500_000_000'],
     'try-except-simple': ITER_10 + ['500_000_000'],
     'try-except-store-simple': ITER_10 + ['500_000_000'],
     'try-except-store-two-types': ITER_10 + ['100_000_000'],
     'try-except-two-types': ITER_10 + ['100_000_000'],
+    'try-except-call': ITER_10 + ['50_000_000'],
     'tuple-indexing-from-constructor': ITER_10 + ['10000000'],
     'tuple-indexing-from-literal': ITER_10 + ['10000000'],
 }
@@ -197,6 +204,7 @@ INTEROP_JAVA_BENCHMARKS = {
     'euler11': [_INTEROP_JAVA_PACKAGE + 'PyEuler11'] + MESO_BENCHMARKS['euler11'],
     'nbody3': [_INTEROP_JAVA_PACKAGE + 'PyNbody'] + MESO_BENCHMARKS['nbody3'],
     'fannkuchredux3': [_INTEROP_JAVA_PACKAGE + 'PyFannkuchredux'] + MESO_BENCHMARKS['fannkuchredux3'],
+    'list-access': [_INTEROP_JAVA_PACKAGE + 'PyListAccess'] + ITER_10 + ['10000000'],
 }
 
 
@@ -107,13 +107,6 @@ suite = {
                 "version": "1.8",
             },
         },
-        "BZIP2": {
-            "urls": [
-                "https://lafo.ssw.uni-linz.ac.at/pub/graal-external-deps/graalpython/bzip2-1.0.8.tar.gz",
-            ],
-            "packedResource": True,
-            "sha1": "bf7badf7e248e0ecf465d33c2f5aeec774209227",
-        },
         "ICU4J-66.1" : {
             "moduleName" : "com.ibm.icu",
             "sha1" : "72c7519b6d91f7a1f993bd44a99fe95d67211b27",
@@ -276,13 +269,11 @@ suite = {
                 "sulong:SULONG_HOME",
                 "sulong:SULONG_LEGACY",
                 "sulong:SULONG_BOOTSTRAP_TOOLCHAIN",
-                "BZIP2",
             ],
             "buildEnv": {
                 "TRUFFLE_H_INC": "<path:SULONG_LEGACY>/include",
                 "ARCH": "<arch>",
                 "OS": "<os>",
-                "BZIP2": "<path:BZIP2>",
             },
         },
 